@@ -0,0 +1,45 @@
+-- -----------------------------------------------------
+-- Summary tables for databases created before they were
+-- added to sql.sql, filled from the games owned and played.
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `game_summary` (
+  `game_id` BIGINT NOT NULL,
+  `owners` BIGINT NOT NULL DEFAULT 0,
+  `revenue` DECIMAL(15,2) NOT NULL DEFAULT 0,
+  `plays` BIGINT NOT NULL DEFAULT 0,
+  `score_total` BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (`game_id`),
+  CONSTRAINT `fk_game_summary_game`
+    FOREIGN KEY (`game_id`)
+    REFERENCES `game` (`id`)
+    ON DELETE CASCADE
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS `player_summary` (
+  `player_id` BIGINT NOT NULL,
+  `games_owned` BIGINT NOT NULL DEFAULT 0,
+  `total_spend` DECIMAL(15,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`player_id`),
+  CONSTRAINT `fk_player_summary_player`
+    FOREIGN KEY (`player_id`)
+    REFERENCES `player` (`id`)
+    ON DELETE CASCADE
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+DELETE FROM `game_summary`;
+
+INSERT INTO `game_summary`(game_id, owners, revenue, plays, score_total)
+  SELECT g.id, COALESCE(o.owners, 0), COALESCE(o.revenue, 0), COALESCE(p.plays, 0), COALESCE(p.score_total, 0)
+  FROM `game` g
+  LEFT JOIN (SELECT game_id, COUNT(*) AS owners, SUM(purchase_price) AS revenue FROM `gamesowned` GROUP BY game_id) o
+    ON o.game_id = g.id
+  LEFT JOIN (SELECT game_id, COUNT(*) AS plays, SUM(score) AS score_total FROM `gamesplayed` GROUP BY game_id) p
+    ON p.game_id = g.id
+  WHERE o.game_id IS NOT NULL OR p.game_id IS NOT NULL;
+
+DELETE FROM `player_summary`;
+
+INSERT INTO `player_summary`(player_id, games_owned, total_spend)
+  SELECT player_id, COUNT(*), SUM(purchase_price) FROM `gamesowned` GROUP BY player_id;
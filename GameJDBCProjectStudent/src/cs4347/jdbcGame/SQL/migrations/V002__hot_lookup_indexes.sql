@@ -0,0 +1,41 @@
+-- -----------------------------------------------------
+-- Indexes for the DAO queries. InnoDB appends the primary
+-- key to every secondary index, so an index that lists all
+-- other columns of the table covers the whole row.
+--
+-- The single column foreign key indexes stay: as
+-- (game_id, id) and (player_id, id) they serve the keyset
+-- page queries (WHERE ... AND id > ? ORDER BY id).
+-- -----------------------------------------------------
+
+-- retrieveByPlayerGameID, retrieveByGame, streamByGame,
+-- streamBestScores and the score statistics by game read
+-- only this index
+ALTER TABLE `gamesplayed`
+  ADD INDEX `idx_gamesplayed_game_player` (`game_id`, `player_id`, `score`, `time_finished`);
+
+-- retrieveByPlayer, streamByPlayer and the score
+-- statistics by player
+ALTER TABLE `gamesplayed`
+  ADD INDEX `idx_gamesplayed_player_game` (`player_id`, `game_id`, `score`, `time_finished`);
+
+-- retrievePlayerGameID, retrieveByGame and the purchase
+-- statistics by game
+ALTER TABLE `gamesowned`
+  ADD INDEX `idx_gamesowned_game_player` (`game_id`, `player_id`, `purchase_price`, `purchase_date`);
+
+-- retrieveByPlayer and the purchase statistics by player
+ALTER TABLE `gamesowned`
+  ADD INDEX `idx_gamesowned_player_game` (`player_id`, `game_id`, `purchase_price`, `purchase_date`);
+
+-- retrieveByJoinDate, streamByJoinDate and its pages
+ALTER TABLE `player`
+  ADD INDEX `idx_player_join_date` (`join_date`);
+
+-- retrieveByReleaseDate and its pages
+ALTER TABLE `game`
+  ADD INDEX `idx_game_release_date` (`release_date`);
+
+-- retrieveByTitle and streamByTitle with a prefix pattern
+ALTER TABLE `game`
+  ADD INDEX `idx_game_title` (`title`);
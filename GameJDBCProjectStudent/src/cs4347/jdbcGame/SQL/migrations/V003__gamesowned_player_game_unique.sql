@@ -0,0 +1,42 @@
+-- -----------------------------------------------------
+-- A player owns a game at most once, so the purchase of a
+-- (player_id, game_id) pair can be written with INSERT ...
+-- ON DUPLICATE KEY UPDATE (GamesOwnedDAO.upsert).
+--
+-- Of the duplicates recorded before the key existed only
+-- the oldest row (lowest id) is kept. The others are moved
+-- to gamesowned_duplicates, so nothing is lost and they can
+-- be reviewed or put back by hand, and the summaries are
+-- rebuilt without them, as in V001.
+-- -----------------------------------------------------
+
+CREATE TABLE IF NOT EXISTS `gamesowned_duplicates` LIKE `gamesowned`;
+
+INSERT INTO `gamesowned_duplicates`
+  SELECT go.* FROM `gamesowned` go
+  WHERE EXISTS (SELECT 1 FROM `gamesowned` keep
+                WHERE keep.player_id = go.player_id AND keep.game_id = go.game_id AND keep.id < go.id);
+
+DELETE go FROM `gamesowned` go
+  JOIN `gamesowned_duplicates` moved ON moved.id = go.id;
+
+-- idx_gamesowned_player_game stays the covering index of the
+-- lookups by player; this one only enforces the key
+ALTER TABLE `gamesowned`
+  ADD UNIQUE INDEX `uq_gamesowned_player_game` (`player_id`, `game_id`);
+
+DELETE FROM `game_summary`;
+
+INSERT INTO `game_summary`(game_id, owners, revenue, plays, score_total)
+  SELECT g.id, COALESCE(o.owners, 0), COALESCE(o.revenue, 0), COALESCE(p.plays, 0), COALESCE(p.score_total, 0)
+  FROM `game` g
+  LEFT JOIN (SELECT game_id, COUNT(*) AS owners, SUM(purchase_price) AS revenue FROM `gamesowned` GROUP BY game_id) o
+    ON o.game_id = g.id
+  LEFT JOIN (SELECT game_id, COUNT(*) AS plays, SUM(score) AS score_total FROM `gamesplayed` GROUP BY game_id) p
+    ON p.game_id = g.id
+  WHERE o.game_id IS NOT NULL OR p.game_id IS NOT NULL;
+
+DELETE FROM `player_summary`;
+
+INSERT INTO `player_summary`(player_id, games_owned, total_spend)
+  SELECT player_id, COUNT(*), SUM(purchase_price) FROM `gamesowned` GROUP BY player_id;
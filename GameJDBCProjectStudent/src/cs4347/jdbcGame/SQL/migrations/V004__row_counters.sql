@@ -0,0 +1,26 @@
+-- -----------------------------------------------------
+-- Row counts of the main tables, kept by the services in
+-- the same transaction as the rows (RowCountDAO), so
+-- count(CountMode.COUNTER) does not scan the table.
+--
+-- Every table has up to 16 slots; a transaction adds to
+-- the slot of its thread, so concurrent writers rarely wait
+-- for the same counter row. The count is the sum of the
+-- slots. Filled here from the tables; run while nothing
+-- writes, or call SummaryService.rebuild() afterwards.
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `row_counter` (
+  `table_name` VARCHAR(64) NOT NULL,
+  `slot` TINYINT NOT NULL,
+  `row_count` BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (`table_name`, `slot`))
+ENGINE = InnoDB;
+
+DELETE FROM `row_counter`;
+
+INSERT INTO `row_counter`(table_name, slot, row_count)
+  SELECT 'player', 0, COUNT(*) FROM `player`
+  UNION ALL SELECT 'creditcard', 0, COUNT(*) FROM `creditcard`
+  UNION ALL SELECT 'game', 0, COUNT(*) FROM `game`
+  UNION ALL SELECT 'gamesowned', 0, COUNT(*) FROM `gamesowned`
+  UNION ALL SELECT 'gamesplayed', 0, COUNT(*) FROM `gamesplayed`;
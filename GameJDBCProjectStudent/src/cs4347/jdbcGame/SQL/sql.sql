@@ -1,4 +1,7 @@
 -- MySQL Workbench Forward Engineering
+--
+-- The original schema. Later changes, e.g. indexes, are versioned scripts in
+-- migrations/ that SchemaMigrator applies on startup.
 
 SET @OLD_UNIQUE_CHECKS=@@UNIQUE_CHECKS, UNIQUE_CHECKS=0;
 SET @OLD_FOREIGN_KEY_CHECKS=@@FOREIGN_KEY_CHECKS, FOREIGN_KEY_CHECKS=0;
@@ -110,6 +113,45 @@ CREATE TABLE IF NOT EXISTS `games`.`creditcard` (
 ENGINE = InnoDB;
 
 
+-- -----------------------------------------------------
+-- Table `games`.`game_summary`
+-- Purchases and plays per game, kept up to date by the
+-- services in the same transaction as the gamesowned and
+-- gamesplayed rows. Rebuilt from those tables by
+-- SummaryService.rebuild().
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `games`.`game_summary` (
+  `game_id` BIGINT NOT NULL,
+  `owners` BIGINT NOT NULL DEFAULT 0,
+  `revenue` DECIMAL(15,2) NOT NULL DEFAULT 0,
+  `plays` BIGINT NOT NULL DEFAULT 0,
+  `score_total` BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (`game_id`),
+  CONSTRAINT `fk_game_summary_game`
+    FOREIGN KEY (`game_id`)
+    REFERENCES `games`.`game` (`id`)
+    ON DELETE CASCADE
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+
+-- -----------------------------------------------------
+-- Table `games`.`player_summary`
+-- Purchases per player, maintained like game_summary.
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `games`.`player_summary` (
+  `player_id` BIGINT NOT NULL,
+  `games_owned` BIGINT NOT NULL DEFAULT 0,
+  `total_spend` DECIMAL(15,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`player_id`),
+  CONSTRAINT `fk_player_summary_player`
+    FOREIGN KEY (`player_id`)
+    REFERENCES `games`.`player` (`id`)
+    ON DELETE CASCADE
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+
 SET SQL_MODE=@OLD_SQL_MODE;
 SET FOREIGN_KEY_CHECKS=@OLD_FOREIGN_KEY_CHECKS;
 SET UNIQUE_CHECKS=@OLD_UNIQUE_CHECKS;
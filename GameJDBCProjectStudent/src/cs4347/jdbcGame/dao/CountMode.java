@@ -0,0 +1,37 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.dao;
+
+/**
+ * How a count() is computed.
+ */
+public enum CountMode
+{
+    /**
+     * SELECT COUNT(*): exact, but InnoDB reads a whole index to answer it.
+     */
+    SCAN,
+
+    /**
+     * The row estimate of the table statistics in information_schema. Costs
+     * one lookup whatever the table size; may be off by tens of percent, and
+     * MySQL 8 caches it for information_schema_stats_expiry seconds (a day by
+     * default). Good enough for dashboards.
+     */
+    APPROXIMATE,
+
+    /**
+     * The counter the services keep in the row_counter table. Exact as long as
+     * every write goes through the services; after a bulk load or other
+     * direct writes SummaryService.rebuild() recomputes it.
+     */
+    COUNTER
+}
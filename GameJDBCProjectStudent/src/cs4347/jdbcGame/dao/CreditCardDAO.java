@@ -12,7 +12,9 @@ package cs4347.jdbcGame.dao;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import cs4347.jdbcGame.entity.CreditCard;
 import cs4347.jdbcGame.util.DAOException;
@@ -32,6 +34,13 @@ public interface CreditCardDAO
      */
     CreditCard create(Connection connection, CreditCard creditCard, Long playerID) throws SQLException, DAOException;
 
+    /**
+     * Inserts all given CreditCards using JDBC batches and sets the generated ID
+     * on each of them. Each CreditCard must have its player ID populated. Throws
+     * DAOException if any CreditCard has a non-null ID.
+     */
+    List<CreditCard> createAll(Connection connection, List<CreditCard> creditCards) throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided ID is null.
      */
@@ -43,6 +52,14 @@ public interface CreditCardDAO
     List<CreditCard> retrieveCreditCardsForPlayer(Connection connection, Long playerID)
             throws SQLException, DAOException;
 
+    /**
+     * Returns the CCs of all given players, keyed by player id, using one query
+     * per few hundred players. Every given id is in the map, players without
+     * CCs map to an empty list.
+     */
+    Map<Long, List<CreditCard>> retrieveCreditCardsForPlayers(Connection connection, Collection<Long> playerIDs)
+            throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided CreditCard has a
      * NULL id.
@@ -59,9 +76,22 @@ public interface CreditCardDAO
      */
     int deleteForPlayer(Connection connection, Long playerID) throws SQLException, DAOException;
 
+    /**
+     * Delete all CC associated with any of the given playerIDs, with one
+     * statement per 500 IDs
+     */
+    int deleteForPlayers(Connection connection, List<Long> playerIDs) throws SQLException, DAOException;
+
     /**
      * Returns the number of credit cards i.e. the number of rows
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the number of credit cards in the given mode. SCAN is count(); the
+     * other modes read the row_counter table or the table statistics instead
+     * of the rows, see CountMode.
+     */
+    long count(Connection connection, CountMode mode) throws SQLException, DAOException;
+
 }
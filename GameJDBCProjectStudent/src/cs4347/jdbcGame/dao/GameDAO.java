@@ -13,8 +13,10 @@ package cs4347.jdbcGame.dao;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.util.DAOException;
@@ -34,11 +36,24 @@ public interface GameDAO
      */
     Game create(Connection connection, Game game) throws SQLException, DAOException;
 
+    /**
+     * Inserts all given Games using JDBC batches and sets the generated ID on
+     * each of them. Throws DAOException if any Game has a non-null ID.
+     */
+    List<Game> createAll(Connection connection, List<Game> games) throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided ID is null.
      */
     Game retrieve(Connection connection, Long gameID) throws SQLException, DAOException;
 
+    /**
+     * Returns the games with the given IDs by ID, with one query per chunk of
+     * IDs instead of one per game. Duplicate IDs are read once; IDs without a
+     * game are left out of the map. Throws DAOException if an ID is null.
+     */
+    Map<Long, Game> retrieveByIDs(Connection connection, Collection<Long> gameIDs) throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided Game has a NULL id.
      */
@@ -54,14 +69,37 @@ public interface GameDAO
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the number of games in the given mode. SCAN is count(); the
+     * other modes read the row_counter table or the table statistics instead
+     * of the rows, see CountMode.
+     */
+    long count(Connection connection, CountMode mode) throws SQLException, DAOException;
+
     /**
      * Retrieve games with the given title. Title can contain SQL wildcards
      */
     List<Game> retrieveByTitle(Connection connection, String title) throws SQLException, DAOException;
 
+    /**
+     * Passes the games with the given title to the handler one at a time,
+     * without holding the whole result in memory. The connection cannot be
+     * used by the handler. Returns the number of games.
+     */
+    int streamByTitle(Connection connection, String title, RowHandler<Game> handler)
+            throws SQLException, DAOException;
+
     /**
      * Retrieve games in the given release date range
      */
     List<Game> retrieveByReleaseDate(Connection connection, Date start, Date end) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the games in the given release date range, ordered by
+     * id. Pass null for the first page and the token of the previous page for
+     * the next ones.
+     */
+    Page<Game> retrieveByReleaseDatePage(Connection connection, Date start, Date end, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
 }
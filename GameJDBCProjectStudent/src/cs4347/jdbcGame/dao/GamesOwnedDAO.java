@@ -15,6 +15,7 @@ import java.sql.SQLException;
 import java.util.List;
 
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.PurchaseStatistics;
 import cs4347.jdbcGame.util.DAOException;
 
 /**
@@ -29,12 +30,52 @@ public interface GamesOwnedDAO
      */
     GamesOwned create(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException;
 
+    /**
+     * Inserts all given GamesOwned using JDBC batches and sets the generated ID
+     * on each of them. Throws DAOException if any GamesOwned has a non-null ID.
+     */
+    List<GamesOwned> createAll(Connection connection, List<GamesOwned> gamesOwned) throws SQLException, DAOException;
+
+    /**
+     * Inserts all given GamesOwned with multi-row INSERT statements (up to 100
+     * rows each, so a typical basket is one statement and one round trip) and
+     * sets the generated ID on each of them in order. Unlike createAll this
+     * does not depend on the driver rewriting batches. Throws DAOException if
+     * any GamesOwned has a non-null ID.
+     */
+    List<GamesOwned> createMultiRow(Connection connection, List<GamesOwned> gamesOwned) throws SQLException, DAOException;
+
+    /**
+     * Stores the purchase of the player and game of the given GamesOwned with
+     * one INSERT ... ON DUPLICATE KEY UPDATE: inserts it if the player does not
+     * own the game yet, else overwrites the purchase date and price of the
+     * existing row. Sets the ID of the inserted or updated row; a non-null ID
+     * on the given GamesOwned is ignored, so a failed call can be retried with
+     * the same object.
+     */
+    GamesOwned upsert(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException;
+
+    /**
+     * Upserts all given GamesOwned like upsert, with multi-row statements of up
+     * to 100 rows each. If the list has the same player and game twice the
+     * later one wins. The IDs are not set, since MySQL does not tell which keys
+     * belong to which rows of a multi-row upsert; use retrieveByPlayerGameIDs.
+     */
+    void upsertAll(Connection connection, List<GamesOwned> gamesOwned) throws SQLException, DAOException;
+
     /**
      * Return the single instance by GameOwned ID. Return null if no GameOwned
      * exist.
      */
     GamesOwned retrieveID(Connection connection, Long gamesOwnedID) throws SQLException, DAOException;
 
+    /**
+     * Like retrieveID, but the row is locked (SELECT ... FOR UPDATE) until the
+     * transaction ends, so a caller that changes it next knows the values it
+     * replaces.
+     */
+    GamesOwned lockID(Connection connection, Long gamesOwnedID) throws SQLException, DAOException;
+
     /**
      * Return the single instance by Player and Game ID. Return null if no GameOwned
      * exist.
@@ -42,16 +83,71 @@ public interface GamesOwnedDAO
     GamesOwned retrievePlayerGameID(Connection connection, Long playerID, Long gameID)
             throws SQLException, DAOException;
 
+    /**
+     * Returns the stored GamesOwned with the same player and game IDs as any
+     * of the given ones, read with one query per 250 pairs. Takes no locks.
+     */
+    List<GamesOwned> retrieveByPlayerGameIDs(Connection connection, List<GamesOwned> gamesOwned)
+            throws SQLException, DAOException;
+
+    /**
+     * Like retrieveByPlayerGameIDs, but the rows are locked
+     * (SELECT ... FOR UPDATE) until the transaction ends, so a caller that
+     * upserts the pairs next knows exactly which rows the upsert replaces.
+     * For a pair that is not stored InnoDB locks the gap of the unique key
+     * instead, and two transactions that lock and then insert new pairs in
+     * the same gap deadlock; lock only pairs known to exist.
+     */
+    List<GamesOwned> lockByPlayerGameIDs(Connection connection, List<GamesOwned> gamesOwned)
+            throws SQLException, DAOException;
+
     /**
      * Returns a list of GamesOwned associated with the given Game ID
      */
     List<GamesOwned> retrieveByGame(Connection connection, Long gameID) throws SQLException, DAOException;
 
+    /**
+     * Passes the GamesOwned of the given Game to the handler one at a time,
+     * without holding the whole result in memory. The handler gets the same
+     * GamesOwned for every row, overwritten by the next one, so it must copy
+     * what it keeps; it cannot use the connection. Returns the number of rows.
+     */
+    int scanByGame(Connection connection, Long gameID, RowHandler<GamesOwned> handler)
+            throws SQLException, DAOException;
+
     /**
      * Returns a list of GamesOwned associated with the given Player ID
      */
     List<GamesOwned> retrieveByPlayer(Connection connection, Long playerID) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the GamesOwned of the given Game ID, ordered by id.
+     * Pass null for the first page and the token of the previous page for the
+     * next ones.
+     */
+    Page<GamesOwned> retrieveByGamePage(Connection connection, Long gameID, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
+    /**
+     * Returns one page of the GamesOwned of the given Player ID, ordered by id.
+     * Pass null for the first page and the token of the previous page for the
+     * next ones.
+     */
+    Page<GamesOwned> retrieveByPlayerPage(Connection connection, Long playerID, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
+    /**
+     * Returns the number of purchases, the revenue and the average price of
+     * every game that has been bought, computed by the database.
+     */
+    PurchaseStatistics retrievePurchaseStatisticsByGame(Connection connection) throws SQLException, DAOException;
+
+    /**
+     * Returns the number of purchases, the amount spent and the average price
+     * of every player that has bought a game, computed by the database.
+     */
+    PurchaseStatistics retrievePurchaseStatisticsByPlayer(Connection connection) throws SQLException, DAOException;
+
     /**
      * 
      */
@@ -62,9 +158,22 @@ public interface GamesOwnedDAO
      */
     int delete(Connection connection, Long gameOwnedID) throws SQLException, DAOException;
 
+    /**
+     * Deletes all GamesOwned of the given Player IDs, with one statement per
+     * 500 IDs, and returns the number of rows deleted.
+     */
+    int deleteForPlayers(Connection connection, List<Long> playerIDs) throws SQLException, DAOException;
+
     /**
      * Returns the number of gamesOwned i.e. the number of rows
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the number of gamesOwned in the given mode. SCAN is count(); the
+     * other modes read the row_counter table or the table statistics instead
+     * of the rows, see CountMode.
+     */
+    long count(Connection connection, CountMode mode) throws SQLException, DAOException;
+
 }
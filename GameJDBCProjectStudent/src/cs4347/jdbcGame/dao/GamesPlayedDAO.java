@@ -15,6 +15,7 @@ import java.sql.SQLException;
 import java.util.List;
 
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.ScoreStatistics;
 import cs4347.jdbcGame.util.DAOException;
 
 /**
@@ -29,11 +30,24 @@ public interface GamesPlayedDAO
      */
     GamesPlayed create(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException;
 
+    /**
+     * Inserts all given GamesPlayed using JDBC batches and sets the generated ID
+     * on each of them. Throws DAOException if any GamesPlayed has a non-null ID.
+     */
+    List<GamesPlayed> createAll(Connection connection, List<GamesPlayed> gamesPlayed) throws SQLException, DAOException;
+
     /**
      * Return the single instance by ID. Return null if no GamesPlayed exist.
      */
     GamesPlayed retrieveID(Connection connection, Long gamePlayedID) throws SQLException, DAOException;
 
+    /**
+     * Like retrieveID, but the row is locked (SELECT ... FOR UPDATE) until the
+     * transaction ends, so a caller that changes it next knows the values it
+     * replaces.
+     */
+    GamesPlayed lockID(Connection connection, Long gamePlayedID) throws SQLException, DAOException;
+
     /**
      * Returns a list of GamesPlayed associated with the given Game ID
      */
@@ -50,6 +64,65 @@ public interface GamesPlayedDAO
      */
     List<GamesPlayed> retrieveByPlayer(Connection connection, Long playerID) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the GamesPlayed of the given Game ID, ordered by id.
+     * Pass null for the first page and the token of the previous page for the
+     * next ones.
+     */
+    Page<GamesPlayed> retrieveByGamePage(Connection connection, Long gameID, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
+    /**
+     * Returns one page of the GamesPlayed of the given Player ID, ordered by
+     * id. Pass null for the first page and the token of the previous page for
+     * the next ones.
+     */
+    Page<GamesPlayed> retrieveByPlayerPage(Connection connection, Long playerID, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
+    /**
+     * Passes the GamesPlayed of the given Game to the handler one at a time,
+     * without holding the whole result in memory. The connection cannot be
+     * used by the handler. Returns the number of rows.
+     */
+    int streamByGame(Connection connection, Long gameID, RowHandler<GamesPlayed> handler)
+            throws SQLException, DAOException;
+
+    /**
+     * Like streamByGame, but the handler gets the same GamesPlayed for every
+     * row, overwritten by the next one, so a large scan creates no entity per
+     * row. For handlers that only read the fields; copy what must be kept.
+     */
+    int scanByGame(Connection connection, Long gameID, RowHandler<GamesPlayed> handler)
+            throws SQLException, DAOException;
+
+    /**
+     * Passes the GamesPlayed of the given Player to the handler one at a time,
+     * without holding the whole result in memory. The connection cannot be
+     * used by the handler. Returns the number of rows.
+     */
+    int streamByPlayer(Connection connection, Long playerID, RowHandler<GamesPlayed> handler)
+            throws SQLException, DAOException;
+
+    /**
+     * Passes the best score of every player in every game to the handler, as
+     * GamesPlayed with only player ID, game ID and score set. Streams like
+     * streamByGame and reuses the GamesPlayed like scanByGame.
+     */
+    int streamBestScores(Connection connection, RowHandler<GamesPlayed> handler) throws SQLException, DAOException;
+
+    /**
+     * Returns the number of plays and the average, lowest and highest score of
+     * every game that has been played, computed by the database.
+     */
+    ScoreStatistics retrieveScoreStatisticsByGame(Connection connection) throws SQLException, DAOException;
+
+    /**
+     * Returns the number of plays and the average, lowest and highest score of
+     * every player that has played, computed by the database.
+     */
+    ScoreStatistics retrieveScoreStatisticsByPlayer(Connection connection) throws SQLException, DAOException;
+
     /**
      * 
      */
@@ -60,9 +133,22 @@ public interface GamesPlayedDAO
      */
     int delete(Connection connection, Long gamePlayedID) throws SQLException, DAOException;
 
+    /**
+     * Deletes all GamesPlayed of the given Player IDs, with one statement per
+     * 500 IDs, and returns the number of rows deleted.
+     */
+    int deleteForPlayers(Connection connection, List<Long> playerIDs) throws SQLException, DAOException;
+
     /**
      * Returns the number of GamesPlayed i.e. the number of rows
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the number of GamesPlayed in the given mode. SCAN is count(); the
+     * other modes read the row_counter table or the table statistics instead
+     * of the rows, see CountMode.
+     */
+    long count(Connection connection, CountMode mode) throws SQLException, DAOException;
+
 }
@@ -0,0 +1,46 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.dao;
+
+import java.util.List;
+
+/**
+ * One page of a paged query, ordered by id. The next page is requested by
+ * passing getNextToken() back to the same query; the token is null on the
+ * last page. Tokens are opaque and only valid for the query that returned
+ * them.
+ */
+public class Page<T>
+{
+    private final List<T> items;
+    private final String nextToken;
+
+    public Page(List<T> items, String nextToken)
+    {
+        this.items = items;
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getItems()
+    {
+        return items;
+    }
+
+    public String getNextToken()
+    {
+        return nextToken;
+    }
+
+    public boolean hasNext()
+    {
+        return nextToken != null;
+    }
+}
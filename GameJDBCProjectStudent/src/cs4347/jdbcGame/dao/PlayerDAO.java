@@ -33,6 +33,12 @@ public interface PlayerDAO
      */
     Player create(Connection connection, Player player) throws SQLException, DAOException;
 
+    /**
+     * Inserts all given Players using JDBC batches and sets the generated ID on
+     * each of them. Throws DAOException if any Player has a non-null ID.
+     */
+    List<Player> createAll(Connection connection, List<Player> players) throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided ID is null.
      */
@@ -49,14 +55,46 @@ public interface PlayerDAO
      */
     int delete(Connection connection, Long playerID) throws SQLException, DAOException;
 
+    /**
+     * Deletes the players with the given IDs, with one statement per 500 IDs,
+     * and returns the number of rows deleted. Their credit cards, games owned
+     * and games played must be deleted first. Throws DAOException if any ID is
+     * null.
+     */
+    int deleteByIDs(Connection connection, List<Long> playerIDs) throws SQLException, DAOException;
+
     /**
      * Returns the number of players i.e. the number of rows
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the number of players in the given mode. SCAN is count(); the
+     * other modes read the row_counter table or the table statistics instead
+     * of the rows, see CountMode.
+     */
+    long count(Connection connection, CountMode mode) throws SQLException, DAOException;
+
     /**
      * Retrieve players in the given join date range
      */
     List<Player> retrieveByJoinDate(Connection connection, Date start, Date end) throws SQLException, DAOException;
 
+    /**
+     * Passes the players that joined in the given range to the handler one at a
+     * time, without holding the whole result in memory. Credit cards are not
+     * loaded. The connection cannot be used by the handler. Returns the number
+     * of players.
+     */
+    int streamByJoinDate(Connection connection, Date start, Date end, RowHandler<Player> handler)
+            throws SQLException, DAOException;
+
+    /**
+     * Returns one page of the players that joined in the given range, ordered
+     * by id. Pass null for the first page and the token of the previous page
+     * for the next ones. Credit cards are not loaded.
+     */
+    Page<Player> retrieveByJoinDatePage(Connection connection, Date start, Date end, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
 }
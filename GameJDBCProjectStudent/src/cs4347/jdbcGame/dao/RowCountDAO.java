@@ -0,0 +1,42 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * The RowCountDAO exclusively updates the ROW_COUNTER table and answers the
+ * count(CountMode) methods of the other DAOs. The services add to a table's
+ * counter on the same connection and in the same transaction as the rows
+ * they insert or delete, so the counter commits or rolls back with them.
+ */
+public interface RowCountDAO
+{
+    /**
+     * Returns the number of rows of the table, computed as the mode says.
+     */
+    long count(Connection connection, CountedTable table, CountMode mode) throws SQLException, DAOException;
+
+    /**
+     * Adds the given (possibly negative) number of rows to the table's
+     * counter. Each thread adds to its own slot of the counter, so concurrent
+     * transactions rarely lock the same row.
+     */
+    void applyDelta(Connection connection, CountedTable table, long delta) throws SQLException, DAOException;
+
+    /**
+     * Recomputes every counter with SELECT COUNT(*), e.g. after a bulk load.
+     */
+    void rebuild(Connection connection) throws SQLException, DAOException;
+}
@@ -0,0 +1,33 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.dao;
+
+import java.sql.SQLException;
+
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Receives the rows of a streamed query one at a time. Throwing an exception
+ * stops the query; the exception is passed on to the caller of the stream
+ * method.
+ *
+ * While the rows arrive the connection cannot run another statement. Outside
+ * a transaction a service stream method has a connection of its own, and the
+ * handler may call other services. Inside a UnitOfWork (or any transaction
+ * on the same DataSource) the stream runs on the unit's connection, and a
+ * handler that calls a service of that DataSource fails with "Streaming result
+ * set ... is still active"; collect what the handler needs and make the calls
+ * after the stream method returns.
+ */
+public interface RowHandler<T>
+{
+    void handle(T row) throws SQLException, DAOException;
+}
@@ -0,0 +1,69 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import cs4347.jdbcGame.entity.GameSummary;
+import cs4347.jdbcGame.entity.PlayerSummary;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * The SummaryDAO exclusively updates the GAME_SUMMARY and PLAYER_SUMMARY
+ * tables. The services apply a delta for every gamesowned or gamesplayed row
+ * they write, on the same connection and in the same transaction, so the
+ * summaries commit or roll back together with the rows they count.
+ */
+public interface SummaryDAO
+{
+    /**
+     * Adds the given (possibly negative) amounts to the game's summary row,
+     * creating the row if the game has none yet.
+     */
+    void applyGameDelta(Connection connection, Long gameID, long owners, double revenue, long plays, long scoreTotal)
+            throws SQLException, DAOException;
+
+    /**
+     * Adds the given (possibly negative) amounts to the player's summary row,
+     * creating the row if the player has none yet.
+     */
+    void applyPlayerDelta(Connection connection, Long playerID, long gamesOwned, double totalSpend)
+            throws SQLException, DAOException;
+
+    /**
+     * Takes the games owned and played by the given players out of the game
+     * summaries, with two set-based UPDATEs per 500 IDs. Called before those
+     * rows are deleted; the player summaries go with the players (ON DELETE
+     * CASCADE).
+     */
+    void subtractPlayers(Connection connection, List<Long> playerIDs) throws SQLException, DAOException;
+
+    /**
+     * Return the summary of the given game by primary key. Return null if the
+     * game has never been bought or played.
+     */
+    GameSummary retrieveGameSummary(Connection connection, Long gameID) throws SQLException, DAOException;
+
+    /**
+     * Return the summary of the given player by primary key. Return null if the
+     * player has never bought a game.
+     */
+    PlayerSummary retrievePlayerSummary(Connection connection, Long playerID) throws SQLException, DAOException;
+
+    /**
+     * Recomputes both summary tables from GAMES_OWNED and GAMES_PLAYED. Used to
+     * fill them for an existing database and to repair them after rows were
+     * written without going through the services, e.g. by a bulk load.
+     */
+    void rebuild(Connection connection) throws SQLException, DAOException;
+}
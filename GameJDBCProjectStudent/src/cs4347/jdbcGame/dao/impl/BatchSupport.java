@@ -0,0 +1,244 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Shared addBatch/executeBatch loop used by the createAll methods of the DAO
+ * implementations. Rows are sent to the server in groups of batchSize and the
+ * generated keys of every group are copied back onto the entities in order.
+ * Also holds the IN (...) chunking used by the lookups that take many IDs
+ * and the multi-row INSERT used by the bulk inserts and upserts that must not
+ * depend on the driver rewriting batches.
+ */
+class BatchSupport
+{
+    /**
+     * Number of rows sent per executeBatch when the DAO is created with the
+     * no-arg constructor.
+     */
+    static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * Number of IDs in each IN (...) list of a multi-ID lookup. Every chunk is
+     * padded to this size so all chunks share one statement text.
+     */
+    static final int IN_CHUNK_SIZE = 500;
+
+    /**
+     * Most rows in one multi-row INSERT statement.
+     */
+    static final int MULTI_ROW_SIZE = 100;
+
+    /**
+     * Multi-row INSERTs of up to this many rows (and of MULTI_ROW_SIZE rows)
+     * go through the statement cache; other sizes are rare and prepared for
+     * the one call, so they do not push the hot statements out of the cache.
+     */
+    static final int CACHED_MULTI_ROW_SIZES = 16;
+
+    /**
+     * Binds the insert parameters of a single row.
+     */
+    interface Binder<T>
+    {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    static int checkBatchSize(int batchSize)
+    {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+        return batchSize;
+    }
+
+    /**
+     * The statement must have been prepared with Statement.RETURN_GENERATED_KEYS.
+     */
+    static <T> void executeBatch(PreparedStatement ps, List<T> rows, int batchSize, Binder<T> binder,
+            BiConsumer<T, Long> keySetter) throws SQLException, DAOException
+    {
+        int start = 0;
+        try {
+            for (int idx = 0; idx < rows.size(); idx++) {
+                binder.bind(ps, rows.get(idx));
+                ps.addBatch();
+
+                // flush a full batch or the last partial one
+                if (idx - start + 1 == batchSize || idx == rows.size() - 1) {
+                    ps.executeBatch();
+                    copyKeys(ps, rows, start, idx + 1, keySetter);
+                    start = idx + 1;
+                }
+            }
+        }
+        finally {
+            // a failed executeBatch leaves the remaining rows queued on the statement
+            if (start < rows.size() && !ps.isClosed()) {
+                ps.clearBatch();
+            }
+        }
+    }
+
+    /**
+     * Binds the insert parameters of one row of a multi-row INSERT, starting
+     * at parameter firstParam.
+     */
+    interface RowBinder<T>
+    {
+        void bind(PreparedStatement ps, int firstParam, T row) throws SQLException;
+    }
+
+    /**
+     * Inserts the rows with "insertPrefix VALUES (...), (...), ..." statements
+     * of up to MULTI_ROW_SIZE rows each and copies the generated keys back
+     * onto the rows in order. MySQL gives the rows of one INSERT consecutive
+     * keys and returns them in row order. insertPrefix is the INSERT up to the
+     * VALUES keyword, e.g. "INSERT INTO t (a, b)"; columns is the number of
+     * parameters per row.
+     */
+    static <T> void executeMultiRow(Connection connection, String insertPrefix, int columns, List<T> rows,
+            RowBinder<T> binder, BiConsumer<T, Long> keySetter) throws SQLException, DAOException
+    {
+        multiRow(connection, insertPrefix, columns, rows, binder, "", keySetter);
+    }
+
+    /**
+     * Like executeMultiRow, with "ON DUPLICATE KEY UPDATE updateClause"
+     * appended to every statement. No keys are copied: MySQL reports the
+     * keys of the inserted rows only, without saying which rows they belong
+     * to.
+     */
+    static <T> void executeMultiRowUpsert(Connection connection, String insertPrefix, int columns, List<T> rows,
+            RowBinder<T> binder, String updateClause) throws SQLException, DAOException
+    {
+        multiRow(connection, insertPrefix, columns, rows, binder, " ON DUPLICATE KEY UPDATE " + updateClause, null);
+    }
+
+    private static <T> void multiRow(Connection connection, String insertPrefix, int columns, List<T> rows,
+            RowBinder<T> binder, String suffix, BiConsumer<T, Long> keySetter) throws SQLException, DAOException
+    {
+        int autoGeneratedKeys = keySetter == null ? Statement.NO_GENERATED_KEYS : Statement.RETURN_GENERATED_KEYS;
+        for (int from = 0; from < rows.size(); from += MULTI_ROW_SIZE) {
+            int to = Math.min(from + MULTI_ROW_SIZE, rows.size());
+            int count = to - from;
+            String sql = insertPrefix + " VALUES " + rowPlaceholders(columns, count) + suffix;
+            boolean cached = count == MULTI_ROW_SIZE || count <= CACHED_MULTI_ROW_SIZES;
+            PreparedStatement ps = cached ? StatementCache.prepare(connection, sql, autoGeneratedKeys)
+                    : connection.prepareStatement(sql, autoGeneratedKeys);
+            try {
+                for (int idx = from; idx < to; idx++) {
+                    binder.bind(ps, (idx - from) * columns + 1, rows.get(idx));
+                }
+                ps.executeUpdate();
+                if (keySetter != null) {
+                    copyKeys(ps, rows, from, to, keySetter);
+                }
+            }
+            finally {
+                if (cached) {
+                    StatementCache.release(ps);
+                }
+                else {
+                    ps.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns "(?, ..., ?), (?, ..., ?), ..." with count groups of columns
+     * placeholders, for multi-row VALUES and row constructor IN lists.
+     */
+    static String rowPlaceholders(int columns, int count)
+    {
+        String row = placeholders(columns);
+        StringBuilder sb = new StringBuilder(count * (row.length() + 2));
+        for (int idx = 0; idx < count; idx++) {
+            if (idx > 0) {
+                sb.append(", ");
+            }
+            sb.append(row);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns "(?, ?, ..., ?)" with count placeholders.
+     */
+    static String placeholders(int count)
+    {
+        StringBuilder sb = new StringBuilder(count * 3 + 1);
+        sb.append('(');
+        for (int idx = 0; idx < count; idx++) {
+            sb.append(idx == 0 ? "?" : ", ?");
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * Binds ids[from, from + IN_CHUNK_SIZE) to parameters firstParam onwards.
+     * A short last chunk repeats its last ID, which does not change the result
+     * of an IN (...) test. Returns the start of the next chunk.
+     */
+    static int bindChunk(PreparedStatement ps, int firstParam, List<Long> ids, int from) throws SQLException
+    {
+        int to = Math.min(from + IN_CHUNK_SIZE, ids.size());
+        for (int idx = 0; idx < IN_CHUNK_SIZE; idx++) {
+            ps.setLong(firstParam + idx, ids.get(Math.min(from + idx, to - 1)));
+        }
+        return to;
+    }
+
+    /**
+     * Runs an UPDATE or DELETE with an IN list of IN_CHUNK_SIZE placeholders
+     * starting at firstParam once per chunk of ids and returns the total
+     * number of rows changed. The other parameters must be bound already.
+     */
+    static int executeUpdateByIDs(PreparedStatement ps, int firstParam, List<Long> ids) throws SQLException
+    {
+        int rows = 0;
+        int from = 0;
+        while (from < ids.size()) {
+            from = bindChunk(ps, firstParam, ids, from);
+            rows += ps.executeUpdate();
+        }
+        return rows;
+    }
+
+    private static <T> void copyKeys(PreparedStatement ps, List<T> rows, int from, int to,
+            BiConsumer<T, Long> keySetter) throws SQLException, DAOException
+    {
+        ResultSet keyRS = ps.getGeneratedKeys();
+        try {
+            for (int idx = from; idx < to; idx++) {
+                if (!keyRS.next()) {
+                    throw new DAOException("Batch insert returned " + (idx - from) + " keys for " + (to - from) + " rows");
+                }
+                keySetter.accept(rows.get(idx), keyRS.getLong(1));
+            }
+        }
+        finally {
+            keyRS.close();
+        }
+    }
+}
@@ -16,14 +16,34 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
 import cs4347.jdbcGame.dao.CreditCardDAO;
+import cs4347.jdbcGame.dao.RowCountDAO;
 import cs4347.jdbcGame.entity.CreditCard;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
 
 public class CreditCardDAOImpl implements CreditCardDAO
 {   
+    // number of rows sent per executeBatch by createAll
+    private final int batchSize;
+
+    public CreditCardDAOImpl()
+    {
+        this(BatchSupport.DEFAULT_BATCH_SIZE);
+    }
+
+    public CreditCardDAOImpl(int batchSize)
+    {
+        this.batchSize = BatchSupport.checkBatchSize(batchSize);
+    }
+
     // declaring SQL insert query as a string 
     private static final String insertSQL = "INSERT INTO creditcard(cc_name, cc_number, exp_date, security_code, player_id) "
             + "VALUES(?, ?, ?, ?, ?);";
@@ -44,7 +64,7 @@ public class CreditCardDAOImpl implements CreditCardDAO
         // set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+            ps = StatementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
 
             // setting the fields using the setter and getter functions for the DAO
             ps.setString(1, creditCard.getCcName());
@@ -63,10 +83,47 @@ public class CreditCardDAOImpl implements CreditCardDAO
             return creditCard;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    @Override
+    /*
+    *   CreateAll method to batch insert new CreditCard rows
+    */
+    public List<CreditCard> createAll(Connection connection, List<CreditCard> creditCards)
+            throws SQLException, DAOException
+    {
+        // throw DAOException if any Credit Card has an ID or is missing its player
+        for (CreditCard creditCard : creditCards) {
+            if (creditCard.getId() != null) {
+                throw new DAOException("Trying to insert CreditCard with NON-NULL ID");
             }
+            if (creditCard.getPlayerID() == null) {
+                throw new DAOException("Trying to insert CreditCard with NULL player ID");
+            }
+        }
+        if (creditCards.isEmpty()) {
+            return creditCards;
+        }
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
+            BatchSupport.executeBatch(ps, creditCards, batchSize, (stmt, creditCard) -> {
+                stmt.setString(1, creditCard.getCcName());
+                stmt.setString(2, creditCard.getCcNumber());
+                stmt.setString(3, creditCard.getExpDate());
+                stmt.setInt(4, creditCard.getSecurityCode());
+                stmt.setLong(5, creditCard.getPlayerID());
+            }, CreditCard::setId);
+            return creditCards;
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
 
@@ -88,7 +145,7 @@ public class CreditCardDAOImpl implements CreditCardDAO
         // set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(selectSQL);
+            ps = StatementCache.prepare(connection, selectSQL);
 
             // setting the ID field using the setter for the DAO
             ps.setLong(1, ccID);
@@ -104,10 +161,8 @@ public class CreditCardDAOImpl implements CreditCardDAO
             return creditCard;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
         
     }
@@ -127,24 +182,74 @@ public class CreditCardDAOImpl implements CreditCardDAO
         // set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(selectByPlayerSQL);
+            ps = StatementCache.prepare(connection, selectByPlayerSQL);
 
             // setting the fields using the setter functions for the DAO
             ps.setLong(1, playerID);
             ResultSet rs = ps.executeQuery();
 
             // loop through the resultSet to store the CC in the list
+            RowExtractor<CreditCard> extractor = ROWS.newRows();
             while (rs.next()) {
-                CreditCard creditCard = extractFromRS(rs);
+                CreditCard creditCard = extractor.extract(rs);
                 result.add(creditCard);
             }
             return result;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    // declaring SQL select query for a chunk of players as a string
+    final static String selectByPlayersSQL = "SELECT id, cc_name, cc_number, exp_date, security_code, player_id FROM creditcard where player_id IN "
+            + BatchSupport.placeholders(BatchSupport.IN_CHUNK_SIZE);
+
+    @Override
+    /*
+    *    retrieveCreditCardsForPlayers method for getting the CreditCard rows of many players
+    */
+    public Map<Long, List<CreditCard>> retrieveCreditCardsForPlayers(Connection connection, Collection<Long> playerIDs)
+            throws SQLException, DAOException
+    {
+        // every player gets a list, also the ones without credit cards
+        Map<Long, List<CreditCard>> result = new LinkedHashMap<Long, List<CreditCard>>();
+        for (Long playerID : playerIDs) {
+            if (playerID == null) {
+                throw new DAOException("Trying to retrieve credit cards for NULL player ID");
             }
+            result.put(playerID, new ArrayList<CreditCard>());
+        }
+        List<Long> ids = new ArrayList<Long>(result.keySet());
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, selectByPlayersSQL);
+
+            // one query per chunk of players
+            int from = 0;
+            while (from < ids.size()) {
+                from = BatchSupport.bindChunk(ps, 1, ids, from);
+                ResultSet rs = ps.executeQuery();
+                try {
+                    // add each CC to the list of its player
+                    RowExtractor<CreditCard> extractor = ROWS.newRows();
+                    while (rs.next()) {
+                        CreditCard creditCard = extractor.extract(rs);
+                        result.get(creditCard.getPlayerID()).add(creditCard);
+                    }
+                }
+                finally {
+                    rs.close();
+                }
+            }
+            return result;
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
 
@@ -167,7 +272,7 @@ public class CreditCardDAOImpl implements CreditCardDAO
         // set PreparedStatement to null
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(updateSQL);
+            ps = StatementCache.prepare(connection, updateSQL);
 
             // setting the fields using the setter and getter functions for the DAO
             ps.setString(1, creditCard.getCcName());
@@ -180,10 +285,8 @@ public class CreditCardDAOImpl implements CreditCardDAO
             return rows;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
     
@@ -205,7 +308,7 @@ public class CreditCardDAOImpl implements CreditCardDAO
         // set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(deleteSQL);
+            ps = StatementCache.prepare(connection, deleteSQL);
 
             // setting the field using the setter functions for the DAO
             ps.setLong(1, ccID);
@@ -214,10 +317,8 @@ public class CreditCardDAOImpl implements CreditCardDAO
             return rows;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
 
@@ -238,7 +339,7 @@ public class CreditCardDAOImpl implements CreditCardDAO
         // set PreparedStatement to null
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(deleteByPlayerSQL);
+            ps = StatementCache.prepare(connection, deleteByPlayerSQL);
 
             // setting the field using the setter functions for the DAO
             ps.setLong(1, playerID);
@@ -247,15 +348,60 @@ public class CreditCardDAOImpl implements CreditCardDAO
             return rows;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
 
+    // declaring SQL delete query for the cards of many players as a string
+    final static String deleteByPlayersSQL = "delete from creditcard where player_id in "
+            + BatchSupport.placeholders(BatchSupport.IN_CHUNK_SIZE);
+
+    @Override
+    /*
+    *   Delete for players method for the CreditCard rows of many players
+    */
+    public int deleteForPlayers(Connection connection, List<Long> playerIDs) throws SQLException, DAOException
+    {
+        // throw DAOException if any PlayerID field is null
+        if (playerIDs.contains(null)) {
+            throw new DAOException("Trying to delete credit card with NULL player ID");
+        }
+        if (playerIDs.isEmpty()) {
+            return 0;
+        }
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, deleteByPlayersSQL);
+
+            // one statement per chunk of player IDs
+            return BatchSupport.executeUpdateByIDs(ps, 1, playerIDs);
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    @Override
+    /*
+    *   Count method to count number of CreditCards in the given mode
+    */
+    public long count(Connection connection, CountMode mode)
+            throws SQLException, DAOException
+    {
+        // the scan is the plain count, the other modes do not read the table
+        if (mode == CountMode.SCAN) {
+            return count(connection);
+        }
+        RowCountDAO rowCountDAO = new RowCountDAOImpl();
+        return rowCountDAO.count(connection, CountedTable.CREDIT_CARD, mode);
+    }
+
     // declaring SQL count query as a string 
-    final static String countSQL = "select count(*) from player";
+    final static String countSQL = "select count(*) from creditcard";
     
     @Override
     /*
@@ -267,7 +413,7 @@ public class CreditCardDAOImpl implements CreditCardDAO
         // set PreparedStatement to null 
     	PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(countSQL);
+            ps = StatementCache.prepare(connection, countSQL);
             ResultSet rs = ps.executeQuery();
 
             // if resultSet is empty
@@ -280,28 +426,27 @@ public class CreditCardDAOImpl implements CreditCardDAO
             return count;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
     
+    // mapping of the creditcard columns, read by index
+    private static final RowMapper<CreditCard> ROWS = new RowMapper<CreditCard>(CreditCard::new, (rs, columns, creditCard) -> {
+        creditCard.setId(rs.getLong(columns[0]));
+        creditCard.setCcName(rs.getString(columns[1]));
+        creditCard.setCcNumber(rs.getString(columns[2]));
+        creditCard.setExpDate(rs.getString(columns[3]));
+        creditCard.setSecurityCode(rs.getInt(columns[4]));
+        creditCard.setPlayerID(rs.getLong(columns[5]));
+    }, "id", "cc_name", "cc_number", "exp_date", "security_code", "player_id");
+
     /*
-    *   extarctFromRS method to get CreditCard rows
+    *   extarctFromRS method to get a single CreditCard row
     */
     private CreditCard extractFromRS(ResultSet rs) 
             throws SQLException
     {
-        CreditCard creditCard = new CreditCard();
-
-        // setting the fields using the setter functions for the DAO
-        creditCard.setId(rs.getLong("id"));
-        creditCard.setCcName(rs.getString("cc_name"));
-        creditCard.setCcNumber(rs.getString("cc_number"));
-        creditCard.setExpDate(rs.getString("exp_date"));
-        creditCard.setSecurityCode(rs.getInt("security_code"));
-        creditCard.setPlayerID(rs.getLong("player_id"));
-        return creditCard;
+        return ROWS.newRows().extract(rs);
     }
 }
@@ -16,15 +16,38 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
 import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowCountDAO;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
 
 public class GameDAOImpl implements GameDAO
 {
+    // number of rows sent per executeBatch by createAll
+    private final int batchSize;
+
+    public GameDAOImpl()
+    {
+        this(BatchSupport.DEFAULT_BATCH_SIZE);
+    }
+
+    public GameDAOImpl(int batchSize)
+    {
+        this.batchSize = BatchSupport.checkBatchSize(batchSize);
+    }
 
     // declaring SQL insert query as a string 
     private static final String insertSQL = "INSERT INTO game (title, description, release_date, version) VALUES (?, ?, ?, ?);";
@@ -43,7 +66,7 @@ public class GameDAOImpl implements GameDAO
         // set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+            ps = StatementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
 
             // setting the fields using the setter and getter functions for the DAO
             ps.setString(1, game.getTitle());
@@ -60,11 +83,43 @@ public class GameDAOImpl implements GameDAO
             return game;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    @Override
+    /*
+    *   CreateAll method to batch insert new Game rows
+    */
+    public List<Game> createAll(Connection connection, List<Game> games) throws SQLException, DAOException
+    {
+        // throw DAOException if any Game's ID field is not null
+        for (Game game : games) {
+            if (game.getId() != null) {
+                throw new DAOException("Trying to insert Game with NON-NULL ID");
             }
         }
+        if (games.isEmpty()) {
+            return games;
+        }
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
+            BatchSupport.executeBatch(ps, games, batchSize, (stmt, game) -> {
+                stmt.setString(1, game.getTitle());
+                stmt.setString(2, game.getDescription());
+                stmt.setDate(3, new java.sql.Date(game.getReleaseDate().getTime()));
+                stmt.setString(4, game.getVersion());
+            }, Game::setId);
+            return games;
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
     }
 
     // declaring SQL select query as a string 
@@ -84,7 +139,7 @@ public class GameDAOImpl implements GameDAO
         // set PreparedStatement to null
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(selectSQL);
+            ps = StatementCache.prepare(connection, selectSQL);
 
             // setting the ID field using the setter for the DAO
             ps.setLong(1, gameID);
@@ -100,10 +155,59 @@ public class GameDAOImpl implements GameDAO
             return game;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    // declaring SQL select query for many IDs as a string
+    final static String selectByIDsSQL = "SELECT id, title, description, release_date, version FROM game where id IN "
+            + BatchSupport.placeholders(BatchSupport.IN_CHUNK_SIZE);
+
+    @Override
+    /*
+    *   retrieveByIDs method for getting many rows from the Game table
+    */
+    public Map<Long, Game> retrieveByIDs(Connection connection, Collection<Long> gameIDs)
+            throws SQLException, DAOException
+    {
+        // a set drops the duplicate IDs
+        Set<Long> unique = new LinkedHashSet<Long>();
+        for (Long gameID : gameIDs) {
+            if (gameID == null) {
+                throw new DAOException("Trying to retrieve Game with NULL ID");
             }
+            unique.add(gameID);
+        }
+        List<Long> ids = new ArrayList<Long>(unique);
+        Map<Long, Game> result = new HashMap<Long, Game>();
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, selectByIDsSQL);
+
+            // one query per chunk of IDs
+            int from = 0;
+            while (from < ids.size()) {
+                from = BatchSupport.bindChunk(ps, 1, ids, from);
+                ResultSet rs = ps.executeQuery();
+                try {
+                    RowExtractor<Game> extractor = ROWS.newRows();
+                    while (rs.next()) {
+                        Game game = extractor.extract(rs);
+                        result.put(game.getId(), game);
+                    }
+                }
+                finally {
+                    rs.close();
+                }
+            }
+            return result;
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
 
@@ -126,7 +230,7 @@ public class GameDAOImpl implements GameDAO
         // set PreparedStatement to null
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(updateSQL);
+            ps = StatementCache.prepare(connection, updateSQL);
             
             // setting the fields using the setter and getter functions for the DAO
             ps.setString(1, game.getTitle());
@@ -139,10 +243,8 @@ public class GameDAOImpl implements GameDAO
             return rows;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
 
@@ -164,7 +266,7 @@ public class GameDAOImpl implements GameDAO
         // set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(deleteSQL);
+            ps = StatementCache.prepare(connection, deleteSQL);
 
             // setting the field using the setter functions for the DAO
             ps.setLong(1, id);
@@ -173,11 +275,24 @@ public class GameDAOImpl implements GameDAO
             return rows;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    @Override
+    /*
+    *   Count method to count number of Games in the given mode
+    */
+    public long count(Connection connection, CountMode mode)
+            throws SQLException, DAOException
+    {
+        // the scan is the plain count, the other modes do not read the table
+        if (mode == CountMode.SCAN) {
+            return count(connection);
         }
+        RowCountDAO rowCountDAO = new RowCountDAOImpl();
+        return rowCountDAO.count(connection, CountedTable.GAME, mode);
     }
 
     // declaring SQL count query as a string 
@@ -193,7 +308,7 @@ public class GameDAOImpl implements GameDAO
         // set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(countSQL);
+            ps = StatementCache.prepare(connection, countSQL);
             ResultSet rs = ps.executeQuery();
 
             // if resultSet is empty
@@ -206,10 +321,8 @@ public class GameDAOImpl implements GameDAO
             return count;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
 
@@ -228,24 +341,45 @@ public class GameDAOImpl implements GameDAO
         // set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(retrieveByTitleSQL);
+            ps = StatementCache.prepare(connection, retrieveByTitleSQL);
 
             // setting the fields using the setter functions for the DAO
             ps.setString(1, title);
             ResultSet rs = ps.executeQuery();
 
             // loop through the resultSet to store the Game in the list
+            RowExtractor<Game> extractor = ROWS.newRows();
             while (rs.next()) {
-                Game game = extractFromRS(rs);
+                Game game = extractor.extract(rs);
                 result.add(game);
             }
             return result;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    @Override
+    /*
+    *    streamByTitle method for handing Game rows to a handler
+    */
+    public int streamByTitle(Connection connection, String title, RowHandler<Game> handler)
+            throws SQLException, DAOException
+    {
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            // streamed statements are not cached, see StreamingQuery
+            ps = StreamingQuery.prepare(connection, retrieveByTitleSQL);
+
+            // setting the fields using the setter functions for the DAO
+            ps.setString(1, title);
+            return StreamingQuery.forEach(ps, ROWS.newRows(), handler);
+        }
+        finally {
+            StreamingQuery.close(ps);
         }
     }
 
@@ -264,7 +398,7 @@ public class GameDAOImpl implements GameDAO
         // set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(retrieveByRelDate);
+            ps = StatementCache.prepare(connection, retrieveByRelDate);
 
             // setting the fields using the setter and getter functions for the DAO
             ps.setDate(1, new java.sql.Date(start.getTime()));
@@ -272,32 +406,61 @@ public class GameDAOImpl implements GameDAO
             ResultSet rs = ps.executeQuery();
 
             // loop through the resultSet to store the Game in the list
+            RowExtractor<Game> extractor = ROWS.newRows();
             while (rs.next()) {
-                Game game = extractFromRS(rs);
+                Game game = extractor.extract(rs);
                 result.add(game);
             }
             return result;
         }
         finally {
-            // check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
         }
     }
 
+    // declaring SQL select query for one page as a string
+    final static String retrieveByRelDatePage = "select id, title, description, release_date, version from game "
+            + "where release_date between ? and ? and id > ? order by id limit ?";
+
+    @Override
+    /*
+    *    retrieveByReleaseDatePage method for getting one page of Game rows
+    */
+    public Page<Game> retrieveByReleaseDatePage(Connection connection, Date start, Date end, String pageToken,
+            int pageSize) throws SQLException, DAOException
+    {
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, retrieveByRelDatePage);
+
+            // setting the fields using the setter and getter functions for the DAO
+            ps.setDate(1, new java.sql.Date(start.getTime()));
+            ps.setDate(2, new java.sql.Date(end.getTime()));
+            return KeysetPage.read(ps, 3, pageToken, pageSize, ROWS.newRows(), Game::getId);
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    // mapping of the game columns, read by index
+    private static final RowMapper<Game> ROWS = new RowMapper<Game>(Game::new, (rs, columns, game) -> {
+        game.setId(rs.getLong(columns[0]));
+        game.setTitle(rs.getString(columns[1]));
+        game.setDescription(rs.getString(columns[2]));
+        game.setReleaseDate(rs.getDate(columns[3]));
+        game.setVersion(rs.getString(columns[4]));
+    }, "id", "title", "description", "release_date", "version");
+
     /*
-    *   extarctFromRS method to get Game rows
+    *   extarctFromRS method to get a single Game row
     */
     private Game extractFromRS(ResultSet rs) 
         throws SQLException
     {
-        Game game = new Game();
-        game.setId(rs.getLong("id"));
-        game.setTitle(rs.getString("title"));
-        game.setDescription(rs.getString("description"));
-        game.setReleaseDate(rs.getDate("release_date"));
-        game.setVersion(rs.getString("version"));
-        return game;
+        return ROWS.newRows().extract(rs);
     }
 }
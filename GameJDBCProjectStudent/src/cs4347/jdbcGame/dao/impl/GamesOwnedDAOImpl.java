@@ -19,14 +19,33 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
 import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowCountDAO;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.entity.GamesOwned;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.PurchaseStatistics;
 import cs4347.jdbcGame.entity.GamesOwned;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
 
 public class GamesOwnedDAOImpl implements GamesOwnedDAO
 {
+	// number of rows sent per executeBatch by createAll
+	private final int batchSize;
+
+	public GamesOwnedDAOImpl()
+	{
+		this(BatchSupport.DEFAULT_BATCH_SIZE);
+	}
+
+	public GamesOwnedDAOImpl(int batchSize)
+	{
+		this.batchSize = BatchSupport.checkBatchSize(batchSize);
+	}
 
 	// declaring SQL insert query as a string 
 	private static final String insertSQL = "INSERT INTO gamesowned(purchase_date, purchase_price, player_id, game_id) "
@@ -47,7 +66,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 		// set PreparedStatement to null 
     	PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+            ps = StatementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
 
 			// setting the fields using the setter and getter functions for the DAO
             ps.setDate(1, new java.sql.Date(GamesOwned.getPurchaseDate().getTime()));
@@ -64,13 +83,147 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             return GamesOwned;
         }
         finally {
-			// check if the PreparedStatement is not null and is not closed
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
-            }
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
         }
     }
 
+	@Override
+	/*
+    *   CreateAll method to batch insert new GamesOwned rows
+    */
+	public List<GamesOwned> createAll(Connection connection, List<GamesOwned> gamesOwned)
+			throws SQLException, DAOException
+    {
+        // throw DAOException if any GamesOwned's ID field is not null
+		for (GamesOwned go : gamesOwned) {
+			if (go.getId() != null) {
+				throw new DAOException("Trying to insert GamesOwned with NON-NULL ID");
+			}
+		}
+		if (gamesOwned.isEmpty()) {
+			return gamesOwned;
+		}
+
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+		try {
+			ps = StatementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
+			BatchSupport.executeBatch(ps, gamesOwned, batchSize, (stmt, go) -> {
+				stmt.setDate(1, new java.sql.Date(go.getPurchaseDate().getTime()));
+				stmt.setFloat(2, go.getPurchasePrice());
+				stmt.setLong(3, go.getPlayerID());
+				stmt.setLong(4, go.getGameID());
+			}, GamesOwned::setId);
+			return gamesOwned;
+		}
+		finally {
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
+    }
+
+	// the insert up to VALUES, for the multi-row INSERT of createMultiRow
+	private static final String insertPrefix = "INSERT INTO gamesowned(purchase_date, purchase_price, player_id, game_id)";
+
+	@Override
+	/*
+    *   createMultiRow method to insert new GamesOwned rows with multi-row INSERTs
+    */
+	public List<GamesOwned> createMultiRow(Connection connection, List<GamesOwned> gamesOwned)
+			throws SQLException, DAOException
+    {
+        // throw DAOException if any GamesOwned's ID field is not null
+		for (GamesOwned go : gamesOwned) {
+			if (go.getId() != null) {
+				throw new DAOException("Trying to insert GamesOwned with NON-NULL ID");
+			}
+		}
+
+		// one statement per 100 rows, the generated keys are copied back in order
+		BatchSupport.executeMultiRow(connection, insertPrefix, 4, gamesOwned, (stmt, param, go) -> {
+			stmt.setDate(param, new java.sql.Date(go.getPurchaseDate().getTime()));
+			stmt.setFloat(param + 1, go.getPurchasePrice());
+			stmt.setLong(param + 2, go.getPlayerID());
+			stmt.setLong(param + 3, go.getGameID());
+		}, GamesOwned::setId);
+		return gamesOwned;
+    }
+
+	// the assignments of an upsert that hits an existing (player_id, game_id) row;
+	// LAST_INSERT_ID(id) makes the driver report the ID of that row as the generated key
+	private static final String upsertUpdate = "purchase_date = VALUES(purchase_date), purchase_price = VALUES(purchase_price)";
+	private static final String upsertSQL = insertPrefix + " VALUES(?,?,?,?) ON DUPLICATE KEY UPDATE "
+			+ upsertUpdate + ", id = LAST_INSERT_ID(id)";
+
+	@Override
+	/*
+    *   Upsert method to insert or overwrite the GamesOwned row of a player and game
+    */
+	public GamesOwned upsert(Connection connection, GamesOwned gamesOwned)
+			throws SQLException, DAOException
+    {
+		checkPlayerGameID(gamesOwned);
+
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+		try {
+			ps = StatementCache.prepare(connection, upsertSQL, Statement.RETURN_GENERATED_KEYS);
+
+			// setting the fields using the setter and getter functions for the DAO
+			ps.setDate(1, new java.sql.Date(gamesOwned.getPurchaseDate().getTime()));
+			ps.setFloat(2, gamesOwned.getPurchasePrice());
+			ps.setLong(3, gamesOwned.getPlayerID());
+			ps.setLong(4, gamesOwned.getGameID());
+			ps.executeUpdate();
+
+			// the new ID, or the ID of the row that was overwritten
+			ResultSet keyRS = ps.getGeneratedKeys();
+			try {
+				if (!keyRS.next()) {
+					throw new DAOException("Upsert of GamesOwned returned no key");
+				}
+				gamesOwned.setId(keyRS.getLong(1));
+			}
+			finally {
+				keyRS.close();
+			}
+			return gamesOwned;
+		}
+		finally {
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
+    }
+
+	@Override
+	/*
+    *   UpsertAll method to insert or overwrite GamesOwned rows with multi-row upserts
+    */
+	public void upsertAll(Connection connection, List<GamesOwned> gamesOwned)
+			throws SQLException, DAOException
+    {
+		for (GamesOwned go : gamesOwned) {
+			checkPlayerGameID(go);
+		}
+
+		// one statement per 100 rows; replaying the same rows changes nothing
+		BatchSupport.executeMultiRowUpsert(connection, insertPrefix, 4, gamesOwned, (stmt, param, go) -> {
+			stmt.setDate(param, new java.sql.Date(go.getPurchaseDate().getTime()));
+			stmt.setFloat(param + 1, go.getPurchasePrice());
+			stmt.setLong(param + 2, go.getPlayerID());
+			stmt.setLong(param + 3, go.getGameID());
+		}, upsertUpdate);
+    }
+
+	// throw DAOException if the player or game ID of an upsert is null
+	private static void checkPlayerGameID(GamesOwned gamesOwned) throws DAOException
+	{
+		if (gamesOwned.getPlayerID() == null || gamesOwned.getGameID() == null) {
+			throw new DAOException("Cannot upsert GamesOwned with NULL playerID or gameID");
+		}
+	}
+
 	// declaring SQL select query as a string 
     private static final String selectSQl = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned WHERE id = ?";
 	
@@ -80,6 +233,26 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
     */
 	public GamesOwned retrieveID(Connection connection, Long GamesOwnedID) 
 			throws SQLException, DAOException
+    {
+		return selectByID(connection, selectSQl, GamesOwnedID);
+    }
+
+	// declaring SQL locking select query as a string
+    private static final String lockSQL = selectSQl + " FOR UPDATE";
+
+	@Override
+	/*
+    *   lockID method to read and lock a row of the GamesOwned table
+    */
+	public GamesOwned lockID(Connection connection, Long GamesOwnedID)
+			throws SQLException, DAOException
+    {
+		return selectByID(connection, lockSQL, GamesOwnedID);
+    }
+
+	// runs one of the queries by ID
+	private GamesOwned selectByID(Connection connection, String sql, Long GamesOwnedID)
+			throws SQLException, DAOException
     {
 		// throw DAOException if GamesOwned's ID field is null
     	if(GamesOwnedID == null)
@@ -91,7 +264,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
     	PreparedStatement ps = null;
     	try 
     	{
-			ps = connection.prepareStatement(selectSQl);
+			ps = StatementCache.prepare(connection, sql);
 			
 			// setting the ID field using the setter for the DAO
     		ps.setLong(1,GamesOwnedID);
@@ -106,9 +279,8 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
     		return GamesOwned;
     	}
     	finally {
-			// check if the PreparedStatement is not null and is not closed
-    		if(ps != null && !ps.isClosed())
-    			ps.close(); 
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
     	}
     }
 	
@@ -130,7 +302,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 		 // set PreparedStatement to null    	 
     	 PreparedStatement ps = null;
 		try {
-			ps = connection.prepareStatement(selectPlayerGameID);
+			ps = StatementCache.prepare(connection, selectPlayerGameID);
 			
 			// setting the field using the setter functions for the DAO
 			ps.setLong(1,gameID);
@@ -147,12 +319,87 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 			return GamesOwned;
 		}
 		finally {
-			// check if the PreparedStatement is not null and is not closed
-			if(ps != null && !ps.isClosed())
-				ps.close();
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
 		}
 	}
 	
+	// pairs per query of retrieveByPlayerGameIDs and lockByPlayerGameIDs, two parameters each
+	private static final int pairChunkSize = BatchSupport.IN_CHUNK_SIZE / 2;
+
+	// declaring SQL select query for many (player_id, game_id) pairs as a string
+	private static final String selectPlayerGameIDs = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned "
+			+ "WHERE (player_id, game_id) IN (" + BatchSupport.rowPlaceholders(2, pairChunkSize) + ")";
+
+	// declaring SQL locking select query for many (player_id, game_id) pairs as a string
+	private static final String lockPlayerGameIDs = selectPlayerGameIDs + " FOR UPDATE";
+
+	@Override
+	/*
+    *    retrieveByPlayerGameIDs method for reading the GamesOwned rows of many pairs
+    */
+	public List<GamesOwned> retrieveByPlayerGameIDs(Connection connection, List<GamesOwned> gamesOwned)
+			throws SQLException, DAOException
+	{
+		return selectByPlayerGameIDs(connection, selectPlayerGameIDs, gamesOwned);
+	}
+
+	@Override
+	/*
+    *    lockByPlayerGameIDs method for reading and locking the GamesOwned rows of many pairs
+    */
+	public List<GamesOwned> lockByPlayerGameIDs(Connection connection, List<GamesOwned> gamesOwned)
+			throws SQLException, DAOException
+	{
+		return selectByPlayerGameIDs(connection, lockPlayerGameIDs, gamesOwned);
+	}
+
+	// runs one of the pair queries per chunk of pairs
+	private static List<GamesOwned> selectByPlayerGameIDs(Connection connection, String sql, List<GamesOwned> gamesOwned)
+			throws SQLException, DAOException
+	{
+		for (GamesOwned go : gamesOwned) {
+			if (go.getPlayerID() == null || go.getGameID() == null) {
+				throw new DAOException("Cannot search GamesOwned with NULL playerID or gameID");
+			}
+		}
+		List<GamesOwned> result = new ArrayList<GamesOwned>();
+		if (gamesOwned.isEmpty()) {
+			return result;
+		}
+
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+		try {
+			ps = StatementCache.prepare(connection, sql);
+			RowExtractor<GamesOwned> extractor = ROWS.newRows();
+
+			// one query per chunk; a short chunk repeats its last pair
+			for (int from = 0; from < gamesOwned.size(); from += pairChunkSize) {
+				int to = Math.min(from + pairChunkSize, gamesOwned.size());
+				for (int idx = 0; idx < pairChunkSize; idx++) {
+					GamesOwned go = gamesOwned.get(Math.min(from + idx, to - 1));
+					ps.setLong(2 * idx + 1, go.getPlayerID());
+					ps.setLong(2 * idx + 2, go.getGameID());
+				}
+				ResultSet rs = ps.executeQuery();
+				try {
+					while(rs.next()) {
+						result.add(extractor.extract(rs));
+					}
+				}
+				finally {
+					rs.close();
+				}
+			}
+			return result;
+		}
+		finally {
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
+	}
+
     // declaring SQL select query as a string 
     private static final String selectGame = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned WHERE game_id = ?";
 	
@@ -172,20 +419,46 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 		// set PreparedStatement to null 
 		PreparedStatement ps = null;
 		try {
-			ps = connection.prepareStatement(selectGame);
+			ps = StatementCache.prepare(connection, selectGame);
 
 			// setting the field using the setter functions for the DAO
 			ps.setLong(1,gameID);
 			ResultSet rs = ps.executeQuery();
+			// the column indexes are looked up once for all rows
+			RowExtractor<GamesOwned> extractor = ROWS.newRows();
 			while(rs.next()) {
-				result.add(extractFromRS(rs));
+				result.add(extractor.extract(rs));
 			}
 			return result;
 		}
 		finally {
-            // check if the PreparedStatement is not null and is not closed
-			if(ps != null && !ps.isClosed())
-			ps.close();
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+		}
+    }
+
+	@Override
+	/*
+    *    scanByGame method for streaming GamesOwned rows in one reused GamesOwned
+    */
+	public int scanByGame(Connection connection, Long gameID, RowHandler<GamesOwned> handler)
+			throws SQLException, DAOException
+    {
+        // throw DAOException if Game's ID field is null  
+    	if(gameID == null) {
+    		throw new DAOException("Cannot search GamesOwned with NULL gameID");
+    	}
+
+		// set PreparedStatement to null 
+		PreparedStatement ps = null;
+		try {
+			// streamed, so it bypasses the statement cache
+			ps = StreamingQuery.prepare(connection, selectGame);
+			ps.setLong(1,gameID);
+			return StreamingQuery.forEach(ps, ROWS.reusedRow(), handler);
+		}
+		finally {
+			StreamingQuery.close(ps);
 		}
     }
 
@@ -208,25 +481,137 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 		// set PreparedStatement to null
 		PreparedStatement ps = null;
 		try {
-			ps = connection.prepareStatement(selectPlayer);
+			ps = StatementCache.prepare(connection, selectPlayer);
 
 			// setting the ID field using the setter for the DAO
 			ps.setLong(1,playerID);
 			ResultSet rs = ps.executeQuery();
+			RowExtractor<GamesOwned> extractor = ROWS.newRows();
 
 			// while resultSet has a row
 			while(rs.next()) {
-				result.add(extractFromRS(rs));
+				result.add(extractor.extract(rs));
 			}
 			return result;
 		}
 		finally {
-			// check if the PreparedStatement is not null and is not closed
-			if(ps != null && !ps.isClosed())
-				ps.close();
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
 		}
     }
 	
+	// declaring SQL select query for one page as a string
+    private static final String selectGamePage = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned "
+            + "WHERE game_id = ? AND id > ? ORDER BY id LIMIT ?";
+
+	@Override
+	/*
+    *    retrieveByGamePage method for getting one page of GamesOwned rows
+    */
+	public Page<GamesOwned> retrieveByGamePage(Connection connection, Long gameID, String pageToken, int pageSize)
+			throws SQLException, DAOException
+    {
+        // throw DAOException if Game's ID field is null
+    	if(gameID == null) {
+    		throw new DAOException("Cannot search GamesOwned with NULL gameID");
+    	}
+
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+		try {
+			ps = StatementCache.prepare(connection, selectGamePage);
+
+			// setting the field using the setter functions for the DAO
+			ps.setLong(1,gameID);
+			return KeysetPage.read(ps, 2, pageToken, pageSize, ROWS.newRows(), GamesOwned::getId);
+		}
+		finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+		}
+    }
+
+	// declaring SQL select query for one page as a string
+    private static final String selectPlayerPage = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned "
+            + "WHERE player_id = ? AND id > ? ORDER BY id LIMIT ?";
+
+	@Override
+	/*
+    *   RetrieveByPlayerPage method to get one page of rows from the GamesOwned table
+    */
+	public Page<GamesOwned> retrieveByPlayerPage(Connection connection, Long playerID, String pageToken, int pageSize)
+			throws SQLException, DAOException
+    {
+		// throw DAOException if Player's ID field is null
+    	if(playerID == null) {
+    		throw new DAOException("Cannot search GamesOwned with NULL PlayerID");
+    	}
+
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+		try {
+			ps = StatementCache.prepare(connection, selectPlayerPage);
+
+			// setting the ID field using the setter for the DAO
+			ps.setLong(1,playerID);
+			return KeysetPage.read(ps, 2, pageToken, pageSize, ROWS.newRows(), GamesOwned::getId);
+		}
+		finally {
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
+    }
+
+	// declaring SQL aggregate query per game as a string
+    private static final String selectPurchaseStatsByGame = "SELECT game_id, COUNT(*), SUM(purchase_price), AVG(purchase_price) FROM gamesowned "
+            + "GROUP BY game_id ORDER BY game_id";
+
+	@Override
+	/*
+    *    retrievePurchaseStatisticsByGame method for getting the purchase totals of every game
+    */
+	public PurchaseStatistics retrievePurchaseStatisticsByGame(Connection connection)
+			throws SQLException, DAOException
+    {
+		return readPurchaseStatistics(connection, selectPurchaseStatsByGame);
+    }
+
+	// declaring SQL aggregate query per player as a string
+    private static final String selectPurchaseStatsByPlayer = "SELECT player_id, COUNT(*), SUM(purchase_price), AVG(purchase_price) FROM gamesowned "
+            + "GROUP BY player_id ORDER BY player_id";
+
+	@Override
+	/*
+    *    retrievePurchaseStatisticsByPlayer method for getting the purchase totals of every player
+    */
+	public PurchaseStatistics retrievePurchaseStatisticsByPlayer(Connection connection)
+			throws SQLException, DAOException
+    {
+		return readPurchaseStatistics(connection, selectPurchaseStatsByPlayer);
+    }
+
+	// reads one row per group; the database does the summing
+	private PurchaseStatistics readPurchaseStatistics(Connection connection, String sql) throws SQLException
+	{
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+		try {
+			ps = StatementCache.prepare(connection, sql);
+			ResultSet rs = ps.executeQuery();
+			PurchaseStatistics result = new PurchaseStatistics();
+
+			// the rows come in id order
+			while(rs.next()) {
+				result.add(rs.getLong(1), rs.getLong(2), rs.getDouble(3), rs.getDouble(4));
+			}
+			return result;
+		}
+		finally {
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
+	}
+
 	// declaring SQL update query as a string 
     private static final String update = "UPDATE gamesowned SET player_id = ?, game_id = ?, purchase_date = ?, purchase_price = ? WHERE id = ?";
    
@@ -245,7 +630,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 		// set PreparedStatement to null
     	PreparedStatement ps = null;
     	try {
-			ps = connection.prepareStatement(update);
+			ps = StatementCache.prepare(connection, update);
 			
 			// setting the fields using the setter and getter functions for the DAO
     		ps.setLong(1, GamesOwned.getPlayerID());
@@ -258,9 +643,8 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
     		return resultRows;
     	}
     	finally {
-			// check if the PreparedStatement is not null and is not closed
-    		if(ps != null && !ps.isClosed())
-    			ps.close();
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
     	}
     }
 
@@ -282,7 +666,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 		// set PreparedStatement to null 
         PreparedStatement ps = null;
         try {
-			ps = connection.prepareStatement(delete);
+			ps = StatementCache.prepare(connection, delete);
 			
 			// setting the field using the setter functions for the DAO
 			ps.setLong(1,gameOwnedID);
@@ -291,12 +675,59 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
         	return resultRows;
         }
         finally {
-			// check if the PreparedStatement is not null and is not closed
-        	if(ps != null && !ps.isClosed())
-        		ps.close(); 
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
         }
     }
 	
+	// declaring SQL delete query for the rows of many players as a string
+    private static final String deleteForPlayers = "DELETE FROM gamesowned WHERE player_id IN "
+            + BatchSupport.placeholders(BatchSupport.IN_CHUNK_SIZE);
+
+	@Override
+	/*
+    *   DeleteForPlayers method for the GamesOwned rows of many players
+    */
+	public int deleteForPlayers(Connection connection, List<Long> playerIDs)
+			throws SQLException, DAOException
+    {
+		// throw DAOException if any Player's ID field is null
+    	if(playerIDs.contains(null)) {
+        	throw new DAOException("Deletion cannot be performed with NULL player ID");
+		}
+		if(playerIDs.isEmpty()) {
+			return 0;
+		}
+
+		// set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+			ps = StatementCache.prepare(connection, deleteForPlayers);
+
+			// one statement per chunk of player IDs
+			return BatchSupport.executeUpdateByIDs(ps, 1, playerIDs);
+        }
+        finally {
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+        }
+    }
+
+	@Override
+	/*
+    *   Count method to count number of GamesOwned in the given mode
+    */
+	public long count(Connection connection, CountMode mode)
+			throws SQLException, DAOException
+	{
+		// the scan is the plain count, the other modes do not read the table
+		if (mode == CountMode.SCAN) {
+			return count(connection);
+		}
+		RowCountDAO rowCountDAO = new RowCountDAOImpl();
+		return rowCountDAO.count(connection, CountedTable.GAMES_OWNED, mode);
+	}
+
 	// declaring SQL count query as a string 
     private static final String count = "SELECT COUNT(*) FROM gamesowned";
 	
@@ -311,7 +742,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
     	PreparedStatement ps = null;
         try
         {
-        	ps = connection.prepareStatement(count);
+        	ps = StatementCache.prepare(connection, count);
 			ResultSet rs = ps.executeQuery(); 
 			
 			// if resultSet is empty
@@ -321,25 +752,27 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 			return rs.getInt(1);
         }
         finally {
-			// check if the PreparedStatement is not null and is not closed
-        	if(ps != null && !ps.isClosed())
-        		ps.close();
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
         }
     }
 	
+	// mapping of the gamesowned columns, read by index
+	private static final RowMapper<GamesOwned> ROWS = new RowMapper<GamesOwned>(GamesOwned::new, (rs, columns, gamesOwned) -> {
+    	gamesOwned.setId(rs.getLong(columns[0])); 
+    	gamesOwned.setPlayerID(rs.getLong(columns[1])); 
+    	gamesOwned.setGameID(rs.getLong(columns[2])); 
+    	gamesOwned.setPurchaseDate(rs.getDate(columns[3])); 
+    	gamesOwned.setPurchasePrice(rs.getFloat(columns[4]));
+	}, "id", "player_id", "game_id", "purchase_date", "purchase_price");
+
 	/*
-    *   extarctFromRS method to get GamesOwned rows
+    *   extarctFromRS method to get a single GamesOwned row
     */
 	private GamesOwned extractFromRS(ResultSet rs) 
 			throws SQLException 
     {
-    	GamesOwned GamesOwned = new GamesOwned(); 
-    	GamesOwned.setId(rs.getLong("id")); 
-    	GamesOwned.setPlayerID(rs.getLong("player_id")); 
-    	GamesOwned.setGameID(rs.getLong("game_id")); 
-    	GamesOwned.setPurchaseDate(rs.getDate("purchase_date")); 
-    	GamesOwned.setPurchasePrice(rs.getFloat("purchase_price"));
-    	return GamesOwned;
+    	return ROWS.newRows().extract(rs);
     }
 
-}
\ No newline at end of file
+}
@@ -18,12 +18,31 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
 import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowCountDAO;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.ScoreStatistics;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
 
 public class GamesPlayedDAOImpl implements GamesPlayedDAO
 {
+	private final int batchSize; //number of rows sent per executeBatch by createAll
+
+	public GamesPlayedDAOImpl()
+	{
+		this(BatchSupport.DEFAULT_BATCH_SIZE);
+	}
+
+	public GamesPlayedDAOImpl(int batchSize)
+	{
+		this.batchSize = BatchSupport.checkBatchSize(batchSize);
+	}
+
 	private static final String createSQL = "INSERT INTO gamesplayed(player_id, game_id, time_finished, score) " + "VALUES (?, ?, ?, ?)"; //creating the SQl statement
    
 	@Override
@@ -36,7 +55,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
     	PreparedStatement query = null; //Setting query to null
     	try
     	{
-    		query = connection.prepareStatement(createSQL, Statement.RETURN_GENERATED_KEYS);
+    		query = StatementCache.prepare(connection, createSQL, Statement.RETURN_GENERATED_KEYS);
     		query.setLong(1,gamesPlayed.getPlayerID()); //Setting playerID
     		query.setLong(2,gamesPlayed.getGameID()); //Setting gameID
     		query.setDate(3,new java.sql.Date(gamesPlayed.getTimeFinished().getTime())); //Setting timeFinished
@@ -51,15 +70,56 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
     	}
     	finally
     	{
-    		if(query!=null && !query.isClosed())
-    			query.close(); //Closing the query
-    			
+    		StatementCache.release(query); //Handing the query back to the statement cache
+    	}
+    }
+
+    @Override
+    public List<GamesPlayed> createAll(Connection connection, List<GamesPlayed> gamesPlayed) throws SQLException, DAOException
+    {
+    	for(GamesPlayed gp : gamesPlayed)
+    	{
+    		if(gp.getId()!=null)
+    		{
+    			throw new DAOException("Trying to insert an entity that has a Non-Null key, i.e. it already exists"); //Throwing a new exception if any ID is not null
+    		}
+    	}
+    	if(gamesPlayed.isEmpty())
+    		return gamesPlayed; //Nothing to send
+    	PreparedStatement query = null; //Setting query to null
+    	try
+    	{
+    		query = StatementCache.prepare(connection, createSQL, Statement.RETURN_GENERATED_KEYS);
+    		BatchSupport.executeBatch(query, gamesPlayed, batchSize, (stmt, gp) -> {
+    			stmt.setLong(1,gp.getPlayerID()); //Setting playerID
+    			stmt.setLong(2,gp.getGameID()); //Setting gameID
+    			stmt.setDate(3,new java.sql.Date(gp.getTimeFinished().getTime())); //Setting timeFinished
+    			stmt.setInt(4, gp.getScore()); //Setting score
+    		}, GamesPlayed::setId); //Copying the generated keys back in order
+    		return gamesPlayed; //Returning the updated objects
+    	}
+    	finally
+    	{
+    		StatementCache.release(query); //Handing the query back to the statement cache
     	}
     }
     
     private static final String selectSQl = "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed WHERE id = ?";
     @Override
     public GamesPlayed retrieveID(Connection connection, Long gamePlayedID) throws SQLException, DAOException
+    {
+    	return selectByID(connection, selectSQl, gamePlayedID);
+    }
+
+    private static final String lockSQL = selectSQl + " FOR UPDATE";
+    @Override
+    public GamesPlayed lockID(Connection connection, Long gamePlayedID) throws SQLException, DAOException
+    {
+    	return selectByID(connection, lockSQL, gamePlayedID);
+    }
+
+    //Runs one of the queries by ID
+    private GamesPlayed selectByID(Connection connection, String sql, Long gamePlayedID) throws SQLException, DAOException
     {
     	if(gamePlayedID == null)
     	{
@@ -68,7 +128,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
     	PreparedStatement query = null;
     	try 
     	{
-    		query = connection.prepareStatement(selectSQl); //Preparing the query
+    		query = StatementCache.prepare(connection, sql); //Preparing the query
     		query.setLong(1,gamePlayedID); //Setting the query
     		ResultSet rs = query.executeQuery(); //Executing the query
     		if(!rs.next())
@@ -78,8 +138,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
     	}
     	finally
     	{
-    		if(query != null && !query.isClosed())
-    			query.close(); //Closing the query
+    		StatementCache.release(query); //Handing the query back to the statement cache
     	}
     }
     
@@ -95,20 +154,20 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
     	 PreparedStatement query = null; //Setting PreparedStatement to null
     	 try 
     	 {
-    		 query = connection.prepareStatement(selectSQLID); //Preparing the query
+    		 query = StatementCache.prepare(connection, selectSQLID); //Preparing the query
     		 query.setLong(1,gameID); //Setting the gameID to the string
     		 query.setLong(2,playerID); //Setting the playerID to the string
     		 ResultSet rs = query.executeQuery(); //Getting the resultset
+    		 RowExtractor<GamesPlayed> extractor = ROWS.newRows(); //Looking up the column indexes once for all rows
     		 while(rs.next())
     		 {
-    			 result.add(extractFromRS(rs));
+    			 result.add(extractor.extract(rs));
     		 }
     		 return result;
     	 }
     		 finally 
     		 {
-    			 if(query != null && !query.isClosed())
-    				 query.close(); //Closing the query
+    			 StatementCache.release(query); //Handing the query back to the statement cache
     		 }
     }
 
@@ -124,19 +183,19 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
    	 PreparedStatement query = null; //Setting PreparedStatement to null
    	 try 
    	 {
-   		 query = connection.prepareStatement(selectSQLPlayer); //Preparing the query
+   		 query = StatementCache.prepare(connection, selectSQLPlayer); //Preparing the query
    		 query.setLong(1,playerID); //Setting the gameID to the string
    		 ResultSet rs = query.executeQuery(); //Getting the resultset
+   		 RowExtractor<GamesPlayed> extractor = ROWS.newRows(); //Looking up the column indexes once for all rows
    		 while(rs.next())
    		 {
-   			 result.add(extractFromRS(rs));
+   			 result.add(extractor.extract(rs));
    		 }
    		 return result;
    	 }
     finally 
    	 {
-   	      if(query != null && !query.isClosed())
-   		  query.close(); //Closing the query
+   	      StatementCache.release(query); //Handing the query back to the statement cache
    	 }
     }
 
@@ -152,22 +211,174 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
    	 PreparedStatement query = null; //Setting PreparedStatement to null
    	 try 
    	 {
-   		 query = connection.prepareStatement(selectSQLGame); //Preparing the query
+   		 query = StatementCache.prepare(connection, selectSQLGame); //Preparing the query
    		 query.setLong(1,gameID); //Setting the gameID to the string
    		 ResultSet rs = query.executeQuery(); //Getting the resultset
+   		 RowExtractor<GamesPlayed> extractor = ROWS.newRows(); //Looking up the column indexes once for all rows
    		 while(rs.next())
    		 {
-   			 result.add(extractFromRS(rs));
+   			 result.add(extractor.extract(rs));
    		 }
    		 return result;
    	 }
     finally 
    	 {
-   	      if(query != null && !query.isClosed())
-   		  query.close(); //Closing the query
+   	      StatementCache.release(query); //Handing the query back to the statement cache
    	 }
     }
 
+    @Override
+    public int streamByPlayer(Connection connection, Long playerID, RowHandler<GamesPlayed> handler) throws SQLException, DAOException
+    {
+    	if(playerID == null)
+    	{
+    		throw new DAOException("Cannot search the database with a null PlayerID"); //Throwing a new exception if the playerID is null
+    	}
+    	PreparedStatement query = null; //Setting PreparedStatement to null
+    	try
+    	{
+    		query = StreamingQuery.prepare(connection, selectSQLPlayer); //Preparing a streaming query, not cached
+    		query.setLong(1,playerID); //Setting the playerID to the string
+    		return StreamingQuery.forEach(query, ROWS.newRows(), handler); //Handing each row to the handler
+    	}
+    	finally
+    	{
+    		StreamingQuery.close(query); //Closing the streaming query
+    	}
+    }
+
+    @Override
+    public int streamByGame(Connection connection, Long gameID, RowHandler<GamesPlayed> handler) throws SQLException, DAOException
+    {
+    	if(gameID == null)
+    	{
+    		throw new DAOException("Cannot search the database with a null gameID"); //Throwing a new exception if the gameID is null
+    	}
+    	PreparedStatement query = null; //Setting PreparedStatement to null
+    	try
+    	{
+    		query = StreamingQuery.prepare(connection, selectSQLGame); //Preparing a streaming query, not cached
+    		query.setLong(1,gameID); //Setting the gameID to the string
+    		return StreamingQuery.forEach(query, ROWS.newRows(), handler); //Handing each row to the handler
+    	}
+    	finally
+    	{
+    		StreamingQuery.close(query); //Closing the streaming query
+    	}
+    }
+
+    @Override
+    public int scanByGame(Connection connection, Long gameID, RowHandler<GamesPlayed> handler) throws SQLException, DAOException
+    {
+    	if(gameID == null)
+    	{
+    		throw new DAOException("Cannot search the database with a null gameID"); //Throwing a new exception if the gameID is null
+    	}
+    	PreparedStatement query = null; //Setting PreparedStatement to null
+    	try
+    	{
+    		query = StreamingQuery.prepare(connection, selectSQLGame); //Preparing a streaming query, not cached
+    		query.setLong(1,gameID); //Setting the gameID to the string
+    		return StreamingQuery.forEach(query, ROWS.reusedRow(), handler); //Handing every row to the handler in the same GamesPlayed
+    	}
+    	finally
+    	{
+    		StreamingQuery.close(query); //Closing the streaming query
+    	}
+    }
+
+    private static final String selectSQLPlayerPage = "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed WHERE player_id = ? AND id > ? ORDER BY id LIMIT ?";
+    @Override
+    public Page<GamesPlayed> retrieveByPlayerPage(Connection connection, Long playerID, String pageToken, int pageSize) throws SQLException, DAOException
+    {
+    	if(playerID == null)
+    	{
+    		throw new DAOException("Cannot search the database with a null PlayerID"); //Throwing a new exception if the playerID is null
+    	}
+    	PreparedStatement query = null; //Setting PreparedStatement to null
+    	try
+    	{
+    		query = StatementCache.prepare(connection, selectSQLPlayerPage); //Preparing the query
+    		query.setLong(1,playerID); //Setting the playerID to the string
+    		return KeysetPage.read(query, 2, pageToken, pageSize, ROWS.newRows(), GamesPlayed::getId); //Reading the page after the token
+    	}
+    	finally
+    	{
+    		StatementCache.release(query); //Handing the query back to the statement cache
+    	}
+    }
+
+    private static final String selectSQLGamePage = "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed WHERE game_id = ? AND id > ? ORDER BY id LIMIT ?";
+    @Override
+    public Page<GamesPlayed> retrieveByGamePage(Connection connection, Long gameID, String pageToken, int pageSize) throws SQLException, DAOException
+    {
+    	if(gameID == null)
+    	{
+    		throw new DAOException("Cannot search the database with a null gameID"); //Throwing a new exception if the gameID is null
+    	}
+    	PreparedStatement query = null; //Setting PreparedStatement to null
+    	try
+    	{
+    		query = StatementCache.prepare(connection, selectSQLGamePage); //Preparing the query
+    		query.setLong(1,gameID); //Setting the gameID to the string
+    		return KeysetPage.read(query, 2, pageToken, pageSize, ROWS.newRows(), GamesPlayed::getId); //Reading the page after the token
+    	}
+    	finally
+    	{
+    		StatementCache.release(query); //Handing the query back to the statement cache
+    	}
+    }
+
+    private static final String selectSQLBestScores = "SELECT player_id, game_id, MAX(score) AS score FROM gamesplayed GROUP BY game_id, player_id";
+    @Override
+    public int streamBestScores(Connection connection, RowHandler<GamesPlayed> handler) throws SQLException, DAOException
+    {
+    	PreparedStatement query = null; //Setting PreparedStatement to null
+    	try
+    	{
+    		query = StreamingQuery.prepare(connection, selectSQLBestScores); //Preparing a streaming query, not cached
+    		return StreamingQuery.forEach(query, BEST_SCORES.reusedRow(), handler); //Handing each best score to the handler in the same GamesPlayed
+    	}
+    	finally
+    	{
+    		StreamingQuery.close(query); //Closing the streaming query
+    	}
+    }
+
+    private static final String selectSQLScoreStatsByGame = "SELECT game_id AS group_id, COUNT(*), AVG(score), MIN(score), MAX(score) FROM gamesplayed GROUP BY game_id ORDER BY game_id";
+    @Override
+    public ScoreStatistics retrieveScoreStatisticsByGame(Connection connection) throws SQLException, DAOException
+    {
+    	return readScoreStatistics(connection, selectSQLScoreStatsByGame); //Grouping is done by the database
+    }
+
+    private static final String selectSQLScoreStatsByPlayer = "SELECT player_id AS group_id, COUNT(*), AVG(score), MIN(score), MAX(score) FROM gamesplayed GROUP BY player_id ORDER BY player_id";
+    @Override
+    public ScoreStatistics retrieveScoreStatisticsByPlayer(Connection connection) throws SQLException, DAOException
+    {
+    	return readScoreStatistics(connection, selectSQLScoreStatsByPlayer); //Grouping is done by the database
+    }
+
+    private ScoreStatistics readScoreStatistics(Connection connection, String sql) throws SQLException //Reading one row per group into the primitive arrays
+    {
+    	PreparedStatement query = null; //Setting PreparedStatement to null
+    	try
+    	{
+    		query = StatementCache.prepare(connection, sql); //Preparing the query
+    		ResultSet rs = query.executeQuery(); //Executing the SQL query
+    		ScoreStatistics result = new ScoreStatistics();
+    		while(rs.next())
+    		{
+    			result.add(rs.getLong(1), rs.getLong(2), rs.getDouble(3), rs.getInt(4), rs.getInt(5)); //Appending the group, rows come in id order
+    		}
+    		return result;
+    	}
+    	finally
+    	{
+    		StatementCache.release(query); //Handing the query back to the statement cache
+    	}
+    }
+
     private static final String updateSQL = "UPDATE gamesplayed SET player_id = ?, game_id = ?, time_finished = ?, score = ? WHERE id = ?";
     @Override
     public int update(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException
@@ -179,7 +390,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
     	PreparedStatement query = null;
     	try
     	{
-    		query = connection.prepareStatement(updateSQL);
+    		query = StatementCache.prepare(connection, updateSQL);
     		query.setLong(1, gamesPlayed.getPlayerID());
     		query.setLong(2,gamesPlayed.getGameID());
     		query.setDate(3, new java.sql.Date(gamesPlayed.getTimeFinished().getTime()));
@@ -191,8 +402,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
     	}
     	finally
     	{
-    		if(query != null && !query.isClosed())
-    			query.close();
+    		StatementCache.release(query); //Handing the query back to the statement cache
     	}
     }
 
@@ -207,18 +417,53 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
         PreparedStatement query = null;
         try 
         {
-        	query = connection.prepareStatement(deleteSQL); //Preparing the statement
+        	query = StatementCache.prepare(connection, deleteSQL); //Preparing the statement
         	query.setLong(1,gamePlayedID); //Setting the SQL query
         	int rows = query.executeUpdate(); //Executing the update
         	return rows;
         }
         finally
         {
-        	if(query != null && !query.isClosed())
-        		query.close(); //closing the query
+        	StatementCache.release(query); //Handing the query back to the statement cache
         }
     }
 
+    private static final String deleteForPlayersSQL = "DELETE FROM gamesplayed WHERE player_id IN "
+            + BatchSupport.placeholders(BatchSupport.IN_CHUNK_SIZE);
+    @Override
+    public int deleteForPlayers(Connection connection, List<Long> playerIDs) throws SQLException, DAOException
+    {
+        if(playerIDs.contains(null))
+        {
+        	throw new DAOException("Trying to delete with Null player ID"); //Throwing a new Exception
+        }
+        if(playerIDs.isEmpty())
+        {
+        	return 0;
+        }
+        PreparedStatement query = null;
+        try 
+        {
+        	query = StatementCache.prepare(connection, deleteForPlayersSQL); //Preparing the statement
+        	return BatchSupport.executeUpdateByIDs(query, 1, playerIDs); //One delete per chunk of player IDs
+        }
+        finally
+        {
+        	StatementCache.release(query); //Handing the query back to the statement cache
+        }
+    }
+
+    @Override
+    public long count(Connection connection, CountMode mode) throws SQLException, DAOException
+    {
+    	if(mode == CountMode.SCAN)
+    	{
+    		return count(connection); //The exact count, a full index scan
+    	}
+    	RowCountDAO rowCountDAO = new RowCountDAOImpl();
+    	return rowCountDAO.count(connection, CountedTable.GAMES_PLAYED, mode); //The estimate or the counter, no scan
+    }
+
     private static final String countSQL = "SELECT COUNT(*) FROM gamesplayed";
     @Override
     public int count(Connection connection) throws SQLException, DAOException
@@ -226,7 +471,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
         PreparedStatement query = null;
         try
         {
-        	query = connection.prepareStatement(countSQL); //Setting the query
+        	query = StatementCache.prepare(connection, countSQL); //Setting the query
         	ResultSet rs = query.executeQuery(); //Executing the SQL query
         	if(!rs.next())
         		throw new DAOException("No Count found"); //Throwing a new exception
@@ -234,20 +479,29 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
         }
         finally
         {
-        	if(query != null && !query.isClosed())
-        		query.close(); //Closing the query
+        	StatementCache.release(query); //Handing the query back to the statement cache
         }
     }
     
+    //Mapping of the gamesplayed columns, read by index
+    private static final RowMapper<GamesPlayed> ROWS = new RowMapper<GamesPlayed>(GamesPlayed::new, (rs, columns, gamesPlayed) -> {
+    	gamesPlayed.setId(rs.getLong(columns[0])); //Setting the id
+    	gamesPlayed.setPlayerID(rs.getLong(columns[1])); //Setting the playerID
+    	gamesPlayed.setGameID(rs.getLong(columns[2])); //Setting the gameID
+    	gamesPlayed.setTimeFinished(rs.getDate(columns[3])); //Setting the timeFinished
+    	gamesPlayed.setScore(rs.getInt(columns[4])); //Setting the score
+    }, "id", "player_id", "game_id", "time_finished", "score");
+
+    //Mapping of the grouped best score query, only its columns are set
+    private static final RowMapper<GamesPlayed> BEST_SCORES = new RowMapper<GamesPlayed>(GamesPlayed::new, (rs, columns, best) -> {
+    	best.setPlayerID(rs.getLong(columns[0])); //Setting the playerID
+    	best.setGameID(rs.getLong(columns[1])); //Setting the gameID
+    	best.setScore(rs.getInt(columns[2])); //Setting the best score
+    }, "player_id", "game_id", "score");
+
     private GamesPlayed extractFromRS(ResultSet rs) throws SQLException //Creating a new private function to extract data from result set
     {
-    	GamesPlayed gamesPlayed = new GamesPlayed(); //Creating a new GamesPlayed object
-    	gamesPlayed.setId(rs.getLong("id")); //Setting the id
-    	gamesPlayed.setPlayerID(rs.getLong("player_id")); //Setting the playerID
-    	gamesPlayed.setGameID(rs.getLong("game_id")); //Setting the gameID
-    	gamesPlayed.setTimeFinished(rs.getDate("time_finished")); //Setting the timeFinished
-    	gamesPlayed.setScore(rs.getInt("score")); //Setting the score
-    	return gamesPlayed; //Returning the gamesPlayed object
+    	return ROWS.newRows().extract(rs); //Extracting a single row
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Shared keyset (seek) paging used by the page methods of the DAO
+ * implementations. A page query ends in "AND id > ? ORDER BY id LIMIT ?";
+ * the token of the next page holds the last id of the current one, so every
+ * page is an index range scan of pageSize + 1 rows however deep it is.
+ */
+class KeysetPage
+{
+    static final int MAX_PAGE_SIZE = 10000;
+
+    private static final String TOKEN_PREFIX = "id:";
+
+    static int checkPageSize(int pageSize)
+    {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + pageSize);
+        }
+        return pageSize;
+    }
+
+    /**
+     * Returns the id the page after the token starts after. A null token is the
+     * first page.
+     */
+    static long afterId(String token) throws DAOException
+    {
+        if (token == null) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (decoded.startsWith(TOKEN_PREFIX)) {
+                return Long.parseLong(decoded.substring(TOKEN_PREFIX.length()));
+            }
+        }
+        catch (IllegalArgumentException ex) {
+            // NumberFormatException is an IllegalArgumentException too
+        }
+        throw new DAOException("Invalid page token: " + token);
+    }
+
+    /**
+     * Binds the id and limit parameters at afterParam and afterParam + 1, runs
+     * the query and builds the page. One extra row is read to know whether a
+     * next page exists.
+     */
+    static <T> Page<T> read(PreparedStatement ps, int afterParam, String token, int pageSize,
+            RowExtractor<T> extractor, Function<T, Long> idOf) throws SQLException, DAOException
+    {
+        checkPageSize(pageSize);
+        ps.setLong(afterParam, afterId(token));
+        ps.setInt(afterParam + 1, pageSize + 1);
+
+        List<T> items = new ArrayList<T>(pageSize);
+        boolean more = false;
+        ResultSet rs = ps.executeQuery();
+        try {
+            while (rs.next()) {
+                if (items.size() == pageSize) {
+                    more = true;
+                    break;
+                }
+                items.add(extractor.extract(rs));
+            }
+        }
+        finally {
+            rs.close();
+        }
+
+        String nextToken = null;
+        if (more) {
+            String last = TOKEN_PREFIX + idOf.apply(items.get(items.size() - 1));
+            nextToken = Base64.getUrlEncoder().withoutPadding().encodeToString(last.getBytes(StandardCharsets.UTF_8));
+        }
+        return new Page<T>(items, nextToken);
+    }
+}
@@ -19,13 +19,30 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.dao.RowCountDAO;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.entity.Player;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
 
 public class PlayerDAOImpl implements PlayerDAO {
 
+	// number of rows sent per executeBatch by createAll
+	private final int batchSize;
+
+	public PlayerDAOImpl() {
+		this(BatchSupport.DEFAULT_BATCH_SIZE);
+	}
+
+	public PlayerDAOImpl(int batchSize) {
+		this.batchSize = BatchSupport.checkBatchSize(batchSize);
+	}
+
 	// declaring SQL insert query as a string 
 	private static final String insertSQL = "INSERT INTO player (first_name, last_name, join_date, email) VALUES (?, ?, ?, ?);";
 
@@ -44,7 +61,7 @@ public class PlayerDAOImpl implements PlayerDAO {
 		// set PreparedStatement to null 
 		PreparedStatement ps = null;
 		try {
-			ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+			ps = StatementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
 
 			// setting the fields using the setter and getter functions for the DAO			
 			ps.setString(1, player.getFirstName());
@@ -60,11 +77,43 @@ public class PlayerDAOImpl implements PlayerDAO {
 			player.setId((long) lastKey);
 			return player;
 		} finally {
-			// check if the PreparedStatement is not null and is not closed
-			if (ps != null && !ps.isClosed()) {
-				ps.close();
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
+	}
+
+	@Override
+	/*
+    *   CreateAll method to batch insert new Player rows
+    */
+	public List<Player> createAll(Connection connection, List<Player> players)
+			throws SQLException, DAOException
+	{
+		// throw DAOException if any Player's ID field is not null
+		for (Player player : players) {
+			if (player.getId() != null) {
+				throw new DAOException("Trying to insert Player with NON-NULL ID");
 			}
 		}
+		if (players.isEmpty()) {
+			return players;
+		}
+
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+		try {
+			ps = StatementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
+			BatchSupport.executeBatch(ps, players, batchSize, (stmt, player) -> {
+				stmt.setString(1, player.getFirstName());
+				stmt.setString(2, player.getLastName());
+				stmt.setDate(3, new java.sql.Date(player.getJoinDate().getTime()));
+				stmt.setString(4, player.getEmail());
+			}, Player::setId);
+			return players;
+		} finally {
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
 	}
 
 	// declaring SQL select query as a string 
@@ -85,7 +134,7 @@ public class PlayerDAOImpl implements PlayerDAO {
 		// set PreparedStatement to null
 		PreparedStatement ps = null;
 		try {
-			ps = connection.prepareStatement(selectSQL);
+			ps = StatementCache.prepare(connection, selectSQL);
 
 			// setting the ID field using the setter for the DAO
 			ps.setLong(1, playerID);
@@ -101,10 +150,8 @@ public class PlayerDAOImpl implements PlayerDAO {
 			return player;
 		} 
 		finally {
-			// check if the PreparedStatement is not null and is not closed
-			if (ps != null && !ps.isClosed()) {
-				ps.close();
-			}
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
 		}
 	}
 
@@ -127,7 +174,7 @@ public class PlayerDAOImpl implements PlayerDAO {
 		// set PreparedStatement to null
 		PreparedStatement ps = null;
 		try {
-			ps = connection.prepareStatement(updateSQL);
+			ps = StatementCache.prepare(connection, updateSQL);
 
 			// setting the fields using the setter and getter functions for the DAO
 			ps.setString(1, player.getFirstName());
@@ -140,10 +187,8 @@ public class PlayerDAOImpl implements PlayerDAO {
 			return rows;
 		} 
 		finally {
-			// check if the PreparedStatement is not null and is not closed
-			if (ps != null && !ps.isClosed()) {
-				ps.close();
-			}
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
 		}
 	}
 
@@ -165,7 +210,7 @@ public class PlayerDAOImpl implements PlayerDAO {
 		// set PreparedStatement to null
 		PreparedStatement ps = null;
 		try {
-			ps = connection.prepareStatement(deleteSQL);
+			ps = StatementCache.prepare(connection, deleteSQL);
 
 			// setting the field using the setter functions for the DAO
 			ps.setLong(1, playerID);
@@ -174,13 +219,59 @@ public class PlayerDAOImpl implements PlayerDAO {
 			return rows;
 		} 
 		finally {
-			// check if the PreparedStatement is not null and is not closed
-			if (ps != null && !ps.isClosed()) {
-				ps.close();
-			}
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
 		}
 	}
 
+	// declaring SQL delete query for many players as a string
+	final static String deleteByIDsSQL = "delete from player where id in "
+			+ BatchSupport.placeholders(BatchSupport.IN_CHUNK_SIZE);
+
+	@Override
+	/*
+    *   DeleteByIDs method for many existing Player rows
+    */
+	public int deleteByIDs(Connection connection, List<Long> playerIDs)
+			throws SQLException, DAOException
+	{
+		// throw DAOException if any Player's ID field is null
+		if (playerIDs.contains(null)) {
+			throw new DAOException("Trying to delete player with NULL ID");
+		}
+		if (playerIDs.isEmpty()) {
+			return 0;
+		}
+
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+		try {
+			ps = StatementCache.prepare(connection, deleteByIDsSQL);
+
+			// one statement per chunk of IDs
+			return BatchSupport.executeUpdateByIDs(ps, 1, playerIDs);
+		}
+		finally {
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
+	}
+
+	@Override
+	/*
+    *   Count method to count number of Players in the given mode
+    */
+	public long count(Connection connection, CountMode mode)
+			throws SQLException, DAOException
+	{
+		// the scan is the plain count, the other modes do not read the table
+		if (mode == CountMode.SCAN) {
+			return count(connection);
+		}
+		RowCountDAO rowCountDAO = new RowCountDAOImpl();
+		return rowCountDAO.count(connection, CountedTable.PLAYER, mode);
+	}
+
 	// declaring SQL count query as a string 
 	final static String countSQL = "select count(*) from player";
 
@@ -195,7 +286,7 @@ public class PlayerDAOImpl implements PlayerDAO {
 		PreparedStatement ps = null;
 		
 		try {
-			ps = connection.prepareStatement(countSQL);
+			ps = StatementCache.prepare(connection, countSQL);
 			ResultSet rs = ps.executeQuery();
 			
 			// if resultSet is empty
@@ -206,10 +297,8 @@ public class PlayerDAOImpl implements PlayerDAO {
 			return count;
 		} 
 		finally {
-			// check if the PreparedStatement is not null and is not closed
-			if (ps != null && !ps.isClosed()) {
-				ps.close();
-			}
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
 		}
 	}
 	
@@ -230,7 +319,7 @@ public class PlayerDAOImpl implements PlayerDAO {
 		PreparedStatement ps = null;
 		
 		try {
-			ps = connection.prepareStatement(retrieveByJoiningDate);
+			ps = StatementCache.prepare(connection, retrieveByJoiningDate);
 
 			// setting the fields using the setter and getter functions for the DAO
 			ps.setDate(1, new java.sql.Date(start.getTime()));
@@ -238,33 +327,87 @@ public class PlayerDAOImpl implements PlayerDAO {
 			ResultSet rs = ps.executeQuery();
 			
 			// while resultSet has a row
+			RowExtractor<Player> extractor = ROWS.newRows();
 			while (rs.next()) {
-				Player player = extractFromRS(rs);
+				Player player = extractor.extract(rs);
 				result.add(player);
 			}
 			return result;
 		}
 		finally {
-			// check if the PreparedStatement is not null and is not closed
-			if (ps != null && !ps.isClosed()) {
-				ps.close();
-			}
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
+	}
+
+	@Override
+	/*
+    *   StreamByJoinDate method to hand Player rows to a handler
+    */
+	public int streamByJoinDate(Connection connection, Date start, Date end, RowHandler<Player> handler)
+			throws SQLException, DAOException
+	{
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+
+		try {
+			// streamed statements are not cached, see StreamingQuery
+			ps = StreamingQuery.prepare(connection, retrieveByJoiningDate);
+
+			// setting the fields using the setter and getter functions for the DAO
+			ps.setDate(1, new java.sql.Date(start.getTime()));
+			ps.setDate(2, new java.sql.Date(end.getTime()));
+			return StreamingQuery.forEach(ps, ROWS.newRows(), handler);
+		}
+		finally {
+			StreamingQuery.close(ps);
 		}
 	}
 
+	// declaring SQL select query for one page as a string
+	final static String retrieveByJoiningDatePage = "select id, first_name, last_name, join_date, email from player "
+			+ "where join_date between ? and ? and id > ? order by id limit ?";
+
+	@Override
+	/*
+    *   RetrieveByJoinDatePage method to get one page of rows from the Player table
+    */
+	public Page<Player> retrieveByJoinDatePage(Connection connection, Date start, Date end, String pageToken,
+			int pageSize) throws SQLException, DAOException
+	{
+		// set PreparedStatement to null
+		PreparedStatement ps = null;
+
+		try {
+			ps = StatementCache.prepare(connection, retrieveByJoiningDatePage);
+
+			// setting the fields using the setter and getter functions for the DAO
+			ps.setDate(1, new java.sql.Date(start.getTime()));
+			ps.setDate(2, new java.sql.Date(end.getTime()));
+			return KeysetPage.read(ps, 3, pageToken, pageSize, ROWS.newRows(), Player::getId);
+		}
+		finally {
+			// hand the PreparedStatement back to the statement cache
+			StatementCache.release(ps);
+		}
+	}
+
+	// mapping of the player columns, read by index
+	private static final RowMapper<Player> ROWS = new RowMapper<Player>(Player::new, (rs, columns, player) -> {
+		player.setId(rs.getLong(columns[0]));
+		player.setFirstName(rs.getString(columns[1]));
+		player.setLastName(rs.getString(columns[2]));
+		player.setJoinDate(rs.getDate(columns[3]));
+		player.setEmail(rs.getString(columns[4]));
+	}, "id", "first_name", "last_name", "join_date", "email");
+
 	/*
-    *   extarctFromRS method to get Player rows
+    *   extarctFromRS method to get a single Player row
     */
 	private Player extractFromRS(ResultSet rs) 
 			throws SQLException 
 	{
-		Player player = new Player();
-		player.setId(rs.getLong("id"));
-		player.setFirstName(rs.getString("first_name"));
-		player.setLastName(rs.getString("last_name"));
-		player.setJoinDate(rs.getDate("join_date"));
-		player.setEmail(rs.getString("email"));
-		return player;
+		return ROWS.newRows().extract(rs);
 	}
 
 }
@@ -0,0 +1,138 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
+import cs4347.jdbcGame.dao.RowCountDAO;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+public class RowCountDAOImpl implements RowCountDAO
+{
+    // number of rows each counter is spread over
+    static final int SLOTS = 16;
+
+    // declaring SQL statistics query as a string, TABLE_ROWS is InnoDB's estimate
+    private static final String approximateSQL = "SELECT TABLE_ROWS FROM information_schema.TABLES "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    // declaring SQL counter query as a string, the count is the sum of the slots
+    private static final String counterSQL = "SELECT COALESCE(SUM(row_count), 0) FROM row_counter WHERE table_name = ?";
+
+    @Override
+    /*
+    *   count method to get the number of rows of a table in the given mode
+    */
+    public long count(Connection connection, CountedTable table, CountMode mode) throws SQLException, DAOException
+    {
+        // throw DAOException if the table or the mode is null
+        if (table == null || mode == null) {
+            throw new DAOException("Cannot count with a NULL table or mode");
+        }
+
+        String sql;
+        switch (mode) {
+        case APPROXIMATE:
+            sql = approximateSQL;
+            break;
+        case COUNTER:
+            sql = counterSQL;
+            break;
+        default:
+            // the table name comes from the enum, never from the caller
+            sql = "SELECT COUNT(*) FROM " + table.getTableName();
+        }
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, sql);
+            if (mode != CountMode.SCAN) {
+                ps.setString(1, table.getTableName());
+            }
+            ResultSet rs = ps.executeQuery();
+
+            // information_schema has no row for a table that does not exist
+            if (!rs.next()) {
+                throw new DAOException("No " + mode + " count for table " + table.getTableName());
+            }
+            return rs.getLong(1);
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    // declaring SQL upsert query as a string, the delta is added to an existing slot
+    private static final String upsertSQL = "INSERT INTO row_counter(table_name, slot, row_count) "
+            + "VALUES(?, ?, ?) ON DUPLICATE KEY UPDATE row_count = row_count + VALUES(row_count)";
+
+    @Override
+    /*
+    *   applyDelta method to add to the counter of one table
+    */
+    public void applyDelta(Connection connection, CountedTable table, long delta) throws SQLException, DAOException
+    {
+        // throw DAOException if the table is null
+        if (table == null) {
+            throw new DAOException("Cannot update the counter of a NULL table");
+        }
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, upsertSQL);
+            ps.setString(1, table.getTableName());
+            // one transaction runs on one thread, so it locks one slot per table
+            ps.setInt(2, (int) (Thread.currentThread().getId() % SLOTS));
+            ps.setLong(3, delta);
+            ps.executeUpdate();
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    // declaring the SQL rebuild queries as strings, the table is emptied and refilled with one statement
+    private static final String deleteCountersSQL = "DELETE FROM row_counter";
+    private static final String rebuildCountersSQL = "INSERT INTO row_counter(table_name, slot, row_count) "
+            + "SELECT 'player', 0, COUNT(*) FROM player "
+            + "UNION ALL SELECT 'creditcard', 0, COUNT(*) FROM creditcard "
+            + "UNION ALL SELECT 'game', 0, COUNT(*) FROM game "
+            + "UNION ALL SELECT 'gamesowned', 0, COUNT(*) FROM gamesowned "
+            + "UNION ALL SELECT 'gamesplayed', 0, COUNT(*) FROM gamesplayed";
+
+    @Override
+    /*
+    *   rebuild method to recompute every counter
+    */
+    public void rebuild(Connection connection) throws SQLException, DAOException
+    {
+        // run once, so the statements are not cached
+        for (String sql : new String[] { deleteCountersSQL, rebuildCountersSQL }) {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            try {
+                ps.executeUpdate();
+            }
+            finally {
+                ps.close();
+            }
+        }
+    }
+}
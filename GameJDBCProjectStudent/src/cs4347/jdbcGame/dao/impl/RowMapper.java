@@ -0,0 +1,86 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Maps the rows of a query to entities by column index. The named columns are
+ * looked up with findColumn once per ResultSet, when its first row is mapped;
+ * every later get call uses the index instead of having the driver resolve
+ * the column name again for every row.
+ *
+ * newRows() returns an extractor that creates an entity per row. reusedRow()
+ * returns one that fills the same entity for every row (a flyweight), for
+ * scans whose handler only reads the fields while it runs: the handler must
+ * copy what it wants to keep, because the next row overwrites it. An
+ * extractor holds the indexes of one result, so take a new one per query.
+ */
+class RowMapper<T>
+{
+    /**
+     * Sets the fields of the entity from the current row. columns[i] is the
+     * index of the i-th column name the RowMapper was created with.
+     */
+    interface ColumnReader<T>
+    {
+        void read(ResultSet rs, int[] columns, T row) throws SQLException;
+    }
+
+    private final Supplier<T> factory;
+    private final ColumnReader<T> reader;
+    private final String[] names;
+
+    RowMapper(Supplier<T> factory, ColumnReader<T> reader, String... names)
+    {
+        this.factory = factory;
+        this.reader = reader;
+        this.names = names;
+    }
+
+    RowExtractor<T> newRows()
+    {
+        return new Compiled(false);
+    }
+
+    RowExtractor<T> reusedRow()
+    {
+        return new Compiled(true);
+    }
+
+    private class Compiled implements RowExtractor<T>
+    {
+        private final int[] columns = new int[names.length];
+        private final T reused;
+        private ResultSet resolvedFor;
+
+        Compiled(boolean reuse)
+        {
+            this.reused = reuse ? factory.get() : null;
+        }
+
+        @Override
+        public T extract(ResultSet rs) throws SQLException
+        {
+            if (rs != resolvedFor) {
+                for (int idx = 0; idx < names.length; idx++) {
+                    columns[idx] = rs.findColumn(names[idx]);
+                }
+                resolvedFor = rs;
+            }
+            T row = reused != null ? reused : factory.get();
+            reader.read(rs, columns, row);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import cs4347.jdbcGame.dao.RowHandler;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Shared query loop of the stream methods of the DAO implementations. The
+ * statement is forward only and read only with a fetch size of
+ * Integer.MIN_VALUE, which makes the MySQL driver hand out rows as they
+ * arrive instead of buffering the whole result, so memory use does not
+ * depend on the number of rows.
+ *
+ * Until the result is closed the connection cannot run any other statement,
+ * so streamed statements bypass the StatementCache and are closed after
+ * every query. Closing a result early still reads the remaining rows off
+ * the wire.
+ */
+class StreamingQuery
+{
+    static PreparedStatement prepare(Connection connection, String sql) throws SQLException
+    {
+        PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(Integer.MIN_VALUE);
+        return ps;
+    }
+
+    /**
+     * Runs the query and passes every row to the handler. Returns the number of
+     * rows handled.
+     */
+    static <T> int forEach(PreparedStatement ps, RowExtractor<T> extractor, RowHandler<T> handler)
+            throws SQLException, DAOException
+    {
+        ResultSet rs = ps.executeQuery();
+        try {
+            int rows = 0;
+            while (rs.next()) {
+                handler.handle(extractor.extract(rs));
+                rows++;
+            }
+            return rows;
+        }
+        finally {
+            rs.close();
+        }
+    }
+
+    static void close(PreparedStatement ps) throws SQLException
+    {
+        if (ps != null && !ps.isClosed()) {
+            ps.close();
+        }
+    }
+}
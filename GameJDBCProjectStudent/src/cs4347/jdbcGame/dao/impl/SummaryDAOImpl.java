@@ -0,0 +1,244 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import cs4347.jdbcGame.dao.SummaryDAO;
+import cs4347.jdbcGame.entity.GameSummary;
+import cs4347.jdbcGame.entity.PlayerSummary;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+public class SummaryDAOImpl implements SummaryDAO
+{
+    // declaring SQL upsert query as a string, the amounts are added to an existing row
+    private static final String upsertGameSQL = "INSERT INTO game_summary(game_id, owners, revenue, plays, score_total) "
+            + "VALUES(?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE owners = owners + VALUES(owners), "
+            + "revenue = revenue + VALUES(revenue), plays = plays + VALUES(plays), "
+            + "score_total = score_total + VALUES(score_total)";
+
+    @Override
+    /*
+    *   applyGameDelta method to add to the totals of one game
+    */
+    public void applyGameDelta(Connection connection, Long gameID, long owners, double revenue, long plays,
+            long scoreTotal) throws SQLException, DAOException
+    {
+        // throw DAOException if the Game ID is null
+        if (gameID == null) {
+            throw new DAOException("Cannot update the summary of a NULL gameID");
+        }
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, upsertGameSQL);
+            ps.setLong(1, gameID);
+            ps.setLong(2, owners);
+            ps.setDouble(3, revenue);
+            ps.setLong(4, plays);
+            ps.setLong(5, scoreTotal);
+            ps.executeUpdate();
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    // declaring SQL upsert query as a string, the amounts are added to an existing row
+    private static final String upsertPlayerSQL = "INSERT INTO player_summary(player_id, games_owned, total_spend) "
+            + "VALUES(?, ?, ?) ON DUPLICATE KEY UPDATE games_owned = games_owned + VALUES(games_owned), "
+            + "total_spend = total_spend + VALUES(total_spend)";
+
+    @Override
+    /*
+    *   applyPlayerDelta method to add to the totals of one player
+    */
+    public void applyPlayerDelta(Connection connection, Long playerID, long gamesOwned, double totalSpend)
+            throws SQLException, DAOException
+    {
+        // throw DAOException if the Player ID is null
+        if (playerID == null) {
+            throw new DAOException("Cannot update the summary of a NULL playerID");
+        }
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, upsertPlayerSQL);
+            ps.setLong(1, playerID);
+            ps.setLong(2, gamesOwned);
+            ps.setDouble(3, totalSpend);
+            ps.executeUpdate();
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    // declaring SQL select query as a string
+    private static final String selectGameSQL = "SELECT game_id, owners, revenue, plays, score_total FROM game_summary WHERE game_id = ?";
+
+    @Override
+    /*
+    *   retrieveGameSummary method to get one row of the game_summary table
+    */
+    public GameSummary retrieveGameSummary(Connection connection, Long gameID) throws SQLException, DAOException
+    {
+        // throw DAOException if the Game ID is null
+        if (gameID == null) {
+            throw new DAOException("Cannot search game_summary with NULL gameID");
+        }
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, selectGameSQL);
+            ps.setLong(1, gameID);
+            ResultSet rs = ps.executeQuery();
+
+            // if resultSet does not have a row
+            if (!rs.next()) {
+                return null;
+            }
+            GameSummary summary = new GameSummary();
+            summary.setGameID(rs.getLong("game_id"));
+            summary.setOwners(rs.getLong("owners"));
+            summary.setRevenue(rs.getDouble("revenue"));
+            summary.setPlays(rs.getLong("plays"));
+            summary.setScoreTotal(rs.getLong("score_total"));
+            return summary;
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    // declaring SQL select query as a string
+    private static final String selectPlayerSQL = "SELECT player_id, games_owned, total_spend FROM player_summary WHERE player_id = ?";
+
+    @Override
+    /*
+    *   retrievePlayerSummary method to get one row of the player_summary table
+    */
+    public PlayerSummary retrievePlayerSummary(Connection connection, Long playerID)
+            throws SQLException, DAOException
+    {
+        // throw DAOException if the Player ID is null
+        if (playerID == null) {
+            throw new DAOException("Cannot search player_summary with NULL playerID");
+        }
+
+        // set PreparedStatement to null
+        PreparedStatement ps = null;
+        try {
+            ps = StatementCache.prepare(connection, selectPlayerSQL);
+            ps.setLong(1, playerID);
+            ResultSet rs = ps.executeQuery();
+
+            // if resultSet does not have a row
+            if (!rs.next()) {
+                return null;
+            }
+            PlayerSummary summary = new PlayerSummary();
+            summary.setPlayerID(rs.getLong("player_id"));
+            summary.setGamesOwned(rs.getLong("games_owned"));
+            summary.setTotalSpend(rs.getDouble("total_spend"));
+            return summary;
+        }
+        finally {
+            // hand the PreparedStatement back to the statement cache
+            StatementCache.release(ps);
+        }
+    }
+
+    // declaring the SQL queries that take the rows of many players out of the game totals as strings
+    private static final String subtractOwnedSQL = "UPDATE game_summary gs "
+            + "JOIN (SELECT game_id, COUNT(*) AS owners, SUM(purchase_price) AS revenue FROM gamesowned "
+            + "WHERE player_id IN " + BatchSupport.placeholders(BatchSupport.IN_CHUNK_SIZE) + " GROUP BY game_id) o "
+            + "ON o.game_id = gs.game_id "
+            + "SET gs.owners = gs.owners - o.owners, gs.revenue = gs.revenue - o.revenue";
+    private static final String subtractPlayedSQL = "UPDATE game_summary gs "
+            + "JOIN (SELECT game_id, COUNT(*) AS plays, SUM(score) AS score_total FROM gamesplayed "
+            + "WHERE player_id IN " + BatchSupport.placeholders(BatchSupport.IN_CHUNK_SIZE) + " GROUP BY game_id) p "
+            + "ON p.game_id = gs.game_id "
+            + "SET gs.plays = gs.plays - p.plays, gs.score_total = gs.score_total - p.score_total";
+
+    @Override
+    /*
+    *   subtractPlayers method to take the purchases and plays of many players out of the game totals
+    */
+    public void subtractPlayers(Connection connection, List<Long> playerIDs) throws SQLException, DAOException
+    {
+        // throw DAOException if any Player ID is null
+        if (playerIDs.contains(null)) {
+            throw new DAOException("Cannot subtract the summary of a NULL player ID");
+        }
+        if (playerIDs.isEmpty()) {
+            return;
+        }
+
+        for (String sql : new String[] { subtractOwnedSQL, subtractPlayedSQL }) {
+            // set PreparedStatement to null
+            PreparedStatement ps = null;
+            try {
+                ps = StatementCache.prepare(connection, sql);
+
+                // one statement per chunk of player IDs
+                BatchSupport.executeUpdateByIDs(ps, 1, playerIDs);
+            }
+            finally {
+                // hand the PreparedStatement back to the statement cache
+                StatementCache.release(ps);
+            }
+        }
+    }
+
+    // declaring the SQL rebuild queries as strings, each table is emptied and refilled with one statement
+    private static final String deleteGamesSQL = "DELETE FROM game_summary";
+    private static final String rebuildGamesSQL = "INSERT INTO game_summary(game_id, owners, revenue, plays, score_total) "
+            + "SELECT g.id, COALESCE(o.owners, 0), COALESCE(o.revenue, 0), COALESCE(p.plays, 0), COALESCE(p.score_total, 0) "
+            + "FROM game g "
+            + "LEFT JOIN (SELECT game_id, COUNT(*) AS owners, SUM(purchase_price) AS revenue FROM gamesowned GROUP BY game_id) o "
+            + "ON o.game_id = g.id "
+            + "LEFT JOIN (SELECT game_id, COUNT(*) AS plays, SUM(score) AS score_total FROM gamesplayed GROUP BY game_id) p "
+            + "ON p.game_id = g.id "
+            + "WHERE o.game_id IS NOT NULL OR p.game_id IS NOT NULL";
+    private static final String deletePlayersSQL = "DELETE FROM player_summary";
+    private static final String rebuildPlayersSQL = "INSERT INTO player_summary(player_id, games_owned, total_spend) "
+            + "SELECT player_id, COUNT(*), SUM(purchase_price) FROM gamesowned GROUP BY player_id";
+
+    @Override
+    /*
+    *   rebuild method to recompute both summary tables
+    */
+    public void rebuild(Connection connection) throws SQLException, DAOException
+    {
+        // run once, so the statements are not cached
+        for (String sql : new String[] { deleteGamesSQL, rebuildGamesSQL, deletePlayersSQL, rebuildPlayersSQL }) {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            try {
+                ps.executeUpdate();
+            }
+            finally {
+                ps.close();
+            }
+        }
+    }
+}
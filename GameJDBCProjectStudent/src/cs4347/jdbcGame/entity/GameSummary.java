@@ -0,0 +1,84 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.entity;
+
+/**
+ * The pre-computed purchase and play totals of one game, read from the
+ * GAME_SUMMARY table.
+ */
+public class GameSummary
+{
+    private Long gameID;
+    private long owners;
+    private double revenue;
+    private long plays;
+    private long scoreTotal;
+
+    public Long getGameID()
+    {
+        return gameID;
+    }
+
+    public void setGameID(Long gameID)
+    {
+        this.gameID = gameID;
+    }
+
+    public long getOwners()
+    {
+        return owners;
+    }
+
+    public void setOwners(long owners)
+    {
+        this.owners = owners;
+    }
+
+    public double getRevenue()
+    {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue)
+    {
+        this.revenue = revenue;
+    }
+
+    public long getPlays()
+    {
+        return plays;
+    }
+
+    public void setPlays(long plays)
+    {
+        this.plays = plays;
+    }
+
+    public long getScoreTotal()
+    {
+        return scoreTotal;
+    }
+
+    public void setScoreTotal(long scoreTotal)
+    {
+        this.scoreTotal = scoreTotal;
+    }
+
+    /**
+     * The sum of the scores is stored rather than the average so that plays
+     * can be added and removed exactly. Returns 0 if the game was never played.
+     */
+    public double getAverageScore()
+    {
+        return plays == 0 ? 0 : (double) scoreTotal / plays;
+    }
+
+}
@@ -0,0 +1,79 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the profile page of a player shows: the player with the credit
+ * cards, the games owned and played, and each game referenced by them once.
+ */
+public class PlayerProfile
+{
+    private Player player;
+    private List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>();
+    private List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>();
+    private Map<Long, Game> games = new HashMap<Long, Game>();
+
+    public Player getPlayer()
+    {
+        return player;
+    }
+
+    public void setPlayer(Player player)
+    {
+        this.player = player;
+    }
+
+    public List<GamesOwned> getGamesOwned()
+    {
+        return gamesOwned;
+    }
+
+    public void setGamesOwned(List<GamesOwned> gamesOwned)
+    {
+        this.gamesOwned = gamesOwned;
+    }
+
+    public List<GamesPlayed> getGamesPlayed()
+    {
+        return gamesPlayed;
+    }
+
+    public void setGamesPlayed(List<GamesPlayed> gamesPlayed)
+    {
+        this.gamesPlayed = gamesPlayed;
+    }
+
+    /**
+     * The owned and played games by game ID.
+     */
+    public Map<Long, Game> getGames()
+    {
+        return games;
+    }
+
+    public void setGames(Map<Long, Game> games)
+    {
+        this.games = games;
+    }
+
+    /**
+     * Returns null if the game is not referenced by the profile.
+     */
+    public Game getGame(Long gameID)
+    {
+        return games.get(gameID);
+    }
+}
@@ -0,0 +1,53 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.entity;
+
+/**
+ * The pre-computed purchase totals of one player, read from the
+ * PLAYER_SUMMARY table.
+ */
+public class PlayerSummary
+{
+    private Long playerID;
+    private long gamesOwned;
+    private double totalSpend;
+
+    public Long getPlayerID()
+    {
+        return playerID;
+    }
+
+    public void setPlayerID(Long playerID)
+    {
+        this.playerID = playerID;
+    }
+
+    public long getGamesOwned()
+    {
+        return gamesOwned;
+    }
+
+    public void setGamesOwned(long gamesOwned)
+    {
+        this.gamesOwned = gamesOwned;
+    }
+
+    public double getTotalSpend()
+    {
+        return totalSpend;
+    }
+
+    public void setTotalSpend(double totalSpend)
+    {
+        this.totalSpend = totalSpend;
+    }
+
+}
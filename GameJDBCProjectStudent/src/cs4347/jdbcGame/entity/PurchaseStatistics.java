@@ -0,0 +1,125 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.entity;
+
+import java.util.Arrays;
+
+/**
+ * Purchase statistics of GamesOwned grouped by game or by player: the number
+ * of purchases and the revenue and average price of each group. Like
+ * ScoreStatistics the groups are kept in parallel primitive arrays ordered by
+ * id.
+ */
+public class PurchaseStatistics
+{
+    private long[] ids;
+    private long[] purchaseCounts;
+    private double[] revenues;
+    private double[] averagePrices;
+    private int size;
+
+    public PurchaseStatistics()
+    {
+        this(16);
+    }
+
+    public PurchaseStatistics(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        ids = new long[capacity];
+        purchaseCounts = new long[capacity];
+        revenues = new double[capacity];
+        averagePrices = new double[capacity];
+    }
+
+    /**
+     * Appends a group. Groups must be added in increasing id order.
+     */
+    public void add(long id, long purchaseCount, double revenue, double averagePrice)
+    {
+        if (size > 0 && id <= ids[size - 1]) {
+            throw new IllegalArgumentException("Groups must be added in increasing id order");
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            purchaseCounts = Arrays.copyOf(purchaseCounts, capacity);
+            revenues = Arrays.copyOf(revenues, capacity);
+            averagePrices = Arrays.copyOf(averagePrices, capacity);
+        }
+        ids[size] = id;
+        purchaseCounts[size] = purchaseCount;
+        revenues[size] = revenue;
+        averagePrices[size] = averagePrice;
+        size++;
+    }
+
+    /**
+     * Returns the number of groups.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the position of the group with the given game or player id, or
+     * -1 if there are no rows for it.
+     */
+    public int indexOf(long id)
+    {
+        int idx = Arrays.binarySearch(ids, 0, size, id);
+        return idx >= 0 ? idx : -1;
+    }
+
+    public long getID(int idx)
+    {
+        checkIndex(idx);
+        return ids[idx];
+    }
+
+    public long getPurchaseCount(int idx)
+    {
+        checkIndex(idx);
+        return purchaseCounts[idx];
+    }
+
+    public double getRevenue(int idx)
+    {
+        checkIndex(idx);
+        return revenues[idx];
+    }
+
+    public double getAveragePrice(int idx)
+    {
+        checkIndex(idx);
+        return averagePrices[idx];
+    }
+
+    /**
+     * Returns the revenue over all groups.
+     */
+    public double getTotalRevenue()
+    {
+        double total = 0;
+        for (int idx = 0; idx < size; idx++) {
+            total += revenues[idx];
+        }
+        return total;
+    }
+
+    private void checkIndex(int idx)
+    {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Group " + idx + " of " + size);
+        }
+    }
+}
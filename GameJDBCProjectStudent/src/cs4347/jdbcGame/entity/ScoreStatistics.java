@@ -0,0 +1,135 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.entity;
+
+import java.util.Arrays;
+
+/**
+ * Score statistics of GamesPlayed grouped by game or by player: the number of
+ * plays and the average, lowest and highest score of each group. The groups
+ * are kept in parallel primitive arrays ordered by id, so a result for every
+ * player of a large table stays a few arrays instead of one object per row.
+ */
+public class ScoreStatistics
+{
+    private long[] ids;
+    private long[] playCounts;
+    private double[] averageScores;
+    private int[] minScores;
+    private int[] maxScores;
+    private int size;
+
+    public ScoreStatistics()
+    {
+        this(16);
+    }
+
+    public ScoreStatistics(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        ids = new long[capacity];
+        playCounts = new long[capacity];
+        averageScores = new double[capacity];
+        minScores = new int[capacity];
+        maxScores = new int[capacity];
+    }
+
+    /**
+     * Appends a group. Groups must be added in increasing id order.
+     */
+    public void add(long id, long playCount, double averageScore, int minScore, int maxScore)
+    {
+        if (size > 0 && id <= ids[size - 1]) {
+            throw new IllegalArgumentException("Groups must be added in increasing id order");
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            playCounts = Arrays.copyOf(playCounts, capacity);
+            averageScores = Arrays.copyOf(averageScores, capacity);
+            minScores = Arrays.copyOf(minScores, capacity);
+            maxScores = Arrays.copyOf(maxScores, capacity);
+        }
+        ids[size] = id;
+        playCounts[size] = playCount;
+        averageScores[size] = averageScore;
+        minScores[size] = minScore;
+        maxScores[size] = maxScore;
+        size++;
+    }
+
+    /**
+     * Returns the number of groups.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the position of the group with the given game or player id, or
+     * -1 if there are no rows for it.
+     */
+    public int indexOf(long id)
+    {
+        int idx = Arrays.binarySearch(ids, 0, size, id);
+        return idx >= 0 ? idx : -1;
+    }
+
+    public long getID(int idx)
+    {
+        checkIndex(idx);
+        return ids[idx];
+    }
+
+    public long getPlayCount(int idx)
+    {
+        checkIndex(idx);
+        return playCounts[idx];
+    }
+
+    public double getAverageScore(int idx)
+    {
+        checkIndex(idx);
+        return averageScores[idx];
+    }
+
+    public int getMinScore(int idx)
+    {
+        checkIndex(idx);
+        return minScores[idx];
+    }
+
+    public int getMaxScore(int idx)
+    {
+        checkIndex(idx);
+        return maxScores[idx];
+    }
+
+    /**
+     * Returns the number of plays over all groups.
+     */
+    public long getTotalPlayCount()
+    {
+        long total = 0;
+        for (int idx = 0; idx < size; idx++) {
+            total += playCounts[idx];
+        }
+        return total;
+    }
+
+    private void checkIndex(int idx)
+    {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Group " + idx + " of " + size);
+        }
+    }
+}
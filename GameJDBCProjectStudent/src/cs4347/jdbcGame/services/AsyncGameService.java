@@ -0,0 +1,61 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
+import cs4347.jdbcGame.entity.Game;
+
+/**
+ * The non-blocking counterpart of GameService. Every method runs the
+ * GameService call of the same name on a ServiceExecutor and returns at
+ * once; the future completes with the result, or exceptionally with the
+ * DAOException or SQLException of the call. Independent calls started
+ * together run in parallel, each on its own connection and in its own
+ * transaction. The calls do not join a UnitOfWork of the calling thread.
+ */
+public interface AsyncGameService
+{
+    CompletableFuture<Game> create(Game game);
+
+    CompletableFuture<Game> retrieve(long gameID);
+
+    CompletableFuture<Map<Long, Game>> retrieveByIDs(Collection<Long> gameIDs);
+
+    CompletableFuture<Integer> update(Game game);
+
+    CompletableFuture<Integer> delete(long gameID);
+
+    CompletableFuture<Integer> count();
+
+    CompletableFuture<Long> count(CountMode mode);
+
+    CompletableFuture<List<Game>> retrieveByTitle(String titlePattern);
+
+    CompletableFuture<Integer> streamByTitle(String titlePattern, RowHandler<Game> handler);
+
+    CompletableFuture<List<Game>> searchByTitle(String text, int limit);
+
+    CompletableFuture<List<Game>> searchByTitlePrefix(String prefix, int limit);
+
+    CompletableFuture<List<Game>> searchByDescription(String text, int limit);
+
+    CompletableFuture<List<Game>> retrieveByReleaseDate(Date start, Date end);
+
+    CompletableFuture<Page<Game>> retrieveByReleaseDatePage(Date start, Date end, String pageToken, int pageSize);
+}
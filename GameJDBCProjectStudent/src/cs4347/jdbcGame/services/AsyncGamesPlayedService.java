@@ -0,0 +1,65 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.ScoreStatistics;
+
+/**
+ * The non-blocking counterpart of GamesPlayedService. Every method runs the
+ * GamesPlayedService call of the same name on a ServiceExecutor and returns
+ * at once; the future completes with the result, or exceptionally with the
+ * DAOException or SQLException of the call. Independent calls started
+ * together run in parallel, each on its own connection and in its own
+ * transaction. The calls do not join a UnitOfWork of the calling thread.
+ */
+public interface AsyncGamesPlayedService
+{
+    CompletableFuture<GamesPlayed> create(GamesPlayed gamesPlayed);
+
+    CompletableFuture<List<GamesPlayed>> createAll(List<GamesPlayed> gamesPlayed);
+
+    CompletableFuture<GamesPlayed> retrieveByID(long gamePlayedID);
+
+    CompletableFuture<List<GamesPlayed>> retrieveByPlayerGameID(long playerID, long gameID);
+
+    CompletableFuture<List<GamesPlayed>> retrieveByGame(long gameID);
+
+    CompletableFuture<List<GamesPlayed>> retrieveByPlayer(long playerID);
+
+    CompletableFuture<Integer> streamByGame(long gameID, RowHandler<GamesPlayed> handler);
+
+    CompletableFuture<Integer> scanByGame(long gameID, RowHandler<GamesPlayed> handler);
+
+    CompletableFuture<Integer> streamByPlayer(long playerID, RowHandler<GamesPlayed> handler);
+
+    CompletableFuture<Page<GamesPlayed>> retrieveByGamePage(long gameID, String pageToken, int pageSize);
+
+    CompletableFuture<Page<GamesPlayed>> retrieveByPlayerPage(long playerID, String pageToken, int pageSize);
+
+    CompletableFuture<ScoreStatistics> retrieveScoreStatisticsByGame();
+
+    CompletableFuture<ScoreStatistics> retrieveScoreStatisticsByPlayer();
+
+    CompletableFuture<Integer> update(GamesPlayed gamesPlayed);
+
+    CompletableFuture<Integer> delete(long gamePlayedID);
+
+    CompletableFuture<Integer> count();
+
+    CompletableFuture<Long> count(CountMode mode);
+}
@@ -0,0 +1,53 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
+import cs4347.jdbcGame.entity.Player;
+
+/**
+ * The non-blocking counterpart of PlayerService. Every method runs the
+ * PlayerService call of the same name on a ServiceExecutor and returns at
+ * once; the future completes with the result, or exceptionally with the
+ * DAOException or SQLException of the call. Independent calls started
+ * together run in parallel, each on its own connection and in its own
+ * transaction. The calls do not join a UnitOfWork of the calling thread.
+ */
+public interface AsyncPlayerService
+{
+    CompletableFuture<Player> create(Player player);
+
+    CompletableFuture<Player> retrieve(Long playerID);
+
+    CompletableFuture<Integer> update(Player player);
+
+    CompletableFuture<Integer> delete(Long playerID);
+
+    CompletableFuture<Integer> purge(List<Long> playerIDs);
+
+    CompletableFuture<Integer> count();
+
+    CompletableFuture<Long> count(CountMode mode);
+
+    CompletableFuture<Integer> countCreditCardsForPlayer(Long playerID);
+
+    CompletableFuture<List<Player>> retrieveByJoinDate(Date start, Date end);
+
+    CompletableFuture<Integer> streamByJoinDate(Date start, Date end, RowHandler<Player> handler);
+
+    CompletableFuture<Page<Player>> retrieveByJoinDatePage(Date start, Date end, String pageToken, int pageSize);
+}
@@ -11,9 +11,14 @@
 package cs4347.jdbcGame.services;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.util.DAOException;
 
@@ -23,14 +28,59 @@ public interface GameService
 
     Game retrieve(long gameID) throws DAOException, SQLException;
 
+    /**
+     * Returns the games with the given IDs by ID. Cached games are not read
+     * again and the rest are read with one query per chunk of IDs. IDs without
+     * a game are left out of the map.
+     */
+    Map<Long, Game> retrieveByIDs(Collection<Long> gameIDs) throws DAOException, SQLException;
+
     int update(Game game) throws DAOException, SQLException;
 
     int delete(long gameID) throws DAOException, SQLException;
 
     int count() throws DAOException, SQLException;
 
+    /**
+     * Counts the rows as the mode says; see CountMode for what each costs.
+     */
+    long count(CountMode mode) throws DAOException, SQLException;
+
     List<Game> retrieveByTitle(String titlePattern) throws DAOException, SQLException;
 
+    /**
+     * Streams the matching games to the handler without loading them all into
+     * memory. Returns the number of games. Inside a transaction the handler
+     * cannot call other services; see RowHandler.
+     */
+    int streamByTitle(String titlePattern, RowHandler<Game> handler) throws DAOException, SQLException;
+
+    /**
+     * Returns up to limit games whose title contains the text, ignoring case. Unlike
+     * retrieveByTitle this never scans the table: it is answered from an in-memory trigram
+     * index, built on the first search and kept up to date by this service.
+     */
+    List<Game> searchByTitle(String text, int limit) throws DAOException, SQLException;
+
+    /**
+     * Returns up to limit games whose title starts with the prefix, ignoring case, from the same
+     * index as searchByTitle.
+     */
+    List<Game> searchByTitlePrefix(String prefix, int limit) throws DAOException, SQLException;
+
+    /**
+     * Returns up to limit games whose description contains the text, ignoring case, from the same
+     * index as searchByTitle.
+     */
+    List<Game> searchByDescription(String text, int limit) throws DAOException, SQLException;
+
     List<Game> retrieveByReleaseDate(Date start, Date end) throws DAOException, SQLException;
 
+    /**
+     * Returns one page of the games released in the range, ordered by id. Pass null for the first page
+     * and the token of the previous page for the next ones.
+     */
+    Page<Game> retrieveByReleaseDatePage(Date start, Date end, String pageToken, int pageSize)
+            throws DAOException, SQLException;
+
 }
@@ -13,25 +13,90 @@ package cs4347.jdbcGame.services;
 import java.sql.SQLException;
 import java.util.List;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.PurchaseStatistics;
 import cs4347.jdbcGame.util.DAOException;
 
 public interface GamesOwnedService
 {
     GamesOwned create(GamesOwned gamesOwned) throws DAOException, SQLException;
 
+    /**
+     * Stores a whole basket of purchases in one transaction, written with one
+     * multi-row INSERT, and sets the ID of each GamesOwned. Either all
+     * purchases are stored or none.
+     */
+    List<GamesOwned> purchaseAll(List<GamesOwned> gamesOwned) throws DAOException, SQLException;
+
+    /**
+     * Records that the player owns the game: inserts the purchase, or
+     * overwrites the date and price if the player already owns the game, with
+     * one INSERT ... ON DUPLICATE KEY UPDATE. Sets the ID of the stored row.
+     * Calling it again with the same purchase changes nothing, so it is safe to
+     * retry.
+     */
+    GamesOwned upsert(GamesOwned gamesOwned) throws DAOException, SQLException;
+
+    /**
+     * Upserts all purchases in one transaction with multi-row statements of up
+     * to 100 rows, e.g. to replay purchase events, and sets the ID of each
+     * GamesOwned. The later of two purchases of the same game by the same
+     * player wins. Replaying a batch that was stored already changes nothing.
+     */
+    List<GamesOwned> upsertAll(List<GamesOwned> gamesOwned) throws DAOException, SQLException;
+
     GamesOwned retrieveByID(long gamesOwnedID) throws DAOException, SQLException;
 
     GamesOwned retrievePlayerGameID(long playerID, long gameID) throws DAOException, SQLException;
 
     List<GamesOwned> retrieveByGame(long gameID) throws DAOException, SQLException;
 
+    /**
+     * Streams the games owned for the game to the handler without loading them
+     * all into memory. The handler gets the same GamesOwned for every row,
+     * overwritten by the next one. Returns the number of rows. Inside a
+     * transaction the handler cannot call other services; see RowHandler.
+     */
+    int scanByGame(long gameID, RowHandler<GamesOwned> handler) throws DAOException, SQLException;
+
     List<GamesOwned> retrieveByPlayer(long playerID) throws DAOException, SQLException;
 
+    /**
+     * Returns one page of the games owned for the game, ordered by id. Pass null for the first page
+     * and the token of the previous page for the next ones.
+     */
+    Page<GamesOwned> retrieveByGamePage(long gameID, String pageToken, int pageSize) throws DAOException, SQLException;
+
+    /**
+     * Returns one page of the games owned by the player, ordered by id. Pass null for the first page
+     * and the token of the previous page for the next ones.
+     */
+    Page<GamesOwned> retrieveByPlayerPage(long playerID, String pageToken, int pageSize) throws DAOException, SQLException;
+
+    /**
+     * Returns the purchase count, revenue and average price of every game, grouped and summed by
+     * the database.
+     */
+    PurchaseStatistics retrievePurchaseStatisticsByGame() throws DAOException, SQLException;
+
+    /**
+     * Returns the purchase count, amount spent and average price of every player, grouped and
+     * summed by the database.
+     */
+    PurchaseStatistics retrievePurchaseStatisticsByPlayer() throws DAOException, SQLException;
+
     int update(GamesOwned gamesOwned) throws DAOException, SQLException;
 
     int delete(long gamesOwnedID) throws DAOException, SQLException;
 
     int count() throws DAOException, SQLException;
 
+    /**
+     * Counts the rows as the mode says; see CountMode for what each costs.
+     */
+    long count(CountMode mode) throws DAOException, SQLException;
+
 }
@@ -13,13 +13,23 @@ package cs4347.jdbcGame.services;
 import java.sql.SQLException;
 import java.util.List;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.ScoreStatistics;
 import cs4347.jdbcGame.util.DAOException;
 
 public interface GamesPlayedService
 {
     GamesPlayed create(GamesPlayed gamesPlayed) throws DAOException, SQLException;
 
+    /**
+     * Inserts all the GamesPlayed in one transaction with batched inserts and
+     * sets their IDs. Either all rows are stored or none.
+     */
+    List<GamesPlayed> createAll(List<GamesPlayed> gamesPlayed) throws DAOException, SQLException;
+
     GamesPlayed retrieveByID(long gamePlayedID) throws DAOException, SQLException;
 
     List<GamesPlayed> retrieveByPlayerGameID(long playerID, long gameID) throws DAOException, SQLException;
@@ -28,9 +38,59 @@ public interface GamesPlayedService
 
     List<GamesPlayed> retrieveByPlayer(long playerID) throws DAOException, SQLException;
 
+    /**
+     * Streams the GamesPlayed of the game to the handler without loading them
+     * all into memory. Returns the number of rows. Inside a transaction the
+     * handler cannot call other services; see RowHandler.
+     */
+    int streamByGame(long gameID, RowHandler<GamesPlayed> handler) throws DAOException, SQLException;
+
+    /**
+     * Like streamByGame, but the handler gets the same GamesPlayed for every row,
+     * overwritten by the next one; for handlers that only read the fields.
+     * The same restriction inside a transaction applies.
+     */
+    int scanByGame(long gameID, RowHandler<GamesPlayed> handler) throws DAOException, SQLException;
+
+    /**
+     * Streams the GamesPlayed of the player to the handler without loading them
+     * all into memory. Returns the number of rows. As with streamByGame, inside
+     * a transaction the handler cannot call other services.
+     */
+    int streamByPlayer(long playerID, RowHandler<GamesPlayed> handler) throws DAOException, SQLException;
+
+    /**
+     * Returns one page of the games played of the game, ordered by id. Pass null for the first page
+     * and the token of the previous page for the next ones.
+     */
+    Page<GamesPlayed> retrieveByGamePage(long gameID, String pageToken, int pageSize) throws DAOException, SQLException;
+
+    /**
+     * Returns one page of the games played by the player, ordered by id. Pass null for the first page
+     * and the token of the previous page for the next ones.
+     */
+    Page<GamesPlayed> retrieveByPlayerPage(long playerID, String pageToken, int pageSize) throws DAOException, SQLException;
+
+    /**
+     * Returns the play count and average, lowest and highest score of every game, grouped and
+     * summed by the database.
+     */
+    ScoreStatistics retrieveScoreStatisticsByGame() throws DAOException, SQLException;
+
+    /**
+     * Returns the play count and average, lowest and highest score of every player, grouped and
+     * summed by the database.
+     */
+    ScoreStatistics retrieveScoreStatisticsByPlayer() throws DAOException, SQLException;
+
     int update(GamesPlayed gamesPlayed) throws DAOException, SQLException;
 
     int delete(long gamePlayedID) throws DAOException, SQLException;
 
     int count() throws DAOException, SQLException;
+
+    /**
+     * Counts the rows as the mode says; see CountMode for what each costs.
+     */
+    long count(CountMode mode) throws DAOException, SQLException;
 }
@@ -0,0 +1,46 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import cs4347.jdbcGame.entity.LeaderboardEntry;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Per game leaderboards over the best score of each player. The boards are
+ * kept in memory, loaded from GAMES_PLAYED on first use and kept up to date by
+ * GamesPlayedService.
+ */
+public interface LeaderboardService
+{
+    /**
+     * Returns the best count players of the game, best first.
+     */
+    List<LeaderboardEntry> retrieveTop(long gameID, int count) throws DAOException, SQLException;
+
+    /**
+     * Returns the player's best score and rank in the game, or null if the player
+     * has not played it.
+     */
+    LeaderboardEntry retrieveRank(long gameID, long playerID) throws DAOException, SQLException;
+
+    /**
+     * Returns the number of players on the game's leaderboard.
+     */
+    int countPlayers(long gameID) throws DAOException, SQLException;
+
+    /**
+     * Discards the boards and loads them again from the database.
+     */
+    void reload() throws DAOException, SQLException;
+}
@@ -0,0 +1,33 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+import cs4347.jdbcGame.entity.PlayerProfile;
+import cs4347.jdbcGame.util.DAOException;
+
+public interface PlayerProfileService
+{
+    /**
+     * Returns the player with the credit cards, the games owned and played,
+     * and every game they reference, or null if there is no such player. The
+     * player, games owned and games played are read in parallel; the games are
+     * then read once each, from the cache or with one query.
+     */
+    PlayerProfile retrieve(long playerID) throws DAOException, SQLException;
+
+    /**
+     * The non-blocking form of retrieve.
+     */
+    CompletableFuture<PlayerProfile> retrieveAsync(long playerID);
+}
@@ -14,6 +14,9 @@ import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.entity.Player;
 import cs4347.jdbcGame.util.DAOException;
 
@@ -25,10 +28,29 @@ public interface PlayerService
 
     int update(Player player) throws DAOException, SQLException;
 
+    /**
+     * Deletes the player with the credit cards, games owned and games played,
+     * like purge. Returns 1, or 0 if there is no such player.
+     */
     int delete(Long playerID) throws DAOException, SQLException;
 
+    /**
+     * Deletes the players with all their credit cards, games owned and games
+     * played, e.g. for erasure requests. Runs one transaction per chunk of
+     * players (500 by default) with one set-based DELETE per table, so locks
+     * are held only for a chunk; a failure leaves the earlier chunks deleted.
+     * Unknown IDs are skipped, so a failed purge can be run again with the
+     * same list. Returns the number of players deleted.
+     */
+    int purge(List<Long> playerIDs) throws DAOException, SQLException;
+
     int count() throws DAOException, SQLException;
 
+    /**
+     * Counts the rows as the mode says; see CountMode for what each costs.
+     */
+    long count(CountMode mode) throws DAOException, SQLException;
+
     /**
      * Provided for testing and debugging.
      */
@@ -36,4 +58,20 @@ public interface PlayerService
 
     List<Player> retrieveByJoinDate(Date start, Date end) throws DAOException, SQLException;
 
+    /**
+     * Streams the players that joined in the range to the handler without
+     * loading them all into memory. Credit cards are not loaded. Returns the
+     * number of players. Inside a transaction the handler cannot call other
+     * services; see RowHandler.
+     */
+    int streamByJoinDate(Date start, Date end, RowHandler<Player> handler) throws DAOException, SQLException;
+
+    /**
+     * Returns one page of the players that joined in the range, with their
+     * credit cards, ordered by id. Pass null for the first page and the token
+     * of the previous page for the next ones.
+     */
+    Page<Player> retrieveByJoinDatePage(Date start, Date end, String pageToken, int pageSize)
+            throws DAOException, SQLException;
+
 }
@@ -0,0 +1,41 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services;
+
+import java.sql.SQLException;
+
+import cs4347.jdbcGame.entity.GameSummary;
+import cs4347.jdbcGame.entity.PlayerSummary;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Dashboard reads of the pre-computed game and player totals. Each read is a
+ * primary key lookup; the totals are maintained by GamesOwnedService and
+ * GamesPlayedService.
+ */
+public interface SummaryService
+{
+    /**
+     * Returns the totals of the game; all zero if it was never bought or played.
+     */
+    GameSummary retrieveGameSummary(long gameID) throws DAOException, SQLException;
+
+    /**
+     * Returns the totals of the player; all zero if the player never bought a game.
+     */
+    PlayerSummary retrievePlayerSummary(long playerID) throws DAOException, SQLException;
+
+    /**
+     * Recomputes all summaries from the games owned and played, and the row
+     * counters of CountMode.COUNTER, in one transaction.
+     */
+    void rebuild() throws DAOException, SQLException;
+}
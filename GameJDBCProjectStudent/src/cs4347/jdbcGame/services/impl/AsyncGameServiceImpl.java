@@ -0,0 +1,127 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.AsyncGameService;
+import cs4347.jdbcGame.services.GameService;
+
+// this class runs the GameService calls on a ServiceExecutor
+public class AsyncGameServiceImpl implements AsyncGameService {
+	private final GameService service;
+	private final ServiceExecutor executor;
+
+	public AsyncGameServiceImpl(DataSource dataSource, ServiceExecutor executor) {
+		this(new GameServiceImpl(dataSource), executor);
+	}
+
+	// wraps an existing service
+	public AsyncGameServiceImpl(GameService service, ServiceExecutor executor) {
+		this.service = service;
+		this.executor = executor;
+	}
+
+	// this function inserts a game
+	@Override
+	public CompletableFuture<Game> create(Game game) {
+		return executor.submit(() -> service.create(game));
+	}
+
+	// this function retrieves a game
+	@Override
+	public CompletableFuture<Game> retrieve(long gameID) {
+		return executor.submit(() -> service.retrieve(gameID));
+	}
+
+	// this function retrieves many games at once
+	@Override
+	public CompletableFuture<Map<Long, Game>> retrieveByIDs(Collection<Long> gameIDs) {
+		return executor.submit(() -> service.retrieveByIDs(gameIDs));
+	}
+
+	// this function updates a game
+	@Override
+	public CompletableFuture<Integer> update(Game game) {
+		return executor.submit(() -> service.update(game));
+	}
+
+	// this function deletes a game
+	@Override
+	public CompletableFuture<Integer> delete(long gameID) {
+		return executor.submit(() -> service.delete(gameID));
+	}
+
+	// this function counts the games
+	@Override
+	public CompletableFuture<Integer> count() {
+		return executor.submit(() -> service.count());
+	}
+
+	// this function counts the games in the given mode
+	@Override
+	public CompletableFuture<Long> count(CountMode mode) {
+		return executor.submit(() -> service.count(mode));
+	}
+
+	// this function retrieves games based on their titles
+	@Override
+	public CompletableFuture<List<Game>> retrieveByTitle(String titlePattern) {
+		return executor.submit(() -> service.retrieveByTitle(titlePattern));
+	}
+
+	// this function streams games based on their titles
+	@Override
+	public CompletableFuture<Integer> streamByTitle(String titlePattern, RowHandler<Game> handler) {
+		return executor.submit(() -> service.streamByTitle(titlePattern, handler));
+	}
+
+	// this function finds games by a substring of the title
+	@Override
+	public CompletableFuture<List<Game>> searchByTitle(String text, int limit) {
+		return executor.submit(() -> service.searchByTitle(text, limit));
+	}
+
+	// this function finds games by the start of the title
+	@Override
+	public CompletableFuture<List<Game>> searchByTitlePrefix(String prefix, int limit) {
+		return executor.submit(() -> service.searchByTitlePrefix(prefix, limit));
+	}
+
+	// this function finds games by a substring of the description
+	@Override
+	public CompletableFuture<List<Game>> searchByDescription(String text, int limit) {
+		return executor.submit(() -> service.searchByDescription(text, limit));
+	}
+
+	// this function retrieves games released between start and end
+	@Override
+	public CompletableFuture<List<Game>> retrieveByReleaseDate(Date start, Date end) {
+		return executor.submit(() -> service.retrieveByReleaseDate(start, end));
+	}
+
+	// this function retrieves one page of games released between start and end
+	@Override
+	public CompletableFuture<Page<Game>> retrieveByReleaseDatePage(Date start, Date end, String pageToken, int pageSize) {
+		return executor.submit(() -> service.retrieveByReleaseDatePage(start, end, pageToken, pageSize));
+	}
+
+}
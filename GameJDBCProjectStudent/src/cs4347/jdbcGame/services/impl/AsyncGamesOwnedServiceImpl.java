@@ -0,0 +1,143 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.PurchaseStatistics;
+import cs4347.jdbcGame.services.AsyncGamesOwnedService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+
+// this class runs the GamesOwnedService calls on a ServiceExecutor
+public class AsyncGamesOwnedServiceImpl implements AsyncGamesOwnedService {
+	private final GamesOwnedService service;
+	private final ServiceExecutor executor;
+
+	public AsyncGamesOwnedServiceImpl(DataSource dataSource, ServiceExecutor executor) {
+		this(new GamesOwnedServiceImpl(dataSource), executor);
+	}
+
+	// wraps an existing service, e.g. to share its cache
+	public AsyncGamesOwnedServiceImpl(GamesOwnedService service, ServiceExecutor executor) {
+		this.service = service;
+		this.executor = executor;
+	}
+
+	// this function inserts a row
+	@Override
+	public CompletableFuture<GamesOwned> create(GamesOwned gamesOwned) {
+		return executor.submit(() -> service.create(gamesOwned));
+	}
+
+	// this function stores a basket of purchases in one transaction
+	@Override
+	public CompletableFuture<List<GamesOwned>> purchaseAll(List<GamesOwned> gamesOwned) {
+		return executor.submit(() -> service.purchaseAll(gamesOwned));
+	}
+
+	// this function inserts or overwrites the purchase of a player and game
+	@Override
+	public CompletableFuture<GamesOwned> upsert(GamesOwned gamesOwned) {
+		return executor.submit(() -> service.upsert(gamesOwned));
+	}
+
+	// this function inserts or overwrites many purchases in one transaction
+	@Override
+	public CompletableFuture<List<GamesOwned>> upsertAll(List<GamesOwned> gamesOwned) {
+		return executor.submit(() -> service.upsertAll(gamesOwned));
+	}
+
+	// this function retrieves a row based on its ID
+	@Override
+	public CompletableFuture<GamesOwned> retrieveByID(long gamesOwnedID) {
+		return executor.submit(() -> service.retrieveByID(gamesOwnedID));
+	}
+
+	// this function retrieves a row based on playerID and gameID
+	@Override
+	public CompletableFuture<GamesOwned> retrievePlayerGameID(long playerID, long gameID) {
+		return executor.submit(() -> service.retrievePlayerGameID(playerID, gameID));
+	}
+
+	// this function retrieves rows based on gameID
+	@Override
+	public CompletableFuture<List<GamesOwned>> retrieveByGame(long gameID) {
+		return executor.submit(() -> service.retrieveByGame(gameID));
+	}
+
+	// this function streams rows based on gameID in one reused GamesOwned
+	@Override
+	public CompletableFuture<Integer> scanByGame(long gameID, RowHandler<GamesOwned> handler) {
+		return executor.submit(() -> service.scanByGame(gameID, handler));
+	}
+
+	// this function retrieves rows based on playerID
+	@Override
+	public CompletableFuture<List<GamesOwned>> retrieveByPlayer(long playerID) {
+		return executor.submit(() -> service.retrieveByPlayer(playerID));
+	}
+
+	// this function retrieves one page of rows based on gameID
+	@Override
+	public CompletableFuture<Page<GamesOwned>> retrieveByGamePage(long gameID, String pageToken, int pageSize) {
+		return executor.submit(() -> service.retrieveByGamePage(gameID, pageToken, pageSize));
+	}
+
+	// this function retrieves one page of rows based on playerID
+	@Override
+	public CompletableFuture<Page<GamesOwned>> retrieveByPlayerPage(long playerID, String pageToken, int pageSize) {
+		return executor.submit(() -> service.retrieveByPlayerPage(playerID, pageToken, pageSize));
+	}
+
+	// this function computes the purchase statistics of every game
+	@Override
+	public CompletableFuture<PurchaseStatistics> retrievePurchaseStatisticsByGame() {
+		return executor.submit(() -> service.retrievePurchaseStatisticsByGame());
+	}
+
+	// this function computes the purchase statistics of every player
+	@Override
+	public CompletableFuture<PurchaseStatistics> retrievePurchaseStatisticsByPlayer() {
+		return executor.submit(() -> service.retrievePurchaseStatisticsByPlayer());
+	}
+
+	// this function updates a row
+	@Override
+	public CompletableFuture<Integer> update(GamesOwned gamesOwned) {
+		return executor.submit(() -> service.update(gamesOwned));
+	}
+
+	// this function deletes a row
+	@Override
+	public CompletableFuture<Integer> delete(long gamesOwnedID) {
+		return executor.submit(() -> service.delete(gamesOwnedID));
+	}
+
+	// this function counts the rows
+	@Override
+	public CompletableFuture<Integer> count() {
+		return executor.submit(() -> service.count());
+	}
+
+	// this function counts the rows in the given mode
+	@Override
+	public CompletableFuture<Long> count(CountMode mode) {
+		return executor.submit(() -> service.count(mode));
+	}
+
+}
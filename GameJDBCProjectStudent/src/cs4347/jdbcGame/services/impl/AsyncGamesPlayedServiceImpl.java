@@ -0,0 +1,143 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.ScoreStatistics;
+import cs4347.jdbcGame.services.AsyncGamesPlayedService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+
+// this class runs the GamesPlayedService calls on a ServiceExecutor
+public class AsyncGamesPlayedServiceImpl implements AsyncGamesPlayedService {
+	private final GamesPlayedService service;
+	private final ServiceExecutor executor;
+
+	public AsyncGamesPlayedServiceImpl(DataSource dataSource, ServiceExecutor executor) {
+		this(new GamesPlayedServiceImpl(dataSource), executor);
+	}
+
+	// wraps an existing service, e.g. to share its cache
+	public AsyncGamesPlayedServiceImpl(GamesPlayedService service, ServiceExecutor executor) {
+		this.service = service;
+		this.executor = executor;
+	}
+
+	// this function inserts a row
+	@Override
+	public CompletableFuture<GamesPlayed> create(GamesPlayed gamesPlayed) {
+		return executor.submit(() -> service.create(gamesPlayed));
+	}
+
+	// this function inserts many rows in one transaction
+	@Override
+	public CompletableFuture<List<GamesPlayed>> createAll(List<GamesPlayed> gamesPlayed) {
+		return executor.submit(() -> service.createAll(gamesPlayed));
+	}
+
+	// this function retrieves a row based on its ID
+	@Override
+	public CompletableFuture<GamesPlayed> retrieveByID(long gamePlayedID) {
+		return executor.submit(() -> service.retrieveByID(gamePlayedID));
+	}
+
+	// this function retrieves rows based on playerID and gameID
+	@Override
+	public CompletableFuture<List<GamesPlayed>> retrieveByPlayerGameID(long playerID, long gameID) {
+		return executor.submit(() -> service.retrieveByPlayerGameID(playerID, gameID));
+	}
+
+	// this function retrieves rows based on gameID
+	@Override
+	public CompletableFuture<List<GamesPlayed>> retrieveByGame(long gameID) {
+		return executor.submit(() -> service.retrieveByGame(gameID));
+	}
+
+	// this function retrieves rows based on playerID
+	@Override
+	public CompletableFuture<List<GamesPlayed>> retrieveByPlayer(long playerID) {
+		return executor.submit(() -> service.retrieveByPlayer(playerID));
+	}
+
+	// this function streams rows based on gameID
+	@Override
+	public CompletableFuture<Integer> streamByGame(long gameID, RowHandler<GamesPlayed> handler) {
+		return executor.submit(() -> service.streamByGame(gameID, handler));
+	}
+
+	// this function streams rows based on gameID in one reused GamesPlayed
+	@Override
+	public CompletableFuture<Integer> scanByGame(long gameID, RowHandler<GamesPlayed> handler) {
+		return executor.submit(() -> service.scanByGame(gameID, handler));
+	}
+
+	// this function streams rows based on playerID
+	@Override
+	public CompletableFuture<Integer> streamByPlayer(long playerID, RowHandler<GamesPlayed> handler) {
+		return executor.submit(() -> service.streamByPlayer(playerID, handler));
+	}
+
+	// this function retrieves one page of rows based on gameID
+	@Override
+	public CompletableFuture<Page<GamesPlayed>> retrieveByGamePage(long gameID, String pageToken, int pageSize) {
+		return executor.submit(() -> service.retrieveByGamePage(gameID, pageToken, pageSize));
+	}
+
+	// this function retrieves one page of rows based on playerID
+	@Override
+	public CompletableFuture<Page<GamesPlayed>> retrieveByPlayerPage(long playerID, String pageToken, int pageSize) {
+		return executor.submit(() -> service.retrieveByPlayerPage(playerID, pageToken, pageSize));
+	}
+
+	// this function computes the score statistics of every game
+	@Override
+	public CompletableFuture<ScoreStatistics> retrieveScoreStatisticsByGame() {
+		return executor.submit(() -> service.retrieveScoreStatisticsByGame());
+	}
+
+	// this function computes the score statistics of every player
+	@Override
+	public CompletableFuture<ScoreStatistics> retrieveScoreStatisticsByPlayer() {
+		return executor.submit(() -> service.retrieveScoreStatisticsByPlayer());
+	}
+
+	// this function updates a row
+	@Override
+	public CompletableFuture<Integer> update(GamesPlayed gamesPlayed) {
+		return executor.submit(() -> service.update(gamesPlayed));
+	}
+
+	// this function deletes a row
+	@Override
+	public CompletableFuture<Integer> delete(long gamePlayedID) {
+		return executor.submit(() -> service.delete(gamePlayedID));
+	}
+
+	// this function counts the rows
+	@Override
+	public CompletableFuture<Integer> count() {
+		return executor.submit(() -> service.count());
+	}
+
+	// this function counts the rows in the given mode
+	@Override
+	public CompletableFuture<Long> count(CountMode mode) {
+		return executor.submit(() -> service.count(mode));
+	}
+
+}
@@ -0,0 +1,107 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.AsyncPlayerService;
+import cs4347.jdbcGame.services.PlayerService;
+
+// this class runs the PlayerService calls on a ServiceExecutor
+public class AsyncPlayerServiceImpl implements AsyncPlayerService {
+	private final PlayerService service;
+	private final ServiceExecutor executor;
+
+	public AsyncPlayerServiceImpl(DataSource dataSource, ServiceExecutor executor) {
+		this(new PlayerServiceImpl(dataSource), executor);
+	}
+
+	// wraps an existing service, e.g. to share its cache
+	public AsyncPlayerServiceImpl(PlayerService service, ServiceExecutor executor) {
+		this.service = service;
+		this.executor = executor;
+	}
+
+	// this function inserts a player and the credit cards
+	@Override
+	public CompletableFuture<Player> create(Player player) {
+		return executor.submit(() -> service.create(player));
+	}
+
+	// this function retrieves a player and the credit cards
+	@Override
+	public CompletableFuture<Player> retrieve(Long playerID) {
+		return executor.submit(() -> service.retrieve(playerID));
+	}
+
+	// this function updates a player and the credit cards
+	@Override
+	public CompletableFuture<Integer> update(Player player) {
+		return executor.submit(() -> service.update(player));
+	}
+
+	// this function deletes a player with all the rows
+	@Override
+	public CompletableFuture<Integer> delete(Long playerID) {
+		return executor.submit(() -> service.delete(playerID));
+	}
+
+	// this function deletes many players with all their rows
+	@Override
+	public CompletableFuture<Integer> purge(List<Long> playerIDs) {
+		return executor.submit(() -> service.purge(playerIDs));
+	}
+
+	// this function counts the players
+	@Override
+	public CompletableFuture<Integer> count() {
+		return executor.submit(() -> service.count());
+	}
+
+	// this function counts the players in the given mode
+	@Override
+	public CompletableFuture<Long> count(CountMode mode) {
+		return executor.submit(() -> service.count(mode));
+	}
+
+	// this function counts the credit cards of a player
+	@Override
+	public CompletableFuture<Integer> countCreditCardsForPlayer(Long playerID) {
+		return executor.submit(() -> service.countCreditCardsForPlayer(playerID));
+	}
+
+	// this function retrieves the players that joined between start and end
+	@Override
+	public CompletableFuture<List<Player>> retrieveByJoinDate(Date start, Date end) {
+		return executor.submit(() -> service.retrieveByJoinDate(start, end));
+	}
+
+	// this function streams the players that joined between start and end
+	@Override
+	public CompletableFuture<Integer> streamByJoinDate(Date start, Date end, RowHandler<Player> handler) {
+		return executor.submit(() -> service.streamByJoinDate(start, end, handler));
+	}
+
+	// this function retrieves one page of the players that joined between start and end
+	@Override
+	public CompletableFuture<Page<Player>> retrieveByJoinDatePage(Date start, Date end, String pageToken, int pageSize) {
+		return executor.submit(() -> service.retrieveByJoinDatePage(start, end, pageToken, pageSize));
+	}
+
+}
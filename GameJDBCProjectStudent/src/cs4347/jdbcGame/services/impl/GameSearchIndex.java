@@ -0,0 +1,246 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.impl.GameDAOImpl;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * The title and description search index of one database, shared by every
+ * GameServiceImpl created for the same DataSource. Like the leaderboards it
+ * is built on the first search, with one streamed query over all games, and
+ * GameServiceImpl reports every committed create, update and delete
+ * afterwards. Games changed while the index is being built are read again
+ * once it is done. Changes made by other processes are not seen.
+ */
+class GameSearchIndex
+{
+    private static final Map<DataSource, GameSearchIndex> instances = new ConcurrentHashMap<DataSource, GameSearchIndex>();
+
+    private enum State
+    {
+        EMPTY, LOADING, LOADED
+    }
+
+    private final DataSource dataSource;
+    private final Object loadLock = new Object();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by lock
+    private Map<Long, Game> games = new HashMap<Long, Game>();
+    private TrigramIndex titles = new TrigramIndex();
+    private TrigramIndex descriptions = new TrigramIndex();
+    private volatile State state = State.EMPTY;
+    // games to read again once loading is done, guarded by this
+    private final Set<Long> pendingRefresh = new LinkedHashSet<Long>();
+
+    private GameSearchIndex(DataSource dataSource)
+    {
+        this.dataSource = dataSource;
+    }
+
+    static GameSearchIndex forDataSource(DataSource dataSource)
+    {
+        return instances.computeIfAbsent(dataSource, GameSearchIndex::new);
+    }
+
+    /**
+     * Returns the index of the DataSource if it has been built, otherwise
+     * null, so writers skip all index work when nobody searches.
+     */
+    static GameSearchIndex tracking(DataSource dataSource)
+    {
+        GameSearchIndex index = instances.get(dataSource);
+        return index == null || index.state == State.EMPTY ? null : index;
+    }
+
+    List<Game> searchTitles(String text, boolean prefix, int limit) throws DAOException, SQLException
+    {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return games(titles.search(text, prefix, limit));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Game> searchDescriptions(String text, int limit) throws DAOException, SQLException
+    {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return games(descriptions.search(text, false, limit));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size()
+    {
+        lock.readLock().lock();
+        try {
+            return games.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // copies, the indexed games must not be changed by callers
+    private List<Game> games(List<Long> ids)
+    {
+        List<Game> result = new ArrayList<Game>(ids.size());
+        for (Long id : ids) {
+            result.add(GameServiceImpl.copy(games.get(id)));
+        }
+        return result;
+    }
+
+    /**
+     * Called after a game was created or updated and committed.
+     */
+    void gameChanged(Game game)
+    {
+        if (deferred(game.getId())) {
+            return;
+        }
+        put(GameServiceImpl.copy(game));
+    }
+
+    /**
+     * Called after a game was deleted and committed.
+     */
+    void gameDeleted(long gameID)
+    {
+        if (deferred(gameID)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            games.remove(gameID);
+            titles.remove(gameID);
+            descriptions.remove(gameID);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the index; the next search builds it again.
+     */
+    synchronized void clear()
+    {
+        lock.writeLock().lock();
+        try {
+            games = new HashMap<Long, Game>();
+            titles = new TrigramIndex();
+            descriptions = new TrigramIndex();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        pendingRefresh.clear();
+        state = State.EMPTY;
+    }
+
+    // true if the change is queued for after the load or not needed at all
+    private synchronized boolean deferred(long gameID)
+    {
+        if (state == State.LOADING) {
+            pendingRefresh.add(gameID);
+            return true;
+        }
+        return state == State.EMPTY;
+    }
+
+    private void put(Game game)
+    {
+        lock.writeLock().lock();
+        try {
+            games.put(game.getId(), game);
+            titles.put(game.getId(), game.getTitle());
+            descriptions.put(game.getId(), game.getDescription());
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void ensureLoaded() throws DAOException, SQLException
+    {
+        if (state == State.LOADED) {
+            return;
+        }
+        // one loader at a time, the other searches wait for it
+        synchronized (loadLock) {
+            synchronized (this) {
+                if (state == State.LOADED) {
+                    return;
+                }
+                state = State.LOADING;
+            }
+            List<Long> refreshes;
+            Connection connection = dataSource.getConnection();
+            try {
+                GameDAO gameDAO = new GameDAOImpl();
+                try {
+                    gameDAO.streamByTitle(connection, "%", game -> put(game));
+                }
+                catch (DAOException | SQLException | RuntimeException ex) {
+                    clear();
+                    throw ex;
+                }
+                synchronized (this) {
+                    refreshes = new ArrayList<Long>(pendingRefresh);
+                    pendingRefresh.clear();
+                    state = State.LOADED;
+                }
+                try {
+                    for (Long gameID : refreshes) {
+                        Game game = gameDAO.retrieve(connection, gameID);
+                        if (game != null) {
+                            gameChanged(game);
+                        }
+                        else {
+                            gameDeleted(gameID);
+                        }
+                    }
+                }
+                catch (DAOException | SQLException | RuntimeException ex) {
+                    clear();
+                    throw ex;
+                }
+            }
+            finally {
+                connection.close();
+            }
+        }
+    }
+}
@@ -10,26 +10,65 @@
  */
 package cs4347.jdbcGame.services.impl;
 
-import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.sql.DataSource;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
 import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.dao.impl.GameDAOImpl;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.services.GameService;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.EntityCache;
+import cs4347.jdbcGame.util.TransactionTemplate;
 
 // This class is a service for Game
 public class GameServiceImpl implements GameService {
 
+	// the catalog rarely changes, so cached games stay valid for a while
+	private static final int DEFAULT_CACHE_SIZE = 10000;
+	private static final long DEFAULT_CACHE_TTL_MILLIS = 10 * 60 * 1000L;
+
+	// one cache per database, so a write through any service invalidates it for all
+	private static final Map<DataSource, EntityCache<Long, Game>> caches = new ConcurrentHashMap<DataSource, EntityCache<Long, Game>>();
+
 	private DataSource dataSource;
+	private final TransactionTemplate transactions;
+	private final EntityCache<Long, Game> cache;
 
+	// uses the cache shared by every GameServiceImpl of the DataSource
 	public GameServiceImpl(DataSource dataSource) {
+		this(dataSource, caches.computeIfAbsent(dataSource,
+				ds -> new EntityCache<Long, Game>(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL_MILLIS)));
+	}
+
+	// uses a cache of its own; writes through other services do not invalidate
+	// it, so it can serve a game up to cacheTtlMillis old
+	public GameServiceImpl(DataSource dataSource, int cacheSize, long cacheTtlMillis) {
+		this(dataSource, new EntityCache<Long, Game>(cacheSize, cacheTtlMillis));
+	}
+
+	private GameServiceImpl(DataSource dataSource, EntityCache<Long, Game> cache) {
 		this.dataSource = dataSource;
+		this.transactions = new TransactionTemplate(dataSource);
+		this.cache = cache;
+	}
+
+	// the cache of games read by retrieve(), e.g. for its hit rate
+	public EntityCache<Long, Game> getCache() {
+		return cache;
 	}
 
 	// this function inserts game into the table
@@ -38,51 +77,78 @@ public class GameServiceImpl implements GameService {
 
 		GameDAO gameDAO = new GameDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
 			Game g1 = gameDAO.create(connection, game);
-			connection.commit();
+			new SummaryDeltas().rows(CountedTable.GAME, 1).apply(connection);
+
+			// keep the search index up to date if anybody searches
+			transactions.afterCommit(committed -> {
+				GameSearchIndex index = GameSearchIndex.tracking(dataSource);
+				if (index != null) {
+					index.gameChanged(g1);
+				}
+			});
 			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
 	}
 
-	// this function retrieves a game based on gameID
+	// this function retrieves a game based on gameID, from the cache if possible
 	@Override
 	public Game retrieve(long gameID) throws DAOException, SQLException {
 		GameDAO gameDAO = new GameDAOImpl();
 
-		Connection connection = dataSource.getConnection();
+		// inside a caller's transaction the cache is bypassed both ways: it is
+		// only invalidated after the commit, and the row may not be committed yet
+		if (transactions.isActive()) {
+			return transactions.read(connection -> gameDAO.retrieve(connection, gameID));
+		}
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			Game g1 = gameDAO.retrieve(connection, gameID);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
+		Game cached = cache.get(gameID);
+		if (cached != null) {
+			return copy(cached);
+		}
+		long generation = cache.generation();
+
+		Game g1 = transactions.read(connection -> gameDAO.retrieve(connection, gameID));
+		if (g1 != null) {
+			cache.put(gameID, copy(g1), generation);
+		}
+		return g1;
+	}
+
+	// this function retrieves many games, the ones that are not cached with one query
+	@Override
+	public Map<Long, Game> retrieveByIDs(Collection<Long> gameIDs) throws DAOException, SQLException {
+		Map<Long, Game> result = new HashMap<Long, Game>();
+		Set<Long> missing = new LinkedHashSet<Long>();
+		// like retrieve, a caller's transaction reads every game from the database
+		boolean cacheable = !transactions.isActive();
+		for (Long gameID : gameIDs) {
+			if (gameID == null) {
+				throw new DAOException("Trying to retrieve Game with NULL ID");
 			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
+			Game cached = cacheable ? cache.get(gameID) : null;
+			if (cached != null) {
+				result.put(gameID, copy(cached));
+			} else {
+				missing.add(gameID);
+			}
+		}
+		if (missing.isEmpty()) {
+			return result;
+		}
+		long generation = cache.generation();
+
+		GameDAO gameDAO = new GameDAOImpl();
+
+		Map<Long, Game> read = transactions.read(connection -> gameDAO.retrieveByIDs(connection, missing));
+		for (Game g1 : read.values()) {
+			if (cacheable) {
+				cache.put(g1.getId(), copy(g1), generation);
 			}
+			result.put(g1.getId(), g1);
 		}
+		return result;
 	}
 
 	// this function updates a row using the values in game
@@ -90,25 +156,18 @@ public class GameServiceImpl implements GameService {
 	public int update(Game game) throws DAOException, SQLException {
 		GameDAO gameDAO = new GameDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
 			int g1 = gameDAO.update(connection, game);
-			connection.commit();
+			transactions.afterCommit(committed -> {
+				cache.invalidate(game.getId());
+
+				GameSearchIndex index = GameSearchIndex.tracking(dataSource);
+				if (index != null && g1 > 0) {
+					index.gameChanged(game);
+				}
+			});
 			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
 	}
 
 	// this function deletes the game with an ID number equal to gameID
@@ -116,76 +175,78 @@ public class GameServiceImpl implements GameService {
 	public int delete(long gameID) throws DAOException, SQLException {
 		GameDAO gameDAO = new GameDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
 			int g1 = gameDAO.delete(connection, gameID);
-			connection.commit();
+			new SummaryDeltas().rows(CountedTable.GAME, -g1).apply(connection);
+			transactions.afterCommit(committed -> {
+				cache.invalidate(gameID);
+
+				GameSearchIndex index = GameSearchIndex.tracking(dataSource);
+				if (index != null && g1 > 0) {
+					index.gameDeleted(gameID);
+				}
+			});
 			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
 	}
 
 	// this function counts the number of entries in the table
 	@Override
 	public int count() throws DAOException, SQLException {
 		GameDAO gameDAO = new GameDAOImpl();
+		return transactions.read(connection -> gameDAO.count(connection));
+	}
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			int g1 = gameDAO.count(connection);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+	// this function counts the number of entries in the table in the given mode
+	@Override
+	public long count(CountMode mode) throws DAOException, SQLException {
+		GameDAO gameDAO = new GameDAOImpl();
+		return transactions.read(connection -> gameDAO.count(connection, mode));
 	}
 
 	// this function retrieves games based on their titles
 	@Override
 	public List<Game> retrieveByTitle(String titlePattern) throws DAOException, SQLException {
 		GameDAO gameDAO = new GameDAOImpl();
+		return transactions.read(connection -> gameDAO.retrieveByTitle(connection, titlePattern));
+	}
 
-		Connection connection = dataSource.getConnection();
+	// this function streams games based on their titles
+	@Override
+	public int streamByTitle(String titlePattern, RowHandler<Game> handler) throws DAOException, SQLException {
+		GameDAO gameDAO = new GameDAOImpl();
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			List<Game> g1 = gameDAO.retrieveByTitle(connection, titlePattern);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
+		// one query; rows are handed out while it runs
+		return transactions.read(connection -> gameDAO.streamByTitle(connection, titlePattern, handler));
+	}
+
+	// this function finds games by a substring of the title in the search index
+	@Override
+	public List<Game> searchByTitle(String text, int limit) throws DAOException, SQLException {
+		checkSearch(text, limit);
+		return GameSearchIndex.forDataSource(dataSource).searchTitles(text, false, limit);
+	}
+
+	// this function finds games by the start of the title in the search index
+	@Override
+	public List<Game> searchByTitlePrefix(String prefix, int limit) throws DAOException, SQLException {
+		checkSearch(prefix, limit);
+		return GameSearchIndex.forDataSource(dataSource).searchTitles(prefix, true, limit);
+	}
+
+	// this function finds games by a substring of the description in the search index
+	@Override
+	public List<Game> searchByDescription(String text, int limit) throws DAOException, SQLException {
+		checkSearch(text, limit);
+		return GameSearchIndex.forDataSource(dataSource).searchDescriptions(text, limit);
+	}
+
+	private static void checkSearch(String text, int limit) throws DAOException {
+		if (text == null) {
+			throw new DAOException("Cannot search games with a NULL text");
+		}
+		if (limit < 0) {
+			throw new DAOException("Search limit cannot be negative: " + limit);
 		}
 	}
 
@@ -193,26 +254,25 @@ public class GameServiceImpl implements GameService {
 	@Override
 	public List<Game> retrieveByReleaseDate(Date start, Date end) throws DAOException, SQLException {
 		GameDAO gameDAO = new GameDAOImpl();
+		return transactions.read(connection -> gameDAO.retrieveByReleaseDate(connection, start, end));
+	}
 
-		Connection connection = dataSource.getConnection();
+	// this function retrieves one page of games released between start and end
+	@Override
+	public Page<Game> retrieveByReleaseDatePage(Date start, Date end, String pageToken, int pageSize) throws DAOException, SQLException {
+		GameDAO gameDAO = new GameDAOImpl();
+		return transactions.read(connection -> gameDAO.retrieveByReleaseDatePage(connection, start, end, pageToken, pageSize));
+	}
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			List<Game> g1 = gameDAO.retrieveByReleaseDate(connection, start, end);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+	// callers may modify the games they get, so the cache keeps its own copies
+	static Game copy(Game game) {
+		Game copy = new Game();
+		copy.setId(game.getId());
+		copy.setTitle(game.getTitle());
+		copy.setDescription(game.getDescription());
+		copy.setReleaseDate(game.getReleaseDate() == null ? null : (Date) game.getReleaseDate().clone());
+		copy.setVersion(game.getVersion());
+		return copy;
 	}
 
 }
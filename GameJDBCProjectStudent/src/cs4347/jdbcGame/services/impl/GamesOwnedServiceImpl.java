@@ -12,22 +12,37 @@ package cs4347.jdbcGame.services.impl;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
 import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.PurchaseStatistics;
 import cs4347.jdbcGame.services.GamesOwnedService;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.TransactionTemplate;
 
 // this class is a service for GamesOwned
 public class GamesOwnedServiceImpl implements GamesOwnedService {
-	private DataSource dataSource;
+	private final TransactionTemplate transactions;
 
 	public GamesOwnedServiceImpl(DataSource dataSource) {
-		this.dataSource = dataSource;
+		this.transactions = new TransactionTemplate(dataSource);
 	}
 
 	// this function inserts gamesOwned into the table
@@ -35,129 +50,205 @@ public class GamesOwnedServiceImpl implements GamesOwnedService {
 	public GamesOwned create(GamesOwned gamesOwned) throws DAOException, SQLException {
 		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
 			GamesOwned g1 = gamesOwnedDAO.create(connection, gamesOwned);
-			connection.commit();
+			// the summaries commit or roll back with the row
+			new SummaryDeltas().owned(g1, 1).rows(CountedTable.GAMES_OWNED, 1).apply(connection);
 			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
 	}
 
-	// this function retrieves a row from the table based on gamesOwnedID
+	// this function stores a basket of purchases with one multi-row insert and one commit
 	@Override
-	public GamesOwned retrieveByID(long gamesOwnedID) throws DAOException, SQLException {
+	public List<GamesOwned> purchaseAll(List<GamesOwned> gamesOwned) throws DAOException, SQLException {
 		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			GamesOwned g1 = gamesOwnedDAO.retrieveID(connection, gamesOwnedID);
-			connection.commit();
+		return transactions.write(connection -> {
+			List<GamesOwned> g1 = gamesOwnedDAO.createMultiRow(connection, gamesOwned);
+			SummaryDeltas deltas = new SummaryDeltas();
+			for (GamesOwned go : g1) {
+				deltas.owned(go, 1);
+			}
+			deltas.rows(CountedTable.GAMES_OWNED, g1.size()).apply(connection);
 			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
+		});
+	}
+
+	// this function inserts or overwrites the purchase of a player and game
+	@Override
+	public GamesOwned upsert(GamesOwned gamesOwned) throws DAOException, SQLException {
+		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+
+		return transactions.write(connection -> {
+			// a locking read of a new pair would lock the gap of the unique key, and
+			// concurrent upserts of new pairs would deadlock; a new pair is inserted
+			// after a plain read and only a stored one is locked
+			if (gamesOwnedDAO.retrievePlayerGameID(connection, gamesOwned.getPlayerID(), gamesOwned.getGameID()) == null
+					&& insertNew(gamesOwnedDAO, connection, Collections.singletonList(gamesOwned)).isEmpty()) {
+				new SummaryDeltas().owned(gamesOwned, 1).rows(CountedTable.GAMES_OWNED, 1).apply(connection);
+				return gamesOwned;
 			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
+
+			// the locked old row leaves the summaries and the new one is added;
+			// a replayed purchase cancels out
+			List<GamesOwned> old = gamesOwnedDAO.lockByPlayerGameIDs(connection, Collections.singletonList(gamesOwned));
+			GamesOwned g1 = gamesOwnedDAO.upsert(connection, gamesOwned);
+			SummaryDeltas deltas = new SummaryDeltas();
+			for (GamesOwned go : old) {
+				deltas.owned(go, -1);
 			}
-		}
+			deltas.owned(g1, 1).rows(CountedTable.GAMES_OWNED, old.isEmpty() ? 1 : 0).apply(connection);
+			return g1;
+		});
 	}
 
-	// this function retrieves a row from the table based on playerID and gameID
+	// this function inserts or overwrites many purchases with multi-row statements and one commit
 	@Override
-	public GamesOwned retrievePlayerGameID(long playerID, long gameID) throws DAOException, SQLException {
+	public List<GamesOwned> upsertAll(List<GamesOwned> gamesOwned) throws DAOException, SQLException {
 		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
 
-		Connection connection = dataSource.getConnection();
+		return transactions.write(connection -> {
+			// the last purchase of a pair wins, as if they were upserted one by one
+			Map<List<Long>, GamesOwned> latest = new LinkedHashMap<List<Long>, GamesOwned>();
+			for (GamesOwned go : gamesOwned) {
+				latest.put(playerGameID(go), go);
+			}
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			GamesOwned g1 = gamesOwnedDAO.retrievePlayerGameID(connection, playerID, gameID);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
+			// as in upsert, only the stored pairs are locked
+			Set<List<Long>> stored = new HashSet<List<Long>>();
+			for (GamesOwned go : gamesOwnedDAO.retrieveByPlayerGameIDs(connection, new ArrayList<GamesOwned>(latest.values()))) {
+				stored.add(playerGameID(go));
+			}
+			List<GamesOwned> rows = new ArrayList<GamesOwned>();
+			List<GamesOwned> fresh = new ArrayList<GamesOwned>();
+			for (GamesOwned go : latest.values()) {
+				(stored.contains(playerGameID(go)) ? rows : fresh).add(go);
 			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
+
+			SummaryDeltas deltas = new SummaryDeltas();
+			int inserted = 0;
+			if (!fresh.isEmpty()) {
+				rows.addAll(insertNew(gamesOwnedDAO, connection, fresh));
+				for (GamesOwned go : fresh) {
+					if (go.getId() != null) {
+						deltas.owned(go, 1);
+						inserted++;
+					}
+				}
+			}
+
+			if (!rows.isEmpty()) {
+				Map<List<Long>, GamesOwned> old = new HashMap<List<Long>, GamesOwned>();
+				for (GamesOwned go : gamesOwnedDAO.lockByPlayerGameIDs(connection, rows)) {
+					old.put(playerGameID(go), go);
+				}
+				gamesOwnedDAO.upsertAll(connection, rows);
+
+				List<GamesOwned> upserted = new ArrayList<GamesOwned>();
+				for (GamesOwned go : rows) {
+					GamesOwned previous = old.get(playerGameID(go));
+					if (previous != null) {
+						deltas.owned(previous, -1);
+						go.setId(previous.getId());
+					} else {
+						upserted.add(go);
+					}
+					deltas.owned(go, 1);
+				}
+				// a pair deleted since the plain read was inserted by the upsert;
+				// MySQL does not say which generated key belongs to which row
+				if (!upserted.isEmpty()) {
+					for (GamesOwned go : gamesOwnedDAO.retrieveByPlayerGameIDs(connection, upserted)) {
+						latest.get(playerGameID(go)).setId(go.getId());
+					}
+					inserted += upserted.size();
+				}
+			}
+			for (GamesOwned go : gamesOwned) {
+				go.setId(latest.get(playerGameID(go)).getId());
+			}
+			deltas.rows(CountedTable.GAMES_OWNED, inserted).apply(connection);
+			return gamesOwned;
+		});
+	}
+
+	// inserts purchases of pairs a plain read did not find and returns the ones
+	// left out because another transaction stored one of their pairs since
+	private static List<GamesOwned> insertNew(GamesOwnedDAO gamesOwnedDAO, Connection connection,
+			List<GamesOwned> gamesOwned) throws SQLException, DAOException {
+		for (GamesOwned go : gamesOwned) {
+			go.setId(null);
+		}
+		try {
+			gamesOwnedDAO.createMultiRow(connection, gamesOwned);
+			return Collections.emptyList();
+		} catch (SQLIntegrityConstraintViolationException ex) {
+			// MySQL rolls back only the failed statement: the rows of the statements
+			// before it are stored and have their IDs. An unknown player or game
+			// fails again in the upsert.
+			List<GamesOwned> rest = new ArrayList<GamesOwned>();
+			for (GamesOwned go : gamesOwned) {
+				if (go.getId() == null) {
+					rest.add(go);
+				}
 			}
+			return rest;
 		}
 	}
 
+	private static List<Long> playerGameID(GamesOwned gamesOwned) {
+		return Arrays.asList(gamesOwned.getPlayerID(), gamesOwned.getGameID());
+	}
+
+	// this function retrieves a row from the table based on gamesOwnedID
+	@Override
+	public GamesOwned retrieveByID(long gamesOwnedID) throws DAOException, SQLException {
+		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.retrieveID(connection, gamesOwnedID));
+	}
+
+	// this function retrieves a row from the table based on playerID and gameID
+	@Override
+	public GamesOwned retrievePlayerGameID(long playerID, long gameID) throws DAOException, SQLException {
+		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.retrievePlayerGameID(connection, playerID, gameID));
+	}
+
 	// this function retrieves rows based on gameID
 	@Override
 	public List<GamesOwned> retrieveByGame(long gameID) throws DAOException, SQLException {
 		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.retrieveByGame(connection, gameID));
+	}
 
-		Connection connection = dataSource.getConnection();
+	// this function streams rows based on gameID in one reused GamesOwned
+	@Override
+	public int scanByGame(long gameID, RowHandler<GamesOwned> handler) throws DAOException, SQLException {
+		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			List<GamesOwned> g1 = gamesOwnedDAO.retrieveByGame(connection, gameID);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		// one query; rows are handed out while it runs
+		return transactions.read(connection -> gamesOwnedDAO.scanByGame(connection, gameID, handler));
 	}
 
 	// this function retrieves rows based on playerID
 	@Override
 	public List<GamesOwned> retrieveByPlayer(long playerID) throws DAOException, SQLException {
 		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.retrieveByPlayer(connection, playerID));
+	}
 
-		Connection connection = dataSource.getConnection();
+	// this function retrieves one page of rows based on gameID
+	@Override
+	public Page<GamesOwned> retrieveByGamePage(long gameID, String pageToken, int pageSize) throws DAOException, SQLException {
+		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.retrieveByGamePage(connection, gameID, pageToken, pageSize));
+	}
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			List<GamesOwned> g1 = gamesOwnedDAO.retrieveByPlayer(connection, playerID);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+	// this function retrieves one page of rows based on playerID
+	@Override
+	public Page<GamesOwned> retrieveByPlayerPage(long playerID, String pageToken, int pageSize) throws DAOException, SQLException {
+		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.retrieveByPlayerPage(connection, playerID, pageToken, pageSize));
 	}
 
 	// this function updates a row using the values in gamesOwned
@@ -165,25 +256,16 @@ public class GamesOwnedServiceImpl implements GamesOwnedService {
 	public int update(GamesOwned gamesOwned) throws DAOException, SQLException {
 		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
+			// the old row is taken out of the summaries and the new one added; it is
+			// locked, since a snapshot read could miss a concurrent update of the row
+			GamesOwned old = gamesOwnedDAO.lockID(connection, gamesOwned.getId());
 			int g1 = gamesOwnedDAO.update(connection, gamesOwned);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
+			if (old != null && g1 > 0) {
+				new SummaryDeltas().owned(old, -1).owned(gamesOwned, 1).apply(connection);
 			}
-		}
+			return g1;
+		});
 	}
 
 	// this function deletes a row based on gameOwnedID
@@ -191,51 +273,42 @@ public class GamesOwnedServiceImpl implements GamesOwnedService {
 	public int delete(long gameOwnedID) throws DAOException, SQLException {
 		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
+			GamesOwned old = gamesOwnedDAO.lockID(connection, gameOwnedID);
 			int g1 = gamesOwnedDAO.delete(connection, gameOwnedID);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
+			if (old != null && g1 > 0) {
+				new SummaryDeltas().owned(old, -1).rows(CountedTable.GAMES_OWNED, -g1).apply(connection);
 			}
-		}
+			return g1;
+		});
+	}
+
+	// this function computes the purchase statistics of every game in the database
+	@Override
+	public PurchaseStatistics retrievePurchaseStatisticsByGame() throws DAOException, SQLException {
+		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.retrievePurchaseStatisticsByGame(connection));
+	}
+
+	// this function computes the purchase statistics of every player in the database
+	@Override
+	public PurchaseStatistics retrievePurchaseStatisticsByPlayer() throws DAOException, SQLException {
+		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.retrievePurchaseStatisticsByPlayer(connection));
 	}
 
 	// this function counts the number of entries in a table
 	@Override
 	public int count() throws DAOException, SQLException {
 		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.count(connection));
+	}
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			int g1 = gamesOwnedDAO.count(connection);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+	// this function counts the number of entries in a table in the given mode
+	@Override
+	public long count(CountMode mode) throws DAOException, SQLException {
+		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+		return transactions.read(connection -> gamesOwnedDAO.count(connection, mode));
 	}
 
 }
@@ -10,24 +10,31 @@
  */
 package cs4347.jdbcGame.services.impl;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 
 import javax.sql.DataSource;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
 import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.RowHandler;
 import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.ScoreStatistics;
 import cs4347.jdbcGame.services.GamesPlayedService;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.TransactionTemplate;
 
 // this class is a service for GamesPlayed
 public class GamesPlayedServiceImpl implements GamesPlayedService {
 	private DataSource dataSource;
+	private final TransactionTemplate transactions;
 
 	public GamesPlayedServiceImpl(DataSource dataSource) {
 		this.dataSource = dataSource;
+		this.transactions = new TransactionTemplate(dataSource);
 	}
 
 	// this function inserts gamesPlayed into the table
@@ -35,126 +42,113 @@ public class GamesPlayedServiceImpl implements GamesPlayedService {
 	public GamesPlayed create(GamesPlayed gamesPlayed) throws DAOException, SQLException {
 		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
 			GamesPlayed g1 = gamesPlayedDAO.create(connection, gamesPlayed);
-			connection.commit();
+			// the summaries commit or roll back with the row
+			new SummaryDeltas().played(g1, 1).rows(CountedTable.GAMES_PLAYED, 1).apply(connection);
+
+			// keep the leaderboards up to date if anybody reads them
+			transactions.afterCommit(committed -> {
+				Leaderboards leaderboards = Leaderboards.tracking(dataSource);
+				if (leaderboards != null) {
+					leaderboards.scoreRecorded(g1);
+				}
+			});
 			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
 	}
 
-	// this function retrieves a row based on gamePlayedID
+	// this function inserts many rows with batched inserts in one transaction
 	@Override
-	public GamesPlayed retrieveByID(long gamePlayedID) throws DAOException, SQLException {
+	public List<GamesPlayed> createAll(List<GamesPlayed> gamesPlayed) throws DAOException, SQLException {
 		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
 
-		// transaction
-		Connection connection = dataSource.getConnection();
-		try {
-			connection.setAutoCommit(false);
-			GamesPlayed g1 = gamesPlayedDAO.retrieveID(connection, gamePlayedID);
-			connection.commit();
+		return transactions.write(connection -> {
+			List<GamesPlayed> g1 = gamesPlayedDAO.createAll(connection, gamesPlayed);
+			// one summary upsert per game, however many rows it got
+			SummaryDeltas deltas = new SummaryDeltas();
+			for (GamesPlayed gp : g1) {
+				deltas.played(gp, 1);
+			}
+			deltas.rows(CountedTable.GAMES_PLAYED, g1.size()).apply(connection);
+
+			transactions.afterCommit(committed -> {
+				Leaderboards leaderboards = Leaderboards.tracking(dataSource);
+				if (leaderboards != null) {
+					for (GamesPlayed gp : g1) {
+						leaderboards.scoreRecorded(gp);
+					}
+				}
+			});
 			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
+	}
+
+	// this function retrieves a row based on gamePlayedID
+	@Override
+	public GamesPlayed retrieveByID(long gamePlayedID) throws DAOException, SQLException {
+		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+		return transactions.read(connection -> gamesPlayedDAO.retrieveID(connection, gamePlayedID));
 	}
 
 	// this function retrieves rows based on playerID and gameID
 	@Override
 	public List<GamesPlayed> retrieveByPlayerGameID(long playerID, long gameID) throws DAOException, SQLException {
 		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-
-		// transaction
-		Connection connection = dataSource.getConnection();
-		try {
-			connection.setAutoCommit(false);
-			List<GamesPlayed> g1 = gamesPlayedDAO.retrieveByPlayerGameID(connection, playerID, gameID);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		return transactions.read(connection -> gamesPlayedDAO.retrieveByPlayerGameID(connection, playerID, gameID));
 	}
 
 	// this function retrieves rows based on gameID
 	@Override
 	public List<GamesPlayed> retrieveByGame(long gameID) throws DAOException, SQLException {
 		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-
-		// transaction
-		Connection connection = dataSource.getConnection();
-		try {
-			connection.setAutoCommit(false);
-			List<GamesPlayed> g1 = gamesPlayedDAO.retrieveByGame(connection, gameID);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		return transactions.read(connection -> gamesPlayedDAO.retrieveByGame(connection, gameID));
 	}
 
 	// this function retrieves rows based on playerID
 	@Override
 	public List<GamesPlayed> retrieveByPlayer(long playerID) throws DAOException, SQLException {
 		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+		return transactions.read(connection -> gamesPlayedDAO.retrieveByPlayer(connection, playerID));
+	}
 
-		Connection connection = dataSource.getConnection();
+	// this function streams rows based on gameID
+	@Override
+	public int streamByGame(long gameID, RowHandler<GamesPlayed> handler) throws DAOException, SQLException {
+		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			List<GamesPlayed> g1 = gamesPlayedDAO.retrieveByPlayer(connection, playerID);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		// one query; rows are handed out while it runs
+		return transactions.read(connection -> gamesPlayedDAO.streamByGame(connection, gameID, handler));
+	}
+
+	// this function streams rows based on gameID in one reused GamesPlayed
+	@Override
+	public int scanByGame(long gameID, RowHandler<GamesPlayed> handler) throws DAOException, SQLException {
+		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+		return transactions.read(connection -> gamesPlayedDAO.scanByGame(connection, gameID, handler));
+	}
+
+	// this function streams rows based on playerID
+	@Override
+	public int streamByPlayer(long playerID, RowHandler<GamesPlayed> handler) throws DAOException, SQLException {
+		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+
+		// one query; rows are handed out while it runs
+		return transactions.read(connection -> gamesPlayedDAO.streamByPlayer(connection, playerID, handler));
+	}
+
+	// this function retrieves one page of rows based on gameID
+	@Override
+	public Page<GamesPlayed> retrieveByGamePage(long gameID, String pageToken, int pageSize) throws DAOException, SQLException {
+		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+		return transactions.read(connection -> gamesPlayedDAO.retrieveByGamePage(connection, gameID, pageToken, pageSize));
+	}
+
+	// this function retrieves one page of rows based on playerID
+	@Override
+	public Page<GamesPlayed> retrieveByPlayerPage(long playerID, String pageToken, int pageSize) throws DAOException, SQLException {
+		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+		return transactions.read(connection -> gamesPlayedDAO.retrieveByPlayerPage(connection, playerID, pageToken, pageSize));
 	}
 
 	// this function updates a row using the values in gamesPlayed
@@ -162,25 +156,28 @@ public class GamesPlayedServiceImpl implements GamesPlayedService {
 	public int update(GamesPlayed gamesPlayed) throws DAOException, SQLException {
 		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
+			// the old row tells which leaderboard entry the update may lower
+			// and is taken out of the summaries; it is locked, since a snapshot
+			// read could miss a concurrent update of the row
+			GamesPlayed old = gamesPlayedDAO.lockID(connection, gamesPlayed.getId());
 			int g1 = gamesPlayedDAO.update(connection, gamesPlayed);
-			connection.commit();
+			if (old != null && g1 > 0) {
+				new SummaryDeltas().played(old, -1).played(gamesPlayed, 1).apply(connection);
+			}
+
+			transactions.afterCommit(committed -> {
+				Leaderboards leaderboards = Leaderboards.tracking(dataSource);
+				if (leaderboards != null && g1 > 0) {
+					leaderboards.refresh(committed, gamesPlayed.getPlayerID(), gamesPlayed.getGameID());
+					if (old != null && (!old.getPlayerID().equals(gamesPlayed.getPlayerID())
+							|| !old.getGameID().equals(gamesPlayed.getGameID()))) {
+						leaderboards.refresh(committed, old.getPlayerID(), old.getGameID());
+					}
+				}
+			});
 			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
 	}
 
 	// this function deletes a row based on gamePlayedID
@@ -188,51 +185,50 @@ public class GamesPlayedServiceImpl implements GamesPlayedService {
 	public int delete(long gamePlayedID) throws DAOException, SQLException {
 		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
+			GamesPlayed old = gamesPlayedDAO.lockID(connection, gamePlayedID);
 			int g1 = gamesPlayedDAO.delete(connection, gamePlayedID);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
+			if (old != null && g1 > 0) {
+				new SummaryDeltas().played(old, -1).rows(CountedTable.GAMES_PLAYED, -g1).apply(connection);
 			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+
+			// the deleted row may have been the player's best score
+			transactions.afterCommit(committed -> {
+				Leaderboards leaderboards = Leaderboards.tracking(dataSource);
+				if (leaderboards != null && old != null && g1 > 0) {
+					leaderboards.refresh(committed, old.getPlayerID(), old.getGameID());
+				}
+			});
+			return g1;
+		});
+	}
+
+	// this function computes the score statistics of every game in the database
+	@Override
+	public ScoreStatistics retrieveScoreStatisticsByGame() throws DAOException, SQLException {
+		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+		return transactions.read(connection -> gamesPlayedDAO.retrieveScoreStatisticsByGame(connection));
+	}
+
+	// this function computes the score statistics of every player in the database
+	@Override
+	public ScoreStatistics retrieveScoreStatisticsByPlayer() throws DAOException, SQLException {
+		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+		return transactions.read(connection -> gamesPlayedDAO.retrieveScoreStatisticsByPlayer(connection));
 	}
 
 	// this function counts the number of entries in the table
 	@Override
 	public int count() throws DAOException, SQLException {
 		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+		return transactions.read(connection -> gamesPlayedDAO.count(connection));
+	}
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			int g1 = gamesPlayedDAO.count(connection);
-			connection.commit();
-			return g1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+	// this function counts the number of entries in the table in the given mode
+	@Override
+	public long count(CountMode mode) throws DAOException, SQLException {
+		GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+		return transactions.read(connection -> gamesPlayedDAO.count(connection, mode));
 	}
 
 }
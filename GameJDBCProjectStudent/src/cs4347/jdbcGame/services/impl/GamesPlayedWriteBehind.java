@@ -0,0 +1,281 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.services.GamesPlayedService;
+
+/**
+ * Write-behind ingestion of finished games. Producers hand GamesPlayed rows
+ * to a lock-free queue and return at once; one writer thread collects them
+ * and stores up to maxBatch rows with a single GamesPlayedService.createAll,
+ * i.e. one transaction of batched inserts (sent as multi-row INSERTs when the
+ * connection has rewriteBatchedStatements=true) instead of one insert and
+ * commit per row.
+ *
+ * A batch is written once maxBatch rows are waiting or the oldest row has
+ * waited maxDelayMillis. At most capacity rows are queued or being written;
+ * submit then blocks and trySubmit gives up after its timeout, so producers
+ * slow down to the rate the database takes.
+ *
+ * Every submission returns a future that completes with the stored row, with
+ * its ID set, once its batch is committed. Callers that need durability wait
+ * for it or attach a callback; the others ignore it and accept that rows
+ * still queued are lost if the JVM dies. If a batch fails its rows are
+ * retried one at a time, so one bad row (e.g. an unknown game) fails only
+ * its own future. A submitted row must not be changed by the caller.
+ */
+public class GamesPlayedWriteBehind implements AutoCloseable
+{
+    // a queued row, or a flush marker with a null row
+    private static class Pending
+    {
+        final GamesPlayed row;
+        final CompletableFuture<GamesPlayed> future = new CompletableFuture<GamesPlayed>();
+        final long enqueuedNanos = System.nanoTime();
+
+        Pending(GamesPlayed row)
+        {
+            this.row = row;
+        }
+    }
+
+    private final GamesPlayedService service;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final Semaphore capacity;
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<Pending>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final Thread writer;
+    // flush markers in the queue; the writer does not wait for a full batch
+    private final AtomicInteger flushes = new AtomicInteger();
+    private volatile boolean closed;
+
+    public GamesPlayedWriteBehind(GamesPlayedService service, int capacity, int maxBatch, long maxDelayMillis)
+    {
+        if (maxBatch < 1 || capacity < maxBatch) {
+            throw new IllegalArgumentException("Need 1 <= maxBatch <= capacity: " + maxBatch + ", " + capacity);
+        }
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("maxDelayMillis cannot be negative: " + maxDelayMillis);
+        }
+        this.service = service;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.capacity = new Semaphore(capacity);
+        this.writer = new Thread(this::run, "gamesplayed-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues the row, waiting while the queue is full.
+     *
+     * @throws IllegalStateException if the queue is closed
+     */
+    public CompletableFuture<GamesPlayed> submit(GamesPlayed gamesPlayed) throws InterruptedException
+    {
+        checkOpen();
+        capacity.acquire();
+        return enqueue(gamesPlayed);
+    }
+
+    /**
+     * Queues the row, waiting at most the timeout for room. Returns null if
+     * the queue stayed full.
+     *
+     * @throws IllegalStateException if the queue is closed
+     */
+    public CompletableFuture<GamesPlayed> trySubmit(GamesPlayed gamesPlayed, long timeout, TimeUnit unit)
+            throws InterruptedException
+    {
+        checkOpen();
+        if (!capacity.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        return enqueue(gamesPlayed);
+    }
+
+    private CompletableFuture<GamesPlayed> enqueue(GamesPlayed gamesPlayed)
+    {
+        if (gamesPlayed.getId() != null) {
+            capacity.release();
+            throw new IllegalArgumentException("Trying to insert a GamesPlayed that has a Non-Null key");
+        }
+        Pending pending = new Pending(gamesPlayed);
+        queue.add(pending);
+        // the writer sleeps while the queue is empty and until a batch is full
+        int size = queued.incrementAndGet();
+        if (size == 1 || size == maxBatch) {
+            LockSupport.unpark(writer);
+        }
+        // closed after checkOpen: the writer may have exited already, and
+        // either it polled the row or the row is taken back here
+        if (closed && queue.remove(pending)) {
+            queued.decrementAndGet();
+            capacity.release();
+            pending.future.completeExceptionally(new IllegalStateException("The write-behind queue is closed"));
+        }
+        return pending.future;
+    }
+
+    /**
+     * Writes the queued rows without waiting for the batch to fill up. The
+     * future completes once every row submitted before the call is written.
+     */
+    public CompletableFuture<Void> flush()
+    {
+        // the writer completes the marker once it has written the rows queued
+        // before it
+        Pending marker = new Pending(null);
+        flushes.incrementAndGet();
+        queue.add(marker);
+        LockSupport.unpark(writer);
+        // as in enqueue; the rows before the marker were written before the writer exited
+        if (closed && queue.remove(marker)) {
+            flushes.decrementAndGet();
+            marker.future.complete(null);
+        }
+        return marker.future.thenApply(row -> null);
+    }
+
+    /**
+     * Rows queued or being written.
+     */
+    public int getPending()
+    {
+        return queued.get();
+    }
+
+    public long getBatchCount()
+    {
+        return batches.get();
+    }
+
+    public long getFailedRowCount()
+    {
+        return failedRows.get();
+    }
+
+    /**
+     * Stops accepting rows, writes the queued ones and waits for the writer.
+     * If the calling thread is interrupted it stops waiting, keeps its
+     * interrupt status and leaves the writer to finish in the background.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkOpen()
+    {
+        if (closed) {
+            throw new IllegalStateException("The write-behind queue is closed");
+        }
+    }
+
+    private void run()
+    {
+        List<Pending> batch = new ArrayList<Pending>(maxBatch);
+        while (true) {
+            // read before the peek: a row added by a producer that still saw
+            // the queue open is then seen here before the writer exits
+            boolean stopping = closed;
+            Pending first = queue.peek();
+            if (first == null) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            if (queued.get() < maxBatch && flushes.get() == 0 && !closed) {
+                long wait = first.enqueuedNanos + maxDelayNanos - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                    continue;
+                }
+            }
+
+            Pending pending;
+            Pending marker = null;
+            while (batch.size() < maxBatch && (pending = queue.poll()) != null) {
+                if (pending.row == null) {
+                    marker = pending;
+                    break;
+                }
+                batch.add(pending);
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                queued.addAndGet(-batch.size());
+                capacity.release(batch.size());
+                batch.clear();
+            }
+            if (marker != null) {
+                flushes.decrementAndGet();
+                marker.future.complete(null);
+            }
+        }
+    }
+
+    private void write(List<Pending> batch)
+    {
+        List<GamesPlayed> rows = new ArrayList<GamesPlayed>(batch.size());
+        for (Pending pending : batch) {
+            rows.add(pending.row);
+        }
+        try {
+            service.createAll(rows);
+            batches.incrementAndGet();
+            for (Pending pending : batch) {
+                pending.future.complete(pending.row);
+            }
+            return;
+        }
+        catch (Throwable ex) {
+            // the batch rolled back; createAll may have set some of the IDs
+            for (GamesPlayed row : rows) {
+                row.setId(null);
+            }
+        }
+        for (Pending pending : batch) {
+            try {
+                pending.future.complete(service.create(pending.row));
+            }
+            catch (Throwable ex) {
+                pending.row.setId(null);
+                failedRows.incrementAndGet();
+                pending.future.completeExceptionally(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.entity.LeaderboardEntry;
+import cs4347.jdbcGame.services.LeaderboardService;
+import cs4347.jdbcGame.util.DAOException;
+
+// this class is a service for the per game leaderboards
+public class LeaderboardServiceImpl implements LeaderboardService {
+
+	// shared by all services of the same DataSource
+	private final Leaderboards leaderboards;
+
+	public LeaderboardServiceImpl(DataSource dataSource) {
+		this.leaderboards = Leaderboards.forDataSource(dataSource);
+	}
+
+	// this function returns the best players of a game, loading the boards on first use
+	@Override
+	public List<LeaderboardEntry> retrieveTop(long gameID, int count) throws DAOException, SQLException {
+		if (count < 0) {
+			throw new DAOException("Leaderboard size cannot be negative: " + count);
+		}
+		return leaderboards.board(gameID).top(count);
+	}
+
+	// this function returns a player's best score and rank in a game
+	@Override
+	public LeaderboardEntry retrieveRank(long gameID, long playerID) throws DAOException, SQLException {
+		return leaderboards.board(gameID).rank(playerID);
+	}
+
+	// this function counts the players with a score in a game
+	@Override
+	public int countPlayers(long gameID) throws DAOException, SQLException {
+		return leaderboards.board(gameID).size();
+	}
+
+	// this function rebuilds the boards from the gamesplayed table
+	@Override
+	public void reload() throws DAOException, SQLException {
+		leaderboards.clear();
+		leaderboards.ensureLoaded();
+	}
+
+}
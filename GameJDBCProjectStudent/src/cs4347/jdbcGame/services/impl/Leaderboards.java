@@ -0,0 +1,236 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * The leaderboards of one database, shared by every LeaderboardServiceImpl
+ * and GamesPlayedServiceImpl created for the same DataSource. Nothing is
+ * kept until a leaderboard is first read; the boards are then loaded with
+ * one streamed GROUP BY query.
+ *
+ * GamesPlayedServiceImpl reports every committed change and PlayerServiceImpl
+ * the players it purges. A new score only needs to be compared with the
+ * player's best; an update or delete may lower the best, so the player's rows
+ * for that game are read again. Refreshes and removals that arrive while the
+ * boards are loading are replayed afterwards, because the load may have read
+ * the rows before the change.
+ */
+class Leaderboards
+{
+    private static final Map<DataSource, Leaderboards> instances = new ConcurrentHashMap<DataSource, Leaderboards>();
+
+    private enum State
+    {
+        EMPTY, LOADING, LOADED
+    }
+
+    private final DataSource dataSource;
+    private final Object loadLock = new Object();
+    private volatile Map<Long, ScoreTree> games = new ConcurrentHashMap<Long, ScoreTree>();
+    private volatile State state = State.EMPTY;
+    // player and game pairs to refresh once loading is done, guarded by this
+    private final Set<List<Long>> pendingRefresh = new LinkedHashSet<List<Long>>();
+    // players to remove once loading is done, guarded by this
+    private final Set<Long> pendingRemoval = new HashSet<Long>();
+
+    private Leaderboards(DataSource dataSource)
+    {
+        this.dataSource = dataSource;
+    }
+
+    static Leaderboards forDataSource(DataSource dataSource)
+    {
+        return instances.computeIfAbsent(dataSource, Leaderboards::new);
+    }
+
+    /**
+     * Returns the boards of the DataSource if they are kept, i.e. if they have
+     * been read since the start, otherwise null. Used by the writers to skip
+     * all leaderboard work when nobody reads the boards.
+     */
+    static Leaderboards tracking(DataSource dataSource)
+    {
+        Leaderboards boards = instances.get(dataSource);
+        return boards == null || boards.state == State.EMPTY ? null : boards;
+    }
+
+    ScoreTree board(long gameID) throws DAOException, SQLException
+    {
+        ensureLoaded();
+        ScoreTree board = games.get(gameID);
+        return board != null ? board : new ScoreTree(gameID);
+    }
+
+    /**
+     * Called after a GamesPlayed row was committed with the given score.
+     */
+    void scoreRecorded(GamesPlayed gamesPlayed)
+    {
+        if (state == State.EMPTY) {
+            return;
+        }
+        // a higher score always wins, whether or not the load saw the row
+        boardFor(gamesPlayed.getGameID()).offer(gamesPlayed.getPlayerID(), gamesPlayed.getScore());
+    }
+
+    /**
+     * Called after rows of the player and game were changed or deleted. Reads
+     * the player's best score for the game on the given connection. The change
+     * is already committed, so a failure here drops the boards (they are
+     * loaded again on the next read) instead of failing the caller.
+     */
+    void refresh(Connection connection, Long playerID, Long gameID)
+    {
+        synchronized (this) {
+            if (state == State.EMPTY) {
+                return;
+            }
+            if (state == State.LOADING) {
+                List<Long> key = new ArrayList<Long>(2);
+                key.add(playerID);
+                key.add(gameID);
+                pendingRefresh.add(key);
+                return;
+            }
+        }
+        ScoreTree board = boardFor(gameID);
+        try {
+            // the board stays locked from the read to the set: a higher score
+            // committed in between is offered after the set instead of being
+            // overwritten by the best score read before it
+            synchronized (board) {
+                GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+                Integer best = null;
+                for (GamesPlayed gamesPlayed : gamesPlayedDAO.retrieveByPlayerGameID(connection, playerID, gameID)) {
+                    if (best == null || gamesPlayed.getScore() > best) {
+                        best = gamesPlayed.getScore();
+                    }
+                }
+                board.set(playerID, best);
+            }
+        }
+        catch (DAOException | SQLException ex) {
+            // outside the board: a loader holds loadLock and offers to the boards
+            clear();
+        }
+    }
+
+    /**
+     * Called after the given players were deleted with all their rows; takes
+     * them off every board.
+     */
+    void playersRemoved(Collection<Long> playerIDs)
+    {
+        synchronized (this) {
+            if (state == State.EMPTY) {
+                return;
+            }
+            if (state == State.LOADING) {
+                pendingRemoval.addAll(playerIDs);
+                return;
+            }
+        }
+        removePlayers(playerIDs);
+    }
+
+    private void removePlayers(Collection<Long> playerIDs)
+    {
+        for (ScoreTree board : games.values()) {
+            for (Long playerID : playerIDs) {
+                board.set(playerID, null);
+            }
+        }
+    }
+
+    /**
+     * Drops the boards; the next read loads them again. Waits for a load in
+     * progress, which would otherwise drop the rest of its rows and still mark
+     * the incomplete boards as loaded.
+     */
+    void clear()
+    {
+        synchronized (loadLock) {
+            synchronized (this) {
+                games = new ConcurrentHashMap<Long, ScoreTree>();
+                pendingRefresh.clear();
+                pendingRemoval.clear();
+                state = State.EMPTY;
+            }
+        }
+    }
+
+    private ScoreTree boardFor(long gameID)
+    {
+        return games.computeIfAbsent(gameID, ScoreTree::new);
+    }
+
+    void ensureLoaded() throws DAOException, SQLException
+    {
+        if (state == State.LOADED) {
+            return;
+        }
+        // one loader at a time, the other readers wait for it
+        synchronized (loadLock) {
+            synchronized (this) {
+                if (state == State.LOADED) {
+                    return;
+                }
+                state = State.LOADING;
+            }
+            List<List<Long>> refreshes;
+            List<Long> removals;
+            Connection connection = dataSource.getConnection();
+            try {
+                try {
+                    GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+                    // the row is reused for every player and game; scoreRecorded only reads it
+                    gamesPlayedDAO.streamBestScores(connection, best -> scoreRecorded(best));
+                }
+                catch (DAOException | SQLException | RuntimeException ex) {
+                    clear();
+                    throw ex;
+                }
+                synchronized (this) {
+                    refreshes = new ArrayList<List<Long>>(pendingRefresh);
+                    pendingRefresh.clear();
+                    removals = new ArrayList<Long>(pendingRemoval);
+                    pendingRemoval.clear();
+                    state = State.LOADED;
+                }
+                removePlayers(removals);
+                for (List<Long> key : refreshes) {
+                    refresh(connection, key.get(0), key.get(1));
+                }
+            }
+            finally {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.entity.PlayerProfile;
+import cs4347.jdbcGame.services.AsyncGameService;
+import cs4347.jdbcGame.services.AsyncGamesOwnedService;
+import cs4347.jdbcGame.services.AsyncGamesPlayedService;
+import cs4347.jdbcGame.services.AsyncPlayerService;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.PlayerProfileService;
+import cs4347.jdbcGame.util.DAOException;
+
+// this class assembles player profiles from parallel service calls
+public class PlayerProfileServiceImpl implements PlayerProfileService {
+	private final AsyncPlayerService players;
+	private final AsyncGamesOwnedService gamesOwned;
+	private final AsyncGamesPlayedService gamesPlayed;
+	private final AsyncGameService games;
+
+	public PlayerProfileServiceImpl(DataSource dataSource, ServiceExecutor executor) {
+		this(dataSource, new GameServiceImpl(dataSource), executor);
+	}
+
+	// reads the games through an existing service
+	public PlayerProfileServiceImpl(DataSource dataSource, GameService gameService, ServiceExecutor executor) {
+		this.players = new AsyncPlayerServiceImpl(dataSource, executor);
+		this.gamesOwned = new AsyncGamesOwnedServiceImpl(dataSource, executor);
+		this.gamesPlayed = new AsyncGamesPlayedServiceImpl(dataSource, executor);
+		this.games = new AsyncGameServiceImpl(gameService, executor);
+	}
+
+	// this function assembles a profile and waits for it
+	@Override
+	public PlayerProfile retrieve(long playerID) throws DAOException, SQLException {
+		try {
+			return retrieveAsync(playerID).get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new DAOException("Interrupted while retrieving the profile of player " + playerID);
+		} catch (ExecutionException ex) {
+			// hand out the exception of the service call that failed
+			Throwable cause = ex.getCause();
+			if (cause instanceof DAOException) {
+				throw (DAOException) cause;
+			}
+			if (cause instanceof SQLException) {
+				throw (SQLException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new DAOException("Failed to retrieve the profile of player " + playerID + ": " + cause);
+		}
+	}
+
+	// this function assembles a profile; the three player reads run at once
+	// and the games are read when the owned and played lists are in
+	@Override
+	public CompletableFuture<PlayerProfile> retrieveAsync(long playerID) {
+		CompletableFuture<Player> player = players.retrieve(playerID);
+		CompletableFuture<List<GamesOwned>> owned = gamesOwned.retrieveByPlayer(playerID);
+		CompletableFuture<List<GamesPlayed>> played = gamesPlayed.retrieveByPlayer(playerID);
+
+		// every game once, however often it was bought or played
+		CompletableFuture<Map<Long, Game>> gameMap = owned.thenCombine(played, (o, p) -> {
+			Set<Long> gameIDs = new LinkedHashSet<Long>();
+			for (GamesOwned go : o) {
+				gameIDs.add(go.getGameID());
+			}
+			for (GamesPlayed gp : p) {
+				gameIDs.add(gp.getGameID());
+			}
+			return gameIDs;
+		}).thenCompose(gameIDs -> games.retrieveByIDs(gameIDs));
+
+		return CompletableFuture.allOf(player, gameMap).thenApply(done -> {
+			if (player.join() == null) {
+				return null;
+			}
+			PlayerProfile profile = new PlayerProfile();
+			profile.setPlayer(player.join());
+			profile.setGamesOwned(owned.join());
+			profile.setGamesPlayed(played.join());
+			profile.setGames(gameMap.join());
+			return profile;
+		});
+	}
+
+}
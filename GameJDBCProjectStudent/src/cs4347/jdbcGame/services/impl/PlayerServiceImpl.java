@@ -12,26 +12,54 @@ package cs4347.jdbcGame.services.impl;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.CountedTable;
 import cs4347.jdbcGame.dao.CreditCardDAO;
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.dao.RowHandler;
+import cs4347.jdbcGame.dao.SummaryDAO;
 import cs4347.jdbcGame.dao.impl.CreditCardDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
 import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
+import cs4347.jdbcGame.dao.impl.SummaryDAOImpl;
 import cs4347.jdbcGame.entity.CreditCard;
 import cs4347.jdbcGame.entity.Player;
 import cs4347.jdbcGame.services.PlayerService;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.TransactionTemplate;
 
 // this class is a service for Player
 public class PlayerServiceImpl implements PlayerService {
-	private DataSource dataSource;
+
+	// players deleted per transaction by purge, one IN (...) list per table
+	private static final int DEFAULT_PURGE_CHUNK_SIZE = 500;
+
+	private final TransactionTemplate transactions;
+	private final int purgeChunkSize;
 
 	public PlayerServiceImpl(DataSource dataSource) {
-		this.dataSource = dataSource;
+		this(dataSource, DEFAULT_PURGE_CHUNK_SIZE);
+	}
+
+	public PlayerServiceImpl(DataSource dataSource, int purgeChunkSize) {
+		if (purgeChunkSize < 1) {
+			throw new IllegalArgumentException("Purge chunk size must be at least 1: " + purgeChunkSize);
+		}
+		this.transactions = new TransactionTemplate(dataSource);
+		this.purgeChunkSize = purgeChunkSize;
 	}
 
 	// this function inserts player into the table for players
@@ -45,30 +73,17 @@ public class PlayerServiceImpl implements PlayerService {
 		PlayerDAO playerDAO = new PlayerDAOImpl();
 		CreditCardDAO ccDAO = new CreditCardDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
 			Player p1 = playerDAO.create(connection, player);
 			Long playerID = p1.getId();
 			for (CreditCard creditCard : player.getCreditCards()) {
 				creditCard.setPlayerID(playerID);
 				ccDAO.create(connection, creditCard, playerID);
 			}
-			connection.commit();
+			new SummaryDeltas().rows(CountedTable.PLAYER, 1)
+					.rows(CountedTable.CREDIT_CARD, player.getCreditCards().size()).apply(connection);
 			return p1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
 	}
 
 	// this function retrieves a player and his/her credit cards based on playerID
@@ -76,30 +91,17 @@ public class PlayerServiceImpl implements PlayerService {
 	public Player retrieve(Long playerID) throws DAOException, SQLException {
 		PlayerDAO playerDAO = new PlayerDAOImpl();
 		CreditCardDAO ccDAO = new CreditCardDAOImpl();
-		Connection connection = dataSource.getConnection();
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		// two queries, read-only so the cards match the player
+		return transactions.readOnly(connection -> {
 			Player p1 = playerDAO.retrieve(connection, playerID);
 			List<CreditCard> cards = ccDAO.retrieveCreditCardsForPlayer(connection, playerID);
 
 			if (p1 != null) {
 				p1.setCreditCards(cards);
 			}
-			connection.commit();
 			return p1;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
 	}
 
 	// this function updates a player's info and his/her credit cards using the
@@ -113,87 +115,89 @@ public class PlayerServiceImpl implements PlayerService {
 		PlayerDAO playerDAO = new PlayerDAOImpl();
 		CreditCardDAO ccDAO = new CreditCardDAOImpl();
 
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.write(connection -> {
 			int rows = playerDAO.update(connection, player);
 
+			int created = 0;
 			for (CreditCard creditCard : player.getCreditCards()) {
 
 				if (creditCard.getId() == null) {
 					ccDAO.create(connection, creditCard, player.getId());
+					created++;
 				} else {
 					ccDAO.update(connection, creditCard);
 				}
 			}
-			connection.commit();
+			new SummaryDeltas().rows(CountedTable.CREDIT_CARD, created).apply(connection);
 			return rows;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		});
 	}
 
-	// this function deletes a player and his/her credit cards based on playerID
+	// this function deletes a player and his/her credit cards, games owned and
+	// games played based on playerID
 	@Override
 	public int delete(Long playerID) throws DAOException, SQLException {
-		PlayerDAO playerDAO = new PlayerDAOImpl();
+		if (playerID == null) {
+			throw new DAOException("Trying to delete player with NULL ID");
+		}
+		return purge(Collections.singletonList(playerID));
+	}
+
+	// this function deletes many players with all their rows, a chunk of
+	// players per transaction
+	@Override
+	public int purge(List<Long> playerIDs) throws DAOException, SQLException {
+		if (playerIDs.contains(null)) {
+			throw new DAOException("Trying to delete player with NULL ID");
+		}
+		List<Long> ids = new ArrayList<Long>(new LinkedHashSet<Long>(playerIDs));
+
+		int deleted = 0;
+		for (int from = 0; from < ids.size(); from += purgeChunkSize) {
+			List<Long> chunk = ids.subList(from, Math.min(from + purgeChunkSize, ids.size()));
+			deleted += transactions.write(connection -> purgeChunk(connection, chunk));
+		}
+		return deleted;
+	}
+
+	// the summaries are read from the rows, so they go first; the rest
+	// follows the foreign keys and player_summary cascades with the player
+	private int purgeChunk(Connection connection, List<Long> playerIDs) throws DAOException, SQLException {
+		SummaryDAO summaryDAO = new SummaryDAOImpl();
+		GamesPlayedDAO gpDAO = new GamesPlayedDAOImpl();
+		GamesOwnedDAO goDAO = new GamesOwnedDAOImpl();
 		CreditCardDAO ccDAO = new CreditCardDAOImpl();
+		PlayerDAO playerDAO = new PlayerDAOImpl();
 
-		Connection connection = dataSource.getConnection();
+		summaryDAO.subtractPlayers(connection, playerIDs);
+		int plays = gpDAO.deleteForPlayers(connection, playerIDs);
+		int purchases = goDAO.deleteForPlayers(connection, playerIDs);
+		int cards = ccDAO.deleteForPlayers(connection, playerIDs);
+		int rows = playerDAO.deleteByIDs(connection, playerIDs);
+		new SummaryDeltas().rows(CountedTable.GAMES_PLAYED, -plays).rows(CountedTable.GAMES_OWNED, -purchases)
+				.rows(CountedTable.CREDIT_CARD, -cards).rows(CountedTable.PLAYER, -rows).apply(connection);
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			ccDAO.deleteForPlayer(connection, playerID);
-			int rows = playerDAO.delete(connection, playerID);
-			connection.commit();
-			return rows;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
+		transactions.afterCommit(committed -> {
+			Leaderboards leaderboards = Leaderboards.tracking(transactions.getDataSource());
+			if (leaderboards != null) {
+				leaderboards.playersRemoved(playerIDs);
 			}
-		}
+		});
+		return rows;
 	}
 
 	// this function counts the number of players
 	@Override
 	public int count() throws DAOException, SQLException {
 		PlayerDAO playerDAO = new PlayerDAOImpl();
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			int res = playerDAO.count(connection);
-			connection.commit();
-			return res;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		return transactions.read(connection -> playerDAO.count(connection));
+	}
+
+	// this function counts the number of players in the given mode
+	@Override
+	public long count(CountMode mode) throws DAOException, SQLException {
+		PlayerDAO playerDAO = new PlayerDAOImpl();
+		return transactions.read(connection -> playerDAO.count(connection, mode));
 	}
 
 	// this function retrieves players and their credit cards based on when they
@@ -202,30 +206,52 @@ public class PlayerServiceImpl implements PlayerService {
 	public List<Player> retrieveByJoinDate(Date start, Date end) throws DAOException, SQLException {
 		PlayerDAO playerDAO = new PlayerDAOImpl();
 		CreditCardDAO ccDAO = new CreditCardDAOImpl();
-		Connection connection = dataSource.getConnection();
 
-		// transaction
-		try {
-			connection.setAutoCommit(false);
+		return transactions.readOnly(connection -> {
 			List<Player> players = playerDAO.retrieveByJoinDate(connection, start, end);
 
+			// load the credit cards of all players at once instead of one query per player
+			List<Long> playerIDs = new ArrayList<Long>(players.size());
+			for (Player player : players) {
+				playerIDs.add(player.getId());
+			}
+			Map<Long, List<CreditCard>> cards = ccDAO.retrieveCreditCardsForPlayers(connection, playerIDs);
 			for (Player player : players) {
-				List<CreditCard> cards = ccDAO.retrieveCreditCardsForPlayer(connection, player.getId());
-				player.setCreditCards(cards);
+				player.setCreditCards(cards.get(player.getId()));
 			}
-			connection.commit();
 			return players;
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
+		});
+	}
+
+	// this function streams players based on when they joined, without credit cards
+	@Override
+	public int streamByJoinDate(Date start, Date end, RowHandler<Player> handler) throws DAOException, SQLException {
+		PlayerDAO playerDAO = new PlayerDAOImpl();
+
+		// one query; rows are handed out while it runs
+		return transactions.read(connection -> playerDAO.streamByJoinDate(connection, start, end, handler));
+	}
+
+	// this function retrieves one page of players, with their credit cards, based on when they joined
+	@Override
+	public Page<Player> retrieveByJoinDatePage(Date start, Date end, String pageToken, int pageSize) throws DAOException, SQLException {
+		PlayerDAO playerDAO = new PlayerDAOImpl();
+		CreditCardDAO ccDAO = new CreditCardDAOImpl();
+
+		return transactions.readOnly(connection -> {
+			Page<Player> page = playerDAO.retrieveByJoinDatePage(connection, start, end, pageToken, pageSize);
+
+			// one query for the credit cards of the whole page
+			List<Long> playerIDs = new ArrayList<Long>(page.getItems().size());
+			for (Player player : page.getItems()) {
+				playerIDs.add(player.getId());
 			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
+			Map<Long, List<CreditCard>> cards = ccDAO.retrieveCreditCardsForPlayers(connection, playerIDs);
+			for (Player player : page.getItems()) {
+				player.setCreditCards(cards.get(player.getId()));
 			}
-		}
+			return page;
+		});
 	}
 
 	// this function counts the number of credit cards a certain player has
@@ -235,25 +261,7 @@ public class PlayerServiceImpl implements PlayerService {
 	@Override
 	public int countCreditCardsForPlayer(Long playerID) throws DAOException, SQLException {
 		CreditCardDAO ccDAO = new CreditCardDAOImpl();
-		Connection connection = dataSource.getConnection();
-
-		// transaction
-		try {
-			connection.setAutoCommit(false);
-			List<CreditCard> cards = ccDAO.retrieveCreditCardsForPlayer(connection, playerID);
-			connection.commit();
-			return cards.size();
-		} catch (Exception ex) {
-			connection.rollback();
-			throw ex;
-		} finally {
-			if (connection != null) {
-				connection.setAutoCommit(true);
-			}
-			if (connection != null && !connection.isClosed()) {
-				connection.close();
-			}
-		}
+		return transactions.read(connection -> ccDAO.retrieveCreditCardsForPlayer(connection, playerID).size());
 	}
 
 }
@@ -0,0 +1,218 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import cs4347.jdbcGame.entity.LeaderboardEntry;
+
+/**
+ * The leaderboard of one game: each player's best score, ordered by score
+ * (highest first) and then player id. The order is kept in a treap whose
+ * nodes know their subtree size, so inserting, removing and ranking a player
+ * take O(log n) and the top k take O(k + log n). All methods are
+ * synchronized; one game's board is never locked by work on another.
+ */
+class ScoreTree
+{
+    private static class Node
+    {
+        final int score;
+        final long playerID;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(int score, long playerID, int priority)
+        {
+            this.score = score;
+            this.playerID = playerID;
+            this.priority = priority;
+        }
+    }
+
+    private final long gameID;
+    private final Map<Long, Integer> bestScores = new HashMap<Long, Integer>();
+    private final Random random = new Random();
+    private Node root;
+
+    ScoreTree(long gameID)
+    {
+        this.gameID = gameID;
+    }
+
+    /**
+     * Records a score; keeps the player's earlier score if that was higher.
+     */
+    synchronized void offer(long playerID, int score)
+    {
+        Integer best = bestScores.get(playerID);
+        if (best != null && best >= score) {
+            return;
+        }
+        set(playerID, score);
+    }
+
+    /**
+     * Replaces the player's best score; null removes the player.
+     */
+    synchronized void set(long playerID, Integer score)
+    {
+        Integer old = score == null ? bestScores.remove(playerID) : bestScores.put(playerID, score);
+        if (old != null) {
+            Node[] lower = split(root, old, playerID, false);
+            Node[] upper = split(lower[1], old, playerID, true);
+            root = merge(lower[0], upper[1]);
+        }
+        if (score != null) {
+            Node[] parts = split(root, score, playerID, false);
+            root = merge(merge(parts[0], new Node(score, playerID, random.nextInt())), parts[1]);
+        }
+    }
+
+    synchronized int size()
+    {
+        return bestScores.size();
+    }
+
+    /**
+     * Returns null if the player has no score in this game.
+     */
+    synchronized LeaderboardEntry rank(long playerID)
+    {
+        Integer score = bestScores.get(playerID);
+        if (score == null) {
+            return null;
+        }
+        // everybody with a higher score is ahead, ties share the rank
+        return entry(playerID, score, countBefore(score, Long.MIN_VALUE) + 1);
+    }
+
+    synchronized List<LeaderboardEntry> top(int count)
+    {
+        List<LeaderboardEntry> result = new ArrayList<LeaderboardEntry>(Math.min(count, bestScores.size()));
+        collect(root, count, result);
+        return result;
+    }
+
+    // in order walk that stops after count entries
+    private void collect(Node node, int count, List<LeaderboardEntry> result)
+    {
+        if (node == null || result.size() >= count) {
+            return;
+        }
+        collect(node.left, count, result);
+        if (result.size() >= count) {
+            return;
+        }
+        int rank = result.size() + 1;
+        if (!result.isEmpty()) {
+            LeaderboardEntry previous = result.get(result.size() - 1);
+            if (previous.getScore() == node.score) {
+                rank = previous.getRank();
+            }
+        }
+        result.add(entry(node.playerID, node.score, rank));
+        collect(node.right, count, result);
+    }
+
+    private LeaderboardEntry entry(long playerID, int score, int rank)
+    {
+        LeaderboardEntry entry = new LeaderboardEntry();
+        entry.setGameID(gameID);
+        entry.setPlayerID(playerID);
+        entry.setScore(score);
+        entry.setRank(rank);
+        return entry;
+    }
+
+    // number of nodes ordered before (score, playerID)
+    private int countBefore(int score, long playerID)
+    {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (before(node, score, playerID)) {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+            else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    // true if node orders before (score, playerID): higher score, then lower id
+    private static boolean before(Node node, int score, long playerID)
+    {
+        return node.score != score ? node.score > score : node.playerID < playerID;
+    }
+
+    /**
+     * Splits into the nodes before the key and the rest. With inclusive the
+     * node equal to the key goes to the first part.
+     */
+    private static Node[] split(Node node, int score, long playerID, boolean inclusive)
+    {
+        if (node == null) {
+            return new Node[2];
+        }
+        boolean left = before(node, score, playerID)
+                || (inclusive && node.score == score && node.playerID == playerID);
+        if (left) {
+            Node[] parts = split(node.right, score, playerID, inclusive);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, score, playerID, inclusive);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    // every node of a orders before every node of b
+    private static Node merge(Node a, Node b)
+    {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static int size(Node node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node)
+    {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+}
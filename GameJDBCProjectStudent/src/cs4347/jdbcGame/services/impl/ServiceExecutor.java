@@ -0,0 +1,152 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Runs the blocking service calls of the async services. Each call gets its
+ * own virtual thread when the JVM has them (Java 21 and later); on older JVMs
+ * a fixed pool of daemon threads is used instead.
+ *
+ * Every call holds a connection while it runs, so at most maxConcurrency
+ * calls run at once and the rest wait for a permit; pass the maximum size of
+ * the connection pool, so callers fanning out many lookups queue here
+ * instead of timing out in the pool. Waiting virtual threads cost no
+ * platform thread.
+ */
+public class ServiceExecutor implements AutoCloseable
+{
+    /**
+     * One blocking service call.
+     */
+    public interface Call<T>
+    {
+        T call() throws DAOException, SQLException;
+    }
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    public ServiceExecutor(int maxConcurrency)
+    {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newFixedThreadPool(maxConcurrency, daemonThreads());
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Runs the call. The future completes with its result, or exceptionally
+     * with the DAOException or SQLException it threw. Cancelling the future
+     * before the call started skips it; a running call is not interrupted.
+     */
+    public <T> CompletableFuture<T> submit(Call<T> call)
+    {
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            executor.execute(() -> run(call, future));
+        }
+        catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    private <T> void run(Call<T> call, CompletableFuture<T> future)
+    {
+        try {
+            permits.acquire();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(ex);
+            return;
+        }
+        try {
+            if (!future.isDone()) {
+                future.complete(call.call());
+            }
+        }
+        catch (Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+        finally {
+            permits.release();
+        }
+    }
+
+    public boolean usesVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
+    public int getMaxConcurrency()
+    {
+        return maxConcurrency;
+    }
+
+    /**
+     * The number of calls running right now.
+     */
+    public int getActiveCount()
+    {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Stops accepting calls; the submitted ones still run.
+     */
+    @Override
+    public void close()
+    {
+        executor.shutdown();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor(), looked up so the code still
+    // compiles and runs on JVMs without virtual threads
+    private static ExecutorService newVirtualThreadExecutor()
+    {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads()
+    {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "jdbcGame-service-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
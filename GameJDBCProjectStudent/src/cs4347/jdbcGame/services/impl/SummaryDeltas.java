@@ -0,0 +1,118 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import cs4347.jdbcGame.dao.CountedTable;
+import cs4347.jdbcGame.dao.RowCountDAO;
+import cs4347.jdbcGame.dao.SummaryDAO;
+import cs4347.jdbcGame.dao.impl.RowCountDAOImpl;
+import cs4347.jdbcGame.dao.impl.SummaryDAOImpl;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Collects the changes a service call makes to the summary tables and writes
+ * them with one upsert per game and player. The rows of one apply are written
+ * in game id and then player id order, and the row counters of the tables
+ * last, also in a fixed order, so two single service calls lock the summaries
+ * in the same order and cannot deadlock on them. A UnitOfWork applies once per
+ * service call, in the order of its calls, so two units can still lock the
+ * same summaries in opposite orders; see UnitOfWork.
+ */
+class SummaryDeltas
+{
+    private static class GameDelta
+    {
+        long owners;
+        double revenue;
+        long plays;
+        long scoreTotal;
+    }
+
+    private static class PlayerDelta
+    {
+        long gamesOwned;
+        double totalSpend;
+    }
+
+    private final Map<Long, GameDelta> games = new TreeMap<Long, GameDelta>();
+    private final Map<Long, PlayerDelta> players = new TreeMap<Long, PlayerDelta>();
+    private final Map<CountedTable, Long> rows = new EnumMap<CountedTable, Long>(CountedTable.class);
+
+    /**
+     * Counts a purchase: sign is 1 for a new row and -1 for a removed one.
+     */
+    SummaryDeltas owned(GamesOwned gamesOwned, int sign)
+    {
+        GameDelta game = games.computeIfAbsent(gamesOwned.getGameID(), id -> new GameDelta());
+        game.owners += sign;
+        game.revenue += sign * (double) gamesOwned.getPurchasePrice();
+        PlayerDelta player = players.computeIfAbsent(gamesOwned.getPlayerID(), id -> new PlayerDelta());
+        player.gamesOwned += sign;
+        player.totalSpend += sign * (double) gamesOwned.getPurchasePrice();
+        return this;
+    }
+
+    /**
+     * Counts a play: sign is 1 for a new row and -1 for a removed one.
+     */
+    SummaryDeltas played(GamesPlayed gamesPlayed, int sign)
+    {
+        GameDelta game = games.computeIfAbsent(gamesPlayed.getGameID(), id -> new GameDelta());
+        game.plays += sign;
+        game.scoreTotal += sign * (long) gamesPlayed.getScore();
+        return this;
+    }
+
+    /**
+     * Counts rows inserted into (positive) or deleted from (negative) a table.
+     */
+    SummaryDeltas rows(CountedTable table, long delta)
+    {
+        rows.merge(table, delta, Long::sum);
+        return this;
+    }
+
+    /**
+     * Writes the collected changes on the caller's connection; changes that
+     * cancel out (e.g. an update that kept the price) are skipped.
+     */
+    void apply(Connection connection) throws SQLException, DAOException
+    {
+        SummaryDAO summaryDAO = new SummaryDAOImpl();
+        for (Map.Entry<Long, GameDelta> entry : games.entrySet()) {
+            GameDelta delta = entry.getValue();
+            if (delta.owners != 0 || delta.revenue != 0 || delta.plays != 0 || delta.scoreTotal != 0) {
+                summaryDAO.applyGameDelta(connection, entry.getKey(), delta.owners, delta.revenue, delta.plays,
+                        delta.scoreTotal);
+            }
+        }
+        for (Map.Entry<Long, PlayerDelta> entry : players.entrySet()) {
+            PlayerDelta delta = entry.getValue();
+            if (delta.gamesOwned != 0 || delta.totalSpend != 0) {
+                summaryDAO.applyPlayerDelta(connection, entry.getKey(), delta.gamesOwned, delta.totalSpend);
+            }
+        }
+        RowCountDAO rowCountDAO = new RowCountDAOImpl();
+        for (Map.Entry<CountedTable, Long> entry : rows.entrySet()) {
+            if (entry.getValue() != 0) {
+                rowCountDAO.applyDelta(connection, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
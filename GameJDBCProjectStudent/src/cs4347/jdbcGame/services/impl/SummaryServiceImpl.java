@@ -0,0 +1,75 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.RowCountDAO;
+import cs4347.jdbcGame.dao.SummaryDAO;
+import cs4347.jdbcGame.dao.impl.RowCountDAOImpl;
+import cs4347.jdbcGame.dao.impl.SummaryDAOImpl;
+import cs4347.jdbcGame.entity.GameSummary;
+import cs4347.jdbcGame.entity.PlayerSummary;
+import cs4347.jdbcGame.services.SummaryService;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.TransactionTemplate;
+
+// this class is a service for the game and player summary tables
+public class SummaryServiceImpl implements SummaryService {
+	private final TransactionTemplate transactions;
+
+	public SummaryServiceImpl(DataSource dataSource) {
+		this.transactions = new TransactionTemplate(dataSource);
+	}
+
+	// this function looks up the totals of one game
+	@Override
+	public GameSummary retrieveGameSummary(long gameID) throws DAOException, SQLException {
+		SummaryDAO summaryDAO = new SummaryDAOImpl();
+
+		GameSummary g1 = transactions.read(connection -> summaryDAO.retrieveGameSummary(connection, gameID));
+		if (g1 == null) {
+			g1 = new GameSummary();
+			g1.setGameID(gameID);
+		}
+		return g1;
+	}
+
+	// this function looks up the totals of one player
+	@Override
+	public PlayerSummary retrievePlayerSummary(long playerID) throws DAOException, SQLException {
+		SummaryDAO summaryDAO = new SummaryDAOImpl();
+
+		PlayerSummary p1 = transactions.read(connection -> summaryDAO.retrievePlayerSummary(connection, playerID));
+		if (p1 == null) {
+			p1 = new PlayerSummary();
+			p1.setPlayerID(playerID);
+		}
+		return p1;
+	}
+
+	// this function recomputes both summary tables and the row counters; writers
+	// that touch the same summary rows wait for it, so run it when the load is low
+	@Override
+	public void rebuild() throws DAOException, SQLException {
+		SummaryDAO summaryDAO = new SummaryDAOImpl();
+		RowCountDAO rowCountDAO = new RowCountDAOImpl();
+
+		transactions.write(connection -> {
+			summaryDAO.rebuild(connection);
+			rowCountDAO.rebuild(connection);
+			return null;
+		});
+	}
+
+}
@@ -0,0 +1,210 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index from the three-character substrings (trigrams) of a text
+ * to the documents containing them, for case insensitive substring and prefix
+ * search. A query with n trigrams only looks at the documents in the
+ * intersection of their n posting lists, walking the shortest one and probing
+ * the others by binary search, so the cost depends on the number of matches
+ * rather than on the number of documents. Candidates are checked against the
+ * text, since having all trigrams does not mean containing the query.
+ *
+ * Every text is indexed with two marker characters in front, so a prefix
+ * query also has trigrams ("\1\1h", "\1ha", ...) and "ha" as a prefix needs no
+ * scan. Substring queries of one or two characters have no trigram and scan
+ * the documents until limit matches are found.
+ *
+ * Documents are numbered in insertion order, so posting lists are appended
+ * in sorted order. A replaced or removed document leaves stale postings that
+ * are skipped; the index is rebuilt when more than half of it is stale. Not
+ * thread safe.
+ */
+class TrigramIndex
+{
+    private static final String PREFIX_MARK = "\u0001\u0001";
+    private static final int MIN_COMPACT = 1024;
+
+    private static class Postings
+    {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc)
+        {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        boolean contains(int doc)
+        {
+            return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+        }
+    }
+
+    private long[] ids = new long[16];
+    // lower case text per document, null once replaced or removed
+    private String[] texts = new String[16];
+    private int docCount;
+    private int staleCount;
+    private final Map<Long, Integer> docOf = new HashMap<Long, Integer>();
+    private final Map<Long, Postings> postings = new HashMap<Long, Postings>();
+
+    /**
+     * Indexes the text under the id, replacing an earlier text of the id. A
+     * null text removes the id.
+     */
+    void put(long id, String text)
+    {
+        remove(id);
+        if (text == null) {
+            return;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (docCount == ids.length) {
+            ids = Arrays.copyOf(ids, docCount * 2);
+            texts = Arrays.copyOf(texts, docCount * 2);
+        }
+        int doc = docCount++;
+        ids[doc] = id;
+        texts[doc] = lower;
+        docOf.put(id, doc);
+        for (long trigram : trigrams(PREFIX_MARK + lower)) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                list = new Postings();
+                postings.put(trigram, list);
+            }
+            list.add(doc);
+        }
+    }
+
+    void remove(long id)
+    {
+        Integer doc = docOf.remove(id);
+        if (doc == null) {
+            return;
+        }
+        texts[doc] = null;
+        staleCount++;
+        if (staleCount > MIN_COMPACT && staleCount > docCount / 2) {
+            compact();
+        }
+    }
+
+    int size()
+    {
+        return docOf.size();
+    }
+
+    /**
+     * Returns the ids of up to limit documents that contain the query (or
+     * start with it if prefix is set), ignoring case, in insertion order.
+     */
+    List<Long> search(String query, boolean prefix, int limit)
+    {
+        List<Long> result = new ArrayList<Long>();
+        String lower = query.toLowerCase(Locale.ROOT);
+        String key = prefix ? PREFIX_MARK + lower : lower;
+        if (limit <= 0) {
+            return result;
+        }
+        if (key.length() < 3) {
+            for (int doc = 0; doc < docCount && result.size() < limit; doc++) {
+                if (matches(doc, lower, prefix)) {
+                    result.add(ids[doc]);
+                }
+            }
+            return result;
+        }
+
+        Set<Long> keys = trigrams(key);
+        Postings[] lists = new Postings[keys.size()];
+        int idx = 0;
+        for (long trigram : keys) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                return result;
+            }
+            lists[idx++] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        Postings shortest = lists[0];
+        for (int pos = 0; pos < shortest.size && result.size() < limit; pos++) {
+            int doc = shortest.docs[pos];
+            if (texts[doc] == null || !inAll(lists, doc)) {
+                continue;
+            }
+            if (matches(doc, lower, prefix)) {
+                result.add(ids[doc]);
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(int doc, String lower, boolean prefix)
+    {
+        String text = texts[doc];
+        return text != null && (prefix ? text.startsWith(lower) : text.contains(lower));
+    }
+
+    private static boolean inAll(Postings[] lists, int doc)
+    {
+        for (int idx = 1; idx < lists.length; idx++) {
+            if (!lists[idx].contains(doc)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // renumbers the live documents and drops the stale postings
+    private void compact()
+    {
+        long[] oldIDs = ids;
+        String[] oldTexts = texts;
+        int oldCount = docCount;
+        ids = new long[Math.max(16, docOf.size())];
+        texts = new String[ids.length];
+        docCount = 0;
+        staleCount = 0;
+        docOf.clear();
+        postings.clear();
+        for (int doc = 0; doc < oldCount; doc++) {
+            if (oldTexts[doc] != null) {
+                put(oldIDs[doc], oldTexts[doc]);
+            }
+        }
+    }
+
+    // the distinct trigrams of the text, three 16 bit chars packed in a long
+    private static Set<Long> trigrams(String text)
+    {
+        Set<Long> result = new HashSet<Long>();
+        for (int idx = 0; idx + 3 <= text.length(); idx++) {
+            result.add(((long) text.charAt(idx) << 32) | ((long) text.charAt(idx + 1) << 16) | text.charAt(idx + 2));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,213 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size bounded, least recently used cache with a time to live, used by the
+ * services to avoid repeated lookups of rarely changing rows.
+ *
+ * Writers call invalidate() after they commit. A reader that loaded a value
+ * from the database stores it with put(key, value, generation), passing the
+ * generation() it read before the load; if an invalidation happened in
+ * between the value may be stale and is not stored.
+ *
+ * Large caches are split into segments by key hash, each with its own lock
+ * and its own share of maxSize, so concurrent readers of different keys do
+ * not queue on one monitor. Eviction is least recently used per segment.
+ */
+public class EntityCache<K, V>
+{
+    // a segment holds at least this many entries, so small caches keep one
+    private static final int MIN_SEGMENT_SIZE = 64;
+    private static final int MAX_SEGMENTS = 16;
+
+    private final long ttlMillis;
+    private final Entries[] segments;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public EntityCache(int maxSize, long ttlMillis)
+    {
+        if (maxSize < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("Cache size and TTL must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        // a power of two, so a segment is picked by masking the hash
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE)));
+        segments = new EntityCache.Entries[count];
+        for (int idx = 0; idx < count; idx++) {
+            // spread the remainder so the segment sizes add up to maxSize
+            segments[idx] = new Entries(maxSize / count + (idx < maxSize % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Returns the cached value, or null if it is missing or expired.
+     */
+    public V get(K key)
+    {
+        Entries segment = segmentFor(key);
+        CachedValue<V> entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && entry.expires - System.currentTimeMillis() <= 0) {
+                segment.remove(key);
+                expirations.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    public long generation()
+    {
+        return generation.get();
+    }
+
+    /**
+     * Stores the value unless the cache was invalidated since generation was
+     * read. Returns true if the value was stored.
+     */
+    public boolean put(K key, V value, long generation)
+    {
+        Entries segment = segmentFor(key);
+        synchronized (segment) {
+            // invalidate() bumps the generation before it takes the segment
+            // lock, so a value stored here is either rejected or removed
+            if (generation != this.generation.get()) {
+                return false;
+            }
+            segment.put(key, new CachedValue<V>(value, System.currentTimeMillis() + ttlMillis));
+            return true;
+        }
+    }
+
+    public void invalidate(K key)
+    {
+        generation.incrementAndGet();
+        Entries segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    public void invalidateAll()
+    {
+        generation.incrementAndGet();
+        for (Entries segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for (Entries segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    public long getExpirations()
+    {
+        return expirations.get();
+    }
+
+    public double getHitRate()
+    {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public void resetStatistics()
+    {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+        expirations.set(0);
+    }
+
+    private static class CachedValue<V>
+    {
+        final V value;
+        final long expires;
+
+        CachedValue(V value, long expires)
+        {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+
+    private Entries segmentFor(K key)
+    {
+        int hash = key.hashCode();
+        // mix the high bits in, sequential IDs differ only in the low ones
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    @SuppressWarnings("serial")
+    private class Entries extends LinkedHashMap<K, CachedValue<V>>
+    {
+        private final int maxSize;
+
+        Entries(int maxSize)
+        {
+            // access order makes iteration order least recently used first
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest)
+        {
+            if (size() <= maxSize) {
+                return false;
+            }
+            evictions.incrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+/**
+ * Applies versioned changes to the games schema. SQL/sql.sql creates the
+ * original schema; every later change is a script in SQL/migrations named
+ * V&lt;version&gt;__&lt;description&gt;.sql and listed, in order, in
+ * migrations.list next to it (the class path cannot be listed portably).
+ *
+ * migrate() records each applied script in the SCHEMA_VERSION table with a
+ * SHA-256 checksum and only runs the scripts that are not recorded yet. A
+ * recorded script whose checksum changed is an error: released migrations
+ * must not be edited, add a new one instead. A MySQL named lock makes
+ * concurrent starts wait for each other rather than apply a script twice.
+ *
+ * MySQL commits DDL implicitly, so a script is not atomic. If one fails,
+ * migrate() stops with a DAOException naming the statement; the statements
+ * before it have been applied and the script is not recorded.
+ */
+public class SchemaMigrator
+{
+    public static final String DEFAULT_LOCATION = "cs4347/jdbcGame/SQL/migrations/";
+
+    private static final String LIST_FILE = "migrations.list";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "games.schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private static final String createVersionTableSQL = "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "version INT NOT NULL, description VARCHAR(200) NOT NULL, checksum CHAR(64) NOT NULL, "
+            + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, execution_ms BIGINT NOT NULL, "
+            + "PRIMARY KEY (version)) ENGINE = InnoDB";
+    private static final String selectVersionsSQL = "SELECT version, checksum FROM schema_version";
+    private static final String insertVersionSQL = "INSERT INTO schema_version(version, description, checksum, execution_ms) "
+            + "VALUES(?, ?, ?, ?)";
+
+    /**
+     * One migration script.
+     */
+    public static class Migration
+    {
+        private final int version;
+        private final String description;
+        private final String checksum;
+        private final List<String> statements;
+
+        Migration(int version, String description, String checksum, List<String> statements)
+        {
+            this.version = version;
+            this.description = description;
+            this.checksum = checksum;
+            this.statements = statements;
+        }
+
+        public int getVersion()
+        {
+            return version;
+        }
+
+        public String getDescription()
+        {
+            return description;
+        }
+
+        public String getChecksum()
+        {
+            return checksum;
+        }
+
+        public List<String> getStatements()
+        {
+            return statements;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "V" + version + " " + description;
+        }
+    }
+
+    private final DataSource dataSource;
+    private final String location;
+    private final ClassLoader classLoader;
+
+    public SchemaMigrator(DataSource dataSource)
+    {
+        this(dataSource, DEFAULT_LOCATION, SchemaMigrator.class.getClassLoader());
+    }
+
+    /**
+     * location is the class path directory of the scripts, ending in '/'.
+     */
+    public SchemaMigrator(DataSource dataSource, String location, ClassLoader classLoader)
+    {
+        this.dataSource = dataSource;
+        this.location = location;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Applies the scripts that are not recorded yet, in version order, and
+     * returns them.
+     */
+    public List<Migration> migrate() throws SQLException, DAOException
+    {
+        List<Migration> migrations = loadMigrations();
+        List<Migration> applied = new ArrayList<Migration>();
+
+        Connection connection = dataSource.getConnection();
+        try {
+            // DDL commits implicitly anyway
+            connection.setAutoCommit(true);
+            Statement statement = connection.createStatement();
+            try {
+                statement.executeUpdate(createVersionTableSQL);
+                lock(statement);
+                try {
+                    Map<Integer, String> recorded = readRecorded(statement);
+                    for (Migration migration : migrations) {
+                        String checksum = recorded.get(migration.getVersion());
+                        if (checksum == null) {
+                            apply(connection, statement, migration);
+                            applied.add(migration);
+                        }
+                        else if (!checksum.equals(migration.getChecksum())) {
+                            throw new DAOException("Migration " + migration + " was changed after it was applied");
+                        }
+                    }
+                }
+                finally {
+                    unlock(statement);
+                }
+            }
+            finally {
+                statement.close();
+            }
+        }
+        finally {
+            connection.close();
+        }
+        return applied;
+    }
+
+    /**
+     * Returns the highest recorded version, 0 if none.
+     */
+    public int currentVersion() throws SQLException
+    {
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            try {
+                statement.executeUpdate(createVersionTableSQL);
+                int version = 0;
+                for (int recorded : readRecorded(statement).keySet()) {
+                    version = Math.max(version, recorded);
+                }
+                return version;
+            }
+            finally {
+                statement.close();
+            }
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Reads the scripts listed in migrations.list, ordered by version.
+     */
+    public List<Migration> loadMigrations() throws DAOException
+    {
+        List<Migration> migrations = new ArrayList<Migration>();
+        for (String line : readLines(location + LIST_FILE)) {
+            String name = line.trim();
+            if (name.isEmpty() || name.startsWith("#")) {
+                continue;
+            }
+            Matcher matcher = FILE_NAME.matcher(name);
+            if (!matcher.matches()) {
+                throw new DAOException("Migration file name must be V<version>__<description>.sql: " + name);
+            }
+            List<String> script = readLines(location + name);
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    checksum(script), splitStatements(script)));
+        }
+
+        Collections.sort(migrations, (a, b) -> Integer.compare(a.getVersion(), b.getVersion()));
+        for (int idx = 1; idx < migrations.size(); idx++) {
+            if (migrations.get(idx).getVersion() == migrations.get(idx - 1).getVersion()) {
+                throw new DAOException("Duplicate migration version " + migrations.get(idx).getVersion());
+            }
+        }
+        return migrations;
+    }
+
+    private void apply(Connection connection, Statement statement, Migration migration)
+            throws SQLException, DAOException
+    {
+        long start = System.currentTimeMillis();
+        for (String sql : migration.getStatements()) {
+            try {
+                statement.execute(sql);
+            }
+            catch (SQLException ex) {
+                throw new DAOException("Migration " + migration + " failed at: " + sql, ex);
+            }
+        }
+
+        PreparedStatement ps = connection.prepareStatement(insertVersionSQL);
+        try {
+            ps.setInt(1, migration.getVersion());
+            ps.setString(2, migration.getDescription());
+            ps.setString(3, migration.getChecksum());
+            ps.setLong(4, System.currentTimeMillis() - start);
+            ps.executeUpdate();
+        }
+        finally {
+            ps.close();
+        }
+    }
+
+    private static Map<Integer, String> readRecorded(Statement statement) throws SQLException
+    {
+        Map<Integer, String> recorded = new HashMap<Integer, String>();
+        ResultSet rs = statement.executeQuery(selectVersionsSQL);
+        while (rs.next()) {
+            recorded.put(rs.getInt(1), rs.getString(2));
+        }
+        rs.close();
+        return recorded;
+    }
+
+    private static void lock(Statement statement) throws SQLException, DAOException
+    {
+        ResultSet rs = statement.executeQuery("SELECT GET_LOCK('" + LOCK_NAME + "', " + LOCK_TIMEOUT_SECONDS + ")");
+        try {
+            if (!rs.next() || rs.getInt(1) != 1) {
+                throw new DAOException("Timed out waiting for the schema migration lock");
+            }
+        }
+        finally {
+            rs.close();
+        }
+    }
+
+    private static void unlock(Statement statement) throws SQLException
+    {
+        statement.executeQuery("SELECT RELEASE_LOCK('" + LOCK_NAME + "')").close();
+    }
+
+    // Statements end with a ';' at the end of a line; lines starting with -- are comments
+    static List<String> splitStatements(List<String> script)
+    {
+        List<String> statements = new ArrayList<String>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            if (current.length() > 0) {
+                current.append('\n');
+            }
+            if (trimmed.endsWith(";")) {
+                current.append(line, 0, line.lastIndexOf(';'));
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+            else {
+                current.append(line);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static String checksum(List<String> script) throws DAOException
+    {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String line : script) {
+                // line endings do not count, so a checkout on another OS matches
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b & 0xff));
+            }
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new DAOException("SHA-256 is not available", ex);
+        }
+    }
+
+    private List<String> readLines(String resource) throws DAOException
+    {
+        InputStream in = classLoader.getResourceAsStream(resource);
+        if (in == null) {
+            throw new DAOException("Migration resource not found on the class path: " + resource);
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            try {
+                List<String> lines = new ArrayList<String>();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+                return lines;
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (IOException ex) {
+            throw new DAOException("Cannot read migration resource " + resource, ex);
+        }
+    }
+}
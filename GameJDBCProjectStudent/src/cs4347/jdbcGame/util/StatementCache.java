@@ -0,0 +1,246 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection cache of PreparedStatements used by the DAO implementations.
+ * DAO methods call prepare() instead of connection.prepareStatement() and
+ * release() instead of closing the statement, so a connection that runs the
+ * same SQL again gets the already prepared statement back. Each connection
+ * keeps its most recently used statements; the least recently used one is
+ * closed when the limit is exceeded.
+ *
+ * The cache only saves work on the client side of the driver, so it works
+ * the same with client-side prepares and with the MySQL driver's server-side
+ * prepares (useServerPrepStmts=true), where a hit also saves the prepare
+ * round trip.
+ *
+ * Pools hand out a new Connection object per borrow, which closes the
+ * statements prepared through it when it is returned. The cache is therefore
+ * keyed on the physical connection, which the ConnectionUnwrapper set by the
+ * pool's owner finds (the default uses the given connection as it is), and
+ * statements are prepared on it, so they are reused by every borrow of the
+ * same physical connection. Closed physical connections are dropped when a
+ * new one is first seen.
+ *
+ * A cached statement may keep its last ResultSet open until it is executed
+ * again or the connection is closed.
+ */
+public class StatementCache
+{
+    /**
+     * Returns the physical connection behind a connection handed out by a
+     * pool, or the connection itself.
+     */
+    public interface ConnectionUnwrapper
+    {
+        Connection unwrap(Connection connection) throws SQLException;
+    }
+
+    private static final int DEFAULT_MAX_STATEMENTS = 64;
+
+    private static final Map<Connection, ConnectionStatements> caches = new ConcurrentHashMap<Connection, ConnectionStatements>();
+
+    private static volatile ConnectionUnwrapper unwrapper = connection -> connection;
+    private static volatile boolean enabled = true;
+    private static volatile int maxStatementsPerConnection = DEFAULT_MAX_STATEMENTS;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    public static PreparedStatement prepare(Connection connection, String sql) throws SQLException
+    {
+        return prepare(connection, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * autoGeneratedKeys is Statement.RETURN_GENERATED_KEYS or
+     * Statement.NO_GENERATED_KEYS, as for Connection.prepareStatement.
+     */
+    public static PreparedStatement prepare(Connection connection, String sql, int autoGeneratedKeys)
+            throws SQLException
+    {
+        if (!enabled) {
+            misses.incrementAndGet();
+            return connection.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        Connection physical = physical(connection);
+        ConnectionStatements statements = caches.get(physical);
+        if (statements == null) {
+            removeClosedConnections();
+            statements = new ConnectionStatements();
+            caches.put(physical, statements);
+        }
+
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? sql + "\u0000keys" : sql;
+        synchronized (statements) {
+            PreparedStatement ps = statements.get(key);
+            if (ps != null && !ps.isClosed()) {
+                hits.incrementAndGet();
+                return ps;
+            }
+            misses.incrementAndGet();
+            ps = physical.prepareStatement(sql, autoGeneratedKeys);
+            statements.put(key, ps);
+            return ps;
+        }
+    }
+
+    /**
+     * Called where the DAO used to close the statement. Cached statements stay
+     * open; statements prepared while the cache was disabled are closed.
+     */
+    public static void release(PreparedStatement ps) throws SQLException
+    {
+        if (ps != null && !enabled && !ps.isClosed()) {
+            ps.close();
+        }
+    }
+
+    /**
+     * Closes and forgets every statement cached for the connection.
+     */
+    public static void clear(Connection connection) throws SQLException
+    {
+        ConnectionStatements statements = caches.remove(physical(connection));
+        if (statements != null) {
+            statements.closeAll();
+        }
+    }
+
+    /**
+     * Sets how the physical connection of a pooled connection is found. Call
+     * it before the first prepare; statements cached under the old keys stay
+     * until their connections close.
+     */
+    public static void setConnectionUnwrapper(ConnectionUnwrapper unwrapper)
+    {
+        StatementCache.unwrapper = unwrapper;
+    }
+
+    public static void setEnabled(boolean enabled)
+    {
+        StatementCache.enabled = enabled;
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Applies to connections that are first seen after the call.
+     */
+    public static void setMaxStatementsPerConnection(int max)
+    {
+        if (max < 1) {
+            throw new IllegalArgumentException("Statement cache size must be at least 1: " + max);
+        }
+        maxStatementsPerConnection = max;
+    }
+
+    public static long getHits()
+    {
+        return hits.get();
+    }
+
+    public static long getMisses()
+    {
+        return misses.get();
+    }
+
+    public static long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    public static double getHitRate()
+    {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public static void resetStatistics()
+    {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    private static Connection physical(Connection connection) throws SQLException
+    {
+        Connection physical = unwrapper.unwrap(connection);
+        return physical != null ? physical : connection;
+    }
+
+    // Closed connections are dropped whenever a new connection shows up, which
+    // keeps the map as small as the number of open connections.
+    private static void removeClosedConnections() throws SQLException
+    {
+        Iterator<Connection> iter = caches.keySet().iterator();
+        while (iter.hasNext()) {
+            if (iter.next().isClosed()) {
+                iter.remove();
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class ConnectionStatements extends LinkedHashMap<String, PreparedStatement>
+    {
+        private final int max = maxStatementsPerConnection;
+
+        ConnectionStatements()
+        {
+            // access order makes iteration order least recently used first
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest)
+        {
+            if (size() <= max) {
+                return false;
+            }
+            evictions.incrementAndGet();
+            try {
+                eldest.getValue().close();
+            }
+            catch (SQLException ex) {
+                // the statement is unusable either way
+            }
+            return true;
+        }
+
+        synchronized void closeAll() throws SQLException
+        {
+            for (PreparedStatement ps : values()) {
+                if (!ps.isClosed()) {
+                    ps.close();
+                }
+            }
+            clear();
+        }
+    }
+}
@@ -13,6 +13,7 @@ package cs4347.jdbcGame.util;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
@@ -53,7 +54,9 @@ public class TestingUtil
             ResultSet rs = statement.executeQuery(selectPlayerIDs);
             List<Long> result = new ArrayList<Long>();
             for (int idx = 0; idx < count; idx++) {
-                rs.next();
+                if (!rs.next()) {
+                    throw new SQLException("Asked for " + count + " player IDs, the database has " + idx);
+                }
                 Long id = rs.getLong(1);
                 result.add(id);
             }
@@ -89,7 +92,9 @@ public class TestingUtil
             ResultSet rs = statement.executeQuery(selectGameIDs);
             List<Long> result = new ArrayList<Long>();
             for (int idx = 0; idx < count; idx++) {
-                rs.next();
+                if (!rs.next()) {
+                    throw new SQLException("Asked for " + count + " game IDs, the database has " + idx);
+                }
                 Long id = rs.getLong(1);
                 result.add(id);
             }
@@ -0,0 +1,340 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs service work on a pooled connection with the transaction handling the
+ * service implementations used to repeat in every method: borrow, begin,
+ * commit or roll back, restore the connection state and return it.
+ *
+ * The transaction of the current thread is bound to the DataSource, so a
+ * service method called inside another service's transaction on the same
+ * DataSource joins it (Propagation.REQUIRED) instead of opening a second
+ * connection. Only the outermost call commits. If a joined call fails the
+ * whole transaction is rolled back, even if the caller handled the exception.
+ *
+ * The three common cases have their own methods:
+ * <ul>
+ * <li>read: for work that is a single SELECT. It runs in autocommit mode,
+ * which skips the begin and COMMIT round trips; one statement is consistent
+ * on its own. Inside a transaction it joins it.</li>
+ * <li>readOnly: for several SELECTs that must see the same snapshot. Costs the
+ * begin and COMMIT round trips that read avoids. Writes through the services
+ * are refused, but the connection is not switched to read-only: the driver
+ * would send SET SESSION TRANSACTION READ ONLY before and READ WRITE after
+ * every call, and InnoDB already runs a transaction of plain SELECTs without
+ * assigning a transaction id.</li>
+ * <li>write: a read-write transaction, joined if one is active.</li>
+ * </ul>
+ * execute() takes the propagation, isolation level and read-only flag
+ * explicitly.
+ */
+public class TransactionTemplate
+{
+    /**
+     * How a call relates to a transaction that is already active on the thread.
+     */
+    public enum Propagation
+    {
+        /** Join the active transaction, or begin a new one. */
+        REQUIRED,
+        /** Suspend the active transaction and run in a new one on another connection. */
+        REQUIRES_NEW,
+        /** Join the active transaction, or run in autocommit mode without one. */
+        SUPPORTS
+    }
+
+    /**
+     * The work run on the connection.
+     */
+    public interface Work<T>
+    {
+        T execute(Connection connection) throws SQLException, DAOException;
+    }
+
+    /**
+     * Runs after the transaction committed, on the same connection, which is
+     * back in autocommit mode. Used to update in-memory state (caches,
+     * indexes) only once the change is durable. Must not throw.
+     */
+    public interface CommitCallback
+    {
+        void committed(Connection connection);
+    }
+
+    /**
+     * Keeps the isolation level of the pooled connection.
+     */
+    public static final int DEFAULT_ISOLATION = -1;
+
+    private static class Context
+    {
+        final Connection connection;
+        final boolean readOnly;
+        final List<CommitCallback> callbacks = new ArrayList<CommitCallback>();
+        boolean rollbackOnly;
+
+        Context(Connection connection, boolean readOnly)
+        {
+            this.connection = connection;
+            this.readOnly = readOnly;
+        }
+    }
+
+    private static final ThreadLocal<Map<DataSource, Context>> contexts = new ThreadLocal<Map<DataSource, Context>>();
+
+    private final DataSource dataSource;
+
+    public TransactionTemplate(DataSource dataSource)
+    {
+        this.dataSource = dataSource;
+    }
+
+    public DataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    public <T> T read(Work<T> work) throws SQLException, DAOException
+    {
+        return execute(Propagation.SUPPORTS, DEFAULT_ISOLATION, true, work);
+    }
+
+    public <T> T readOnly(Work<T> work) throws SQLException, DAOException
+    {
+        return execute(Propagation.REQUIRED, DEFAULT_ISOLATION, true, work);
+    }
+
+    public <T> T write(Work<T> work) throws SQLException, DAOException
+    {
+        return execute(Propagation.REQUIRED, DEFAULT_ISOLATION, false, work);
+    }
+
+    /**
+     * Runs the work. isolation is one of the Connection.TRANSACTION_* levels
+     * or DEFAULT_ISOLATION; like readOnly it only applies when a new
+     * transaction begins. A read-write call cannot join a read-only
+     * transaction.
+     */
+    public <T> T execute(Propagation propagation, int isolation, boolean readOnly, Work<T> work)
+            throws SQLException, DAOException
+    {
+        Context current = current();
+        if (current != null && propagation != Propagation.REQUIRES_NEW) {
+            if (current.readOnly && !readOnly) {
+                throw new DAOException("Cannot write in a read-only transaction");
+            }
+            return join(current, work);
+        }
+        if (propagation == Propagation.SUPPORTS) {
+            return withoutTransaction(work);
+        }
+        return inNewTransaction(isolation, readOnly, work);
+    }
+
+    /**
+     * True if a transaction on the DataSource is active on this thread.
+     */
+    public boolean isActive()
+    {
+        return current() != null;
+    }
+
+    /**
+     * Returns the connection of the active transaction.
+     *
+     * @throws IllegalStateException if no transaction is active
+     */
+    public Connection currentConnection()
+    {
+        Context current = current();
+        if (current == null) {
+            throw new IllegalStateException("No transaction is active");
+        }
+        return current.connection;
+    }
+
+    /**
+     * Registers a callback for after the active transaction commits. It is
+     * dropped if the transaction rolls back.
+     *
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void afterCommit(CommitCallback callback)
+    {
+        Context current = current();
+        if (current == null) {
+            throw new IllegalStateException("No transaction is active");
+        }
+        current.callbacks.add(callback);
+    }
+
+    private static <T> T join(Context current, Work<T> work) throws SQLException, DAOException
+    {
+        try {
+            return work.execute(current.connection);
+        }
+        catch (Throwable ex) {
+            current.rollbackOnly = true;
+            throw ex;
+        }
+    }
+
+    private <T> T withoutTransaction(Work<T> work) throws SQLException, DAOException
+    {
+        Connection connection = dataSource.getConnection();
+        try {
+            // the pool returns connections in autocommit mode; this is a no-op
+            // unless somebody returned one without resetting it
+            connection.setAutoCommit(true);
+            return work.execute(connection);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    private <T> T inNewTransaction(int isolation, boolean readOnly, Work<T> work)
+            throws SQLException, DAOException
+    {
+        Connection connection = dataSource.getConnection();
+        int previousIsolation = DEFAULT_ISOLATION;
+        Context suspended = current();
+        // set if a rollback failed: restoring autocommit would commit the work
+        boolean broken = false;
+        try {
+            if (isolation != DEFAULT_ISOLATION) {
+                previousIsolation = connection.getTransactionIsolation();
+                connection.setTransactionIsolation(isolation);
+            }
+            connection.setAutoCommit(false);
+
+            Context context = new Context(connection, readOnly);
+            bind(context);
+            T result;
+            try {
+                result = work.execute(connection);
+            }
+            catch (Throwable ex) {
+                broken = !rollback(connection, ex);
+                throw ex;
+            }
+            finally {
+                unbind(suspended);
+            }
+
+            if (context.rollbackOnly) {
+                DAOException ex = new DAOException("Transaction rolled back because a joined call failed");
+                broken = !rollback(connection, ex);
+                throw ex;
+            }
+            try {
+                connection.commit();
+            }
+            catch (SQLException ex) {
+                broken = !rollback(connection, ex);
+                throw ex;
+            }
+            connection.setAutoCommit(true);
+            for (CommitCallback callback : context.callbacks) {
+                callback.committed(connection);
+            }
+            return result;
+        }
+        finally {
+            if (broken) {
+                discard(connection);
+            }
+            else {
+                try {
+                    connection.setAutoCommit(true);
+                    if (previousIsolation != DEFAULT_ISOLATION) {
+                        connection.setTransactionIsolation(previousIsolation);
+                    }
+                }
+                finally {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    // aborts the physical connection, which a pool then drops instead of
+    // handing it out again with the unfinished transaction
+    private static void discard(Connection connection)
+    {
+        try {
+            connection.abort(Runnable::run);
+        }
+        catch (SQLException ex) {
+            // the caller already fails with the rollback error
+        }
+        try {
+            connection.close();
+        }
+        catch (SQLException ex) {
+            // the connection is unusable either way
+        }
+    }
+
+    // returns false if the rollback failed; its exception is added to cause
+    private static boolean rollback(Connection connection, Throwable cause)
+    {
+        try {
+            connection.rollback();
+            return true;
+        }
+        catch (SQLException ex) {
+            cause.addSuppressed(ex);
+            return false;
+        }
+    }
+
+    private Context current()
+    {
+        Map<DataSource, Context> bound = contexts.get();
+        return bound == null ? null : bound.get(dataSource);
+    }
+
+    private void bind(Context context)
+    {
+        Map<DataSource, Context> bound = contexts.get();
+        if (bound == null) {
+            bound = new HashMap<DataSource, Context>();
+            contexts.set(bound);
+        }
+        bound.put(dataSource, context);
+    }
+
+    // restores the suspended transaction, if any
+    private void unbind(Context suspended)
+    {
+        Map<DataSource, Context> bound = contexts.get();
+        if (suspended != null) {
+            bound.put(dataSource, suspended);
+            return;
+        }
+        bound.remove(dataSource);
+        if (bound.isEmpty()) {
+            // pooled threads must not keep the map
+            contexts.remove();
+        }
+    }
+}
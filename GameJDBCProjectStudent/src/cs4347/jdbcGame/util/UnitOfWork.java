@@ -0,0 +1,117 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs several service calls as one transaction on one connection, e.g.
+ * creating a player, buying games for the player and recording a play:
+ *
+ * <pre>
+ * Player player = UnitOfWork.run(dataSource, () -&gt; {
+ *     Player p = playerService.create(newPlayer);
+ *     gamesOwnedService.create(purchase(p));
+ *     gamesPlayedService.create(play(p));
+ *     return p;
+ * });
+ * </pre>
+ *
+ * The services of the same DataSource called inside the task join the unit
+ * instead of borrowing their own connections, and everything commits once
+ * at the end, or rolls back if the task throws or any call in it failed.
+ * Caches, search indexes and leaderboards see the changes only after the
+ * commit. The unit is bound to the calling thread; work handed to other
+ * threads does not take part in it.
+ *
+ * The rows a unit writes, including the game and player summary rows the
+ * services keep, stay locked until the end and are locked in the order of
+ * the calls. Two units that write the same games or players in different
+ * orders can deadlock; MySQL then rolls one of them back with a
+ * SQLTransactionRollbackException (error 1213), and that unit can be run
+ * again as a whole. Units that touch the same rows in the same order, e.g.
+ * by game id, do not deadlock on them.
+ */
+public final class UnitOfWork
+{
+    /**
+     * The service calls that make up the unit.
+     */
+    public interface Task<T>
+    {
+        T run() throws SQLException, DAOException;
+    }
+
+    private UnitOfWork()
+    {
+    }
+
+    /**
+     * Runs the task in a read-write transaction, or as part of the unit that
+     * is already active on the DataSource.
+     */
+    public static <T> T run(DataSource dataSource, Task<T> task) throws SQLException, DAOException
+    {
+        return new TransactionTemplate(dataSource).write(connection -> task.run());
+    }
+
+    /**
+     * Like run, with the given Connection.TRANSACTION_* isolation level for a
+     * new unit, e.g. TRANSACTION_SERIALIZABLE for a check-then-write sequence.
+     */
+    public static <T> T run(DataSource dataSource, int isolation, Task<T> task) throws SQLException, DAOException
+    {
+        return new TransactionTemplate(dataSource).execute(TransactionTemplate.Propagation.REQUIRED, isolation,
+                false, connection -> task.run());
+    }
+
+    /**
+     * Runs reads that must see one snapshot of the database in a read-only
+     * transaction. Service calls that write fail with a DAOException.
+     */
+    public static <T> T runReadOnly(DataSource dataSource, Task<T> task) throws SQLException, DAOException
+    {
+        return new TransactionTemplate(dataSource).readOnly(connection -> task.run());
+    }
+
+    /**
+     * True if a unit of work on the DataSource is active on this thread.
+     */
+    public static boolean isActive(DataSource dataSource)
+    {
+        return new TransactionTemplate(dataSource).isActive();
+    }
+
+    /**
+     * Registers work for after the active unit commits; see
+     * TransactionTemplate.afterCommit.
+     *
+     * @throws IllegalStateException if no unit is active
+     */
+    public static void afterCommit(DataSource dataSource, TransactionTemplate.CommitCallback callback)
+    {
+        new TransactionTemplate(dataSource).afterCommit(callback);
+    }
+
+    /**
+     * Returns the connection of the active unit, for DAO calls that have no
+     * service method. It must not be committed, rolled back or closed.
+     *
+     * @throws IllegalStateException if no unit is active
+     */
+    public static Connection currentConnection(DataSource dataSource)
+    {
+        return new TransactionTemplate(dataSource).currentConnection();
+    }
+}
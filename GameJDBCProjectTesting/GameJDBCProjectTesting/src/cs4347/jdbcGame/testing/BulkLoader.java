@@ -0,0 +1,319 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of every team member to the Provost Office for academic
+ * dishonesty.
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+/**
+ * Pipelined bulk loader used by PopulateTables. A load runs two stages
+ * connected by a bounded queue:
+ *
+ * <pre>
+ *   parsers (N threads)  --row chunks-->  writers (M threads)
+ * </pre>
+ *
+ * The CSV file is split into row aligned ranges (see CsvFile) and each
+ * parser maps its ranges straight into entities, so reading and parsing run
+ * in parallel. The writers insert each chunk on their own connection and
+ * commit it. A failure in any stage stops the whole load; chunks committed
+ * before the failure stay committed. Loads from an in-memory source replace
+ * the parsers with a single producer thread.
+ */
+public class BulkLoader
+{
+    /**
+     * Inserts one chunk of entities. The loader commits after each call.
+     */
+    public interface BatchWriter<T>
+    {
+        void write(Connection connection, List<T> chunk) throws Exception;
+    }
+
+    // Marks the end of a queue. Compared by identity.
+    private static final List<?> END = Collections.emptyList();
+
+    private final DataSource dataSource;
+    private final int writers;
+    private final int parsers;
+    private final int chunkSize;
+    private final int queueCapacity;
+
+    public BulkLoader(DataSource dataSource, int writers, int parsers, int chunkSize, int queueCapacity)
+    {
+        if (writers < 1 || parsers < 1 || chunkSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("BulkLoader settings must all be positive");
+        }
+        this.dataSource = dataSource;
+        this.writers = writers;
+        this.parsers = parsers;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Loads every row of the given file. Returns the number of rows written.
+     */
+    public <T> long load(String name, CsvFile file, CsvFile.RowMapper<T> mapper, BatchWriter<T> writer)
+            throws Exception
+    {
+        // several ranges per parser so a slow range does not idle the others
+        Queue<CsvCursor> ranges = new ConcurrentLinkedQueue<CsvCursor>(file.split(parsers * 4));
+        BlockingQueue<List<T>> rowQueue = new ArrayBlockingQueue<List<T>>(queueCapacity);
+        Run run = new Run(name);
+
+        ExecutorService pool = Executors.newFixedThreadPool(parsers + writers);
+        try {
+            List<Future<?>> tasks = new ArrayList<Future<?>>();
+            AtomicInteger liveParsers = new AtomicInteger(parsers);
+            for (int idx = 0; idx < parsers; idx++) {
+                tasks.add(run.submit(pool, () -> parseRanges(run, mapper, ranges, rowQueue, liveParsers)));
+            }
+            for (int idx = 0; idx < writers; idx++) {
+                tasks.add(run.submit(pool, () -> writeRows(run, writer, rowQueue)));
+            }
+            return run.await(tasks);
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads entities produced in memory, e.g. generated test data. Returns the
+     * number of rows written.
+     */
+    public <T> long load(String name, Iterator<T> rows, BatchWriter<T> writer) throws Exception
+    {
+        BlockingQueue<List<T>> rowQueue = new ArrayBlockingQueue<List<T>>(queueCapacity);
+        Run run = new Run(name);
+
+        ExecutorService pool = Executors.newFixedThreadPool(1 + writers);
+        try {
+            List<Future<?>> tasks = new ArrayList<Future<?>>();
+            tasks.add(run.submit(pool, () -> produceRows(run, rows, rowQueue)));
+            for (int idx = 0; idx < writers; idx++) {
+                tasks.add(run.submit(pool, () -> writeRows(run, writer, rowQueue)));
+            }
+            return run.await(tasks);
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private <T> void parseRanges(Run run, CsvFile.RowMapper<T> mapper, Queue<CsvCursor> ranges,
+            BlockingQueue<List<T>> rowQueue, AtomicInteger liveParsers) throws Exception
+    {
+        try {
+            CsvCursor cursor;
+            while ((cursor = ranges.poll()) != null) {
+                List<T> chunk = new ArrayList<T>(chunkSize);
+                while (cursor.nextRow()) {
+                    chunk.add(mapper.map(cursor));
+                    if (chunk.size() == chunkSize) {
+                        run.put(rowQueue, chunk);
+                        chunk = new ArrayList<T>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    run.put(rowQueue, chunk);
+                }
+            }
+        }
+        finally {
+            // the last parser to finish releases the writers
+            if (liveParsers.decrementAndGet() == 0) {
+                for (int idx = 0; idx < writers; idx++) {
+                    run.putEnd(rowQueue);
+                }
+            }
+        }
+    }
+
+    private <T> void produceRows(Run run, Iterator<T> rows, BlockingQueue<List<T>> rowQueue) throws Exception
+    {
+        try {
+            List<T> chunk = new ArrayList<T>(chunkSize);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == chunkSize) {
+                    run.put(rowQueue, chunk);
+                    chunk = new ArrayList<T>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                run.put(rowQueue, chunk);
+            }
+        }
+        finally {
+            for (int idx = 0; idx < writers; idx++) {
+                run.putEnd(rowQueue);
+            }
+        }
+    }
+
+    private <T> void writeRows(Run run, BatchWriter<T> writer, BlockingQueue<List<T>> rowQueue) throws Exception
+    {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            List<T> chunk;
+            while ((chunk = run.take(rowQueue)) != END) {
+                try {
+                    writer.write(connection, chunk);
+                    connection.commit();
+                }
+                catch (Exception ex) {
+                    connection.rollback();
+                    throw ex;
+                }
+                run.written(chunk.size());
+            }
+        }
+        finally {
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    private interface Stage
+    {
+        void run() throws Exception;
+    }
+
+    /**
+     * State shared by the stages of one load: the first failure, which makes
+     * every other stage give up, and the row counter used for reporting.
+     */
+    private static class Run
+    {
+        private static final long REPORT_INTERVAL_MILLIS = 5000;
+
+        private final String name;
+        private final long startTime = System.currentTimeMillis();
+        private final AtomicLong rowsWritten = new AtomicLong();
+        private final AtomicLong lastReport = new AtomicLong(startTime);
+        private final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+
+        Run(String name)
+        {
+            this.name = name;
+        }
+
+        Future<?> submit(ExecutorService pool, Stage stage)
+        {
+            return pool.submit(() -> {
+                try {
+                    stage.run();
+                }
+                catch (Exception ex) {
+                    // the first failure is the one reported, later ones are fallout
+                    failure.compareAndSet(null, ex);
+                    throw ex;
+                }
+                return null;
+            });
+        }
+
+        <E> void put(BlockingQueue<E> queue, E item) throws Exception
+        {
+            while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        }
+
+        // End markers must get through even after a failure, otherwise a
+        // consumer that is still running could block forever.
+        @SuppressWarnings("unchecked")
+        <E> void putEnd(BlockingQueue<List<E>> queue) throws InterruptedException
+        {
+            while (!queue.offer((List<E>) END, 100, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    queue.clear();
+                }
+            }
+        }
+
+        <E> E take(BlockingQueue<E> queue) throws Exception
+        {
+            E item;
+            while ((item = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+                checkFailure();
+            }
+            return item;
+        }
+
+        void written(int rows)
+        {
+            long total = rowsWritten.addAndGet(rows);
+            long now = System.currentTimeMillis();
+            long last = lastReport.get();
+            if (now - last >= REPORT_INTERVAL_MILLIS && lastReport.compareAndSet(last, now)) {
+                report("Loading", total, now);
+            }
+        }
+
+        long await(List<Future<?>> tasks) throws Exception
+        {
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                }
+                catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof Error) {
+                        throw (Error) ex.getCause();
+                    }
+                }
+            }
+            Exception ex = failure.get();
+            if (ex != null) {
+                throw ex;
+            }
+            long total = rowsWritten.get();
+            report("Finished", total, System.currentTimeMillis());
+            return total;
+        }
+
+        private void checkFailure() throws Exception
+        {
+            if (failure.get() != null) {
+                throw new IllegalStateException("Bulk load of " + name + " aborted");
+            }
+        }
+
+        private void report(String what, long total, long now)
+        {
+            long elapsed = Math.max(1, now - startTime);
+            System.out.println(what + " " + name + ": " + total + " rows in " + elapsed + " ms ("
+                    + (total * 1000 / elapsed) + " rows/sec)");
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of every team member to the Provost Office for academic
+ * dishonesty.
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.TimeZone;
+
+/**
+ * Field cursor over a range of CSV bytes, usually a memory mapped slice of a
+ * file (see CsvFile). Fields are separated by ',' and rows by '\n'; a '\r'
+ * before the '\n' is ignored. Quoting is not supported, the data files never
+ * contain commas inside a field.
+ *
+ * Numbers and dates are decoded straight from the bytes. Only the strings
+ * handed to the entities are allocated. A cursor is not thread safe; parse
+ * ranges in parallel by giving each thread its own cursor.
+ */
+public class CsvCursor
+{
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private final ByteBuffer buffer;
+    private final long fileOffset;
+    private final TimeZone timeZone = TimeZone.getDefault();
+    private byte[] scratch = new byte[64];
+
+    // next unread byte, current row [rowStart, rowEnd) and start of the next row
+    private int pos;
+    private int rowStart;
+    private int rowEnd;
+    private int nextRowStart;
+
+    // start of the field after the one just located by fieldEnd()
+    private int nextField;
+
+    /**
+     * The buffer must start at a row boundary and end at a row boundary or at
+     * the end of the file. fileOffset is only used for error messages.
+     */
+    public CsvCursor(ByteBuffer buffer, long fileOffset)
+    {
+        this.buffer = buffer;
+        this.fileOffset = fileOffset;
+    }
+
+    /**
+     * Moves to the next non-empty row. Returns false at the end of the range.
+     */
+    public boolean nextRow()
+    {
+        int limit = buffer.limit();
+        int start = nextRowStart;
+        while (start < limit) {
+            int end = start;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            int contentEnd = end;
+            if (contentEnd > start && buffer.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            if (contentEnd > start) {
+                rowStart = start;
+                rowEnd = contentEnd;
+                pos = start;
+                nextRowStart = end + 1;
+                return true;
+            }
+            start = end + 1;
+        }
+        nextRowStart = limit;
+        return false;
+    }
+
+    public void skipField() throws CsvException
+    {
+        fieldEnd();
+        pos = nextField;
+    }
+
+    public String nextString() throws CsvException
+    {
+        int end = fieldEnd();
+        int len = end - pos;
+        if (len > scratch.length) {
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+        }
+        for (int idx = 0; idx < len; idx++) {
+            scratch[idx] = buffer.get(pos + idx);
+        }
+        pos = nextField;
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    public long nextLong() throws CsvException
+    {
+        int end = fieldEnd();
+        int idx = pos;
+        boolean negative = false;
+        if (idx < end && buffer.get(idx) == '-') {
+            negative = true;
+            idx++;
+        }
+        if (idx == end) {
+            throw error("Expected a number");
+        }
+        long value = 0;
+        for (; idx < end; idx++) {
+            int digit = buffer.get(idx) - '0';
+            if (digit < 0 || digit > 9) {
+                throw error("Expected a number");
+            }
+            value = value * 10 + digit;
+        }
+        pos = nextField;
+        return negative ? -value : value;
+    }
+
+    public int nextInt() throws CsvException
+    {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error("Number out of int range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Decodes a M/d/yyyy date (one or two digit month and day) to local
+     * midnight, the same instant SimpleDateFormat("MM/dd/yyyy") returns.
+     */
+    public java.sql.Date nextDate() throws CsvException
+    {
+        int end = fieldEnd();
+        int idx = pos;
+
+        int month = 0;
+        int digits = 0;
+        for (; idx < end && buffer.get(idx) != '/'; idx++, digits++) {
+            month = month * 10 + digit(idx);
+        }
+        if (digits == 0 || idx++ == end) {
+            throw error("Expected a M/d/yyyy date");
+        }
+        int day = 0;
+        digits = 0;
+        for (; idx < end && buffer.get(idx) != '/'; idx++, digits++) {
+            day = day * 10 + digit(idx);
+        }
+        if (digits == 0 || idx++ == end) {
+            throw error("Expected a M/d/yyyy date");
+        }
+        int year = 0;
+        digits = 0;
+        for (; idx < end; idx++, digits++) {
+            year = year * 10 + digit(idx);
+        }
+        if (digits == 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            throw error("Expected a M/d/yyyy date");
+        }
+        pos = nextField;
+
+        long utcMidnight = epochDay(year, month, day) * MILLIS_PER_DAY;
+        // shift to local midnight; the offset is looked up near the result
+        int offset = timeZone.getOffset(utcMidnight - timeZone.getRawOffset());
+        long midnight = utcMidnight - offset;
+        int actual = timeZone.getOffset(midnight);
+        if (actual != offset) {
+            // midnight was skipped by a DST change; like SimpleDateFormat,
+            // read it with the offset in force before the change
+            midnight = utcMidnight - actual;
+        }
+        return new java.sql.Date(midnight);
+    }
+
+    /**
+     * Byte offset of the current row in the file, for error messages.
+     */
+    public long rowOffset()
+    {
+        return fileOffset + rowStart;
+    }
+
+    // end (exclusive) of the field at pos; also sets nextField
+    private int fieldEnd() throws CsvException
+    {
+        if (pos > rowEnd) {
+            throw error("Missing field");
+        }
+        int end = pos;
+        while (end < rowEnd && buffer.get(end) != ',') {
+            end++;
+        }
+        nextField = end + 1;
+        return end;
+    }
+
+    private int digit(int idx) throws CsvException
+    {
+        int digit = buffer.get(idx) - '0';
+        if (digit < 0 || digit > 9) {
+            throw error("Expected a digit");
+        }
+        return digit;
+    }
+
+    private CsvException error(String msg)
+    {
+        return new CsvException(msg + " in row at byte " + rowOffset());
+    }
+
+    // Days since 1970-01-01 in the proleptic Gregorian calendar
+    static long epochDay(int year, int month, int day)
+    {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    @SuppressWarnings("serial")
+    public static class CsvException extends Exception
+    {
+        public CsvException(String msg)
+        {
+            super(msg);
+        }
+    }
+}
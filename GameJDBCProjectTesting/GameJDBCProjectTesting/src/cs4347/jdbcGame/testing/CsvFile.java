@@ -0,0 +1,113 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of every team member to the Provost Office for academic
+ * dishonesty.
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a CSV file into row aligned byte ranges and memory maps each range
+ * for a CsvCursor. The ranges can be parsed on separate threads.
+ */
+public class CsvFile
+{
+    /**
+     * Converts the current row of the cursor into an entity.
+     */
+    public interface RowMapper<T>
+    {
+        T map(CsvCursor cursor) throws Exception;
+    }
+
+    // A single mapping cannot exceed 2GB; stay well below it
+    private static final long MAX_RANGE_BYTES = 1L << 30;
+
+    private final File file;
+
+    public CsvFile(File file)
+    {
+        this.file = file;
+    }
+
+    public String getName()
+    {
+        return file.getName();
+    }
+
+    /**
+     * Returns cursors over at least the given number of ranges (fewer for tiny
+     * files). Every range starts at the beginning of a row.
+     */
+    public List<CsvCursor> split(int ranges) throws IOException
+    {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            long parts = Math.max(ranges, size / MAX_RANGE_BYTES + 1);
+            long step = Math.max(1, size / parts);
+
+            List<CsvCursor> cursors = new ArrayList<CsvCursor>();
+            long start = 0;
+            while (start < size) {
+                long end = start + step >= size ? size : rowBoundaryAfter(channel, start + step, size);
+                // the mapping stays valid after the channel is closed
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                cursors.add(new CsvCursor(buffer, start));
+                start = end;
+            }
+            return cursors;
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Parses the whole file on the calling thread.
+     */
+    public <T> List<T> readAll(RowMapper<T> mapper) throws Exception
+    {
+        List<T> result = new ArrayList<T>();
+        for (CsvCursor cursor : split(1)) {
+            while (cursor.nextRow()) {
+                result.add(mapper.map(cursor));
+            }
+        }
+        return result;
+    }
+
+    // Returns the offset just after the first '\n' at or after pos
+    private long rowBoundaryAfter(FileChannel channel, long pos, long size) throws IOException
+    {
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        while (pos < size) {
+            buf.clear();
+            int read = channel.read(buf, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int idx = 0; idx < read; idx++) {
+                if (buf.get(idx) == '\n') {
+                    return pos + idx + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+}
@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Date;
 import java.util.Properties;
@@ -23,6 +24,10 @@ import java.util.Properties;
 import javax.sql.DataSource;
 
 import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.DelegatingConnection;
+
+import cs4347.jdbcGame.util.SchemaMigrator;
+import cs4347.jdbcGame.util.StatementCache;
 
 /**
  * Application use the static method getDataSource() to obtain the singleton
@@ -31,11 +36,19 @@ import org.apache.commons.dbcp2.BasicDataSource;
  * property file 'dbconfig.properties'. The property file must be located on the
  * application's CLASSPATH. See the configuration property file is loaded by the
  * method getPropertiesFromClasspath().
+ *
+ * Every pool and statement pool setting of DBCP can be set in the same file
+ * with a "pool." prefix, e.g. pool.maxTotal=32. Settings that are not given
+ * use the defaults below, which suit a server where every service call
+ * borrows a connection. getPoolMetrics() reports the live pool state.
+ *
+ * The first getDataSource() also applies pending schema migrations (see
+ * SchemaMigrator) unless schema.migrate=false.
  */
 public class DataSourceManager
 {
 
-    private static BasicDataSource singletonDS = null;
+    private static MonitoredDataSource singletonDS = null;
 
     public synchronized static DataSource getDataSource() throws IOException
     {
@@ -58,14 +71,141 @@ public class DataSourceManager
                 throw new RuntimeException("property 'passwd' not found in configuration file");
             }
 
-            singletonDS = new BasicDataSource();
-            singletonDS.setUrl(url);
-            singletonDS.setUsername(id);
-            singletonDS.setPassword(passwd);
+            MonitoredDataSource ds = new MonitoredDataSource();
+            ds.setUrl(url);
+            ds.setUsername(id);
+            ds.setPassword(passwd);
+            configurePool(ds, props);
+            // the DAOs cache their statements on the pooled physical connection
+            StatementCache.setConnectionUnwrapper(connection -> connection instanceof DelegatingConnection
+                    ? ((DelegatingConnection<?>) connection).getInnermostDelegateInternal() : connection);
+
+            if (Boolean.parseBoolean(props.getProperty("schema.migrate", "true").trim())) {
+                migrate(ds);
+            }
+            singletonDS = ds;
         }
         return singletonDS;
     }
 
+    /**
+     * Returns a snapshot of the pool state: active, idle, waiting borrowers,
+     * borrow wait times and failed borrows.
+     */
+    public synchronized static MonitoredDataSource.PoolMetrics getPoolMetrics() throws IOException
+    {
+        getDataSource();
+        return singletonDS.getMetrics();
+    }
+
+    /**
+     * Brings the schema up to date before the DataSource is handed out. A
+     * failed migration closes the pool, so the next getDataSource() tries
+     * again.
+     */
+    private static void migrate(MonitoredDataSource ds)
+    {
+        try {
+            for (SchemaMigrator.Migration migration : new SchemaMigrator(ds).migrate()) {
+                System.out.println("Applied schema migration " + migration);
+            }
+        }
+        catch (Exception ex) {
+            try {
+                ds.close();
+            }
+            catch (SQLException closeEx) {
+                ex.addSuppressed(closeEx);
+            }
+            throw new RuntimeException("Schema migration failed", ex);
+        }
+    }
+
+    /**
+     * Applies the "pool." settings of props to ds, and the defaults for the
+     * settings that are not given.
+     */
+    public static void configurePool(BasicDataSource ds, Properties props)
+    {
+        // pool size
+        ds.setInitialSize(intProperty(props, "initialSize", 4));
+        ds.setMinIdle(intProperty(props, "minIdle", 4));
+        ds.setMaxIdle(intProperty(props, "maxIdle", 32));
+        ds.setMaxTotal(intProperty(props, "maxTotal", 32));
+        ds.setMaxWaitMillis(longProperty(props, "maxWaitMillis", 5000));
+        ds.setLifo(booleanProperty(props, "lifo", true));
+
+        // validation; an empty validation query makes DBCP use Connection.isValid()
+        String validationQuery = props.getProperty("pool.validationQuery", "");
+        if (!validationQuery.isEmpty()) {
+            ds.setValidationQuery(validationQuery);
+        }
+        ds.setValidationQueryTimeout(intProperty(props, "validationQueryTimeout", 2));
+        ds.setTestOnCreate(booleanProperty(props, "testOnCreate", false));
+        // idle validation and the lifetime limit catch dead connections without
+        // a validation round trip on every borrow
+        ds.setTestOnBorrow(booleanProperty(props, "testOnBorrow", false));
+        ds.setTestOnReturn(booleanProperty(props, "testOnReturn", false));
+        ds.setTestWhileIdle(booleanProperty(props, "testWhileIdle", true));
+        ds.setFastFailValidation(booleanProperty(props, "fastFailValidation", true));
+        ds.setMaxConnLifetimeMillis(longProperty(props, "maxConnLifetimeMillis", 30 * 60 * 1000L));
+        ds.setLogExpiredConnections(booleanProperty(props, "logExpiredConnections", false));
+
+        // eviction
+        ds.setTimeBetweenEvictionRunsMillis(longProperty(props, "timeBetweenEvictionRunsMillis", 30 * 1000L));
+        ds.setNumTestsPerEvictionRun(intProperty(props, "numTestsPerEvictionRun", 4));
+        ds.setMinEvictableIdleTimeMillis(longProperty(props, "minEvictableIdleTimeMillis", 5 * 60 * 1000L));
+        ds.setSoftMinEvictableIdleTimeMillis(longProperty(props, "softMinEvictableIdleTimeMillis", -1));
+
+        // statement pooling, keyed by SQL on each physical connection; used by the
+        // statements that bypass StatementCache (streamed queries, migrations)
+        ds.setPoolPreparedStatements(booleanProperty(props, "poolPreparedStatements", true));
+        ds.setMaxOpenPreparedStatements(intProperty(props, "maxOpenPreparedStatements", 100));
+
+        // connection state
+        ds.setCacheState(booleanProperty(props, "cacheState", true));
+        ds.setDefaultAutoCommit(booleanProperty(props, "defaultAutoCommit", true));
+        ds.setRollbackOnReturn(booleanProperty(props, "rollbackOnReturn", true));
+        ds.setEnableAutoCommitOnReturn(booleanProperty(props, "enableAutoCommitOnReturn", true));
+        String isolation = props.getProperty("pool.defaultTransactionIsolation");
+        if (isolation != null) {
+            ds.setDefaultTransactionIsolation(Integer.parseInt(isolation.trim()));
+        }
+        String queryTimeout = props.getProperty("pool.defaultQueryTimeout");
+        if (queryTimeout != null) {
+            ds.setDefaultQueryTimeout(Integer.valueOf(queryTimeout.trim()));
+        }
+
+        // abandoned connections
+        ds.setRemoveAbandonedOnBorrow(booleanProperty(props, "removeAbandonedOnBorrow", false));
+        ds.setRemoveAbandonedOnMaintenance(booleanProperty(props, "removeAbandonedOnMaintenance", false));
+        ds.setRemoveAbandonedTimeout(intProperty(props, "removeAbandonedTimeout", 300));
+        ds.setLogAbandoned(booleanProperty(props, "logAbandoned", false));
+
+        String jmxName = props.getProperty("pool.jmxName");
+        if (jmxName != null && !jmxName.isEmpty()) {
+            ds.setJmxName(jmxName);
+        }
+    }
+
+    private static int intProperty(Properties props, String name, int defaultValue)
+    {
+        String value = props.getProperty("pool." + name);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long longProperty(Properties props, String name, long defaultValue)
+    {
+        String value = props.getProperty("pool." + name);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    private static boolean booleanProperty(Properties props, String name, boolean defaultValue)
+    {
+        String value = props.getProperty("pool." + name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
     private static final String propFileName = "dbconfig.properties";
 
     public static Properties getPropertiesFromClasspath() throws IOException
@@ -99,6 +239,7 @@ public class DataSourceManager
                 con.close();
             }
             System.out.println("Finished " + (System.currentTimeMillis() - startTime));
+            System.out.println("Pool: " + DataSourceManager.getPoolMetrics());
         } catch (Exception ex) {
             ex.printStackTrace();
         }
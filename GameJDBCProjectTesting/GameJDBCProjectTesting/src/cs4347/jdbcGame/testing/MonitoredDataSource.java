@@ -0,0 +1,146 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of every team member to the Provost Office for academic
+ * dishonesty.
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+/**
+ * BasicDataSource that counts failed borrows and exposes the live pool
+ * statistics that DBCP keeps internally.
+ */
+public class MonitoredDataSource extends BasicDataSource
+{
+    private final AtomicLong borrowFailures = new AtomicLong();
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        try {
+            return super.getConnection();
+        }
+        catch (SQLException | RuntimeException ex) {
+            // includes timeouts waiting for a free connection (maxWaitMillis)
+            borrowFailures.incrementAndGet();
+            throw ex;
+        }
+    }
+
+    public long getBorrowFailures()
+    {
+        return borrowFailures.get();
+    }
+
+    /**
+     * Returns a snapshot of the pool statistics. The pool is created on the
+     * first getConnection(); before that only the counters are set.
+     */
+    public PoolMetrics getMetrics()
+    {
+        GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+        if (pool == null) {
+            return new PoolMetrics(0, 0, 0, 0, 0, 0, 0, 0, borrowFailures.get());
+        }
+        return new PoolMetrics(pool.getNumActive(), pool.getNumIdle(), pool.getNumWaiters(),
+                pool.getMeanBorrowWaitTimeMillis(), pool.getMaxBorrowWaitTimeMillis(), pool.getBorrowedCount(),
+                pool.getCreatedCount(), pool.getDestroyedCount(), borrowFailures.get());
+    }
+
+    /**
+     * Point in time view of the connection pool.
+     */
+    public static class PoolMetrics
+    {
+        private final int active;
+        private final int idle;
+        private final int waiters;
+        private final long meanBorrowWaitMillis;
+        private final long maxBorrowWaitMillis;
+        private final long borrowed;
+        private final long created;
+        private final long destroyed;
+        private final long borrowFailures;
+
+        PoolMetrics(int active, int idle, int waiters, long meanBorrowWaitMillis, long maxBorrowWaitMillis,
+                long borrowed, long created, long destroyed, long borrowFailures)
+        {
+            this.active = active;
+            this.idle = idle;
+            this.waiters = waiters;
+            this.meanBorrowWaitMillis = meanBorrowWaitMillis;
+            this.maxBorrowWaitMillis = maxBorrowWaitMillis;
+            this.borrowed = borrowed;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.borrowFailures = borrowFailures;
+        }
+
+        public int getActive()
+        {
+            return active;
+        }
+
+        public int getIdle()
+        {
+            return idle;
+        }
+
+        public int getWaiters()
+        {
+            return waiters;
+        }
+
+        public long getMeanBorrowWaitMillis()
+        {
+            return meanBorrowWaitMillis;
+        }
+
+        public long getMaxBorrowWaitMillis()
+        {
+            return maxBorrowWaitMillis;
+        }
+
+        public long getBorrowed()
+        {
+            return borrowed;
+        }
+
+        public long getCreated()
+        {
+            return created;
+        }
+
+        public long getDestroyed()
+        {
+            return destroyed;
+        }
+
+        public long getBorrowFailures()
+        {
+            return borrowFailures;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "active=" + active + " idle=" + idle + " waiters=" + waiters + " meanWaitMs="
+                    + meanBorrowWaitMillis + " maxWaitMs=" + maxBorrowWaitMillis + " borrowed=" + borrowed
+                    + " created=" + created + " destroyed=" + destroyed + " borrowFailures=" + borrowFailures;
+        }
+    }
+}
@@ -12,19 +12,15 @@
 
 package cs4347.jdbcGame.testing;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.sql.Connection;
-import java.sql.Date;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Random;
-import java.util.StringTokenizer;
 
 import javax.sql.DataSource;
 
@@ -43,89 +39,131 @@ import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.entity.GamesOwned;
 import cs4347.jdbcGame.entity.GamesPlayed;
 import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.impl.SummaryServiceImpl;
+import cs4347.jdbcGame.testing.CsvCursor.CsvException;
 
 public class PopulateTables
 {
-    private File playerFile;
-    private File ccardFile;
-    private File gameFile;
+    private CsvFile playerFile;
+    private CsvFile ccardFile;
+    private CsvFile gameFile;
 
     private void initialize()
     {
-        playerFile = new File("csvData/players.csv");
-        ccardFile = new File("csvData/creditCards.csv");
-        gameFile = new File("csvData/games.csv");
+        playerFile = new CsvFile(new File("csvData/players.csv"));
+        ccardFile = new CsvFile(new File("csvData/creditCards.csv"));
+        gameFile = new CsvFile(new File("csvData/games.csv"));
     }
 
     public static void main(String args[])
     {
         try {
-            DataSource dataSource = DataSourceManager.getDataSource();
-            Connection connection = dataSource.getConnection();
-            connection.setAutoCommit(false);
+            populate(DataSourceManager.getDataSource());
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the CSV data (relative to the working directory) and the generated
+     * games owned/played into the database. Also used to seed the benchmarks.
+     */
+    public static void populate(DataSource dataSource) throws Exception
+    {
+        PopulateTables app = new PopulateTables();
+        app.initialize();
+        BulkLoader loader = app.buildLoader(dataSource);
 
-            PopulateTables app = new PopulateTables();
-            app.initialize();
+        Map<Long, List<CreditCard>> ccardMap = app.buildCreditCards();
+        List<Player> players = app.insertPlayers(loader, ccardMap);
+        System.out.println("Finished inserting players: " + players.size());
 
-            Map<Long, Player> playersMap = app.buildPlayers();
-            app.addCreditCards(playersMap);
-            System.out.println("Finished building players: " + playersMap.size());
-            app.insertPlayers(connection, playersMap);
-            System.out.println("Finished inserting players");
+        List<Game> games = app.insertGames(loader);
+        System.out.println("Finished inserting games: " + games.size());
 
-            Map<Long, Game> gamesMap = app.buildGames();
-            System.out.println("Finished building games: " + gamesMap.size());
-            app.insertGames(connection, gamesMap);
-            System.out.println("Finished inserting games");
+        Player[] playerArray = players.toArray(new Player[0]);
+        Game[] gameArray = games.toArray(new Game[0]);
 
-            Player[] players = (Player[]) playersMap.values().toArray(new Player[0]);
-            Game[] games = (Game[]) gamesMap.values().toArray(new Game[0]);
+        app.insertGamesOwned(loader, app.buildGamesOwned(playerArray, gameArray));
+        System.out.println("Finished inserting gamesOwned");
 
-            List<GamesOwned> gamesOwned = app.buildGamesOwned(players, games);
-            app.insertGamesOwned(connection, gamesOwned);
-            System.out.println("Finished inserting gamesOwned");
+        app.insertGamesPlayed(loader, app.buildGamesPlayed(playerArray, gameArray));
+        System.out.println("Finished inserting gamesPlayed");
 
-            List<GamesPlayed> gamesPlayed = app.buildGamesPlayed(players, games);
-            app.insertGamesPlayed(connection, gamesPlayed);
-            System.out.println("Finished inserting gamesPlayed");
+        // the bulk load writes through the DAOs, the summaries are computed once at the end
+        new SummaryServiceImpl(dataSource).rebuild();
+        System.out.println("Finished rebuilding summaries");
 
-            connection.commit();
-            System.out.println("Finished Initializing Database");
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        System.out.println("Finished Initializing Database");
+    }
+
+    /**
+     * Loader settings are read from dbconfig.properties, e.g.
+     * bulkload.writers=4. Each writer holds one pooled connection.
+     */
+    private BulkLoader buildLoader(DataSource dataSource) throws Exception
+    {
+        Properties props = DataSourceManager.getPropertiesFromClasspath();
+        int writers = Integer.parseInt(props.getProperty("bulkload.writers", "4"));
+        int parsers = Integer.parseInt(props.getProperty("bulkload.parsers", "2"));
+        int chunkSize = Integer.parseInt(props.getProperty("bulkload.chunkSize", "1000"));
+        int queueCapacity = Integer.parseInt(props.getProperty("bulkload.queueCapacity", "16"));
+        return new BulkLoader(dataSource, writers, parsers, chunkSize, queueCapacity);
     }
 
     Random rnGen = new Random();
 
-    private List<GamesOwned> buildGamesOwned(Player[] players, Game[] games)
+    // Generates 3 GamesOwned per player while the loader consumes them, so
+    // the generated rows never all sit on the heap at once. A player owns a
+    // game at most once, so the 3 games of a player are distinct.
+    private Iterator<GamesOwned> buildGamesOwned(Player[] players, Game[] games)
     {
+        return new Iterator<GamesOwned>()
+        {
+            private int idx = 0;
+            private final int[] picked = new int[3];
+
+            @Override
+            public boolean hasNext()
+            {
+                return idx < players.length * 3;
+            }
 
-        List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>();
-
-        for (Player player : players) {
-            for (int idx2 = 0; idx2 < 3; idx2++) {
-                Game game = games[rnGen.nextInt(games.length)];
-                GamesOwned go = buildGamesOwned(player, game);
-                gamesOwned.add(go);
+            @Override
+            public GamesOwned next()
+            {
+                int slot = idx % 3;
+                Player player = players[idx++ / 3];
+                int pick;
+                do {
+                    pick = rnGen.nextInt(games.length);
+                } while ((slot > 0 && picked[0] == pick) || (slot > 1 && picked[1] == pick));
+                picked[slot] = pick;
+                return buildGamesOwned(player, games[pick]);
             }
-        }
-        return gamesOwned;
+        };
     }
 
-    private List<GamesPlayed> buildGamesPlayed(Player[] players, Game[] games)
+    private Iterator<GamesPlayed> buildGamesPlayed(Player[] players, Game[] games)
     {
+        return new Iterator<GamesPlayed>()
+        {
+            private int idx = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return idx < players.length * 3;
+            }
 
-        List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>();
-
-        for (Player player : players) {
-            for (int idx2 = 0; idx2 < 3; idx2++) {
+            @Override
+            public GamesPlayed next()
+            {
+                Player player = players[idx++ / 3];
                 Game game = games[rnGen.nextInt(games.length)];
-                GamesPlayed gp = buildGamesPlayed(player, game);
-                gamesPlayed.add(gp);
+                return buildGamesPlayed(player, game);
             }
-        }
-        return gamesPlayed;
+        };
     }
 
     private GamesPlayed buildGamesPlayed(Player player, Game game)
@@ -148,130 +186,108 @@ public class PopulateTables
         return go;
     }
 
-    private Map<Long, Game> buildGames() throws Exception
+    // games.csv: id,title,description,release date,version
+    private Game parseGame(CsvCursor cursor) throws CsvException
     {
-        Map<Long, Game> gameMap = new HashMap<Long, Game>();
-        FileReader fr = new FileReader(gameFile);
-        BufferedReader br = new BufferedReader(fr);
-        String line = null;
-        while ((line = br.readLine()) != null) {
-            Object item[] = parseGame(line);
-            gameMap.put((Long) item[0], (Game) item[1]);
-        }
-        br.close();
-        return gameMap;
-    }
-
-    SimpleDateFormat gameSDF = new SimpleDateFormat("MM/dd/yyyy");
-
-    private Object[] parseGame(String line) throws ParseException
-    {
-        StringTokenizer st = new StringTokenizer(line, ",");
-
         Game product = new Game();
-        Long id = Long.parseLong(st.nextToken());
-        product.setTitle(st.nextToken());
-        product.setDescription(st.nextToken());
-        product.setReleaseDate(gameSDF.parse(st.nextToken()));
-        product.setVersion(st.nextToken());
-
-        Object[] result = { id, product };
-        return result;
+        cursor.skipField();
+        product.setTitle(cursor.nextString());
+        product.setDescription(cursor.nextString());
+        product.setReleaseDate(cursor.nextDate());
+        product.setVersion(cursor.nextString());
+        return product;
     }
 
-    private Map<Long, Player> buildPlayers() throws Exception
+    // Credit cards are keyed by the player ID used in the CSV files
+    private Map<Long, List<CreditCard>> buildCreditCards() throws Exception
     {
-        Map<Long, Player> playerMap = new HashMap<Long, Player>();
-        FileReader fr = new FileReader(playerFile);
-        BufferedReader br = new BufferedReader(fr);
-        String line = null;
-        while ((line = br.readLine()) != null) {
-            Object item[] = parsePlayer(line);
-            playerMap.put((Long) item[0], (Player) item[1]);
+        Map<Long, List<CreditCard>> ccardMap = new HashMap<Long, List<CreditCard>>();
+        for (CreditCard ccard : ccardFile.readAll(this::parseCreditCard)) {
+            List<CreditCard> ccards = ccardMap.get(ccard.getPlayerID());
+            if (ccards == null) {
+                ccards = new ArrayList<CreditCard>();
+                ccardMap.put(ccard.getPlayerID(), ccards);
+            }
+            // the real player ID is assigned when the player is inserted
+            ccard.setPlayerID(null);
+            ccards.add(ccard);
         }
-        br.close();
-        return playerMap;
+        return ccardMap;
     }
 
-    private void addCreditCards(Map<Long, Player> playerMap) throws Exception
+    // players.csv: id,first name,last name,join date,email
+    private Player parsePlayer(CsvCursor cursor, Map<Long, List<CreditCard>> ccardMap) throws CsvException
     {
-        FileReader fr = new FileReader(ccardFile);
-        BufferedReader br = new BufferedReader(fr);
-        String line = null;
-        while ((line = br.readLine()) != null) {
-            Object items[] = parseCreditCard(line);
-            Player player = playerMap.get(items[0]);
-            player.getCreditCards().add((CreditCard) items[1]);
-        }
-        br.close();
-    }
-
-    SimpleDateFormat playerSDF = new SimpleDateFormat("MM/dd/yyyy");
-
-    private Object[] parsePlayer(String line) throws ParseException
-    {
-        StringTokenizer st = new StringTokenizer(line, ",");
         Player player = new Player();
-        Long id = Long.parseLong(st.nextToken());
-        player.setFirstName(st.nextToken());
-        player.setLastName(st.nextToken());
-        Date joinDate = new java.sql.Date(playerSDF.parse(st.nextToken()).getTime());
-        player.setJoinDate(joinDate);
-        player.setEmail(st.nextToken());
-
-        Object[] result = { id, player };
-        return result;
+        long id = cursor.nextLong();
+        player.setFirstName(cursor.nextString());
+        player.setLastName(cursor.nextString());
+        player.setJoinDate(cursor.nextDate());
+        player.setEmail(cursor.nextString());
+
+        List<CreditCard> ccards = ccardMap.get(id);
+        if (ccards != null) {
+            player.getCreditCards().addAll(ccards);
+        }
+        return player;
     }
 
-    private Object[] parseCreditCard(String line) throws Exception
+    // creditCards.csv: name,number,expiration,security code,player id
+    private CreditCard parseCreditCard(CsvCursor cursor) throws CsvException
     {
-        StringTokenizer st = new StringTokenizer(line, ",");
-
         CreditCard ccard = new CreditCard();
-        ccard.setCcName(st.nextToken());
-        ccard.setCcNumber(st.nextToken());
-        ccard.setExpDate(st.nextToken());
-        Integer secCode = Integer.valueOf(st.nextToken());
-        ccard.setSecurityCode(secCode);
-
-        Long id = Long.parseLong(st.nextToken());
-        return new Object[] { id, ccard };
+        ccard.setCcName(cursor.nextString());
+        ccard.setCcNumber(cursor.nextString());
+        ccard.setExpDate(cursor.nextString());
+        ccard.setSecurityCode(cursor.nextInt());
+        ccard.setPlayerID(cursor.nextLong());
+        return ccard;
     }
 
-    private void insertPlayers(Connection connection, Map<Long, Player> playerMap) throws Exception
+    // Returns the inserted players, in no particular order
+    private List<Player> insertPlayers(BulkLoader loader, Map<Long, List<CreditCard>> ccardMap) throws Exception
     {
         PlayerDAO playerDAO = new PlayerDAOImpl();
         CreditCardDAO ccDAO = new CreditCardDAOImpl();
-        for (Player player : playerMap.values()) {
-            playerDAO.create(connection, player);
+        List<Player> inserted = Collections.synchronizedList(new ArrayList<Player>());
 
-            for (CreditCard ccard : player.getCreditCards()) {
-                ccDAO.create(connection, ccard, player.getId());
+        loader.load("players", playerFile, cursor -> parsePlayer(cursor, ccardMap), (connection, chunk) -> {
+            playerDAO.createAll(connection, chunk);
+
+            List<CreditCard> ccards = new ArrayList<CreditCard>();
+            for (Player player : chunk) {
+                for (CreditCard ccard : player.getCreditCards()) {
+                    ccard.setPlayerID(player.getId());
+                    ccards.add(ccard);
+                }
             }
-        }
+            ccDAO.createAll(connection, ccards);
+            inserted.addAll(chunk);
+        });
+        return inserted;
     }
 
-    private void insertGames(Connection connection, Map<Long, Game> gameMap) throws Exception
+    private List<Game> insertGames(BulkLoader loader) throws Exception
     {
         GameDAO gameDAO = new GameDAOImpl();
-        for (Game game : gameMap.values()) {
-            gameDAO.create(connection, game);
-        }
+        List<Game> inserted = Collections.synchronizedList(new ArrayList<Game>());
+
+        loader.load("games", gameFile, this::parseGame, (connection, chunk) -> {
+            gameDAO.createAll(connection, chunk);
+            inserted.addAll(chunk);
+        });
+        return inserted;
     }
 
-    private void insertGamesPlayed(Connection connection, List<GamesPlayed> gamesPlayed) throws Exception
+    private void insertGamesPlayed(BulkLoader loader, Iterator<GamesPlayed> gamesPlayed) throws Exception
     {
         GamesPlayedDAO gamesplayedDAO = new GamesPlayedDAOImpl();
-        for (GamesPlayed gp : gamesPlayed) {
-            gamesplayedDAO.create(connection, gp);
-        }
+        loader.load("gamesPlayed", gamesPlayed, gamesplayedDAO::createAll);
     }
 
-    private void insertGamesOwned(Connection connection, List<GamesOwned> gamesOwned) throws Exception
+    private void insertGamesOwned(BulkLoader loader, Iterator<GamesOwned> gamesOwned) throws Exception
     {
         GamesOwnedDAO gamesownedDAO = new GamesOwnedDAOImpl();
-        for (GamesOwned go : gamesOwned) {
-            gamesownedDAO.create(connection, go);
-        }
+        loader.load("gamesOwned", gamesOwned, gamesownedDAO::createAll);
     }
 }
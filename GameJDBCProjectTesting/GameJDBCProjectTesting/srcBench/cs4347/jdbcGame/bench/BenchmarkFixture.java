@@ -0,0 +1,221 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of every team member to the Provost Office for academic
+ * dishonesty.
+ */
+
+package cs4347.jdbcGame.bench;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.testing.PopulateTables;
+
+/**
+ * The data the benchmarks pick their arguments from. If the database is
+ * empty it is seeded with PopulateTables first (run from the testing project
+ * directory so csvData/ is found). The ids are read in id order, so the same
+ * seed picks the same rows on every run against the same data.
+ */
+public class BenchmarkFixture
+{
+    private final long[] playerIDs;
+    private final long[] gameIDs;
+    private final String[] titlePatterns;
+    private final long firstJoinDate;
+    private final long lastJoinDate;
+    private final long firstReleaseDate;
+    private final long lastReleaseDate;
+    private final Map<Long, Set<Long>> ownedGameIDs;
+
+    private BenchmarkFixture(long[] playerIDs, long[] gameIDs, String[] titlePatterns, long firstJoinDate,
+            long lastJoinDate, long firstReleaseDate, long lastReleaseDate, Map<Long, Set<Long>> ownedGameIDs)
+    {
+        this.playerIDs = playerIDs;
+        this.gameIDs = gameIDs;
+        this.titlePatterns = titlePatterns;
+        this.firstJoinDate = firstJoinDate;
+        this.lastJoinDate = lastJoinDate;
+        this.firstReleaseDate = firstReleaseDate;
+        this.lastReleaseDate = lastReleaseDate;
+        this.ownedGameIDs = ownedGameIDs;
+    }
+
+    public static BenchmarkFixture load(DataSource dataSource) throws Exception
+    {
+        if (countRows(dataSource, "player") == 0 || countRows(dataSource, "gamesplayed") == 0) {
+            System.out.println("Seeding the benchmark database with PopulateTables");
+            PopulateTables.populate(dataSource);
+        }
+
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            try {
+                long[] playerIDs = readIDs(statement, "select id from player order by id");
+                long[] gameIDs = readIDs(statement, "select id from game order by id");
+
+                // prefix patterns of the real titles, e.g. "IRO%"
+                List<String> patterns = new ArrayList<String>();
+                ResultSet rs = statement.executeQuery("select title from game order by id");
+                while (rs.next()) {
+                    String title = rs.getString(1);
+                    patterns.add(title.substring(0, Math.min(3, title.length())) + "%");
+                }
+                rs.close();
+
+                rs = statement.executeQuery("select min(join_date), max(join_date) from player");
+                rs.next();
+                long first = rs.getDate(1).getTime();
+                long last = rs.getDate(2).getTime();
+                rs.close();
+
+                rs = statement.executeQuery("select min(release_date), max(release_date) from game");
+                rs.next();
+                long firstRelease = rs.getDate(1).getTime();
+                long lastRelease = rs.getDate(2).getTime();
+                rs.close();
+
+                // a player owns a game at most once, so purchases must avoid these
+                Map<Long, Set<Long>> owned = new HashMap<Long, Set<Long>>();
+                rs = statement.executeQuery("select player_id, game_id from gamesowned");
+                while (rs.next()) {
+                    owned.computeIfAbsent(rs.getLong(1), id -> new HashSet<Long>()).add(rs.getLong(2));
+                }
+                rs.close();
+
+                return new BenchmarkFixture(playerIDs, gameIDs, patterns.toArray(new String[0]), first, last,
+                        firstRelease, lastRelease, owned);
+            }
+            finally {
+                statement.close();
+            }
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    public long randomPlayerID(Random random)
+    {
+        return playerIDs[random.nextInt(playerIDs.length)];
+    }
+
+    public long randomGameID(Random random)
+    {
+        return gameIDs[random.nextInt(gameIDs.length)];
+    }
+
+    /**
+     * Returns count distinct games the player did not own when the fixture
+     * was loaded, so inserting their purchases does not hit the unique key.
+     */
+    public long[] randomUnownedGameIDs(Random random, long playerID, int count)
+    {
+        Set<Long> owned = ownedGameIDs.getOrDefault(playerID, Collections.<Long>emptySet());
+        if (gameIDs.length - owned.size() < count) {
+            throw new IllegalArgumentException("Player " + playerID + " does not miss " + count + " games");
+        }
+        Set<Long> picked = new HashSet<Long>();
+        long[] result = new long[count];
+        for (int idx = 0; idx < count; idx++) {
+            long gameID;
+            do {
+                gameID = randomGameID(random);
+            } while (owned.contains(gameID) || !picked.add(gameID));
+            result[idx] = gameID;
+        }
+        return result;
+    }
+
+    public String randomTitlePattern(Random random)
+    {
+        return titlePatterns[random.nextInt(titlePatterns.length)];
+    }
+
+    /**
+     * Returns the start of a join date range of the given number of days that
+     * lies within the join dates of the players.
+     */
+    public Date randomJoinDate(Random random, int days)
+    {
+        return randomDate(random, firstJoinDate, lastJoinDate, days);
+    }
+
+    /**
+     * Like randomJoinDate, within the release dates of the games.
+     */
+    public Date randomReleaseDate(Random random, int days)
+    {
+        return randomDate(random, firstReleaseDate, lastReleaseDate, days);
+    }
+
+    private static Date randomDate(Random random, long first, long last, int days)
+    {
+        long span = Math.max(1, last - first - days * 86400000L);
+        return new Date(first + (long) (random.nextDouble() * span));
+    }
+
+    public int getPlayerCount()
+    {
+        return playerIDs.length;
+    }
+
+    public int getGameCount()
+    {
+        return gameIDs.length;
+    }
+
+    private static int countRows(DataSource dataSource, String table) throws SQLException
+    {
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            ResultSet rs = statement.executeQuery("select count(*) from " + table);
+            rs.next();
+            int count = rs.getInt(1);
+            statement.close();
+            return count;
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    private static long[] readIDs(Statement statement, String sql) throws SQLException
+    {
+        List<Long> ids = new ArrayList<Long>();
+        ResultSet rs = statement.executeQuery(sql);
+        while (rs.next()) {
+            ids.add(rs.getLong(1));
+        }
+        rs.close();
+        if (ids.isEmpty()) {
+            throw new SQLException("No rows for benchmark fixture: " + sql);
+        }
+        long[] result = new long[ids.size()];
+        for (int idx = 0; idx < result.length; idx++) {
+            result[idx] = ids.get(idx);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,228 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of every team member to the Provost Office for academic
+ * dishonesty.
+ */
+
+package cs4347.jdbcGame.bench;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs one operation on a number of threads for a warmup period and then a
+ * measurement period, recording the latency of every measured call. All
+ * threads start together; each gets its own Worker with a Random seeded from
+ * the run seed and the thread index, so a run picks the same sequence of
+ * rows every time.
+ */
+public class BenchmarkRunner
+{
+    /**
+     * One benchmarked call.
+     */
+    public interface Operation
+    {
+        void run(Worker worker) throws Exception;
+    }
+
+    private final DataSource dataSource;
+    private final long warmupMillis;
+    private final long measureMillis;
+    private final long seed;
+
+    public BenchmarkRunner(DataSource dataSource, long warmupMillis, long measureMillis, long seed)
+    {
+        if (warmupMillis < 0 || measureMillis < 1) {
+            throw new IllegalArgumentException("Benchmark periods must be positive");
+        }
+        this.dataSource = dataSource;
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+        this.seed = seed;
+    }
+
+    public Result run(String name, int threads, Operation operation) throws Exception
+    {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        long[] window = new long[2];
+
+        List<Thread> workers = new ArrayList<Thread>();
+        List<LatencyHistogram> histograms = new ArrayList<LatencyHistogram>();
+        for (int idx = 0; idx < threads; idx++) {
+            Worker worker = new Worker(dataSource, seed * 31 + idx);
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            Thread thread = new Thread(() -> {
+                try {
+                    ready.countDown();
+                    start.await();
+                    runPhases(operation, worker, histogram, window, failure);
+                }
+                catch (Exception ex) {
+                    failure.compareAndSet(null, ex);
+                }
+                finally {
+                    worker.close();
+                }
+            }, name + "-" + idx);
+            workers.add(thread);
+            thread.start();
+        }
+
+        ready.await();
+        long now = System.nanoTime();
+        window[0] = now + warmupMillis * 1000000L;
+        window[1] = window[0] + measureMillis * 1000000L;
+        start.countDown();
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new Exception("Benchmark " + name + " failed", failure.get());
+        }
+
+        LatencyHistogram merged = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms) {
+            merged.merge(histogram);
+        }
+        return new Result(name, threads, measureMillis, merged);
+    }
+
+    private void runPhases(Operation operation, Worker worker, LatencyHistogram histogram, long[] window,
+            AtomicReference<Exception> failure) throws Exception
+    {
+        // warmup, results are discarded
+        while (System.nanoTime() - window[0] < 0 && failure.get() == null) {
+            operation.run(worker);
+        }
+        long t0;
+        while ((t0 = System.nanoTime()) - window[1] < 0 && failure.get() == null) {
+            operation.run(worker);
+            histogram.record(System.nanoTime() - t0);
+        }
+    }
+
+    /**
+     * Per thread state handed to the operation: a seeded Random and, for DAO
+     * benchmarks, one pooled connection kept for the whole run with auto
+     * commit off. It is rolled back when the run ends.
+     */
+    public static class Worker
+    {
+        private final DataSource dataSource;
+        private final Random random;
+        private Connection connection;
+
+        Worker(DataSource dataSource, long seed)
+        {
+            this.dataSource = dataSource;
+            this.random = new Random(seed);
+        }
+
+        public Random random()
+        {
+            return random;
+        }
+
+        public Connection connection() throws SQLException
+        {
+            if (connection == null) {
+                connection = dataSource.getConnection();
+                connection.setAutoCommit(false);
+            }
+            return connection;
+        }
+
+        void close()
+        {
+            if (connection == null) {
+                return;
+            }
+            try {
+                connection.rollback();
+                connection.setAutoCommit(true);
+                connection.close();
+            }
+            catch (SQLException ex) {
+                // the connection is discarded by the pool if it is broken
+            }
+        }
+    }
+
+    /**
+     * Throughput and latency percentiles of one benchmark run.
+     */
+    public static class Result
+    {
+        static final String HEADER = String.format(Locale.ROOT, "%-36s %7s %12s %10s %10s %10s %10s %10s",
+                "benchmark", "threads", "ops/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+        static final String CSV_HEADER = "benchmark,threads,ops,ops_per_sec,mean_us,p50_us,p90_us,p99_us,p999_us,max_us";
+
+        private final String name;
+        private final int threads;
+        private final long ops;
+        private final double throughput;
+        private final LatencyHistogram histogram;
+
+        Result(String name, int threads, long measureMillis, LatencyHistogram histogram)
+        {
+            this.name = name;
+            this.threads = threads;
+            this.ops = histogram.getCount();
+            this.throughput = ops * 1000.0 / measureMillis;
+            this.histogram = histogram;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public int getThreads()
+        {
+            return threads;
+        }
+
+        public double getThroughput()
+        {
+            return throughput;
+        }
+
+        public double getPercentileMicros(double percentile)
+        {
+            return histogram.getPercentile(percentile) / 1000.0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format(Locale.ROOT, "%-36s %7d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f", name, threads,
+                    throughput, getPercentileMicros(50), getPercentileMicros(90), getPercentileMicros(99),
+                    getPercentileMicros(99.9), histogram.getMax() / 1000.0);
+        }
+
+        String toCsv()
+        {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f", name, threads, ops, throughput,
+                    histogram.getMean() / 1000.0, getPercentileMicros(50), getPercentileMicros(90),
+                    getPercentileMicros(99), getPercentileMicros(99.9), histogram.getMax() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of every team member to the Provost Office for academic
+ * dishonesty.
+ */
+
+package cs4347.jdbcGame.bench;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Measures the DAO queries with and without the indexes added by the schema
+ * migrations. The "before" run tells MySQL to IGNORE INDEX every index the
+ * migrations added to the table, so the optimizer is left with what the
+ * original schema had; the "after" run
+ * lets it choose freely. EXPLAIN shows the index each variant used. Run from
+ * the testing project directory after the migrations have been applied:
+ *
+ * <pre>
+ *   java cs4347.jdbcGame.bench.IndexBenchmarks [--warmup ms] [--measure ms]
+ *        [--threads 1,8] [--seed n] [--filter text]
+ * </pre>
+ */
+public class IndexBenchmarks
+{
+    /**
+     * Sets the parameters of one execution.
+     */
+    interface Binder
+    {
+        void bind(PreparedStatement ps, Random random) throws SQLException;
+    }
+
+    /**
+     * A DAO query; the %s after the table name takes the index hint.
+     */
+    static class IndexedQuery
+    {
+        final String name;
+        final String ignoredIndexes;
+        final String sql;
+        final Binder binder;
+
+        IndexedQuery(String name, String ignoredIndexes, String sql, Binder binder)
+        {
+            this.name = name;
+            this.ignoredIndexes = ignoredIndexes;
+            this.sql = sql;
+            this.binder = binder;
+        }
+
+        String sql(boolean useIndex)
+        {
+            return String.format(sql, useIndex ? "" : "IGNORE INDEX (" + ignoredIndexes + ")");
+        }
+    }
+
+    // every index the migrations added, per table; a "before" query that
+    // ignored only one of them could still use another
+    private static final String GAMES_PLAYED_INDEXES = "idx_gamesplayed_game_player, idx_gamesplayed_player_game";
+    private static final String GAMES_OWNED_INDEXES = "idx_gamesowned_game_player, idx_gamesowned_player_game, "
+            + "uq_gamesowned_player_game";
+    private static final String PLAYER_INDEXES = "idx_player_join_date";
+    private static final String GAME_INDEXES = "idx_game_release_date, idx_game_title";
+
+    static List<IndexedQuery> queries(BenchmarkFixture fixture)
+    {
+        List<IndexedQuery> result = new ArrayList<IndexedQuery>();
+        result.add(new IndexedQuery("gamesPlayed.byPlayerGame", GAMES_PLAYED_INDEXES,
+                "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed %s WHERE game_id = ? AND player_id = ?",
+                (ps, random) -> {
+                    ps.setLong(1, fixture.randomGameID(random));
+                    ps.setLong(2, fixture.randomPlayerID(random));
+                }));
+        result.add(new IndexedQuery("gamesPlayed.byPlayer", GAMES_PLAYED_INDEXES,
+                "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed %s WHERE player_id = ?",
+                (ps, random) -> ps.setLong(1, fixture.randomPlayerID(random))));
+        result.add(new IndexedQuery("gamesPlayed.scoreStatsByGame", GAMES_PLAYED_INDEXES,
+                "SELECT game_id, COUNT(*), AVG(score), MIN(score), MAX(score) FROM gamesplayed %s GROUP BY game_id ORDER BY game_id",
+                (ps, random) -> {
+                }));
+        result.add(new IndexedQuery("gamesOwned.byPlayerGame", GAMES_OWNED_INDEXES,
+                "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned %s WHERE game_id = ? AND player_id = ?",
+                (ps, random) -> {
+                    ps.setLong(1, fixture.randomGameID(random));
+                    ps.setLong(2, fixture.randomPlayerID(random));
+                }));
+        result.add(new IndexedQuery("gamesOwned.byGame", GAMES_OWNED_INDEXES,
+                "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned %s WHERE game_id = ?",
+                (ps, random) -> ps.setLong(1, fixture.randomGameID(random))));
+        result.add(new IndexedQuery("player.byJoinDate", PLAYER_INDEXES,
+                "SELECT id, first_name, last_name, join_date, email FROM player %s WHERE join_date BETWEEN ? AND ?",
+                (ps, random) -> bindWeek(ps, fixture.randomJoinDate(random, 7))));
+        result.add(new IndexedQuery("game.byReleaseDate", GAME_INDEXES,
+                "SELECT id, title, description, release_date, version FROM game %s WHERE release_date BETWEEN ? AND ?",
+                (ps, random) -> bindWeek(ps, fixture.randomReleaseDate(random, 7))));
+        result.add(new IndexedQuery("game.byTitle", GAME_INDEXES,
+                "SELECT id, title, description, release_date, version FROM game %s WHERE title LIKE ?",
+                (ps, random) -> ps.setString(1, fixture.randomTitlePattern(random))));
+        return result;
+    }
+
+    private static void bindWeek(PreparedStatement ps, Date start) throws SQLException
+    {
+        ps.setDate(1, new java.sql.Date(start.getTime()));
+        ps.setDate(2, new java.sql.Date(start.getTime() + 7 * 86400000L));
+    }
+
+    // runs the query like a DAO does and reads every row
+    static BenchmarkRunner.Operation operation(IndexedQuery query, boolean useIndex)
+    {
+        String sql = query.sql(useIndex);
+        return worker -> {
+            PreparedStatement ps = null;
+            try {
+                ps = StatementCache.prepare(worker.connection(), sql);
+                query.binder.bind(ps, worker.random());
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    rs.getLong(1);
+                }
+            }
+            finally {
+                StatementCache.release(ps);
+            }
+        };
+    }
+
+    // the index MySQL picks for one set of parameters
+    static String explain(DataSource dataSource, IndexedQuery query, boolean useIndex, long seed) throws SQLException
+    {
+        Connection connection = dataSource.getConnection();
+        try {
+            PreparedStatement ps = connection.prepareStatement("EXPLAIN " + query.sql(useIndex));
+            try {
+                query.binder.bind(ps, new Random(seed));
+                ResultSet rs = ps.executeQuery();
+                String key = rs.next() ? rs.getString("key") : null;
+                return key != null ? key : "none";
+            }
+            finally {
+                ps.close();
+            }
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        long warmupMillis = 2000;
+        long measureMillis = 5000;
+        int[] threadCounts = { 1 };
+        long seed = 4347;
+        String filter = null;
+
+        for (int idx = 0; idx < args.length; idx++) {
+            String arg = args[idx];
+            if (idx + 1 == args.length) {
+                usage("Missing value for " + arg);
+            }
+            String value = args[++idx];
+            switch (arg) {
+            case "--warmup":
+                warmupMillis = Long.parseLong(value);
+                break;
+            case "--measure":
+                measureMillis = Long.parseLong(value);
+                break;
+            case "--threads":
+                String[] parts = value.split(",");
+                threadCounts = new int[parts.length];
+                for (int part = 0; part < parts.length; part++) {
+                    threadCounts[part] = Integer.parseInt(parts[part].trim());
+                }
+                break;
+            case "--seed":
+                seed = Long.parseLong(value);
+                break;
+            case "--filter":
+                filter = value;
+                break;
+            default:
+                usage("Unknown option " + arg);
+            }
+        }
+
+        try {
+            DataSource dataSource = DataSourceManager.getDataSource();
+            BenchmarkFixture fixture = BenchmarkFixture.load(dataSource);
+            BenchmarkRunner runner = new BenchmarkRunner(dataSource, warmupMillis, measureMillis, seed);
+
+            for (IndexedQuery query : queries(fixture)) {
+                if (filter != null && !query.name.contains(filter)) {
+                    continue;
+                }
+                System.out.println();
+                System.out.println(query.name + ": before uses " + explain(dataSource, query, false, seed)
+                        + ", after uses " + explain(dataSource, query, true, seed));
+                System.out.println(BenchmarkRunner.Result.HEADER);
+                for (int threads : threadCounts) {
+                    BenchmarkRunner.Result before = runner.run(query.name + " [before]", threads,
+                            operation(query, false));
+                    System.out.println(before);
+                    BenchmarkRunner.Result after = runner.run(query.name + " [after]", threads,
+                            operation(query, true));
+                    System.out.println(after);
+                    System.out.println(String.format(Locale.ROOT, "%-36s %7d %11.1fx %9.1fx", "speedup", threads,
+                            after.getThroughput() / Math.max(before.getThroughput(), 0.001),
+                            before.getPercentileMicros(50) / Math.max(after.getPercentileMicros(50), 0.001)));
+                }
+            }
+        }
+        catch (SQLException ex) {
+            // IGNORE INDEX of an index that does not exist fails
+            System.err.println("Query failed; have the schema migrations been applied? " + ex.getMessage());
+            ex.printStackTrace();
+            System.exit(1);
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void usage(String message)
+    {
+        System.err.println(message);
+        System.err.println("Usage: IndexBenchmarks [--warmup ms] [--measure ms] [--threads 1,8] [--seed n]"
+                + " [--filter text]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,312 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of every team member to the Provost Office for academic
+ * dishonesty.
+ */
+
+package cs4347.jdbcGame.bench;
+
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.impl.GameDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.PlayerProfileService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerProfileServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+import cs4347.jdbcGame.services.impl.ServiceExecutor;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.UnitOfWork;
+
+/**
+ * Throughput and latency benchmarks of the DAO and service hot paths against
+ * the database configured in dbconfig.properties. Run from the testing
+ * project directory:
+ *
+ * <pre>
+ *   java cs4347.jdbcGame.bench.JdbcBenchmarks [--warmup ms] [--measure ms]
+ *        [--threads 1,8] [--seed n] [--filter text] [--csv file]
+ * </pre>
+ *
+ * Every benchmark runs once per thread count. DAO benchmarks use one
+ * connection per thread; the ones that write roll back after each call so
+ * repeated runs see the same data. Service benchmarks go through the pool
+ * like production callers. With --csv the results are also written as CSV
+ * so runs can be compared.
+ */
+public class JdbcBenchmarks
+{
+    private final DataSource dataSource;
+    private final BenchmarkFixture fixture;
+    private final GameService gameService;
+    private final PlayerService playerService;
+    private final GamesPlayedService gamesPlayedService;
+    private final GamesOwnedService gamesOwnedService;
+    private final PlayerProfileService playerProfileService;
+
+    JdbcBenchmarks(DataSource dataSource, BenchmarkFixture fixture)
+    {
+        this.dataSource = dataSource;
+        this.fixture = fixture;
+        this.gameService = new GameServiceImpl(dataSource);
+        this.playerService = new PlayerServiceImpl(dataSource);
+        this.gamesPlayedService = new GamesPlayedServiceImpl(dataSource);
+        this.gamesOwnedService = new GamesOwnedServiceImpl(dataSource);
+        // as many parallel calls as the pool has connections
+        int maxConcurrency = dataSource instanceof BasicDataSource ? ((BasicDataSource) dataSource).getMaxTotal() : 8;
+        this.playerProfileService = new PlayerProfileServiceImpl(dataSource, gameService,
+                new ServiceExecutor(maxConcurrency));
+    }
+
+    /**
+     * All benchmarks by name, in the order they run.
+     */
+    Map<String, BenchmarkRunner.Operation> benchmarks()
+    {
+        Map<String, BenchmarkRunner.Operation> result = new LinkedHashMap<String, BenchmarkRunner.Operation>();
+        GameDAO gameDAO = new GameDAOImpl();
+        GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+        GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+
+        result.put("dao.game.retrieve", worker -> {
+            gameDAO.retrieve(worker.connection(), fixture.randomGameID(worker.random()));
+        });
+        result.put("dao.game.retrieveByTitle", worker -> {
+            gameDAO.retrieveByTitle(worker.connection(), fixture.randomTitlePattern(worker.random()));
+        });
+        result.put("dao.gamesPlayed.create", worker -> {
+            Connection connection = worker.connection();
+            gamesPlayedDAO.create(connection, buildGamesPlayed(worker.random()));
+            connection.rollback();
+        });
+        // a basket of five purchases, batched against one multi-row INSERT
+        result.put("dao.gamesOwned.createAll", worker -> {
+            Connection connection = worker.connection();
+            gamesOwnedDAO.createAll(connection, buildBasket(worker.random(), 5));
+            connection.rollback();
+        });
+        result.put("dao.gamesOwned.createMultiRow", worker -> {
+            Connection connection = worker.connection();
+            gamesOwnedDAO.createMultiRow(connection, buildBasket(worker.random(), 5));
+            connection.rollback();
+        });
+        result.put("dao.gamesOwned.upsertAll", worker -> {
+            Connection connection = worker.connection();
+            gamesOwnedDAO.upsertAll(connection, buildBasket(worker.random(), 5));
+            connection.rollback();
+        });
+        // a whole game's plays as a list of entities, against one reused row
+        result.put("dao.gamesPlayed.retrieveByGame", worker -> {
+            gamesPlayedDAO.retrieveByGame(worker.connection(), fixture.randomGameID(worker.random()));
+        });
+        result.put("dao.gamesPlayed.scanByGame", worker -> {
+            long[] scoreTotal = new long[1];
+            gamesPlayedDAO.scanByGame(worker.connection(), fixture.randomGameID(worker.random()),
+                    gamesPlayed -> scoreTotal[0] += gamesPlayed.getScore());
+        });
+        result.put("dao.gamesPlayed.retrieveByPlayer", worker -> {
+            gamesPlayedDAO.retrieveByPlayer(worker.connection(), fixture.randomPlayerID(worker.random()));
+        });
+        // the same count three ways, see CountMode
+        for (CountMode mode : CountMode.values()) {
+            result.put("dao.gamesPlayed.count." + mode.name().toLowerCase(), worker -> {
+                gamesPlayedDAO.count(worker.connection(), mode);
+            });
+        }
+
+        result.put("service.game.retrieve", worker -> {
+            gameService.retrieve(fixture.randomGameID(worker.random()));
+        });
+        result.put("service.game.retrieveByTitle", worker -> {
+            gameService.retrieveByTitle(fixture.randomTitlePattern(worker.random()));
+        });
+        // the in-memory index against the LIKE query above, same prefixes
+        result.put("service.game.searchByTitlePrefix", worker -> {
+            String pattern = fixture.randomTitlePattern(worker.random());
+            gameService.searchByTitlePrefix(pattern.substring(0, pattern.length() - 1), 100);
+        });
+        result.put("service.gamesPlayed.retrieveByPlayer", worker -> {
+            gamesPlayedService.retrieveByPlayer(fixture.randomPlayerID(worker.random()));
+        });
+        result.put("service.player.retrieveByJoinDate", worker -> {
+            Date start = fixture.randomJoinDate(worker.random(), 7);
+            playerService.retrieveByJoinDate(start, new Date(start.getTime() + 7 * 86400000L));
+        });
+        // the profile page read one call after the other, against the parallel one
+        result.put("service.playerProfile.sequential", worker -> {
+            long playerID = fixture.randomPlayerID(worker.random());
+            playerService.retrieve(playerID);
+            for (GamesOwned gamesOwned : gamesOwnedService.retrieveByPlayer(playerID)) {
+                gameService.retrieve(gamesOwned.getGameID());
+            }
+            for (GamesPlayed gamesPlayed : gamesPlayedService.retrieveByPlayer(playerID)) {
+                gameService.retrieve(gamesPlayed.getGameID());
+            }
+        });
+        result.put("service.playerProfile.retrieve", worker -> {
+            playerProfileService.retrieve(fixture.randomPlayerID(worker.random()));
+        });
+        // two committed transactions, the delete keeps the table size stable
+        result.put("service.gamesPlayed.createDelete", worker -> {
+            GamesPlayed gamesPlayed = gamesPlayedService.create(buildGamesPlayed(worker.random()));
+            gamesPlayedService.delete(gamesPlayed.getId());
+        });
+        // the same calls sharing one connection and one commit
+        result.put("service.unitOfWork.createDelete", worker -> {
+            UnitOfWork.run(dataSource, () -> {
+                GamesPlayed gamesPlayed = gamesPlayedService.create(buildGamesPlayed(worker.random()));
+                return gamesPlayedService.delete(gamesPlayed.getId());
+            });
+        });
+        return result;
+    }
+
+    private List<GamesOwned> buildBasket(Random random, int size)
+    {
+        long playerID = fixture.randomPlayerID(random);
+        long[] gameIDs = fixture.randomUnownedGameIDs(random, playerID, size);
+        List<GamesOwned> basket = new ArrayList<GamesOwned>(size);
+        for (int idx = 0; idx < size; idx++) {
+            GamesOwned gamesOwned = new GamesOwned();
+            gamesOwned.setPlayerID(playerID);
+            gamesOwned.setGameID(gameIDs[idx]);
+            gamesOwned.setPurchaseDate(new Date());
+            gamesOwned.setPurchasePrice(random.nextInt(6000) / 100f);
+            basket.add(gamesOwned);
+        }
+        return basket;
+    }
+
+    private GamesPlayed buildGamesPlayed(Random random)
+    {
+        GamesPlayed gamesPlayed = new GamesPlayed();
+        gamesPlayed.setPlayerID(fixture.randomPlayerID(random));
+        gamesPlayed.setGameID(fixture.randomGameID(random));
+        gamesPlayed.setTimeFinished(new Date());
+        gamesPlayed.setScore(random.nextInt(1000));
+        return gamesPlayed;
+    }
+
+    public static void main(String[] args)
+    {
+        long warmupMillis = 5000;
+        long measureMillis = 10000;
+        int[] threadCounts = { 1, 8 };
+        long seed = 4347;
+        String filter = null;
+        String csvFile = null;
+
+        for (int idx = 0; idx < args.length; idx++) {
+            String arg = args[idx];
+            if (idx + 1 == args.length) {
+                usage("Missing value for " + arg);
+            }
+            String value = args[++idx];
+            switch (arg) {
+            case "--warmup":
+                warmupMillis = Long.parseLong(value);
+                break;
+            case "--measure":
+                measureMillis = Long.parseLong(value);
+                break;
+            case "--threads":
+                String[] parts = value.split(",");
+                threadCounts = new int[parts.length];
+                for (int part = 0; part < parts.length; part++) {
+                    threadCounts[part] = Integer.parseInt(parts[part].trim());
+                }
+                break;
+            case "--seed":
+                seed = Long.parseLong(value);
+                break;
+            case "--filter":
+                filter = value;
+                break;
+            case "--csv":
+                csvFile = value;
+                break;
+            default:
+                usage("Unknown option " + arg);
+            }
+        }
+
+        try {
+            DataSource dataSource = DataSourceManager.getDataSource();
+            BenchmarkFixture fixture = BenchmarkFixture.load(dataSource);
+            System.out.println("Fixture: " + fixture.getPlayerCount() + " players, " + fixture.getGameCount()
+                    + " games, seed " + seed);
+
+            BenchmarkRunner runner = new BenchmarkRunner(dataSource, warmupMillis, measureMillis, seed);
+            List<BenchmarkRunner.Result> results = new ArrayList<BenchmarkRunner.Result>();
+            System.out.println(BenchmarkRunner.Result.HEADER);
+            for (Map.Entry<String, BenchmarkRunner.Operation> entry : new JdbcBenchmarks(dataSource, fixture)
+                    .benchmarks().entrySet()) {
+                if (filter != null && !entry.getKey().contains(filter)) {
+                    continue;
+                }
+                for (int threads : threadCounts) {
+                    BenchmarkRunner.Result result = runner.run(entry.getKey(), threads, entry.getValue());
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+            System.out.println("Pool: " + DataSourceManager.getPoolMetrics());
+
+            if (csvFile != null) {
+                PrintWriter out = new PrintWriter(new FileWriter(csvFile));
+                try {
+                    out.println(BenchmarkRunner.Result.CSV_HEADER);
+                    for (BenchmarkRunner.Result result : results) {
+                        out.println(result.toCsv());
+                    }
+                }
+                finally {
+                    out.close();
+                }
+            }
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void usage(String message)
+    {
+        System.err.println(message);
+        System.err.println("Usage: JdbcBenchmarks [--warmup ms] [--measure ms] [--threads 1,8] [--seed n]"
+                + " [--filter text] [--csv file]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,109 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of every team member to the Provost Office for academic
+ * dishonesty.
+ */
+
+package cs4347.jdbcGame.bench;
+
+/**
+ * Fixed size histogram of latencies in nanoseconds. Each power of two range
+ * is split into 16 buckets, so a recorded value is reported within about 6%
+ * whatever its size, and memory does not grow with the number of samples.
+ * Not thread safe; every benchmark thread records into its own histogram and
+ * they are merged at the end.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKETS = 16;
+    private static final int BUCKETS = (64 - 3) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long sum;
+    private long max;
+
+    public void record(long nanos)
+    {
+        long value = Math.max(0, nanos);
+        counts[bucket(value)]++;
+        total++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    public void merge(LatencyHistogram other)
+    {
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            counts[idx] += other.counts[idx];
+        }
+        total += other.total;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount()
+    {
+        return total;
+    }
+
+    public long getMax()
+    {
+        return max;
+    }
+
+    public double getMean()
+    {
+        return total == 0 ? 0.0 : (double) sum / total;
+    }
+
+    /**
+     * Returns the latency at the given percentile (0-100), e.g. 99.9.
+     */
+    public long getPercentile(double percentile)
+    {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0;
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            seen += counts[idx];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(max, midpoint(idx));
+            }
+        }
+        return max;
+    }
+
+    // values below 16 get a bucket each, larger ones keep their top 5 bits
+    static int bucket(long value)
+    {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (msb - 4)) & (SUB_BUCKETS - 1));
+        return (msb - 3) * SUB_BUCKETS + sub;
+    }
+
+    private static long midpoint(int bucket)
+    {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int msb = bucket / SUB_BUCKETS + 3;
+        if (msb >= 62) {
+            return Long.MAX_VALUE;
+        }
+        long sub = bucket % SUB_BUCKETS;
+        long width = 1L << (msb - 4);
+        return (SUB_BUCKETS + sub) * width + width / 2;
+    }
+}
@@ -13,17 +13,26 @@ package dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
 import org.junit.Test;
 
+import cs4347.jdbcGame.dao.CountMode;
 import cs4347.jdbcGame.dao.CreditCardDAO;
 import cs4347.jdbcGame.dao.impl.CreditCardDAOImpl;
+import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
 import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Player;
 import cs4347.jdbcGame.testing.DataSourceManager;
 import cs4347.jdbcGame.util.DAOException;
 import cs4347.jdbcGame.util.TestingUtil;
@@ -90,6 +99,115 @@ public class CreditCardDAOImplTestCase
 
     final static String selectSQL = "SELECT player_id, cc_name, cc_number, exp_date, security_code FROM creditcard where id = ?";
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            // A batch size of 2 sends the 5 cards as two full batches and a partial one
+            CreditCardDAO dao = new CreditCardDAOImpl(2);
+            int before = dao.count(connection);
+
+            List<Long> playerIDs = TestingUtil.getPlayerIDs(ds, 5);
+            List<CreditCard> creditCards = new ArrayList<CreditCard>();
+            for (int idx = 0; idx < 5; idx++) {
+                CreditCard item = buildCreditCard();
+                item.setPlayerID(playerIDs.get(idx));
+                item.setCcNumber("223334443" + idx);
+                creditCards.add(item);
+            }
+            List<CreditCard> created = dao.createAll(connection, creditCards);
+            assertEquals(5, created.size());
+            assertEquals(before + 5, dao.count(connection));
+
+            // each card is stored for its own player
+            for (CreditCard item : created) {
+                CreditCard stored = dao.retrieve(connection, item.getId());
+                assertEquals(item.getPlayerID(), stored.getPlayerID());
+                assertEquals(item.getCcNumber(), stored.getCcNumber());
+                assertEquals(item.getExpDate(), stored.getExpDate());
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCreateAllEmpty() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            CreditCardDAO dao = new CreditCardDAOImpl(2);
+            int before = dao.count(connection);
+
+            assertTrue(dao.createAll(connection, new ArrayList<CreditCard>()).isEmpty());
+            assertEquals(before, dao.count(connection));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    /*
+     * A card that has an ID or no player fails the whole list before any row
+     * is inserted.
+     */
+    @Test
+    public void testCreateAllFailed() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            CreditCardDAO dao = new CreditCardDAOImpl(2);
+            int before = dao.count(connection);
+            Long playerID = TestingUtil.getPlayerID(ds);
+
+            List<CreditCard> withID = new ArrayList<CreditCard>();
+            List<CreditCard> withoutPlayer = new ArrayList<CreditCard>();
+            for (int idx = 0; idx < 3; idx++) {
+                CreditCard item = buildCreditCard();
+                item.setPlayerID(playerID);
+                withID.add(item);
+                CreditCard other = buildCreditCard();
+                other.setPlayerID(playerID);
+                withoutPlayer.add(other);
+            }
+            withID.get(2).setId(System.currentTimeMillis());
+            withoutPlayer.get(2).setPlayerID(null);
+            for (List<CreditCard> creditCards : Arrays.asList(withID, withoutPlayer)) {
+                try {
+                    dao.createAll(connection, creditCards);
+                    fail("An invalid credit card was inserted");
+                }
+                catch (DAOException ex) {
+                    assertNull(creditCards.get(0).getId());
+                }
+            }
+            assertEquals(before, dao.count(connection));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieve() throws Exception
     {
@@ -173,6 +291,47 @@ public class CreditCardDAOImplTestCase
         }
     }
 
+    @Test
+    public void testRetrieveCreditCardsForPlayers() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            CreditCardDAO dao = new CreditCardDAOImpl();
+
+            // more players than fit in one IN (...) chunk; the test data has
+            // fewer, so the rest are created on this rolled-back connection
+            List<Long> playerIDs = new ArrayList<Long>(TestingUtil.getPlayerIDs(ds, 1));
+            List<Player> players = new ArrayList<Player>();
+            for (int idx = 0; idx < 750; idx++) {
+                players.add(buildPlayer());
+            }
+            for (Player player : new PlayerDAOImpl().createAll(connection, players)) {
+                playerIDs.add(player.getId());
+            }
+            // a card in the second chunk
+            dao.create(connection, buildCreditCard(), playerIDs.get(playerIDs.size() - 1));
+
+            Map<Long, List<CreditCard>> ccMap = dao.retrieveCreditCardsForPlayers(connection, playerIDs);
+            assertEquals(playerIDs.size(), ccMap.size());
+            for (Long playerID : playerIDs) {
+                List<CreditCard> ccList = ccMap.get(playerID);
+                assertEquals(dao.retrieveCreditCardsForPlayer(connection, playerID).size(), ccList.size());
+                for (CreditCard cc : ccList) {
+                    assertEquals(playerID, cc.getPlayerID());
+                }
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testUpdate() throws Exception
     {
@@ -269,6 +428,43 @@ public class CreditCardDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCountModes() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            CreditCardDAO dao = new CreditCardDAOImpl();
+
+            // the scan counts credit cards, not players
+            long count = dao.count(connection, CountMode.SCAN);
+            dao.create(connection, buildCreditCard(), TestingUtil.getPlayerID(ds));
+            assertEquals(count + 1, dao.count(connection, CountMode.SCAN));
+            assertEquals(count + 1, dao.count(connection));
+
+            // the estimate comes from the statistics and ignores the new row
+            assertTrue(dao.count(connection, CountMode.APPROXIMATE) >= 0);
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    private Player buildPlayer()
+    {
+        Player p = new Player();
+        p.setFirstName("Test First Name");
+        p.setLastName("Test Last Name");
+        p.setJoinDate(new Date());
+        p.setEmail("test@test.com");
+        return p;
+    }
+
     private CreditCard buildCreditCard()
     {
         CreditCard cc = new CreditCard();
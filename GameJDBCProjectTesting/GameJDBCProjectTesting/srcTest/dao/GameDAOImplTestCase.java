@@ -13,11 +13,15 @@ package dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.sql.Connection;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -82,6 +86,105 @@ public class GameDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            // A batch size of 2 sends the 5 games as two full batches and a partial one
+            GameDAO dao = new GameDAOImpl(2);
+            int before = dao.count(connection);
+
+            List<Game> games = new ArrayList<Game>();
+            for (int idx = 0; idx < 5; idx++) {
+                Game item = buildGame();
+                item.setTitle("Batch Title " + idx);
+                item.setVersion("1.0." + idx);
+                games.add(item);
+            }
+            List<Game> created = dao.createAll(connection, games);
+            assertEquals(5, created.size());
+            assertEquals(before + 5, dao.count(connection));
+
+            // every generated ID was copied to the game whose row it is
+            for (Game item : created) {
+                Game stored = dao.retrieve(connection, item.getId());
+                assertEquals(item.getTitle(), stored.getTitle());
+                assertEquals(item.getVersion(), stored.getVersion());
+                assertEquals(item.getDescription(), stored.getDescription());
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCreateAllEmpty() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GameDAO dao = new GameDAOImpl(2);
+            int before = dao.count(connection);
+
+            assertTrue(dao.createAll(connection, new ArrayList<Game>()).isEmpty());
+            assertEquals(before, dao.count(connection));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    /*
+     * A game that already has an ID fails the whole list before any row is
+     * inserted.
+     */
+    @Test
+    public void testCreateAllFailed() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GameDAO dao = new GameDAOImpl(2);
+            int before = dao.count(connection);
+
+            List<Game> games = new ArrayList<Game>();
+            for (int idx = 0; idx < 3; idx++) {
+                games.add(buildGame());
+            }
+            games.get(2).setId(System.currentTimeMillis());
+            try {
+                dao.createAll(connection, games);
+                fail("A game with an ID was inserted");
+            }
+            catch (DAOException ex) {
+                // the list is checked before the first batch is sent
+                assertEquals(before, dao.count(connection));
+                assertNull(games.get(0).getId());
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieve() throws Exception
     {
@@ -263,6 +366,37 @@ public class GameDAOImplTestCase
         }
     }
 
+    @Test
+    public void testRetrieveByIDs() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GameDAO dao = new GameDAOImpl();
+
+            Game game1 = dao.create(connection, buildGame());
+            Game game2 = dao.create(connection, buildGame());
+            List<Long> ids = new ArrayList<Long>();
+            ids.add(game1.getId());
+            ids.add(game2.getId());
+            ids.add(game1.getId());
+            ids.add(-1L);
+
+            Map<Long, Game> games = dao.retrieveByIDs(connection, ids);
+            assertEquals(2, games.size());
+            assertEquals(game2.getTitle(), games.get(game2.getId()).getTitle());
+            assertNull(games.get(-1L));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     private Game buildGame()
     {
         Game result = new Game();
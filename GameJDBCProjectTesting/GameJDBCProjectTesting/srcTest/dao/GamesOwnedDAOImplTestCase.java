@@ -14,8 +14,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -24,8 +26,12 @@ import javax.sql.DataSource;
 import org.junit.Test;
 
 import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.impl.GameDAOImpl;
 import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
+import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.PurchaseStatistics;
 import cs4347.jdbcGame.testing.DataSourceManager;
 import cs4347.jdbcGame.util.DAOException;
 import cs4347.jdbcGame.util.TestingUtil;
@@ -42,7 +48,7 @@ public class GamesOwnedDAOImplTestCase
         try {
             GamesOwnedDAO dao = new GamesOwnedDAOImpl();
 
-            GamesOwned go1 = buildGamesOwned(ds);
+            GamesOwned go1 = buildGamesOwned(connection, ds);
             GamesOwned go2 = dao.create(connection, go1);
             assertNotNull(go2);
             assertNotNull(go2.getId());
@@ -66,7 +72,7 @@ public class GamesOwnedDAOImplTestCase
         try {
             GamesOwnedDAO dao = new GamesOwnedDAOImpl();
 
-            GamesOwned go1 = buildGamesOwned(ds);
+            GamesOwned go1 = buildGamesOwned(connection, ds);
             go1.setId(System.currentTimeMillis());
             // This will throw a DaoException
             dao.create(connection, go1);
@@ -79,6 +85,217 @@ public class GamesOwnedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            // A batch size of 2 sends the 5 purchases as two full batches and a partial one
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl(2);
+            int before = dao.count(connection);
+
+            List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>();
+            for (int idx = 0; idx < 5; idx++) {
+                GamesOwned item = buildGamesOwned(connection, ds);
+                item.setPurchasePrice(10.0f + idx);
+                gamesOwned.add(item);
+            }
+            List<GamesOwned> created = dao.createAll(connection, gamesOwned);
+            assertEquals(5, created.size());
+            assertEquals(before + 5, dao.count(connection));
+
+            // every purchase is of a new game, so the game tells the rows apart
+            for (GamesOwned item : created) {
+                GamesOwned stored = dao.retrieveID(connection, item.getId());
+                assertEquals(item.getGameID(), stored.getGameID());
+                assertEquals(item.getPlayerID(), stored.getPlayerID());
+                assertEquals(item.getPurchasePrice(), stored.getPurchasePrice(), 0.001);
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCreateAllEmpty() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl(2);
+            int before = dao.count(connection);
+
+            assertTrue(dao.createAll(connection, new ArrayList<GamesOwned>()).isEmpty());
+            assertEquals(before, dao.count(connection));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCreateAllFailed() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl(2);
+            int before = dao.count(connection);
+
+            List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>();
+            for (int idx = 0; idx < 3; idx++) {
+                gamesOwned.add(buildGamesOwned(connection, ds));
+            }
+            gamesOwned.get(2).setId(System.currentTimeMillis());
+            try {
+                dao.createAll(connection, gamesOwned);
+                fail("A GamesOwned with an ID was inserted");
+            }
+            catch (DAOException ex) {
+                assertEquals(before, dao.count(connection));
+                assertNull(gamesOwned.get(0).getId());
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCreateMultiRow() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+
+            // a full statement of 100 rows followed by a partial one of 50
+            List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>();
+            for (int idx = 0; idx < 150; idx++) {
+                GamesOwned item = buildGamesOwned(connection, ds);
+                item.setPurchasePrice(idx);
+                gamesOwned.add(item);
+            }
+            List<GamesOwned> created = dao.createMultiRow(connection, gamesOwned);
+            assertEquals(150, created.size());
+            for (int idx = 0; idx < created.size(); idx++) {
+                assertNotNull(created.get(idx).getId());
+                if (idx > 0) {
+                    assertTrue(created.get(idx).getId() > created.get(idx - 1).getId());
+                }
+            }
+            // the keys belong to the rows they were copied to
+            GamesOwned last = dao.retrieveID(connection, created.get(149).getId());
+            assertEquals(149.0f, last.getPurchasePrice(), 0.001f);
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testUpsert() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+            int before = dao.count(connection);
+
+            GamesOwned go1 = dao.upsert(connection, buildGamesOwned(connection, ds));
+            assertNotNull(go1.getId());
+
+            // the same player and game again overwrites the row and reports its ID
+            GamesOwned go2 = new GamesOwned();
+            go2.setPlayerID(go1.getPlayerID());
+            go2.setGameID(go1.getGameID());
+            go2.setPurchaseDate(new Date());
+            go2.setPurchasePrice(20.0f);
+            dao.upsert(connection, go2);
+            assertEquals(go1.getId(), go2.getId());
+            assertEquals(before + 1, dao.count(connection));
+            assertEquals(20.0f, dao.retrieveID(connection, go1.getId()).getPurchasePrice(), 0.001f);
+
+            // a retry with the ID already set changes nothing
+            dao.upsert(connection, go2);
+            assertEquals(go1.getId(), go2.getId());
+            assertEquals(before + 1, dao.count(connection));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testUpsertAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+            int before = dao.count(connection);
+
+            // a full statement of 100 rows followed by a partial one of 20
+            List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>();
+            for (int idx = 0; idx < 120; idx++) {
+                GamesOwned item = buildGamesOwned(connection, ds);
+                item.setPurchasePrice(idx);
+                gamesOwned.add(item);
+            }
+            dao.upsertAll(connection, gamesOwned);
+            assertEquals(before + 120, dao.count(connection));
+
+            // replaying the batch with new prices updates every row in place
+            for (GamesOwned item : gamesOwned) {
+                item.setPurchasePrice(item.getPurchasePrice() + 1000);
+            }
+            dao.upsertAll(connection, gamesOwned);
+            assertEquals(before + 120, dao.count(connection));
+
+            assertEquals(120, dao.retrieveByPlayerGameIDs(connection, gamesOwned).size());
+            List<GamesOwned> stored = dao.lockByPlayerGameIDs(connection, gamesOwned);
+            assertEquals(120, stored.size());
+            for (GamesOwned item : stored) {
+                assertTrue(item.getPurchasePrice() >= 1000);
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveID() throws Exception
     {
@@ -89,7 +306,7 @@ public class GamesOwnedDAOImplTestCase
         try {
             GamesOwnedDAO dao = new GamesOwnedDAOImpl();
 
-            GamesOwned go1 = buildGamesOwned(ds);
+            GamesOwned go1 = buildGamesOwned(connection, ds);
             GamesOwned go2 = dao.create(connection, go1);
             Long id = go2.getId();
 
@@ -252,6 +469,43 @@ public class GamesOwnedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testRetrievePurchaseStatisticsByPlayer() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+            Long playerID = TestingUtil.getPlayerID(ds);
+
+            // the database must agree with the totals computed from the rows
+            List<GamesOwned> gamesOwned = dao.retrieveByPlayer(connection, playerID);
+            double spent = 0;
+            for (GamesOwned go : gamesOwned) {
+                spent += go.getPurchasePrice();
+            }
+
+            PurchaseStatistics stats = dao.retrievePurchaseStatisticsByPlayer(connection);
+            int idx = stats.indexOf(playerID);
+            if (gamesOwned.isEmpty()) {
+                assertEquals(-1, idx);
+            }
+            else {
+                assertEquals(gamesOwned.size(), stats.getPurchaseCount(idx));
+                assertEquals(spent, stats.getRevenue(idx), 0.01);
+            }
+            assertEquals(-1, stats.indexOf(-1L));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveByPlayerFail() throws Exception
     {
@@ -275,6 +529,56 @@ public class GamesOwnedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testRetrieveByPlayerPage() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+            Long playerID = TestingUtil.getPlayerID(ds);
+            List<GamesOwned> all = dao.retrieveByPlayer(connection, playerID);
+
+            // pages of one row walk through all rows in id order
+            List<GamesOwned> paged = new ArrayList<GamesOwned>();
+            String token = null;
+            do {
+                Page<GamesOwned> page = dao.retrieveByPlayerPage(connection, playerID, token, 1);
+                assertTrue(page.getItems().size() <= 1);
+                paged.addAll(page.getItems());
+                token = page.getNextToken();
+            }
+            while (token != null);
+
+            assertEquals(all.size(), paged.size());
+            for (int idx = 1; idx < paged.size(); idx++) {
+                assertTrue(paged.get(idx).getId() > paged.get(idx - 1).getId());
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test(expected = DAOException.class)
+    public void testRetrieveByPlayerPageBadToken() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+            dao.retrieveByPlayerPage(connection, TestingUtil.getPlayerID(ds), "not a token", 10);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
     @Test
     public void testUpdate() throws Exception
     {
@@ -285,9 +589,7 @@ public class GamesOwnedDAOImplTestCase
         try {
             GamesOwnedDAO dao = new GamesOwnedDAOImpl();
 
-            GamesOwned go1 = buildGamesOwned(ds);
-            go1.setPlayerID(TestingUtil.getPlayerID(ds));
-            go1.setGameID(TestingUtil.getGameID(ds));
+            GamesOwned go1 = buildGamesOwned(connection, ds);
 
             GamesOwned go2 = dao.create(connection, go1);
             Long id = go2.getId();
@@ -323,9 +625,7 @@ public class GamesOwnedDAOImplTestCase
         connection.setAutoCommit(false);
         try {
             GamesOwnedDAO dao = new GamesOwnedDAOImpl();
-            GamesOwned go1 = buildGamesOwned(ds);
-            go1.setPlayerID(TestingUtil.getPlayerID(ds));
-            go1.setGameID(TestingUtil.getGameID(ds));
+            GamesOwned go1 = buildGamesOwned(connection, ds);
 
             GamesOwned go2 = dao.create(connection, go1);
             Long id = go2.getId();
@@ -361,11 +661,13 @@ public class GamesOwnedDAOImplTestCase
         }
     }
 
-    // Initializes a new GameOwned include valid player and game ids.
-    private GamesOwned buildGamesOwned(DataSource ds) throws Exception
+    // Initializes a new GameOwned include valid player and game ids. A player
+    // owns a game at most once, so the game is a new one, created on the
+    // connection and rolled back with the test.
+    private GamesOwned buildGamesOwned(Connection connection, DataSource ds) throws Exception
     {
         Long playerID = TestingUtil.getPlayerID(ds);
-        Long gameID = TestingUtil.getGameID(ds);
+        Long gameID = new GameDAOImpl().create(connection, buildGame()).getId();
 
         GamesOwned go = new GamesOwned();
         go.setGameID(gameID);
@@ -375,4 +677,14 @@ public class GamesOwnedDAOImplTestCase
         return go;
     }
 
+    private Game buildGame()
+    {
+        Game result = new Game();
+        result.setTitle("Test Title");
+        result.setDescription("Test Description");
+        result.setReleaseDate(new Date());
+        result.setVersion("1.2.3");
+        return result;
+    }
+
 }
@@ -13,9 +13,14 @@ package dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -26,6 +31,7 @@ import org.junit.Test;
 import cs4347.jdbcGame.dao.GamesPlayedDAO;
 import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.ScoreStatistics;
 import cs4347.jdbcGame.testing.DataSourceManager;
 import cs4347.jdbcGame.util.DAOException;
 import cs4347.jdbcGame.util.TestingUtil;
@@ -80,6 +86,128 @@ public class GamesPlayedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            // A batch size of 2 sends the 5 plays as two full batches and a partial one
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl(2);
+            int before = dao.count(connection);
+
+            List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>();
+            for (int idx = 0; idx < 5; idx++) {
+                GamesPlayed item = buildGamesPlayed(ds);
+                item.setScore(1000 + idx);
+                gamesPlayed.add(item);
+            }
+            List<GamesPlayed> created = dao.createAll(connection, gamesPlayed);
+            assertEquals(5, created.size());
+            assertEquals(before + 5, dao.count(connection));
+
+            // the scores differ, so a key copied to the wrong play shows up here
+            for (GamesPlayed item : created) {
+                GamesPlayed stored = dao.retrieveID(connection, item.getId());
+                assertEquals(item.getScore(), stored.getScore());
+                assertEquals(item.getGameID(), stored.getGameID());
+                assertEquals(item.getPlayerID(), stored.getPlayerID());
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCreateAllEmpty() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl(2);
+            int before = dao.count(connection);
+
+            assertTrue(dao.createAll(connection, new ArrayList<GamesPlayed>()).isEmpty());
+            assertEquals(before, dao.count(connection));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCreateAllFailed() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl(2);
+            int before = dao.count(connection);
+
+            List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>();
+            for (int idx = 0; idx < 3; idx++) {
+                gamesPlayed.add(buildGamesPlayed(ds));
+            }
+            gamesPlayed.get(2).setId(System.currentTimeMillis());
+            try {
+                dao.createAll(connection, gamesPlayed);
+                fail("A GamesPlayed with an ID was inserted");
+            }
+            catch (DAOException ex) {
+                assertEquals(before, dao.count(connection));
+                assertNull(gamesPlayed.get(0).getId());
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    /*
+     * The database error of a row in a later batch is passed on to the caller.
+     */
+    @Test(expected = SQLException.class)
+    public void testCreateAllUnknownGame() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl(2);
+
+            List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>();
+            for (int idx = 0; idx < 3; idx++) {
+                gamesPlayed.add(buildGamesPlayed(ds));
+            }
+            // no such game, the foreign key rejects the last batch
+            gamesPlayed.get(2).setGameID(-1L);
+            dao.createAll(connection, gamesPlayed);
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveID() throws Exception
     {
@@ -208,6 +336,36 @@ public class GamesPlayedDAOImplTestCase
 
     }
 
+    @Test
+    public void testStreamByPlayer() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+            Long playerID = TestingUtil.getPlayerID(ds);
+
+            List<GamesPlayed> streamed = new ArrayList<GamesPlayed>();
+            int rows = dao.streamByPlayer(connection, playerID, streamed::add);
+            assertEquals(streamed.size(), rows);
+            assertTrue(rows > 0);
+            for (GamesPlayed gp : streamed) {
+                assertEquals(playerID, gp.getPlayerID());
+            }
+
+            // the connection is usable again once the stream is done
+            assertEquals(rows, dao.retrieveByPlayer(connection, playerID).size());
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveByPlayerFailed() throws Exception
     {
@@ -257,6 +415,84 @@ public class GamesPlayedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testScanByGame() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+            Long playerID = TestingUtil.getPlayerID(ds);
+            Long gameID = TestingUtil.retrieveGamesPlayedForPlayer(ds, playerID).get(0);
+            List<GamesPlayed> retrieved = dao.retrieveByGame(connection, gameID);
+
+            // the handler sees every row, always in the same GamesPlayed
+            List<Long> ids = new ArrayList<Long>();
+            List<GamesPlayed> instances = new ArrayList<GamesPlayed>();
+            int rows = dao.scanByGame(connection, gameID, gp -> {
+                assertEquals(gameID, gp.getGameID());
+                ids.add(gp.getId());
+                if (instances.isEmpty()) {
+                    instances.add(gp);
+                }
+                assertSame(instances.get(0), gp);
+            });
+            assertEquals(retrieved.size(), rows);
+            List<Long> expected = new ArrayList<Long>();
+            for (GamesPlayed gp : retrieved) {
+                expected.add(gp.getId());
+            }
+            Collections.sort(expected);
+            Collections.sort(ids);
+            assertEquals(expected, ids);
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testRetrieveScoreStatisticsByGame() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+            Long playerID = TestingUtil.getPlayerID(ds);
+            Long gameID = TestingUtil.retrieveGamesPlayedForPlayer(ds, playerID).get(0);
+
+            // the database must agree with the statistics computed from the rows
+            List<GamesPlayed> gamesPlayed = dao.retrieveByGame(connection, gameID);
+            long sum = 0;
+            int max = Integer.MIN_VALUE;
+            for (GamesPlayed gp : gamesPlayed) {
+                sum += gp.getScore();
+                max = Math.max(max, gp.getScore());
+            }
+
+            ScoreStatistics stats = dao.retrieveScoreStatisticsByGame(connection);
+            int idx = stats.indexOf(gameID);
+            assertTrue(idx >= 0);
+            assertEquals(gamesPlayed.size(), stats.getPlayCount(idx));
+            assertEquals((double) sum / gamesPlayed.size(), stats.getAverageScore(idx), 0.001);
+            assertEquals(max, stats.getMaxScore(idx));
+            assertEquals(dao.count(connection), stats.getTotalPlayCount());
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveByGameFailed() throws Exception
     {
@@ -14,9 +14,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.sql.Connection;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -79,6 +81,99 @@ public class PlayerDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            // A batch size of 2 sends the 5 players as two full batches and a partial one
+            PlayerDAO dao = new PlayerDAOImpl(2);
+            int before = dao.count(connection);
+
+            List<Player> players = new ArrayList<Player>();
+            for (int idx = 0; idx < 5; idx++) {
+                Player item = buildPlayer();
+                item.setEmail("batch" + idx + "@test.com");
+                players.add(item);
+            }
+            List<Player> created = dao.createAll(connection, players);
+            assertEquals(5, created.size());
+            assertEquals(before + 5, dao.count(connection));
+
+            for (Player item : created) {
+                Player stored = dao.retrieve(connection, item.getId());
+                assertEquals(item.getEmail(), stored.getEmail());
+                assertEquals(item.getFirstName(), stored.getFirstName());
+                assertEquals(item.getLastName(), stored.getLastName());
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCreateAllEmpty() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            PlayerDAO dao = new PlayerDAOImpl(2);
+            int before = dao.count(connection);
+
+            assertTrue(dao.createAll(connection, new ArrayList<Player>()).isEmpty());
+            assertEquals(before, dao.count(connection));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCreateAllFailed() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            PlayerDAO dao = new PlayerDAOImpl(2);
+            int before = dao.count(connection);
+
+            // the player with an ID comes after a full batch
+            List<Player> players = new ArrayList<Player>();
+            for (int idx = 0; idx < 3; idx++) {
+                players.add(buildPlayer());
+            }
+            players.get(2).setId(System.currentTimeMillis());
+            try {
+                dao.createAll(connection, players);
+                fail("A player with an ID was inserted");
+            }
+            catch (DAOException ex) {
+                assertEquals(before, dao.count(connection));
+                assertNull(players.get(0).getId());
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieve() throws Exception
     {
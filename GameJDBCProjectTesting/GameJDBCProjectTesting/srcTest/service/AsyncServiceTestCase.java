@@ -0,0 +1,113 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.AsyncGameService;
+import cs4347.jdbcGame.services.AsyncGamesOwnedService;
+import cs4347.jdbcGame.services.AsyncGamesPlayedService;
+import cs4347.jdbcGame.services.AsyncPlayerService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.impl.AsyncGameServiceImpl;
+import cs4347.jdbcGame.services.impl.AsyncGamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.AsyncGamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.AsyncPlayerServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+import cs4347.jdbcGame.services.impl.ServiceExecutor;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.TestingUtil;
+
+public class AsyncServiceTestCase
+{
+    @Test
+    public void testFanOut() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Long playerID = TestingUtil.getPlayerID(ds);
+        try (ServiceExecutor executor = new ServiceExecutor(4)) {
+            AsyncPlayerService players = new AsyncPlayerServiceImpl(ds, executor);
+            AsyncGamesOwnedService owned = new AsyncGamesOwnedServiceImpl(ds, executor);
+            AsyncGamesPlayedService played = new AsyncGamesPlayedServiceImpl(ds, executor);
+
+            CompletableFuture<Player> player = players.retrieve(playerID);
+            CompletableFuture<List<GamesOwned>> gamesOwned = owned.retrieveByPlayer(playerID);
+            CompletableFuture<List<GamesPlayed>> gamesPlayed = played.retrieveByPlayer(playerID);
+            CompletableFuture.allOf(player, gamesOwned, gamesPlayed).get();
+
+            PlayerService playerService = new PlayerServiceImpl(ds);
+            GamesOwnedService gamesOwnedService = new GamesOwnedServiceImpl(ds);
+            assertNotNull(player.get());
+            assertEquals(playerService.retrieve(playerID).getEmail(), player.get().getEmail());
+            assertEquals(gamesOwnedService.retrieveByPlayer(playerID).size(), gamesOwned.get().size());
+        }
+    }
+
+    @Test
+    public void testFailureCompletesExceptionally() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        try (ServiceExecutor executor = new ServiceExecutor(2)) {
+            AsyncGameService games = new AsyncGameServiceImpl(ds, executor);
+            try {
+                games.searchByTitle(null, 10).get();
+                fail("The search should have failed");
+            }
+            catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof DAOException);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception
+    {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger highest = new AtomicInteger();
+        try (ServiceExecutor executor = new ServiceExecutor(3)) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+            for (int idx = 0; idx < 20; idx++) {
+                futures.add(executor.submit(() -> {
+                    highest.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(10);
+                    }
+                    catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return running.decrementAndGet();
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+            assertTrue(highest.get() <= 3);
+            assertEquals(0, executor.getActiveCount());
+        }
+    }
+}
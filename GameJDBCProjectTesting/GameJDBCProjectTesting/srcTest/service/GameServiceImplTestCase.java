@@ -148,6 +148,78 @@ public class GameServiceImplTestCase
         assertNull(g3);
     }
 
+    @Test
+    public void testSearchByTitle() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(dataSource);
+        // builds the index before the game exists, so create must add it
+        gameService.searchByTitle("x", 1);
+
+        String marker = "Qz" + System.currentTimeMillis();
+        Game g1 = buildGame();
+        g1.setTitle("The " + marker + " Saga");
+        Game g2 = gameService.create(g1);
+
+        List<Game> games = gameService.searchByTitle(marker.toLowerCase() + " sag", 10);
+        assertEquals(1, games.size());
+        assertEquals(g2.getId(), games.get(0).getId());
+        assertEquals(1, gameService.searchByTitlePrefix("the " + marker, 10).size());
+        assertEquals(0, gameService.searchByTitlePrefix(marker, 10).size());
+        assertEquals(0, gameService.searchByDescription(marker, 10).size());
+
+        g2.setTitle(marker + " Reloaded");
+        gameService.update(g2);
+        assertEquals(0, gameService.searchByTitle(marker + " Saga", 10).size());
+        assertEquals(1, gameService.searchByTitlePrefix(marker, 10).size());
+
+        gameService.delete(g2.getId());
+        assertEquals(0, gameService.searchByTitle(marker, 10).size());
+    }
+
+    @Test
+    public void testRetrieveCached() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        // a cache of its own, so the hits of other tests do not count
+        GameServiceImpl gameService = new GameServiceImpl(dataSource, 100, 60000);
+
+        Game g2 = gameService.create(buildGame());
+        gameService.retrieve(g2.getId());
+        Game g3 = gameService.retrieve(g2.getId());
+        assertEquals(1, gameService.getCache().getHits());
+        assertEquals(g2.getTitle(), g3.getTitle());
+
+        // changes to a returned game must not leak into the cache
+        g3.setTitle("Changed by caller");
+        assertEquals(g2.getTitle(), gameService.retrieve(g2.getId()).getTitle());
+
+        g2.setTitle("New Title 456");
+        gameService.update(g2);
+        assertEquals("New Title 456", gameService.retrieve(g2.getId()).getTitle());
+
+        gameService.delete(g2.getId());
+        assertNull(gameService.retrieve(g2.getId()));
+    }
+
+    @Test
+    public void testSharedCache() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GameService reader = new GameServiceImpl(dataSource);
+        GameService writer = new GameServiceImpl(dataSource);
+
+        // an update through another service is seen at once
+        Game g2 = writer.create(buildGame());
+        reader.retrieve(g2.getId());
+        g2.setTitle("New Title 789");
+        writer.update(g2);
+        assertEquals("New Title 789", reader.retrieve(g2.getId()).getTitle());
+
+        writer.delete(g2.getId());
+        assertNull(reader.retrieve(g2.getId()));
+    }
+
     @Test
     public void testCount() throws Exception
     {
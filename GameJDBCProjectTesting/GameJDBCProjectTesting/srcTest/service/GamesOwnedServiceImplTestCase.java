@@ -15,6 +15,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -22,9 +24,15 @@ import javax.sql.DataSource;
 
 import org.junit.Test;
 
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GameSummary;
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.PlayerSummary;
 import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.SummaryService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
 import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.SummaryServiceImpl;
 import cs4347.jdbcGame.testing.DataSourceManager;
 import cs4347.jdbcGame.util.TestingUtil;
 
@@ -124,8 +132,6 @@ public class GamesOwnedServiceImplTestCase
         GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
 
         GamesOwned go1 = buildGamesOwned(ds);
-        go1.setPlayerID(TestingUtil.getPlayerID(ds));
-        go1.setGameID(TestingUtil.getGameID(ds));
         GamesOwned go2 = goService.create(go1);
         Long go2id = go2.getId();
 
@@ -151,8 +157,6 @@ public class GamesOwnedServiceImplTestCase
         GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
 
         GamesOwned go1 = buildGamesOwned(ds);
-        go1.setPlayerID(TestingUtil.getPlayerID(ds));
-        go1.setGameID(TestingUtil.getGameID(ds));
         GamesOwned go2 = goService.create(go1);
         Long go2id = go2.getId();
         
@@ -173,11 +177,115 @@ public class GamesOwnedServiceImplTestCase
         assertTrue(count > 0);
     }
 
-    // Initializes a new GameOwned include valid player and game ids.
+    @Test
+    public void testPurchaseAll() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GamesOwnedService goService = new GamesOwnedServiceImpl(dataSource);
+        int before = goService.count();
+
+        List<GamesOwned> basket = new ArrayList<GamesOwned>();
+        for (int idx = 0; idx < 3; idx++) {
+            basket.add(buildGamesOwned(dataSource));
+        }
+        List<GamesOwned> bought = goService.purchaseAll(basket);
+        assertEquals(3, bought.size());
+        assertEquals(before + 3, goService.count());
+        for (GamesOwned go : bought) {
+            assertEquals(go.getGameID(), goService.retrieveByID(go.getId()).getGameID());
+        }
+    }
+
+    @Test
+    public void testUpsert() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GamesOwnedService goService = new GamesOwnedServiceImpl(dataSource);
+        SummaryService summaryService = new SummaryServiceImpl(dataSource);
+
+        GamesOwned go1 = goService.upsert(buildGamesOwned(dataSource));
+        assertNotNull(go1.getId());
+        int count = goService.count();
+
+        // a second purchase of the game replaces the first one
+        go1.setPurchasePrice(30.0f);
+        GamesOwned go2 = goService.upsert(go1);
+        assertEquals(go1.getId(), go2.getId());
+        assertEquals(count, goService.count());
+        GameSummary game = summaryService.retrieveGameSummary(go1.getGameID());
+        assertEquals(1, game.getOwners());
+        assertEquals(30.0, game.getRevenue(), 0.001);
+    }
+
+    @Test
+    public void testUpsertAllReplay() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GamesOwnedService goService = new GamesOwnedServiceImpl(dataSource);
+        SummaryService summaryService = new SummaryServiceImpl(dataSource);
+        int before = goService.count();
+
+        List<GamesOwned> events = new ArrayList<GamesOwned>();
+        for (int idx = 0; idx < 3; idx++) {
+            events.add(buildGamesOwned(dataSource));
+        }
+        Long playerID = events.get(0).getPlayerID();
+        PlayerSummary player1 = summaryService.retrievePlayerSummary(playerID);
+        List<GamesOwned> stored = goService.upsertAll(events);
+        assertEquals(before + 3, goService.count());
+        for (GamesOwned go : stored) {
+            assertEquals(go.getGameID(), goService.retrieveByID(go.getId()).getGameID());
+        }
+
+        // replaying the events changes neither the rows nor the summaries
+        List<Long> ids = new ArrayList<Long>();
+        for (GamesOwned go : stored) {
+            ids.add(go.getId());
+        }
+        goService.upsertAll(events);
+        assertEquals(before + 3, goService.count());
+        for (int idx = 0; idx < events.size(); idx++) {
+            assertEquals(ids.get(idx), events.get(idx).getId());
+        }
+        PlayerSummary player2 = summaryService.retrievePlayerSummary(playerID);
+        assertEquals(player1.getGamesOwned() + 3, player2.getGamesOwned());
+        assertEquals(player1.getTotalSpend() + 3.0, player2.getTotalSpend(), 0.001);
+    }
+
+    // Initializes a new GameOwned include valid player and game ids. A player
+    // owns a game at most once, so every GameOwned gets a new game.
+    @Test
+    public void testUpsertAllMixed() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GamesOwnedService goService = new GamesOwnedServiceImpl(dataSource);
+        SummaryService summaryService = new SummaryServiceImpl(dataSource);
+
+        GamesOwned stored = goService.create(buildGamesOwned(dataSource));
+        int before = goService.count();
+
+        // one stored pair is overwritten and one new pair is inserted
+        GamesOwned replaced = new GamesOwned();
+        replaced.setPlayerID(stored.getPlayerID());
+        replaced.setGameID(stored.getGameID());
+        replaced.setPurchaseDate(new Date());
+        replaced.setPurchasePrice(5.0f);
+        GamesOwned added = buildGamesOwned(dataSource);
+        goService.upsertAll(Arrays.asList(replaced, added));
+
+        assertEquals(before + 1, goService.count());
+        assertEquals(stored.getId(), replaced.getId());
+        assertEquals(added.getGameID(), goService.retrieveByID(added.getId()).getGameID());
+        GameSummary game = summaryService.retrieveGameSummary(stored.getGameID());
+        assertEquals(1, game.getOwners());
+        assertEquals(5.0, game.getRevenue(), 0.001);
+        assertEquals(1, summaryService.retrieveGameSummary(added.getGameID()).getOwners());
+    }
+
     private GamesOwned buildGamesOwned(DataSource ds) throws Exception
     {
         Long playerID = TestingUtil.getPlayerID(ds);
-        Long gameID = TestingUtil.getGameID(ds);
+        Long gameID = new GameServiceImpl(ds).create(buildGame()).getId();
 
         GamesOwned go = new GamesOwned();
         go.setGameID(gameID);
@@ -187,4 +295,14 @@ public class GamesOwnedServiceImplTestCase
         return go;
     }
 
+    private Game buildGame()
+    {
+        Game result = new Game();
+        result.setTitle("Test Title");
+        result.setDescription("Test Description");
+        result.setReleaseDate(new Date());
+        result.setVersion("1.2.3");
+        return result;
+    }
+
 }
@@ -0,0 +1,136 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedWriteBehind;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.TestingUtil;
+
+public class GamesPlayedWriteBehindTestCase
+{
+    @Test
+    public void testBatchesAndConfirms() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = TestingUtil.getGameID(ds);
+        int before = gpService.count();
+
+        List<CompletableFuture<GamesPlayed>> futures = new ArrayList<CompletableFuture<GamesPlayed>>();
+        try (GamesPlayedWriteBehind writeBehind = new GamesPlayedWriteBehind(gpService, 100, 20, 50)) {
+            for (int idx = 0; idx < 50; idx++) {
+                futures.add(writeBehind.submit(buildGamesPlayed(playerID, gameID)));
+            }
+            writeBehind.flush().get();
+            for (CompletableFuture<GamesPlayed> future : futures) {
+                assertTrue(future.isDone());
+                assertNotNull(future.get().getId());
+            }
+            assertEquals(before + 50, gpService.count());
+            // 20 + 20 + 10 rows
+            assertTrue(writeBehind.getBatchCount() <= 3);
+        }
+    }
+
+    @Test
+    public void testFlushWithConcurrentProducers() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = TestingUtil.getGameID(ds);
+
+        int producers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try (GamesPlayedWriteBehind writeBehind = new GamesPlayedWriteBehind(gpService, 40, 10, 1000)) {
+            // each producer's flush covers its own rows, whatever the others queued
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int thread = 0; thread < producers; thread++) {
+                results.add(executor.submit(() -> {
+                    List<CompletableFuture<GamesPlayed>> futures = new ArrayList<CompletableFuture<GamesPlayed>>();
+                    for (int idx = 0; idx < 25; idx++) {
+                        futures.add(writeBehind.submit(buildGamesPlayed(playerID, gameID)));
+                    }
+                    writeBehind.flush().get();
+                    for (CompletableFuture<GamesPlayed> future : futures) {
+                        if (!future.isDone()) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBadRowFailsAlone() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = TestingUtil.getGameID(ds);
+
+        try (GamesPlayedWriteBehind writeBehind = new GamesPlayedWriteBehind(gpService, 10, 10, 1000)) {
+            CompletableFuture<GamesPlayed> good = writeBehind.submit(buildGamesPlayed(playerID, gameID));
+            // no such game, the foreign key rejects the row
+            CompletableFuture<GamesPlayed> bad = writeBehind.submit(buildGamesPlayed(playerID, -1L));
+            writeBehind.flush().get();
+
+            assertNotNull(gpService.retrieveByID(good.get().getId()));
+            try {
+                bad.get();
+                fail("The row of an unknown game was stored");
+            }
+            catch (ExecutionException ex) {
+                assertEquals(1, writeBehind.getFailedRowCount());
+            }
+        }
+    }
+
+    private GamesPlayed buildGamesPlayed(Long playerID, Long gameID)
+    {
+        GamesPlayed gp = new GamesPlayed();
+        gp.setPlayerID(playerID);
+        gp.setGameID(gameID);
+        gp.setTimeFinished(new Date());
+        gp.setScore(42);
+        return gp;
+    }
+}
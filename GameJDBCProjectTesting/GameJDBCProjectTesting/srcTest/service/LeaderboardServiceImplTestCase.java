@@ -0,0 +1,116 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.LeaderboardEntry;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.LeaderboardService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.LeaderboardServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.TestingUtil;
+
+public class LeaderboardServiceImplTestCase
+{
+
+    @Test
+    public void testRetrieveTop() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        LeaderboardService leaderboardService = new LeaderboardServiceImpl(ds);
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+
+        Long gameID = createGame(ds);
+        List<Long> playerIDs = TestingUtil.getPlayerIDs(ds, 3);
+        gpService.create(buildGamesPlayed(playerIDs.get(0), gameID, 300));
+        gpService.create(buildGamesPlayed(playerIDs.get(1), gameID, 500));
+        gpService.create(buildGamesPlayed(playerIDs.get(2), gameID, 300));
+        // lower than the player's best, does not change the board
+        gpService.create(buildGamesPlayed(playerIDs.get(1), gameID, 200));
+
+        List<LeaderboardEntry> top = leaderboardService.retrieveTop(gameID, 10);
+        assertEquals(3, top.size());
+        assertEquals(playerIDs.get(1), top.get(0).getPlayerID());
+        assertEquals(500, top.get(0).getScore());
+        assertEquals(1, top.get(0).getRank());
+        assertEquals(2, top.get(1).getRank());
+        assertEquals(2, top.get(2).getRank());
+        assertEquals(3, leaderboardService.countPlayers(gameID));
+        assertEquals(2, leaderboardService.retrieveTop(gameID, 2).size());
+    }
+
+    @Test
+    public void testRetrieveRankAfterUpdateAndDelete() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        LeaderboardService leaderboardService = new LeaderboardServiceImpl(ds);
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+
+        Long gameID = createGame(ds);
+        List<Long> playerIDs = TestingUtil.getPlayerIDs(ds, 2);
+        GamesPlayed gp1 = gpService.create(buildGamesPlayed(playerIDs.get(0), gameID, 900));
+        gpService.create(buildGamesPlayed(playerIDs.get(1), gameID, 400));
+        assertEquals(2, leaderboardService.retrieveRank(gameID, playerIDs.get(1)).getRank());
+
+        // an update may lower the best score
+        gp1.setScore(100);
+        gpService.update(gp1);
+        LeaderboardEntry entry = leaderboardService.retrieveRank(gameID, playerIDs.get(0));
+        assertEquals(100, entry.getScore());
+        assertEquals(2, entry.getRank());
+        assertEquals(1, leaderboardService.retrieveRank(gameID, playerIDs.get(1)).getRank());
+
+        gpService.delete(gp1.getId());
+        assertNull(leaderboardService.retrieveRank(gameID, playerIDs.get(0)));
+        assertEquals(1, leaderboardService.countPlayers(gameID));
+
+        // the board read from the database agrees with the incremental one
+        leaderboardService.reload();
+        assertNull(leaderboardService.retrieveRank(gameID, playerIDs.get(0)));
+        assertEquals(400, leaderboardService.retrieveRank(gameID, playerIDs.get(1)).getScore());
+    }
+
+    // a new game starts with an empty leaderboard
+    private Long createGame(DataSource ds) throws Exception
+    {
+        GameService gameService = new GameServiceImpl(ds);
+        Game game = new Game();
+        game.setTitle("Leaderboard Title");
+        game.setDescription("Leaderboard Description");
+        game.setReleaseDate(new Date());
+        game.setVersion("1.0.0");
+        return gameService.create(game).getId();
+    }
+
+    private GamesPlayed buildGamesPlayed(Long playerID, Long gameID, int score)
+    {
+        GamesPlayed gp = new GamesPlayed();
+        gp.setGameID(gameID);
+        gp.setPlayerID(playerID);
+        gp.setTimeFinished(new Date());
+        gp.setScore(score);
+        return gp;
+    }
+}
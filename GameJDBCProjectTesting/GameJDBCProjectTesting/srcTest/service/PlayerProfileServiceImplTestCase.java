@@ -0,0 +1,81 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.PlayerProfile;
+import cs4347.jdbcGame.services.PlayerProfileService;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerProfileServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+import cs4347.jdbcGame.services.impl.ServiceExecutor;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.TestingUtil;
+
+public class PlayerProfileServiceImplTestCase
+{
+    @Test
+    public void testRetrieve() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = TestingUtil.getGameID(ds);
+
+        // the same game owned and played twice is read once
+        GamesPlayed gp = new GamesPlayed();
+        gp.setPlayerID(playerID);
+        gp.setGameID(gameID);
+        gp.setTimeFinished(new Date());
+        gp.setScore(10);
+        new GamesPlayedServiceImpl(ds).create(gp);
+        gp.setId(null);
+        new GamesPlayedServiceImpl(ds).create(gp);
+
+        try (ServiceExecutor executor = new ServiceExecutor(4)) {
+            PlayerProfileService profileService = new PlayerProfileServiceImpl(ds, executor);
+            PlayerProfile profile = profileService.retrieve(playerID);
+            assertNotNull(profile);
+            assertEquals(playerID, profile.getPlayer().getId());
+            assertEquals(new PlayerServiceImpl(ds).countCreditCardsForPlayer(playerID),
+                    profile.getPlayer().getCreditCards().size());
+            assertEquals(new GamesOwnedServiceImpl(ds).retrieveByPlayer(playerID).size(),
+                    profile.getGamesOwned().size());
+            for (GamesOwned go : profile.getGamesOwned()) {
+                assertNotNull(profile.getGame(go.getGameID()));
+            }
+            for (GamesPlayed played : profile.getGamesPlayed()) {
+                assertNotNull(profile.getGame(played.getGameID()));
+            }
+            assertEquals(gameID, profile.getGame(gameID).getId());
+        }
+    }
+
+    @Test
+    public void testRetrieveMissingPlayer() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        try (ServiceExecutor executor = new ServiceExecutor(4)) {
+            assertNull(new PlayerProfileServiceImpl(ds, executor).retrieve(-1L));
+        }
+    }
+}
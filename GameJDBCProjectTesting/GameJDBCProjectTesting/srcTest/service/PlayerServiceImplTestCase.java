@@ -16,6 +16,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -24,9 +25,20 @@ import javax.sql.DataSource;
 import org.junit.Test;
 
 import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GameSummary;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
 import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.GamesPlayedService;
 import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.SummaryService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
 import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+import cs4347.jdbcGame.services.impl.SummaryServiceImpl;
 import cs4347.jdbcGame.testing.DataSourceManager;
 
 public class PlayerServiceImplTestCase
@@ -148,6 +160,47 @@ public class PlayerServiceImplTestCase
         assertEquals(0, ccCount);
     }
 
+    @Test
+    public void testPurge() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        // a chunk size of 2 spreads the three players over two transactions
+        PlayerService playerService = new PlayerServiceImpl(dataSource, 2);
+        GamesOwnedService goService = new GamesOwnedServiceImpl(dataSource);
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(dataSource);
+        SummaryService summaryService = new SummaryServiceImpl(dataSource);
+
+        Game game = new GameServiceImpl(dataSource).create(buildGame());
+        int before = playerService.count();
+        List<Long> playerIDs = new ArrayList<Long>();
+        for (int idx = 0; idx < 3; idx++) {
+            Long playerID = playerService.create(buildPlayerWithCC()).getId();
+            playerIDs.add(playerID);
+            goService.create(buildGamesOwned(playerID, game.getId()));
+            gpService.create(buildGamesPlayed(playerID, game.getId()));
+        }
+        GameSummary summary1 = summaryService.retrieveGameSummary(game.getId());
+        assertEquals(3, summary1.getOwners());
+        assertEquals(3, summary1.getPlays());
+
+        // unknown IDs are skipped
+        playerIDs.add(-1L);
+        int count = playerService.purge(playerIDs);
+        assertEquals(3, count);
+        assertEquals(before, playerService.count());
+        for (Long playerID : playerIDs) {
+            assertNull(playerService.retrieve(playerID));
+            assertEquals(0, playerService.countCreditCardsForPlayer(playerID));
+            assertEquals(0, goService.retrieveByPlayer(playerID).size());
+            assertEquals(0, gpService.retrieveByPlayer(playerID).size());
+        }
+        GameSummary summary2 = summaryService.retrieveGameSummary(game.getId());
+        assertEquals(0, summary2.getOwners());
+        assertEquals(0.0, summary2.getRevenue(), 0.001);
+        assertEquals(0, summary2.getPlays());
+        assertEquals(0, summary2.getScoreTotal());
+    }
+
     @Test
     public void testCount() throws Exception
     {
@@ -185,6 +238,36 @@ public class PlayerServiceImplTestCase
         return p;
     }
 
+    private Game buildGame()
+    {
+        Game result = new Game();
+        result.setTitle("Test Title");
+        result.setDescription("Test Description");
+        result.setReleaseDate(new Date());
+        result.setVersion("1.2.3");
+        return result;
+    }
+
+    private GamesOwned buildGamesOwned(Long playerID, Long gameID)
+    {
+        GamesOwned go = new GamesOwned();
+        go.setPlayerID(playerID);
+        go.setGameID(gameID);
+        go.setPurchaseDate(new Date());
+        go.setPurchasePrice(10.0f);
+        return go;
+    }
+
+    private GamesPlayed buildGamesPlayed(Long playerID, Long gameID)
+    {
+        GamesPlayed gp = new GamesPlayed();
+        gp.setPlayerID(playerID);
+        gp.setGameID(gameID);
+        gp.setTimeFinished(new Date());
+        gp.setScore(50);
+        return gp;
+    }
+
     private CreditCard buildCreditCard()
     {
         CreditCard cc = new CreditCard();
@@ -0,0 +1,231 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.CountMode;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GameSummary;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.PlayerSummary;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.SummaryService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.SummaryServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.TestingUtil;
+
+public class SummaryServiceImplTestCase
+{
+
+    @Test
+    public void testIncrementalUpdates() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        SummaryService summaryService = new SummaryServiceImpl(ds);
+        GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+
+        // a player owns a game at most once, so the purchase is of a new game
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = new GameServiceImpl(ds).create(buildGame()).getId();
+        GameSummary game1 = summaryService.retrieveGameSummary(gameID);
+        PlayerSummary player1 = summaryService.retrievePlayerSummary(playerID);
+
+        GamesOwned go = goService.create(buildGamesOwned(playerID, gameID, 10.0f));
+        GamesPlayed gp = gpService.create(buildGamesPlayed(playerID, gameID, 50));
+        GameSummary game2 = summaryService.retrieveGameSummary(gameID);
+        assertEquals(game1.getOwners() + 1, game2.getOwners());
+        assertEquals(game1.getRevenue() + 10.0, game2.getRevenue(), 0.001);
+        assertEquals(game1.getPlays() + 1, game2.getPlays());
+        assertEquals(game1.getScoreTotal() + 50, game2.getScoreTotal());
+        PlayerSummary player2 = summaryService.retrievePlayerSummary(playerID);
+        assertEquals(player1.getGamesOwned() + 1, player2.getGamesOwned());
+        assertEquals(player1.getTotalSpend() + 10.0, player2.getTotalSpend(), 0.001);
+
+        // an update moves the difference only
+        go.setPurchasePrice(25.0f);
+        goService.update(go);
+        gp.setScore(80);
+        gpService.update(gp);
+        GameSummary game3 = summaryService.retrieveGameSummary(gameID);
+        assertEquals(game1.getOwners() + 1, game3.getOwners());
+        assertEquals(game1.getRevenue() + 25.0, game3.getRevenue(), 0.001);
+        assertEquals(game1.getScoreTotal() + 80, game3.getScoreTotal());
+
+        goService.delete(go.getId());
+        gpService.delete(gp.getId());
+        GameSummary game4 = summaryService.retrieveGameSummary(gameID);
+        assertEquals(game1.getOwners(), game4.getOwners());
+        assertEquals(game1.getRevenue(), game4.getRevenue(), 0.001);
+        assertEquals(game1.getPlays(), game4.getPlays());
+        assertEquals(game1.getScoreTotal(), game4.getScoreTotal());
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        SummaryService summaryService = new SummaryServiceImpl(ds);
+        GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = new GameServiceImpl(ds).create(buildGame()).getId();
+        GamesOwned go = goService.create(buildGamesOwned(playerID, gameID, 10.0f));
+        GamesPlayed gp = gpService.create(buildGamesPlayed(playerID, gameID, 50));
+
+        // every update takes out the value the previous one stored, so the
+        // summaries end up with the row that won
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> updates = new ArrayList<Future<Integer>>();
+            for (int idx = 0; idx < threads; idx++) {
+                GamesOwned owned = buildGamesOwned(playerID, gameID, 20.0f + idx);
+                owned.setId(go.getId());
+                GamesPlayed played = buildGamesPlayed(playerID, gameID, 100 + idx);
+                played.setId(gp.getId());
+                updates.add(executor.submit(() -> goService.update(owned) + gpService.update(played)));
+            }
+            for (Future<Integer> update : updates) {
+                assertEquals(2, update.get().intValue());
+            }
+            GameSummary game1 = summaryService.retrieveGameSummary(gameID);
+            assertEquals(1, game1.getOwners());
+            assertEquals(goService.retrieveByID(go.getId()).getPurchasePrice(), game1.getRevenue(), 0.001);
+            assertEquals(1, game1.getPlays());
+            assertEquals(gpService.retrieveByID(gp.getId()).getScore(), game1.getScoreTotal());
+
+            // only the delete that removes the row takes it out of the summaries
+            List<Future<Integer>> deletes = new ArrayList<Future<Integer>>();
+            for (int idx = 0; idx < threads; idx++) {
+                deletes.add(executor.submit(() -> goService.delete(go.getId()) + gpService.delete(gp.getId())));
+            }
+            int deleted = 0;
+            for (Future<Integer> delete : deletes) {
+                deleted += delete.get();
+            }
+            assertEquals(2, deleted);
+            GameSummary game2 = summaryService.retrieveGameSummary(gameID);
+            assertEquals(0, game2.getOwners());
+            assertEquals(0.0, game2.getRevenue(), 0.001);
+            assertEquals(0, game2.getPlays());
+            assertEquals(0, game2.getScoreTotal());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRebuild() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        SummaryService summaryService = new SummaryServiceImpl(ds);
+        GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+
+        summaryService.rebuild();
+
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = TestingUtil.retrieveGamesPlayedForPlayer(ds, playerID).get(0);
+        List<GamesOwned> owned = goService.retrieveByGame(gameID);
+        List<GamesPlayed> played = gpService.retrieveByGame(gameID);
+        double revenue = 0;
+        for (GamesOwned go : owned) {
+            revenue += go.getPurchasePrice();
+        }
+        long scoreTotal = 0;
+        for (GamesPlayed gp : played) {
+            scoreTotal += gp.getScore();
+        }
+
+        GameSummary game = summaryService.retrieveGameSummary(gameID);
+        assertEquals(owned.size(), game.getOwners());
+        assertEquals(revenue, game.getRevenue(), 0.01 * (owned.size() + 1));
+        assertEquals(played.size(), game.getPlays());
+        assertEquals(scoreTotal, game.getScoreTotal());
+    }
+
+    @Test
+    public void testRowCounters() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        SummaryService summaryService = new SummaryServiceImpl(ds);
+        GameService gameService = new GameServiceImpl(ds);
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+
+        summaryService.rebuild();
+        long games = gameService.count(CountMode.COUNTER);
+        assertEquals(gameService.count(CountMode.SCAN), games);
+        long plays = gpService.count(CountMode.COUNTER);
+        assertEquals(gpService.count(CountMode.SCAN), plays);
+
+        // the counters move with the rows the services write
+        Game game = gameService.create(buildGame());
+        GamesPlayed gp = gpService.create(buildGamesPlayed(TestingUtil.getPlayerID(ds), game.getId(), 50));
+        assertEquals(games + 1, gameService.count(CountMode.COUNTER));
+        assertEquals(plays + 1, gpService.count(CountMode.COUNTER));
+
+        gpService.delete(gp.getId());
+        gameService.delete(game.getId());
+        assertEquals(games, gameService.count(CountMode.COUNTER));
+        assertEquals(plays, gpService.count(CountMode.COUNTER));
+    }
+
+    private Game buildGame()
+    {
+        Game result = new Game();
+        result.setTitle("Test Title");
+        result.setDescription("Test Description");
+        result.setReleaseDate(new Date());
+        result.setVersion("1.2.3");
+        return result;
+    }
+
+    private GamesOwned buildGamesOwned(Long playerID, Long gameID, float price)
+    {
+        GamesOwned go = new GamesOwned();
+        go.setPlayerID(playerID);
+        go.setGameID(gameID);
+        go.setPurchaseDate(new Date());
+        go.setPurchasePrice(price);
+        return go;
+    }
+
+    private GamesPlayed buildGamesPlayed(Long playerID, Long gameID, int score)
+    {
+        GamesPlayed gp = new GamesPlayed();
+        gp.setPlayerID(playerID);
+        gp.setGameID(gameID);
+        gp.setTimeFinished(new Date());
+        gp.setScore(score);
+        return gp;
+    }
+}
@@ -0,0 +1,180 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.TransactionTemplate;
+
+public class TransactionTemplateTestCase
+{
+    @Test
+    public void testServiceCallsJoinTheTransaction() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        TransactionTemplate transactions = new TransactionTemplate(ds);
+        GameService gameService = new GameServiceImpl(ds);
+
+        Long[] gameID = new Long[1];
+        try {
+            transactions.write(connection -> {
+                gameID[0] = gameService.create(buildGame()).getId();
+                // the service sees its own uncommitted row
+                assertEquals(gameID[0], gameService.retrieve(gameID[0]).getId());
+                throw new DAOException("abort");
+            });
+            fail("The transaction should have failed");
+        }
+        catch (DAOException ex) {
+            assertEquals("abort", ex.getMessage());
+        }
+        assertFalse(transactions.isActive());
+        // the nested create rolled back with the outer transaction
+        assertNull(gameService.retrieve(gameID[0]));
+    }
+
+    @Test
+    public void testRequiresNewCommitsOnItsOwn() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        TransactionTemplate transactions = new TransactionTemplate(ds);
+        GameService gameService = new GameServiceImpl(ds);
+
+        Long[] gameID = new Long[1];
+        try {
+            transactions.write(connection -> {
+                transactions.execute(TransactionTemplate.Propagation.REQUIRES_NEW,
+                        TransactionTemplate.DEFAULT_ISOLATION, false, inner -> {
+                            gameID[0] = gameService.create(buildGame()).getId();
+                            return null;
+                        });
+                throw new DAOException("abort");
+            });
+            fail("The transaction should have failed");
+        }
+        catch (DAOException ex) {
+            assertEquals("abort", ex.getMessage());
+        }
+        assertEquals(gameID[0], gameService.retrieve(gameID[0]).getId());
+        gameService.delete(gameID[0]);
+    }
+
+    @Test
+    public void testReadOnlyRejectsWrites() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        TransactionTemplate transactions = new TransactionTemplate(ds);
+        GameService gameService = new GameServiceImpl(ds);
+
+        int count = gameService.count();
+        try {
+            transactions.readOnly(connection -> gameService.create(buildGame()));
+            fail("A write joined a read-only transaction");
+        }
+        catch (DAOException ex) {
+            assertTrue(ex.getMessage().contains("read-only"));
+        }
+        assertEquals(count, gameService.count());
+    }
+
+    @Test
+    public void testFailedRollbackDiscardsConnection() throws Exception
+    {
+        List<String> calls = new ArrayList<String>();
+        TransactionTemplate transactions = new TransactionTemplate(fakeDataSource(calls, "rollback"));
+        try {
+            transactions.write(connection -> {
+                throw new DAOException("abort");
+            });
+            fail("The transaction should have failed");
+        }
+        catch (DAOException ex) {
+            assertEquals("abort", ex.getMessage());
+            assertEquals(1, ex.getSuppressed().length);
+        }
+        // restoring autocommit would have committed the work
+        assertEquals(Arrays.asList("setAutoCommit false", "rollback", "abort", "close"), calls);
+    }
+
+    @Test
+    public void testFailedCommitRollsBack() throws Exception
+    {
+        List<String> calls = new ArrayList<String>();
+        TransactionTemplate transactions = new TransactionTemplate(fakeDataSource(calls, "commit"));
+        try {
+            transactions.write(connection -> null);
+            fail("The commit should have failed");
+        }
+        catch (SQLException ex) {
+            assertEquals("commit failed", ex.getMessage());
+        }
+        assertEquals(Arrays.asList("setAutoCommit false", "commit", "rollback", "setAutoCommit true", "close"), calls);
+    }
+
+    // a DataSource whose connection records its calls; the named call fails
+    private DataSource fakeDataSource(List<String> calls, String failing)
+    {
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { Connection.class }, (self, method, args) -> {
+                    String name = method.getName();
+                    calls.add(args != null && args.length == 1 && args[0] instanceof Boolean ? name + " " + args[0] : name);
+                    if (name.equals(failing)) {
+                        throw new SQLException(name + " failed");
+                    }
+                    return null;
+                });
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (self, method, args) -> {
+                    switch (method.getName()) {
+                    case "getConnection":
+                        return connection;
+                    case "hashCode":
+                        // the transaction of a thread is bound to the DataSource
+                        return System.identityHashCode(self);
+                    case "equals":
+                        return self == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private Game buildGame()
+    {
+        Game game = new Game();
+        game.setTitle("Transaction Title");
+        game.setDescription("Transaction Description");
+        game.setReleaseDate(new Date());
+        game.setVersion("1.0.0");
+        return game;
+    }
+}
@@ -0,0 +1,154 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Date;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.SummaryService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+import cs4347.jdbcGame.services.impl.SummaryServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.TestingUtil;
+import cs4347.jdbcGame.util.UnitOfWork;
+
+public class UnitOfWorkTestCase
+{
+    @Test
+    public void testCommitsAllCalls() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        PlayerService playerService = new PlayerServiceImpl(ds);
+        SummaryService summaryService = new SummaryServiceImpl(ds);
+        Long gameID = TestingUtil.getGameID(ds);
+
+        Player player = UnitOfWork.run(ds, () -> createPlayerWithGame(ds, gameID));
+        assertFalse(UnitOfWork.isActive(ds));
+
+        assertEquals(1, playerService.countCreditCardsForPlayer(player.getId()));
+        assertEquals(1, new GamesOwnedServiceImpl(ds).retrieveByPlayer(player.getId()).size());
+        assertEquals(1, new GamesPlayedServiceImpl(ds).retrieveByPlayer(player.getId()).size());
+        assertEquals(1, summaryService.retrievePlayerSummary(player.getId()).getGamesOwned());
+    }
+
+    @Test
+    public void testSeesOwnGameChanges() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(ds);
+        Game game = gameService.create(buildGame());
+        // cached before the unit of work starts
+        gameService.retrieve(game.getId());
+
+        UnitOfWork.run(ds, () -> {
+            game.setTitle("Changed in the unit of work");
+            gameService.update(game);
+            assertEquals("Changed in the unit of work", gameService.retrieve(game.getId()).getTitle());
+            assertEquals("Changed in the unit of work",
+                    gameService.retrieveByIDs(Collections.singletonList(game.getId())).get(game.getId()).getTitle());
+
+            gameService.delete(game.getId());
+            assertNull(gameService.retrieve(game.getId()));
+            return null;
+        });
+        assertNull(gameService.retrieve(game.getId()));
+    }
+
+    @Test
+    public void testRollsBackAllCalls() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        PlayerService playerService = new PlayerServiceImpl(ds);
+        Long gameID = TestingUtil.getGameID(ds);
+
+        Long[] playerID = new Long[1];
+        try {
+            UnitOfWork.run(ds, () -> {
+                playerID[0] = createPlayerWithGame(ds, gameID).getId();
+                throw new DAOException("abort");
+            });
+            fail("The unit of work should have failed");
+        }
+        catch (DAOException ex) {
+            assertEquals("abort", ex.getMessage());
+        }
+        assertNull(playerService.retrieve(playerID[0]));
+        assertEquals(0, new GamesPlayedServiceImpl(ds).retrieveByPlayer(playerID[0]).size());
+    }
+
+    private Player createPlayerWithGame(DataSource ds, Long gameID) throws DAOException, SQLException
+    {
+        PlayerService playerService = new PlayerServiceImpl(ds);
+        GamesOwnedService gamesOwnedService = new GamesOwnedServiceImpl(ds);
+        GamesPlayedService gamesPlayedService = new GamesPlayedServiceImpl(ds);
+
+        Player player = new Player();
+        player.setFirstName("Unit First Name");
+        player.setLastName("Unit Last Name");
+        player.setJoinDate(new Date());
+        player.setEmail("unit@test.com");
+        CreditCard cc = new CreditCard();
+        cc.setCcName("Hank Snow");
+        cc.setCcNumber("2233344434");
+        cc.setExpDate("12/25");
+        cc.setSecurityCode(123);
+        player.getCreditCards().add(cc);
+        player = playerService.create(player);
+
+        GamesOwned go = new GamesOwned();
+        go.setPlayerID(player.getId());
+        go.setGameID(gameID);
+        go.setPurchaseDate(new Date());
+        go.setPurchasePrice(1.0f);
+        gamesOwnedService.create(go);
+
+        GamesPlayed gp = new GamesPlayed();
+        gp.setPlayerID(player.getId());
+        gp.setGameID(gameID);
+        gp.setTimeFinished(new Date());
+        gp.setScore(100);
+        gamesPlayedService.create(gp);
+        return player;
+    }
+
+    private Game buildGame()
+    {
+        Game result = new Game();
+        result.setTitle("Unit Title");
+        result.setDescription("Unit Description");
+        result.setReleaseDate(new Date());
+        result.setVersion("1.2.3");
+        return result;
+    }
+}
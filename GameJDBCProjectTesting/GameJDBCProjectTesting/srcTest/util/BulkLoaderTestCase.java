@@ -0,0 +1,213 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.BulkLoader;
+import cs4347.jdbcGame.testing.CsvCursor;
+import cs4347.jdbcGame.testing.CsvFile;
+
+/**
+ * Runs BulkLoader against a DataSource faked with a proxy that counts
+ * commits, rollbacks and open connections, so no database is needed.
+ */
+public class BulkLoaderTestCase
+{
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+    private final List<Long> written = Collections.synchronizedList(new ArrayList<Long>());
+
+    @Test
+    public void testLoadsEveryRow() throws Exception
+    {
+        BulkLoader loader = new BulkLoader(dataSource(), 3, 1, 7, 2);
+        long rows = loader.load("numbers", LongStream.range(0, 100).iterator(),
+                (connection, chunk) -> written.addAll(chunk));
+
+        assertEquals(100, rows);
+        assertEquals(100, written.size());
+        assertEquals(100, written.stream().distinct().count());
+        // 14 full chunks of 7 and one of 2, each committed
+        assertEquals(15, commits.get());
+        assertEquals(0, rollbacks.get());
+        assertEquals(0, openConnections.get());
+    }
+
+    @Test
+    public void testWriterFailureIsThrown() throws Exception
+    {
+        SQLException failure = new SQLException("Duplicate entry");
+        // a small queue, so the producer is blocked when the writer fails
+        BulkLoader loader = new BulkLoader(dataSource(), 2, 1, 10, 1);
+        try {
+            loader.load("numbers", LongStream.range(0, 10000).iterator(), (connection, chunk) -> {
+                if (chunk.contains(55L)) {
+                    throw failure;
+                }
+                written.addAll(chunk);
+            });
+            fail("The writer failure must stop the load");
+        }
+        catch (SQLException ex) {
+            assertSame(failure, ex);
+        }
+        assertEquals(1, rollbacks.get());
+        assertEquals(commits.get() * 10, written.size());
+        assertTrue(written.size() < 10000);
+        assertEquals(0, openConnections.get());
+    }
+
+    @Test
+    public void testProducerFailureIsThrown() throws Exception
+    {
+        IllegalStateException failure = new IllegalStateException("generator broke");
+        Iterator<Long> rows = new Iterator<Long>() {
+            long next;
+
+            @Override
+            public boolean hasNext()
+            {
+                return true;
+            }
+
+            @Override
+            public Long next()
+            {
+                if (next == 25) {
+                    throw failure;
+                }
+                return next++;
+            }
+        };
+        BulkLoader loader = new BulkLoader(dataSource(), 2, 1, 10, 4);
+        try {
+            loader.load("numbers", rows, (connection, chunk) -> written.addAll(chunk));
+            fail("The producer failure must stop the load");
+        }
+        catch (IllegalStateException ex) {
+            assertSame(failure, ex);
+        }
+        // the chunks before the failure were committed, the partial one was not
+        assertEquals(20, written.size());
+        assertEquals(0, openConnections.get());
+    }
+
+    @Test
+    public void testLoadsCsvFile() throws Exception
+    {
+        File file = csv(500, null);
+        try {
+            BulkLoader loader = new BulkLoader(dataSource(), 2, 3, 16, 4);
+            long rows = loader.load("numbers", new CsvFile(file), CsvCursor::nextLong,
+                    (connection, chunk) -> written.addAll(chunk));
+            assertEquals(500, rows);
+            assertEquals(500, written.stream().distinct().count());
+            assertEquals(0, openConnections.get());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParserFailureIsThrown() throws Exception
+    {
+        File file = csv(5000, "oops");
+        try {
+            BulkLoader loader = new BulkLoader(dataSource(), 2, 3, 16, 1);
+            loader.load("numbers", new CsvFile(file), CsvCursor::nextLong,
+                    (connection, chunk) -> written.addAll(chunk));
+            fail("The parse error must stop the load");
+        }
+        catch (CsvCursor.CsvException ex) {
+            assertTrue(ex.getMessage().contains("Expected a number"));
+        }
+        finally {
+            file.delete();
+        }
+        assertTrue(written.size() < 5000);
+        assertEquals(0, openConnections.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroWriters()
+    {
+        new BulkLoader(dataSource(), 0, 1, 10, 1);
+    }
+
+    // a file of the numbers 0..rows-1, one per line, with bad in the middle if given
+    private static File csv(int rows, String bad) throws Exception
+    {
+        StringBuilder text = new StringBuilder();
+        for (int row = 0; row < rows; row++) {
+            text.append(bad != null && row == rows / 2 ? bad : Integer.toString(row)).append('\n');
+        }
+        File file = File.createTempFile("bulkloader", ".csv");
+        Files.write(file.toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private DataSource dataSource()
+    {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (self, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    openConnections.incrementAndGet();
+                    return connection();
+                });
+    }
+
+    private Connection connection()
+    {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (self, method, args) -> {
+                    switch (method.getName()) {
+                    case "setAutoCommit":
+                        return null;
+                    case "commit":
+                        commits.incrementAndGet();
+                        return null;
+                    case "rollback":
+                        rollbacks.incrementAndGet();
+                        return null;
+                    case "close":
+                        openConnections.decrementAndGet();
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
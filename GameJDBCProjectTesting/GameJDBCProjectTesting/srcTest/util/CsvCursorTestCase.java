@@ -0,0 +1,169 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.CsvCursor;
+import cs4347.jdbcGame.testing.CsvFile;
+
+/**
+ * Checks the hand written M/d/yyyy decoder of CsvCursor against
+ * SimpleDateFormat, which the loader used before. Both read the default
+ * time zone, so each test sets it and tearDown restores it.
+ */
+public class CsvCursorTestCase
+{
+    // zones with DST, including one that moved clocks at midnight
+    private static final String[] ZONES = { "America/Chicago", "America/New_York", "Europe/London",
+            "America/Sao_Paulo", "Australia/Sydney", "UTC" };
+
+    private TimeZone savedZone;
+
+    @Before
+    public void setUp()
+    {
+        savedZone = TimeZone.getDefault();
+    }
+
+    @After
+    public void tearDown()
+    {
+        TimeZone.setDefault(savedZone);
+    }
+
+    @Test
+    public void testSingleDigitMonthAndDay() throws Exception
+    {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Chicago"));
+        assertSameDates("1/2/2017", "01/02/2017", "1/12/2017", "10/2/2017", "12/31/1999");
+    }
+
+    @Test
+    public void testLeapDays() throws Exception
+    {
+        for (String zone : ZONES) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zone));
+            assertSameDates("2/29/2000", "2/29/2016", "2/28/2100", "3/1/2100", "2/29/1996", "3/1/2000");
+        }
+    }
+
+    @Test
+    public void testDstTransitionDates() throws Exception
+    {
+        for (String zone : ZONES) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zone));
+            // US and EU spring forward / fall back days
+            assertSameDates("3/10/2019", "11/3/2019", "3/31/2019", "10/27/2019", "3/11/2007", "4/2/2006");
+            // Sao Paulo skipped local midnight on these days
+            assertSameDates("11/4/2018", "10/16/2016", "2/17/2019");
+            // Sydney changes in April and October
+            assertSameDates("4/7/2019", "10/6/2019");
+        }
+    }
+
+    @Test
+    public void testEveryDayOfSeveralYears() throws Exception
+    {
+        for (String zone : ZONES) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zone));
+            Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set(2015, Calendar.JANUARY, 1);
+            StringBuilder csv = new StringBuilder();
+            while (calendar.get(Calendar.YEAR) < 2021) {
+                csv.append(calendar.get(Calendar.MONTH) + 1).append('/').append(calendar.get(Calendar.DAY_OF_MONTH))
+                        .append('/').append(calendar.get(Calendar.YEAR)).append('\n');
+                calendar.add(Calendar.DAY_OF_MONTH, 1);
+            }
+            SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
+            CsvCursor cursor = cursor(csv.toString());
+            int rows = 0;
+            for (String date : csv.toString().split("\n")) {
+                assertTrue(cursor.nextRow());
+                assertEquals(zone + " " + date, sdf.parse(date).getTime(), cursor.nextDate().getTime());
+                rows++;
+            }
+            assertFalse(cursor.nextRow());
+            assertEquals(6 * 365 + 2, rows);
+        }
+    }
+
+    @Test(expected = CsvCursor.CsvException.class)
+    public void testBadDate() throws Exception
+    {
+        CsvCursor cursor = cursor("13/1/2019\n");
+        assertTrue(cursor.nextRow());
+        cursor.nextDate();
+    }
+
+    @Test
+    public void testFileWithoutTrailingNewline() throws Exception
+    {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        File file = File.createTempFile("csvcursor", ".csv");
+        try {
+            Files.write(file.toPath(), "1,alpha,3/10/2019\r\n2,beta,2/29/2016\n\n3,gamma,11/3/2019"
+                    .getBytes(StandardCharsets.UTF_8));
+            SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
+
+            List<String> rows = new CsvFile(file).readAll(cursor -> cursor.nextLong() + " " + cursor.nextString()
+                    + " " + cursor.nextDate().getTime());
+            assertEquals(3, rows.size());
+            assertEquals("1 alpha " + sdf.parse("03/10/2019").getTime(), rows.get(0));
+            assertEquals("2 beta " + sdf.parse("02/29/2016").getTime(), rows.get(1));
+            assertEquals("3 gamma " + sdf.parse("11/03/2019").getTime(), rows.get(2));
+
+            // each range must still end on the last, unterminated row
+            int count = 0;
+            for (CsvCursor cursor : new CsvFile(file).split(4)) {
+                while (cursor.nextRow()) {
+                    count++;
+                }
+            }
+            assertEquals(3, count);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    private static void assertSameDates(String... dates) throws Exception
+    {
+        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
+        CsvCursor cursor = cursor(String.join(",", dates) + "\n");
+        assertTrue(cursor.nextRow());
+        for (String date : dates) {
+            assertEquals(TimeZone.getDefault().getID() + " " + date, sdf.parse(date).getTime(),
+                    cursor.nextDate().getTime());
+        }
+    }
+
+    private static CsvCursor cursor(String csv)
+    {
+        return new CsvCursor(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)), 0);
+    }
+}
@@ -0,0 +1,155 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.util.EntityCache;
+
+public class EntityCacheTestCase
+{
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Test
+    public void testHitAndMiss()
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(10, HOUR);
+        assertNull(cache.get(1L));
+        assertTrue(cache.put(1L, "one", cache.generation()));
+        assertEquals("one", cache.get(1L));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed()
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(2, HOUR);
+        long generation = cache.generation();
+        cache.put(1L, "one", generation);
+        cache.put(2L, "two", generation);
+        // reading 1 makes 2 the least recently used entry
+        assertEquals("one", cache.get(1L));
+        cache.put(3L, "three", generation);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(2L));
+        assertEquals("one", cache.get(1L));
+        assertEquals("three", cache.get(3L));
+    }
+
+    @Test
+    public void testSizeBoundWithSegments()
+    {
+        // large enough to be split into segments
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(1000, HOUR);
+        long generation = cache.generation();
+        for (long id = 0; id < 5000; id++) {
+            cache.put(id, "game" + id, generation);
+        }
+        assertEquals(1000, cache.size());
+        assertEquals(4000, cache.getEvictions());
+        // the most recent entries of every segment are still there
+        assertEquals("game4999", cache.get(4999L));
+    }
+
+    @Test
+    public void testExpires() throws Exception
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(10, 50);
+        cache.put(1L, "one", cache.generation());
+        assertEquals("one", cache.get(1L));
+        Thread.sleep(100);
+
+        assertNull(cache.get(1L));
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testStalePutIsIgnored()
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(10, HOUR);
+        // a reader notes the generation, then loads the row
+        long generation = cache.generation();
+        // meanwhile a writer commits and invalidates
+        cache.invalidate(1L);
+
+        assertFalse(cache.put(1L, "old", generation));
+        assertNull(cache.get(1L));
+        assertTrue(cache.put(1L, "new", cache.generation()));
+        assertEquals("new", cache.get(1L));
+    }
+
+    @Test
+    public void testInvalidate()
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(1000, HOUR);
+        long generation = cache.generation();
+        for (long id = 0; id < 100; id++) {
+            cache.put(id, "game" + id, generation);
+        }
+        cache.invalidate(7L);
+        assertNull(cache.get(7L));
+        assertEquals(99, cache.size());
+
+        long before = cache.generation();
+        cache.invalidateAll();
+        assertTrue(cache.generation() != before);
+        assertEquals(0, cache.size());
+        // a load that started before invalidateAll cannot store its value
+        assertFalse(cache.put(8L, "game8", before));
+    }
+
+    @Test
+    public void testConcurrentPutAndInvalidate() throws Exception
+    {
+        // a put racing an invalidate of the same key is either rejected or
+        // removed; the cache never ends up holding the old value
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(1000, HOUR);
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        for (int round = 0; round < 2000; round++) {
+            long generation = cache.generation();
+            List<Thread> threads = new ArrayList<Thread>();
+            threads.add(new Thread(() -> cache.put(1L, "old", generation)));
+            threads.add(new Thread(() -> cache.invalidate(1L)));
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (cache.get(1L) != null) {
+                failure.set(new AssertionError("Stale value cached in round " + round));
+                break;
+            }
+        }
+        assertNull(failure.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroSize()
+    {
+        new EntityCache<Long, String>(0, HOUR);
+    }
+}
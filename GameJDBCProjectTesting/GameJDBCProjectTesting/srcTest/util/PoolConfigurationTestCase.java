@@ -0,0 +1,224 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.testing.MonitoredDataSource;
+
+/**
+ * Checks the pool settings read by DataSourceManager and the metrics of
+ * MonitoredDataSource. The pool gets its connections from a Driver faked
+ * with a proxy, so no database is needed.
+ */
+public class PoolConfigurationTestCase
+{
+    private MonitoredDataSource ds = new MonitoredDataSource();
+
+    @After
+    public void tearDown() throws Exception
+    {
+        ds.close();
+    }
+
+    @Test
+    public void testDefaults()
+    {
+        DataSourceManager.configurePool(ds, new Properties());
+
+        assertEquals(4, ds.getInitialSize());
+        assertEquals(4, ds.getMinIdle());
+        assertEquals(32, ds.getMaxIdle());
+        assertEquals(32, ds.getMaxTotal());
+        assertEquals(5000, ds.getMaxWaitMillis());
+        assertFalse(ds.getTestOnBorrow());
+        assertTrue(ds.getTestWhileIdle());
+        assertEquals(30 * 60 * 1000L, ds.getMaxConnLifetimeMillis());
+        assertTrue(ds.isPoolPreparedStatements());
+        assertEquals(100, ds.getMaxOpenPreparedStatements());
+        assertTrue(ds.getRollbackOnReturn());
+        // left to Connection.isValid() and the driver
+        assertNull(ds.getValidationQuery());
+        assertNull(ds.getDefaultQueryTimeout());
+    }
+
+    @Test
+    public void testOverrides()
+    {
+        Properties props = new Properties();
+        props.setProperty("pool.maxTotal", " 8 ");
+        props.setProperty("pool.maxWaitMillis", "250");
+        props.setProperty("pool.testOnBorrow", "TRUE");
+        props.setProperty("pool.poolPreparedStatements", "false");
+        props.setProperty("pool.validationQuery", "SELECT 1");
+        props.setProperty("pool.defaultTransactionIsolation", String.valueOf(Connection.TRANSACTION_READ_COMMITTED));
+        props.setProperty("pool.defaultQueryTimeout", "30");
+        // settings without the prefix belong to something else
+        props.setProperty("maxIdle", "1");
+        DataSourceManager.configurePool(ds, props);
+
+        assertEquals(8, ds.getMaxTotal());
+        assertEquals(32, ds.getMaxIdle());
+        assertEquals(250, ds.getMaxWaitMillis());
+        assertTrue(ds.getTestOnBorrow());
+        assertFalse(ds.isPoolPreparedStatements());
+        assertEquals("SELECT 1", ds.getValidationQuery());
+        assertEquals(Connection.TRANSACTION_READ_COMMITTED, ds.getDefaultTransactionIsolation());
+        assertEquals(Integer.valueOf(30), ds.getDefaultQueryTimeout());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testBadNumber()
+    {
+        Properties props = new Properties();
+        props.setProperty("pool.maxTotal", "lots");
+        DataSourceManager.configurePool(ds, props);
+    }
+
+    @Test
+    public void testMetrics() throws Exception
+    {
+        usePool(2);
+        // no pool yet
+        assertEquals(0, ds.getMetrics().getBorrowed());
+
+        Connection c1 = ds.getConnection();
+        Connection c2 = ds.getConnection();
+        MonitoredDataSource.PoolMetrics metrics = ds.getMetrics();
+        assertEquals(2, metrics.getActive());
+        assertEquals(0, metrics.getIdle());
+        assertEquals(2, metrics.getBorrowed());
+        assertEquals(2, metrics.getCreated());
+
+        c1.close();
+        metrics = ds.getMetrics();
+        assertEquals(1, metrics.getActive());
+        assertEquals(1, metrics.getIdle());
+
+        // the idle connection is reused, not created again
+        Connection c3 = ds.getConnection();
+        metrics = ds.getMetrics();
+        assertEquals(3, metrics.getBorrowed());
+        assertEquals(2, metrics.getCreated());
+        assertEquals(0, metrics.getBorrowFailures());
+        c2.close();
+        c3.close();
+    }
+
+    @Test
+    public void testBorrowFailuresCounted() throws Exception
+    {
+        usePool(1);
+        Connection c1 = ds.getConnection();
+        try {
+            // the only connection is out, so this one times out
+            ds.getConnection();
+            fail("The pool is exhausted");
+        }
+        catch (SQLException ex) {
+            // expected
+        }
+        assertEquals(1, ds.getBorrowFailures());
+        assertEquals(1, ds.getMetrics().getBorrowFailures());
+        assertEquals(1, ds.getMetrics().getActive());
+        c1.close();
+    }
+
+    // a small pool without background eviction over the fake driver
+    private void usePool(int maxTotal)
+    {
+        Properties props = new Properties();
+        props.setProperty("pool.initialSize", "0");
+        props.setProperty("pool.minIdle", "0");
+        props.setProperty("pool.maxTotal", String.valueOf(maxTotal));
+        props.setProperty("pool.maxWaitMillis", "50");
+        props.setProperty("pool.timeBetweenEvictionRunsMillis", "-1");
+        DataSourceManager.configurePool(ds, props);
+        ds.setDriver(fakeDriver());
+        ds.setUrl("jdbc:fake:games");
+    }
+
+    private static Driver fakeDriver()
+    {
+        return proxy(Driver.class, (self, method, args) -> {
+            switch (method.getName()) {
+            case "acceptsURL":
+                return true;
+            case "connect":
+                return fakeConnection();
+            default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    // answers every call with a harmless default, e.g. isValid() with true
+    private static Connection fakeConnection()
+    {
+        boolean[] closed = new boolean[1];
+        return proxy(Connection.class, (self, method, args) -> {
+            switch (method.getName()) {
+            case "isValid":
+            case "getAutoCommit":
+                return true;
+            case "isClosed":
+                return closed[0];
+            case "close":
+                closed[0] = true;
+                return null;
+            case "getTransactionIsolation":
+                return Connection.TRANSACTION_REPEATABLE_READ;
+            default:
+                Class<?> type = method.getReturnType();
+                if (type == boolean.class) {
+                    return false;
+                }
+                if (type == int.class) {
+                    return 0;
+                }
+                return null;
+            }
+        });
+    }
+
+    // equals and hashCode are identity, as the pool keeps connections in maps
+    private static <T> T proxy(Class<T> type, InvocationHandler handler)
+    {
+        return type.cast(Proxy.newProxyInstance(PoolConfigurationTestCase.class.getClassLoader(), new Class<?>[] { type },
+                (self, method, args) -> {
+                    switch (method.getName()) {
+                    case "equals":
+                        return self == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "toString":
+                        return type.getSimpleName();
+                    default:
+                        return handler.invoke(self, method, args);
+                    }
+                }));
+    }
+}
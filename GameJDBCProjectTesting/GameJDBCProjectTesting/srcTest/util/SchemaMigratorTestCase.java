@@ -0,0 +1,328 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.SchemaMigrator;
+
+/**
+ * Runs SchemaMigrator against scripts served from memory and a DataSource
+ * faked with proxies, which keeps SCHEMA_VERSION in a map and records the
+ * statements the scripts execute.
+ */
+public class SchemaMigratorTestCase
+{
+    private static final String LOCATION = "migrations/";
+
+    private final Map<String, String> resources = new HashMap<String, String>();
+    private final FakeDatabase database = new FakeDatabase();
+
+    @Test
+    public void testShippedMigrationsLoad() throws Exception
+    {
+        List<SchemaMigrator.Migration> migrations = new SchemaMigrator(null).loadMigrations();
+        assertFalse(migrations.isEmpty());
+        for (int idx = 0; idx < migrations.size(); idx++) {
+            assertEquals(idx + 1, migrations.get(idx).getVersion());
+            assertFalse(migrations.get(idx).getStatements().isEmpty());
+        }
+    }
+
+    @Test
+    public void testOrderedByVersion() throws Exception
+    {
+        // the list order does not matter, and V10 sorts after V9
+        script("V10__last.sql", "CREATE TABLE c (id INT);");
+        script("V2__second.sql", "CREATE TABLE b (id INT);");
+        script("V1__first_one.sql", "-- a comment", "CREATE TABLE a (", "  id INT", ");", "", "INSERT INTO a VALUES (1)");
+        list("# comment", "V10__last.sql", "", "V2__second.sql", "V1__first_one.sql");
+
+        List<SchemaMigrator.Migration> migrations = migrator().loadMigrations();
+        assertEquals(3, migrations.size());
+        assertEquals(1, migrations.get(0).getVersion());
+        assertEquals(2, migrations.get(1).getVersion());
+        assertEquals(10, migrations.get(2).getVersion());
+        assertEquals("first one", migrations.get(0).getDescription());
+        assertEquals(Arrays.asList("CREATE TABLE a (\n  id INT\n)", "INSERT INTO a VALUES (1)"),
+                migrations.get(0).getStatements());
+    }
+
+    @Test
+    public void testChecksumIgnoresLineEndings() throws Exception
+    {
+        script("V1__a.sql", "CREATE TABLE a (id INT);", "CREATE TABLE b (id INT);");
+        list("V1__a.sql");
+        String unix = migrator().loadMigrations().get(0).getChecksum();
+        resources.put(LOCATION + "V1__a.sql", "CREATE TABLE a (id INT);\r\nCREATE TABLE b (id INT);\r\n");
+        assertEquals(unix, migrator().loadMigrations().get(0).getChecksum());
+    }
+
+    @Test(expected = DAOException.class)
+    public void testDuplicateVersion() throws Exception
+    {
+        script("V1__a.sql", "CREATE TABLE a (id INT);");
+        script("V01__b.sql", "CREATE TABLE b (id INT);");
+        list("V1__a.sql", "V01__b.sql");
+        migrator().loadMigrations();
+    }
+
+    @Test(expected = DAOException.class)
+    public void testBadFileName() throws Exception
+    {
+        script("create_a.sql", "CREATE TABLE a (id INT);");
+        list("create_a.sql");
+        migrator().loadMigrations();
+    }
+
+    @Test(expected = DAOException.class)
+    public void testMissingScript() throws Exception
+    {
+        list("V1__missing.sql");
+        migrator().loadMigrations();
+    }
+
+    @Test
+    public void testMigrateIsIdempotent() throws Exception
+    {
+        script("V1__a.sql", "CREATE TABLE a (id INT);");
+        script("V2__b.sql", "CREATE TABLE b (id INT);", "CREATE INDEX b_id ON b (id);");
+        list("V1__a.sql", "V2__b.sql");
+
+        assertEquals(2, migrator().migrate().size());
+        assertEquals(Arrays.asList("CREATE TABLE a (id INT)", "CREATE TABLE b (id INT)", "CREATE INDEX b_id ON b (id)"),
+                database.executed);
+        assertEquals(2, migrator().currentVersion());
+
+        // a second run finds everything recorded and executes nothing
+        assertTrue(migrator().migrate().isEmpty());
+        assertEquals(3, database.executed.size());
+
+        // a new script is the only one applied
+        script("V3__c.sql", "CREATE TABLE c (id INT);");
+        list("V1__a.sql", "V2__b.sql", "V3__c.sql");
+        List<SchemaMigrator.Migration> applied = migrator().migrate();
+        assertEquals(1, applied.size());
+        assertEquals(3, applied.get(0).getVersion());
+        assertEquals("CREATE TABLE c (id INT)", database.executed.get(3));
+        assertEquals(3, migrator().currentVersion());
+        assertFalse(database.locked);
+    }
+
+    @Test
+    public void testChangedScriptIsRejected() throws Exception
+    {
+        script("V1__a.sql", "CREATE TABLE a (id INT);");
+        list("V1__a.sql");
+        migrator().migrate();
+
+        script("V1__a.sql", "CREATE TABLE a (id BIGINT);");
+        try {
+            migrator().migrate();
+            fail("An edited migration must not be accepted");
+        }
+        catch (DAOException ex) {
+            assertTrue(ex.getMessage().contains("changed"));
+        }
+        assertEquals(1, database.executed.size());
+        assertFalse(database.locked);
+    }
+
+    @Test
+    public void testFailedScriptIsNotRecorded() throws Exception
+    {
+        script("V1__a.sql", "CREATE TABLE a (id INT);");
+        script("V2__b.sql", "CREATE TABLE b (id INT);", "FAIL;", "CREATE TABLE c (id INT);");
+        list("V1__a.sql", "V2__b.sql");
+        try {
+            migrator().migrate();
+            fail("The failing statement must stop the migration");
+        }
+        catch (DAOException ex) {
+            assertTrue(ex.getMessage().contains("FAIL"));
+        }
+        // V1 is recorded, V2 stopped at the failing statement and is not
+        assertEquals(1, migrator().currentVersion());
+        assertEquals(Arrays.asList("CREATE TABLE a (id INT)", "CREATE TABLE b (id INT)"), database.executed);
+        assertFalse(database.locked);
+        assertEquals(0, database.openConnections);
+    }
+
+    private SchemaMigrator migrator()
+    {
+        ClassLoader loader = new ClassLoader(null) {
+            @Override
+            public InputStream getResourceAsStream(String name)
+            {
+                String text = resources.get(name);
+                return text == null ? null : new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        return new SchemaMigrator(database.dataSource, LOCATION, loader);
+    }
+
+    private void script(String name, String... lines)
+    {
+        resources.put(LOCATION + name, String.join("\n", lines) + "\n");
+    }
+
+    private void list(String... names)
+    {
+        script("migrations.list", names);
+    }
+
+    // just enough of MySQL for the statements SchemaMigrator sends
+    private static class FakeDatabase
+    {
+        final Map<Integer, String> versions = new TreeMap<Integer, String>();
+        final List<String> executed = new ArrayList<String>();
+        boolean locked;
+        int openConnections;
+
+        final DataSource dataSource = proxy(DataSource.class, (self, method, args) -> {
+            if (!method.getName().equals("getConnection")) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            openConnections++;
+            return connection();
+        });
+
+        private Connection connection()
+        {
+            return proxy(Connection.class, (self, method, args) -> {
+                switch (method.getName()) {
+                case "setAutoCommit":
+                    return null;
+                case "createStatement":
+                    return statement();
+                case "prepareStatement":
+                    return insertVersion();
+                case "close":
+                    openConnections--;
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        private Statement statement()
+        {
+            return proxy(Statement.class, (self, method, args) -> {
+                String sql = args == null ? null : (String) args[0];
+                switch (method.getName()) {
+                case "executeUpdate":
+                    assertTrue(sql.startsWith("CREATE TABLE IF NOT EXISTS schema_version"));
+                    return 0;
+                case "executeQuery":
+                    if (sql.contains("GET_LOCK")) {
+                        assertFalse(locked);
+                        locked = true;
+                        return resultSet(Collections.singletonList(new Object[] { 1 }));
+                    }
+                    if (sql.contains("RELEASE_LOCK")) {
+                        locked = false;
+                        return resultSet(Collections.singletonList(new Object[] { 1 }));
+                    }
+                    List<Object[]> rows = new ArrayList<Object[]>();
+                    for (Map.Entry<Integer, String> entry : versions.entrySet()) {
+                        rows.add(new Object[] { entry.getKey(), entry.getValue() });
+                    }
+                    return resultSet(rows);
+                case "execute":
+                    if (sql.startsWith("FAIL")) {
+                        throw new SQLException("You have an error in your SQL syntax");
+                    }
+                    executed.add(sql);
+                    return false;
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        private PreparedStatement insertVersion()
+        {
+            Object[] params = new Object[5];
+            return proxy(PreparedStatement.class, (self, method, args) -> {
+                switch (method.getName()) {
+                case "setInt":
+                case "setString":
+                case "setLong":
+                    params[(Integer) args[0]] = args[1];
+                    return null;
+                case "executeUpdate":
+                    versions.put((Integer) params[1], (String) params[3]);
+                    return 1;
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        private static ResultSet resultSet(List<Object[]> rows)
+        {
+            Iterator<Object[]> iterator = rows.iterator();
+            Object[][] current = new Object[1][];
+            return proxy(ResultSet.class, (self, method, args) -> {
+                switch (method.getName()) {
+                case "next":
+                    current[0] = iterator.hasNext() ? iterator.next() : null;
+                    return current[0] != null;
+                case "getInt":
+                case "getString":
+                    return current[0][(Integer) args[0] - 1];
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler)
+    {
+        return type.cast(Proxy.newProxyInstance(SchemaMigratorTestCase.class.getClassLoader(), new Class<?>[] { type },
+                handler));
+    }
+}
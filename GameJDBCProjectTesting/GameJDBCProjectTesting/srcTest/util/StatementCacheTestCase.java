@@ -0,0 +1,227 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Runs StatementCache against connections and statements faked with
+ * proxies, so no database is needed. A wrapper stands for the Connection a
+ * pool hands out per borrow; the unwrapper maps it to its physical one.
+ */
+public class StatementCacheTestCase
+{
+    private final Map<Connection, Connection> physicalOf = new ConcurrentHashMap<Connection, Connection>();
+
+    @Before
+    public void setUp()
+    {
+        StatementCache.setConnectionUnwrapper(connection -> physicalOf.getOrDefault(connection, connection));
+        StatementCache.setEnabled(true);
+        StatementCache.resetStatistics();
+    }
+
+    @After
+    public void tearDown()
+    {
+        StatementCache.setConnectionUnwrapper(connection -> connection);
+        StatementCache.setMaxStatementsPerConnection(64);
+        StatementCache.setEnabled(true);
+    }
+
+    @Test
+    public void testHitAndMiss() throws Exception
+    {
+        FakeConnection physical = new FakeConnection();
+        Connection connection = physical.proxy;
+
+        PreparedStatement ps1 = StatementCache.prepare(connection, "SELECT 1");
+        PreparedStatement ps2 = StatementCache.prepare(connection, "SELECT 1");
+        assertSame(ps1, ps2);
+        // the generated keys flag is part of the key
+        PreparedStatement ps3 = StatementCache.prepare(connection, "SELECT 1", Statement.RETURN_GENERATED_KEYS);
+        assertNotSame(ps1, ps3);
+        StatementCache.release(ps1);
+        assertFalse(ps1.isClosed());
+
+        assertEquals(1, StatementCache.getHits());
+        assertEquals(2, StatementCache.getMisses());
+        assertEquals(2, physical.prepared.size());
+        StatementCache.clear(connection);
+        assertTrue(ps1.isClosed());
+    }
+
+    @Test
+    public void testReusedAcrossBorrows() throws Exception
+    {
+        FakeConnection physical = new FakeConnection();
+        Connection borrow1 = physical.borrow();
+        PreparedStatement ps1 = StatementCache.prepare(borrow1, "SELECT 2");
+        borrow1.close();
+
+        // a new wrapper of the same physical connection finds the statement
+        Connection borrow2 = physical.borrow();
+        assertSame(ps1, StatementCache.prepare(borrow2, "SELECT 2"));
+        assertEquals(1, StatementCache.getHits());
+        assertEquals(1, physical.prepared.size());
+        StatementCache.clear(borrow2);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception
+    {
+        StatementCache.setMaxStatementsPerConnection(2);
+        FakeConnection physical = new FakeConnection();
+        Connection connection = physical.proxy;
+
+        PreparedStatement a = StatementCache.prepare(connection, "SELECT 'a'");
+        PreparedStatement b = StatementCache.prepare(connection, "SELECT 'b'");
+        // using a makes b the least recently used one
+        StatementCache.prepare(connection, "SELECT 'a'");
+        StatementCache.prepare(connection, "SELECT 'c'");
+
+        assertEquals(1, StatementCache.getEvictions());
+        assertTrue(b.isClosed());
+        assertFalse(a.isClosed());
+        assertSame(a, StatementCache.prepare(connection, "SELECT 'a'"));
+        assertNotSame(b, StatementCache.prepare(connection, "SELECT 'b'"));
+        StatementCache.clear(connection);
+    }
+
+    @Test
+    public void testClosedStatementIsPreparedAgain() throws Exception
+    {
+        FakeConnection physical = new FakeConnection();
+        Connection connection = physical.proxy;
+
+        PreparedStatement ps1 = StatementCache.prepare(connection, "SELECT 3");
+        ps1.close();
+        PreparedStatement ps2 = StatementCache.prepare(connection, "SELECT 3");
+        assertNotSame(ps1, ps2);
+        assertEquals(0, StatementCache.getHits());
+        StatementCache.clear(connection);
+    }
+
+    @Test
+    public void testDisabled() throws Exception
+    {
+        StatementCache.setEnabled(false);
+        FakeConnection physical = new FakeConnection();
+        Connection connection = physical.proxy;
+
+        PreparedStatement ps1 = StatementCache.prepare(connection, "SELECT 4");
+        StatementCache.release(ps1);
+        assertTrue(ps1.isClosed());
+        assertNotSame(ps1, StatementCache.prepare(connection, "SELECT 4"));
+        assertEquals(0, StatementCache.getHits());
+    }
+
+    // a Connection whose statements only track whether they are closed
+    private class FakeConnection
+    {
+        final List<PreparedStatement> prepared = new ArrayList<PreparedStatement>();
+        final Connection proxy;
+        boolean closed;
+
+        FakeConnection()
+        {
+            proxy = proxy(Connection.class, (self, method, args) -> {
+                switch (method.getName()) {
+                case "prepareStatement":
+                    PreparedStatement ps = newStatement();
+                    prepared.add(ps);
+                    return ps;
+                case "isClosed":
+                    return closed;
+                case "close":
+                    closed = true;
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        // a new handle per borrow, as a pool gives out
+        Connection borrow()
+        {
+            boolean[] returned = new boolean[1];
+            Connection wrapper = proxy(Connection.class, (self, method, args) -> {
+                switch (method.getName()) {
+                case "isClosed":
+                    return returned[0];
+                case "close":
+                    returned[0] = true;
+                    return null;
+                default:
+                    return method.invoke(proxy, args);
+                }
+            });
+            physicalOf.put(wrapper, proxy);
+            return wrapper;
+        }
+
+        private PreparedStatement newStatement()
+        {
+            boolean[] statementClosed = new boolean[1];
+            return proxy(PreparedStatement.class, (self, method, args) -> {
+                switch (method.getName()) {
+                case "isClosed":
+                    return statementClosed[0];
+                case "close":
+                    statementClosed[0] = true;
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+    }
+
+    // equals and hashCode are those of the proxy object, so proxies work as map keys
+    private static <T> T proxy(Class<T> type, InvocationHandler handler)
+    {
+        Object proxy = Proxy.newProxyInstance(StatementCacheTestCase.class.getClassLoader(), new Class<?>[] { type },
+                (self, method, args) -> {
+                    switch (method.getName()) {
+                    case "equals":
+                        return self == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "toString":
+                        return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                    default:
+                        return handler.invoke(self, method, args);
+                    }
+                });
+        return type.cast(proxy);
+    }
+}